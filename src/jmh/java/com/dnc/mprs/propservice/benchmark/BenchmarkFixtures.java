@@ -0,0 +1,202 @@
+package com.dnc.mprs.propservice.benchmark;
+
+import com.dnc.mprs.propservice.config.DatabaseConfiguration;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.rowmapper.ColumnConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.r2dbc.spi.ConnectionFactories;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * The components and data measured by the benchmarks, wired the way the application context wires them, without starting it.
+ */
+final class BenchmarkFixtures {
+
+    static final Instant CREATED_AT = Instant.parse("2024-01-15T09:30:00Z");
+
+    private static final R2dbcDialect DIALECT = MySqlDialect.INSTANCE;
+
+    private final DatabaseConfiguration databaseConfiguration = new DatabaseConfiguration();
+
+    private final R2dbcCustomConversions conversions = databaseConfiguration.r2dbcCustomConversions(DIALECT);
+
+    private final MappingR2dbcConverter converter;
+
+    BenchmarkFixtures() {
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        converter = new MappingR2dbcConverter(mappingContext, conversions);
+    }
+
+    /**
+     * @return an entity manager whose database is never connected to, as rendering SQL does not need it.
+     */
+    EntityManager entityManager() {
+        DatabaseClient databaseClient = DatabaseClient.builder()
+            .connectionFactory(ConnectionFactories.get("r2dbc:mysql://benchmark@localhost:3306/propservice"))
+            .bindMarkers(DIALECT.getBindMarkersFactory())
+            .build();
+        return new EntityManager(
+            databaseConfiguration.sqlRenderer(DIALECT),
+            databaseConfiguration.updateMapper(DIALECT, converter),
+            new R2dbcEntityTemplate(databaseClient, DIALECT, converter),
+            conversions
+        );
+    }
+
+    ColumnConverter columnConverter() {
+        return new ColumnConverter(conversions, converter);
+    }
+
+    /**
+     * @return an object mapper configured like the one of Spring Boot, with the modules of the JacksonConfiguration.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+            .modules(new JavaTimeModule(), new Jdk8Module())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+    }
+
+    static Complex complex(long id) {
+        return new Complex()
+            .id(id)
+            .complexName("Hillstate " + id)
+            .state("Seoul")
+            .county("Jongno-gu")
+            .city("Seoul")
+            .town("Cheongun-dong")
+            .addressCode("1111010100")
+            .latitude(37.5866)
+            .longitude(126.9691)
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT.plusSeconds(id));
+    }
+
+    static Property property(long id) {
+        return new Property()
+            .id(id)
+            .address(id + " Jahamun-ro")
+            .regionCd("11110")
+            .localName("Cheongun-dong")
+            .street("Jahamun-ro")
+            .floor((int) (id % 25) + 1)
+            .type("APT")
+            .area(new BigDecimal("84.97"))
+            .rooms(3)
+            .bathrooms(2)
+            .buildYear(2005)
+            .parkingYn("Y")
+            .description("South facing, renovated in 2020")
+            .latitude(37.5866)
+            .longitude(126.9691)
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT.plusSeconds(id))
+            .complexId(id / 20 + 1)
+            .complex(complex(id / 20 + 1));
+    }
+
+    static List<Property> properties(int count) {
+        List<Property> properties = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            properties.add(property(i));
+        }
+        return properties;
+    }
+
+    static Transaction transaction(long id) {
+        return new Transaction()
+            .id(id)
+            .propertyId(id / 4 + 1)
+            .transactionType("SALE")
+            .price(new BigDecimal("1250000000.00"))
+            .transactionDate(CREATED_AT.minusSeconds(86400))
+            .buyer("Kim")
+            .seller("Lee")
+            .agent("Park")
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT.plusSeconds(id));
+    }
+
+    /**
+     * @return the columns of a property row, with the types the MySQL driver reads them as.
+     */
+    static SyntheticRow propertyRow(String prefix, Property property) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put(prefix + "_id", property.getId());
+        columns.put(prefix + "_address", property.getAddress());
+        columns.put(prefix + "_region_cd", property.getRegionCd());
+        columns.put(prefix + "_local_name", property.getLocalName());
+        columns.put(prefix + "_street", property.getStreet());
+        columns.put(prefix + "_floor", property.getFloor());
+        columns.put(prefix + "_type", property.getType());
+        columns.put(prefix + "_area", property.getArea());
+        columns.put(prefix + "_rooms", property.getRooms());
+        columns.put(prefix + "_bathrooms", property.getBathrooms());
+        columns.put(prefix + "_build_year", property.getBuildYear());
+        columns.put(prefix + "_parking_yn", property.getParkingYn());
+        columns.put(prefix + "_description", property.getDescription());
+        columns.put(prefix + "_latitude", property.getLatitude());
+        columns.put(prefix + "_longitude", property.getLongitude());
+        columns.put(prefix + "_created_at", toDateTime(property.getCreatedAt()));
+        columns.put(prefix + "_updated_at", toDateTime(property.getUpdatedAt()));
+        columns.put(prefix + "_complex_id", property.getComplexId());
+        return new SyntheticRow(columns);
+    }
+
+    static SyntheticRow complexRow(String prefix, Complex complex) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put(prefix + "_id", complex.getId());
+        columns.put(prefix + "_complex_name", complex.getComplexName());
+        columns.put(prefix + "_state", complex.getState());
+        columns.put(prefix + "_county", complex.getCounty());
+        columns.put(prefix + "_city", complex.getCity());
+        columns.put(prefix + "_town", complex.getTown());
+        columns.put(prefix + "_address_code", complex.getAddressCode());
+        columns.put(prefix + "_latitude", complex.getLatitude());
+        columns.put(prefix + "_longitude", complex.getLongitude());
+        columns.put(prefix + "_created_at", toDateTime(complex.getCreatedAt()));
+        columns.put(prefix + "_updated_at", toDateTime(complex.getUpdatedAt()));
+        return new SyntheticRow(columns);
+    }
+
+    static SyntheticRow transactionRow(String prefix, Transaction transaction) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put(prefix + "_id", transaction.getId());
+        columns.put(prefix + "_property_id", transaction.getPropertyId());
+        columns.put(prefix + "_transaction_type", transaction.getTransactionType());
+        columns.put(prefix + "_price", transaction.getPrice());
+        columns.put(prefix + "_transaction_date", toDateTime(transaction.getTransactionDate()));
+        columns.put(prefix + "_buyer", transaction.getBuyer());
+        columns.put(prefix + "_seller", transaction.getSeller());
+        columns.put(prefix + "_agent", transaction.getAgent());
+        columns.put(prefix + "_created_at", toDateTime(transaction.getCreatedAt()));
+        columns.put(prefix + "_updated_at", toDateTime(transaction.getUpdatedAt()));
+        return new SyntheticRow(columns);
+    }
+
+    private static LocalDateTime toDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
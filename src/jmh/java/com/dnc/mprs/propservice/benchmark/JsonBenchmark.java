@@ -0,0 +1,61 @@
+package com.dnc.mprs.propservice.benchmark;
+
+import com.dnc.mprs.propservice.domain.Property;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON encoding and decoding of a page of properties, with their complexes, as returned by the list endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({ "20", "100" })
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private JavaType pageType;
+
+    private List<Property> page;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        pageType = objectMapper.getTypeFactory().constructCollectionType(List.class, Property.class);
+        page = BenchmarkFixtures.properties(pageSize);
+        json = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Property> decode() throws IOException {
+        return objectMapper.readValue(json, pageType);
+    }
+}
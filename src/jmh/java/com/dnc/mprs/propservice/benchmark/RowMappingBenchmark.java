@@ -0,0 +1,97 @@
+package com.dnc.mprs.propservice.benchmark;
+
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.repository.rowmapper.ColumnConverter;
+import com.dnc.mprs.propservice.repository.rowmapper.ComplexRowMapper;
+import com.dnc.mprs.propservice.repository.rowmapper.PropertyRowMapper;
+import com.dnc.mprs.propservice.repository.rowmapper.TransactionRowMapper;
+import io.r2dbc.spi.Row;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping of the rows of the queries to the entities, from a {@link SyntheticRow} holding the values the MySQL driver reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    private ColumnConverter converter;
+
+    private PropertyRowMapper propertyMapper;
+
+    private ComplexRowMapper complexMapper;
+
+    private TransactionRowMapper transactionMapper;
+
+    private Row propertyRow;
+
+    private Row complexRow;
+
+    private Row transactionRow;
+
+    private LocalDateTime dateTime;
+
+    @Setup
+    public void setup() {
+        converter = new BenchmarkFixtures().columnConverter();
+        propertyMapper = new PropertyRowMapper(converter);
+        complexMapper = new ComplexRowMapper(converter);
+        transactionMapper = new TransactionRowMapper(converter);
+        propertyRow = BenchmarkFixtures.propertyRow("e", BenchmarkFixtures.property(1));
+        complexRow = BenchmarkFixtures.complexRow("e", BenchmarkFixtures.complex(1));
+        transactionRow = BenchmarkFixtures.transactionRow("e", BenchmarkFixtures.transaction(1));
+        dateTime = LocalDateTime.ofInstant(BenchmarkFixtures.CREATED_AT, ZoneOffset.UTC);
+    }
+
+    @Benchmark
+    public Property property() {
+        return propertyMapper.apply(propertyRow, "e");
+    }
+
+    @Benchmark
+    public Complex complex() {
+        return complexMapper.apply(complexRow, "e");
+    }
+
+    @Benchmark
+    public Transaction transaction() {
+        return transactionMapper.apply(transactionRow, "e");
+    }
+
+    /**
+     * A {@code DATETIME} column read as an {@link Instant}, the custom read conversion of every timestamp of the entities.
+     */
+    @Benchmark
+    public Instant convertDateTime() {
+        return converter.convert(dateTime, Instant.class);
+    }
+
+    @Benchmark
+    public Long fromRowDirect() {
+        return converter.fromRow(propertyRow, "e_id", Long.class);
+    }
+
+    @Benchmark
+    public Instant fromRowConverted() {
+        return converter.fromRow(propertyRow, "e_created_at", Instant.class);
+    }
+}
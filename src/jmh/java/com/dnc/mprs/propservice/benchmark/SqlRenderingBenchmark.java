@@ -0,0 +1,135 @@
+package com.dnc.mprs.propservice.benchmark;
+
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.repository.ComplexSqlHelper;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.Keyset;
+import com.dnc.mprs.propservice.repository.PropertySqlHelper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.Table;
+
+/**
+ * Rendering of the property queries by the {@link EntityManager}, per shape of query, built the way the
+ * {@code PropertyRepositoryInternalImpl} builds them: {@link #render()} renders the statement as on first use of the shape,
+ * {@link #cached()} looks it up as on every later use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlRenderingBenchmark {
+
+    private static final Table entityTable = Table.aliased("property", EntityManager.ENTITY_ALIAS);
+    private static final Table complexTable = Table.aliased("complex", "complex");
+
+    private static final Condition ID_CONDITION = Conditions.isEqual(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.ID_PARAMETER)
+    );
+    private static final Condition ID_IN_CONDITION = Conditions.in(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.IDS_PARAMETER)
+    );
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "findById", "findAllByIdIn", "findAllPaged", "findAllByKeyset", "findAllByKeysetPositioned" })
+    public String shape;
+
+    /**
+     * Whether the complex columns are joined, as when the complex dimension cache is disabled.
+     */
+    @Param({ "false", "true" })
+    public boolean joinComplex;
+
+    private EntityManager entityManager;
+
+    private Pageable pageable;
+
+    private Keyset keyset;
+
+    private Condition where;
+
+    private Supplier<String> renderer;
+
+    @Setup
+    public void setup() {
+        entityManager = new BenchmarkFixtures().entityManager();
+        switch (shape) {
+            case "findById" -> where = ID_CONDITION;
+            case "findAllByIdIn" -> where = ID_IN_CONDITION;
+            case "findAllPaged" -> pageable = PageRequest.of(2, PAGE_SIZE, Sort.by(Sort.Order.desc("updatedAt")));
+            case "findAllByKeyset" -> keyset = Keyset.first(Sort.by(Sort.Order.desc("updatedAt")), PAGE_SIZE);
+            case "findAllByKeysetPositioned" -> keyset = Keyset.first(Sort.by(Sort.Order.desc("updatedAt")), PAGE_SIZE)
+                .next(BenchmarkFixtures.properties(PAGE_SIZE))
+                .orElseThrow();
+            default -> throw new IllegalArgumentException("Unknown query shape " + shape);
+        }
+        renderer = keyset != null ? this::renderKeyset : this::renderPage;
+    }
+
+    @Benchmark
+    public String render() {
+        return renderer.get();
+    }
+
+    @Benchmark
+    public String cached() {
+        return keyset != null
+            ? entityManager.cachedSelect(Property.class, shape + joinComplex, keyset, renderer)
+            : entityManager.cachedSelect(Property.class, shape + joinComplex, pageable, renderer);
+    }
+
+    private String renderPage() {
+        return joinComplex
+            ? entityManager.createSelect(createSelectFrom(), Property.class, pageable, where)
+            : entityManager.createSelect(createSelectProperty(), Property.class, pageable, where);
+    }
+
+    private String renderKeyset() {
+        return joinComplex
+            ? entityManager.createSelect(createSelectFrom(), Property.class, keyset, where)
+            : entityManager.createSelect(createSelectProperty(), Property.class, keyset, where);
+    }
+
+    private static SelectFromAndJoin createSelectProperty() {
+        return Select.builder().select(PropertySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS)).from(entityTable);
+    }
+
+    private static SelectFromAndJoinCondition createSelectFrom() {
+        List<Expression> columns = PropertySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        columns.addAll(ComplexSqlHelper.getColumns(complexTable, "complex"));
+        return Select.builder()
+            .select(columns)
+            .from(entityTable)
+            .leftOuterJoin(complexTable)
+            .on(Column.create("complex_id", entityTable))
+            .equals(Column.create("id", complexTable));
+    }
+}
@@ -0,0 +1,103 @@
+package com.dnc.mprs.propservice.benchmark;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link Row} holding its column values in memory, so the row mappers can be measured without a database.
+ * <p>
+ * Like a driver, its metadata gives the Java type of the value of each column, e.g. {@link java.time.LocalDateTime} for a
+ * {@code DATETIME} column, and it only decodes a column to that type, throwing for any other type.
+ */
+final class SyntheticRow implements Row {
+
+    private final List<String> names;
+
+    private final List<Object> values;
+
+    private final Metadata metadata;
+
+    SyntheticRow(Map<String, Object> columns) {
+        this.names = new ArrayList<>(columns.keySet());
+        this.values = new ArrayList<>(columns.values());
+        this.metadata = new Metadata();
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        Object value = values.get(index);
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Cannot decode column " + names.get(index) + " of " + value.getClass() + " as " + type);
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        return get(indexOf(name), type);
+    }
+
+    @Override
+    public RowMetadata getMetadata() {
+        return metadata;
+    }
+
+    private int indexOf(String name) {
+        for (int index = 0; index < names.size(); index++) {
+            if (names.get(index).equalsIgnoreCase(name)) {
+                return index;
+            }
+        }
+        throw new NoSuchElementException("Unknown column " + name);
+    }
+
+    private final class Metadata implements RowMetadata {
+
+        private final List<Column> columns = new ArrayList<>();
+
+        Metadata() {
+            for (int index = 0; index < names.size(); index++) {
+                Object value = values.get(index);
+                columns.add(new Column(names.get(index), value != null ? value.getClass() : Object.class));
+            }
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+    }
+
+    private record Column(String name, Class<?> javaType) implements ColumnMetadata, Type {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+
+        @Override
+        public Type getType() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.dnc.mprs.propservice.broker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consumes the records of a batch-mode binding and hands them to a writer, one poll at a time.
+ * <p>
+ * The batches are bounded by the {@code max.poll.records}, {@code fetch.min.bytes} and {@code fetch.max.wait.ms} settings of
+ * the binding. The consumer thread waits for the writer before polling again, so the offsets of a batch are only committed
+ * once it is persisted, and a slow database slows down the consumption instead of piling records up in memory. A failure of
+ * the writer is rethrown, so the batch is redelivered by the error handler of the listener container.
+ * <p>
+ * Besides the offset lag of the binder ({@code spring.cloud.stream.binder.kafka.offset}), the consumer records the size and
+ * the processing time of the batches, the delay between the production and the consumption of the records, and the number of
+ * records rejected by the writer.
+ */
+public class BatchIngestConsumer implements Consumer<Message<List<String>>> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchIngestConsumer.class);
+
+    private final String name;
+
+    private final Function<List<String>, Mono<Long>> writer;
+
+    private final Duration timeout;
+
+    private final DistributionSummary batchSize;
+
+    private final Timer batchLatency;
+
+    private final Timer recordDelay;
+
+    private final Counter rejectedRecords;
+
+    /**
+     * @param name the name of the consumer, used as tag of the metrics.
+     * @param writer persists a batch of record values, returning the number of rejected records.
+     * @param timeout the maximum time to wait for the writer.
+     * @param meterRegistry the registry of the metrics.
+     */
+    public BatchIngestConsumer(String name, Function<List<String>, Mono<Long>> writer, Duration timeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.writer = writer;
+        this.timeout = timeout;
+        this.batchSize = DistributionSummary.builder("ingest.batch.size")
+            .description("Number of records per consumed batch")
+            .tag("consumer", name)
+            .register(meterRegistry);
+        this.batchLatency = Timer.builder("ingest.batch.latency")
+            .description("Time to persist a consumed batch")
+            .tag("consumer", name)
+            .register(meterRegistry);
+        this.recordDelay = Timer.builder("ingest.record.delay")
+            .description("Time between the production of a record and its consumption")
+            .tag("consumer", name)
+            .register(meterRegistry);
+        this.rejectedRecords = Counter.builder("ingest.records.rejected")
+            .description("Number of consumed records which could not be parsed or validated")
+            .tag("consumer", name)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void accept(Message<List<String>> message) {
+        List<String> records = message.getPayload();
+        LOG.debug("Got batch of {} records for {}", records.size(), name);
+        batchSize.record(records.size());
+        recordDelays(message.getHeaders().get(KafkaHeaders.RECEIVED_TIMESTAMP));
+
+        Long rejected = batchLatency.record(() -> writer.apply(records).block(timeout));
+        if (rejected != null && rejected > 0) {
+            LOG.warn("{} of {} records for {} were rejected", rejected, records.size(), name);
+            rejectedRecords.increment(rejected);
+        }
+    }
+
+    private void recordDelays(Object timestamps) {
+        if (!(timestamps instanceof List<?> list)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Object timestamp : list) {
+            if (timestamp instanceof Long produced) {
+                recordDelay.record(Math.max(0, now - produced), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
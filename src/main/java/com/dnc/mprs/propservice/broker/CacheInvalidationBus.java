@@ -0,0 +1,68 @@
+package com.dnc.mprs.propservice.broker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Exchanges the cache invalidation messages between the instances of the service.
+ * <p>
+ * Messages are published through the {@value #BINDING_NAME} binding, keyed by the publishing instance so the messages of an
+ * instance stay in order, and consumed by every instance through the {@code cacheInvalidation-in-0} binding, which has no
+ * consumer group. The received messages, including the ones of this instance, are relayed to the subscribers of
+ * {@link #getFlux()}; the messages which do not fit in a buffer of {@value #BUFFER_SIZE} are dropped.
+ */
+@Component("cacheInvalidation")
+public class CacheInvalidationBus implements Consumer<String> {
+
+    public static final String BINDING_NAME = "invalidation-out-0";
+
+    static final int BUFFER_SIZE = 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final StreamBridge streamBridge;
+
+    private final Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer(BUFFER_SIZE, false);
+
+    public CacheInvalidationBus(StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    public Flux<String> getFlux() {
+        return this.sink.asFlux();
+    }
+
+    /**
+     * Publishes a message without waiting for the acknowledgment of the broker.
+     *
+     * @param origin the id of the publishing instance, used as record key.
+     * @param payload the message.
+     * @return {@code true} if the message was handed to the producer.
+     */
+    public boolean publish(String origin, String payload) {
+        Message<String> message = MessageBuilder.withPayload(payload)
+            .setHeader(KafkaHeaders.KEY, origin.getBytes(StandardCharsets.UTF_8))
+            .build();
+        return streamBridge.send(BINDING_NAME, message);
+    }
+
+    @Override
+    public void accept(String input) {
+        Sinks.EmitResult result;
+        do {
+            result = sink.tryEmitNext(input);
+        } while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+        if (result.isFailure()) {
+            LOG.warn("Dropped cache invalidation message: {}", result);
+        }
+    }
+}
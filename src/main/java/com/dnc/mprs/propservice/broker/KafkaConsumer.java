@@ -7,12 +7,20 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
+/**
+ * Relays the records of the SSE topic to the subscribers of {@link #getFlux()}.
+ * <p>
+ * The records are buffered up to {@value #BUFFER_SIZE}, for the slowest subscriber or until the first one subscribes; the
+ * records which do not fit are dropped, so the consumer never blocks nor fails because of a subscriber.
+ */
 @Component
 public class KafkaConsumer implements Consumer<String> {
 
+    static final int BUFFER_SIZE = 256;
+
     private static final Logger LOG = LoggerFactory.getLogger(KafkaConsumer.class);
 
-    private Sinks.Many<String> sink = Sinks.many().unicast().onBackpressureBuffer();
+    private final Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer(BUFFER_SIZE, false);
 
     public Flux<String> getFlux() {
         return this.sink.asFlux();
@@ -21,6 +29,12 @@ public class KafkaConsumer implements Consumer<String> {
     @Override
     public void accept(String input) {
         LOG.debug("Got message from kafka stream: {}", input);
-        sink.emitNext(input, Sinks.EmitFailureHandler.FAIL_FAST);
+        Sinks.EmitResult result;
+        do {
+            result = sink.tryEmitNext(input);
+        } while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+        if (result.isFailure()) {
+            LOG.warn("Dropped message from kafka stream: {}", result);
+        }
     }
 }
@@ -1,13 +1,52 @@
 package com.dnc.mprs.propservice.broker;
 
-import java.util.function.Supplier;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Publishes the change events of the entities through the {@value #BINDING_NAME} binding.
+ * <p>
+ * The given key, the entity id, is used as record key, so all the events of an entity are written to the same partition and
+ * consumed in order. The binding is configured to send synchronously, so {@link #send(String, String, Map)} only returns once
+ * the record is acknowledged by the broker; the records sent concurrently by different threads are still batched and
+ * compressed by the Kafka producer.
+ */
 @Component
-public class KafkaProducer implements Supplier<String> {
+public class KafkaProducer {
 
-    @Override
-    public String get() {
-        return "kakfa_producer";
+    public static final String BINDING_NAME = "binding-out-0";
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaProducer.class);
+
+    private final StreamBridge streamBridge;
+
+    public KafkaProducer(StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    /**
+     * Sends a record, blocking until it is acknowledged.
+     *
+     * @param key the record key.
+     * @param payload the record value.
+     * @param headers additional record headers.
+     * @throws IllegalStateException if the record could not be sent.
+     */
+    public void send(String key, String payload, Map<String, Object> headers) {
+        Message<String> message = MessageBuilder.withPayload(payload)
+            .copyHeaders(headers)
+            .setHeader(KafkaHeaders.KEY, key.getBytes(StandardCharsets.UTF_8))
+            .build();
+        LOG.debug("Sending record with key {} to Kafka", key);
+        if (!streamBridge.send(BINDING_NAME, message)) {
+            throw new IllegalStateException("Record with key " + key + " could not be sent to " + BINDING_NAME);
+        }
     }
 }
@@ -1,5 +1,12 @@
 package com.dnc.mprs.propservice.config;
 
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,9 +17,694 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final CountCache countCache = new CountCache();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Ingest ingest = new Ingest();
+
+    private final Reindex reindex = new Reindex();
+
+    private final Cache cache = new Cache();
+
+    private final CacheInvalidation cacheInvalidation = new CacheInvalidation();
+
+    private final Rollup rollup = new Rollup();
+
+    private final Search search = new Search();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Export export = new Export();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final BatchLookup batchLookup = new BatchLookup();
+
     // jhipster-needle-application-properties-property
 
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Ingest getIngest() {
+        return ingest;
+    }
+
+    public Reindex getReindex() {
+        return reindex;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public BatchLookup getBatchLookup() {
+        return batchLookup;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
+    /**
+     * Total counts of the paginated list endpoints.
+     */
+    public static class CountCache {
+
+        /**
+         * Keep the total counts in memory instead of counting the rows for every page.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Interval at which the counts kept in memory are reconciled with the database.
+         */
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getReconcileInterval() {
+            return reconcileInterval;
+        }
+
+        public void setReconcileInterval(Duration reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
+    }
+
+    /**
+     * Bulk create/update endpoints.
+     */
+    public static class Bulk {
+
+        /**
+         * Number of items written with one multi-row statement, in one transaction.
+         */
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Relay of the entity change events from the outbox table to Kafka.
+     */
+    public static class Outbox {
+
+        /**
+         * Maximum number of events claimed and published by a relay at once.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Number of entities whose events are published concurrently, so the Kafka producer can batch them.
+         */
+        private int sendConcurrency = 16;
+
+        /**
+         * Delay between the end of a relay and the start of the next one.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * How long a batch stays claimed by a relay; longer than publishing a batch takes, or the batch is published twice.
+         */
+        private Duration claimLease = Duration.ofMinutes(1);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getSendConcurrency() {
+            return sendConcurrency;
+        }
+
+        public void setSendConcurrency(int sendConcurrency) {
+            this.sendConcurrency = sendConcurrency;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getClaimLease() {
+            return claimLease;
+        }
+
+        public void setClaimLease(Duration claimLease) {
+            this.claimLease = claimLease;
+        }
+    }
+
+    /**
+     * Consumption of the listing and transaction events from Kafka.
+     */
+    public static class Ingest {
+
+        /**
+         * Maximum time to persist a consumed batch; must stay below the {@code max.poll.interval.ms} of the consumer.
+         */
+        private Duration timeout = Duration.ofMinutes(1);
+
+        /**
+         * Delay before the first redelivery of a batch which could not be persisted, doubled on each attempt.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Maximum delay between two redeliveries of a batch which could not be persisted.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Rebuild of the Elasticsearch indexes from the database.
+     */
+    public static class Reindex {
+
+        /**
+         * Number of rows read per query, and indexed per bulk request.
+         */
+        private int fetchSize = 1000;
+
+        /**
+         * Number of bulk requests in flight.
+         */
+        private int concurrency = 4;
+
+        /**
+         * Number of retries of a bulk request rejected because the cluster is overloaded (HTTP 429).
+         */
+        private int maxRetries = 10;
+
+        /**
+         * Delay before the first retry of a rejected bulk request, doubled on each retry.
+         */
+        private Duration initialBackoff = Duration.ofMillis(500);
+
+        /**
+         * How long a job stays claimed by the instance running it without being renewed; a job whose instance stopped can be
+         * started on another one once its claim expires.
+         */
+        private Duration lease = Duration.ofMinutes(1);
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    /**
+     * Read-through caches of the entities by id.
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of entities per cache.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time after which a cached entity is loaded again, bounding the staleness of the changes made by other instances.
+         */
+        private Duration timeToLive = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    /**
+     * Propagation of the cache invalidations between the instances of the service.
+     */
+    public static class CacheInvalidation {
+
+        private boolean enabled = true;
+
+        /**
+         * Interval between two invalidation messages of an instance, over which its changes are coalesced.
+         */
+        private Duration flushInterval = Duration.ofMillis(50);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    /**
+     * Monthly transaction rollups.
+     */
+    public static class Rollup {
+
+        /**
+         * Time zone in which the transactions are grouped by month.
+         */
+        private ZoneId zoneId = ZoneOffset.UTC;
+
+        public ZoneId getZoneId() {
+            return zoneId;
+        }
+
+        public void setZoneId(ZoneId zoneId) {
+            this.zoneId = zoneId;
+        }
+    }
+
+    /**
+     * Facets and cursors of the search endpoints.
+     */
+    public static class Search {
+
+        /**
+         * Maximum number of buckets of the facets counting the documents per value.
+         */
+        private int facetSize = 20;
+
+        /**
+         * Width of the buckets of the area histogram.
+         */
+        private double areaInterval = 10;
+
+        /**
+         * Width of the buckets of the price histogram.
+         */
+        private double priceInterval = 100_000_000;
+
+        /**
+         * Time during which the point in time of a search cursor is kept alive after each page.
+         */
+        private Duration cursorKeepAlive = Duration.ofMinutes(1);
+
+        /**
+         * Number of matching documents up to which the total of a search is exact; beyond, it is only a lower bound.
+         */
+        private int exactCountLimit = 10_000;
+
+        public int getFacetSize() {
+            return facetSize;
+        }
+
+        public void setFacetSize(int facetSize) {
+            this.facetSize = facetSize;
+        }
+
+        public double getAreaInterval() {
+            return areaInterval;
+        }
+
+        public void setAreaInterval(double areaInterval) {
+            this.areaInterval = areaInterval;
+        }
+
+        public double getPriceInterval() {
+            return priceInterval;
+        }
+
+        public void setPriceInterval(double priceInterval) {
+            this.priceInterval = priceInterval;
+        }
+
+        public Duration getCursorKeepAlive() {
+            return cursorKeepAlive;
+        }
+
+        public void setCursorKeepAlive(Duration cursorKeepAlive) {
+            this.cursorKeepAlive = cursorKeepAlive;
+        }
+
+        public int getExactCountLimit() {
+            return exactCountLimit;
+        }
+
+        public void setExactCountLimit(int exactCountLimit) {
+            this.exactCountLimit = exactCountLimit;
+        }
+    }
+
+    /**
+     * In-memory prefix indexes of the typeahead endpoints.
+     */
+    public static class Suggest {
+
+        /**
+         * Maximum number of suggestions of a request.
+         */
+        private int maxSize = 50;
+
+        /**
+         * Number of entities changed since the last snapshot of an index past which a new one is built.
+         */
+        private int compactThreshold = 5_000;
+
+        /**
+         * Interval between the rebuilds of the indexes from the database, which refresh the transaction volumes.
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getCompactThreshold() {
+            return compactThreshold;
+        }
+
+        public void setCompactThreshold(int compactThreshold) {
+            this.compactThreshold = compactThreshold;
+        }
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+    }
+
+    /**
+     * Streamed exports of the transactions.
+     */
+    public static class Export {
+
+        /**
+         * Number of rows read per query of an export: every page is a query of its own, after the last id of the previous one.
+         */
+        private int pageSize = 1000;
+
+        /**
+         * Number of rows encoded per response buffer.
+         */
+        private int rowsPerBuffer = 200;
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getRowsPerBuffer() {
+            return rowsPerBuffer;
+        }
+
+        public void setRowsPerBuffer(int rowsPerBuffer) {
+            this.rowsPerBuffer = rowsPerBuffer;
+        }
+    }
+
+    /**
+     * Bulk imports of trade files.
+     */
+    public static class BulkImport {
+
+        /**
+         * Directory of the imported files, where the uploaded files are stored.
+         */
+        private Path directory = Path.of("import");
+
+        /**
+         * Charset of the imported files, unless given when the import is started.
+         */
+        private Charset charset = StandardCharsets.UTF_8;
+
+        /**
+         * Number of rows parsed, resolved and written together, the transactions of a batch in one database transaction.
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Number of parsed batches queued for the resolution of their complexes and properties.
+         */
+        private int queueSize = 4;
+
+        /**
+         * Number of resolved batches written in parallel.
+         */
+        private int writeConcurrency = 2;
+
+        /**
+         * Maximum number of natural keys of the complexes, and of the properties, kept in memory with their ids by a running import.
+         */
+        private int lookupSize = 100_000;
+
+        /**
+         * Unit of the prices of the imported files, multiplied to get the stored prices.
+         */
+        private BigDecimal priceUnit = BigDecimal.ONE;
+
+        /**
+         * How long a job stays claimed by the instance running it without being renewed; the claim is renewed three times
+         * per lease, and a job whose instance stopped can be resumed on another one once it expires.
+         */
+        private Duration lease = Duration.ofMinutes(1);
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public Charset getCharset() {
+            return charset;
+        }
+
+        public void setCharset(Charset charset) {
+            this.charset = charset;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public int getWriteConcurrency() {
+            return writeConcurrency;
+        }
+
+        public void setWriteConcurrency(int writeConcurrency) {
+            this.writeConcurrency = writeConcurrency;
+        }
+
+        public int getLookupSize() {
+            return lookupSize;
+        }
+
+        public void setLookupSize(int lookupSize) {
+            this.lookupSize = lookupSize;
+        }
+
+        public BigDecimal getPriceUnit() {
+            return priceUnit;
+        }
+
+        public void setPriceUnit(BigDecimal priceUnit) {
+            this.priceUnit = priceUnit;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    /**
+     * Lookups of many entities by id in one request: the multi-get endpoints and the properties with their transactions.
+     */
+    public static class BatchLookup {
+
+        /**
+         * Maximum number of ids of a request.
+         */
+        private int maxIds = 1000;
+
+        /**
+         * Maximum number of ids of one {@code IN} list; the ids of a request are looked up in chunks of this size.
+         */
+        private int chunkSize = 500;
+
+        public int getMaxIds() {
+            return maxIds;
+        }
+
+        public void setMaxIds(int maxIds) {
+            this.maxIds = maxIds;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,77 @@
+package com.dnc.mprs.propservice.config;
+
+import com.dnc.mprs.propservice.broker.BatchIngestConsumer;
+import com.dnc.mprs.propservice.service.IngestService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.messaging.Message;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * Configuration of the batch consumers of the listing and transaction events.
+ * <p>
+ * The bindings run in batch mode (see {@code spring.cloud.stream.bindings.*Ingest-in-0} in the application configuration).
+ * A batch which could not be persisted is redelivered with an exponential backoff, without limit, so its offsets are never
+ * committed before it is written. The other consumers keep the default error handling of the binder.
+ */
+@Configuration
+public class KafkaIngestConfiguration {
+
+    private static final List<String> INGEST_BINDING_NAMES = List.of("propertyIngest-in-0", "transactionIngest-in-0");
+
+    @Bean
+    public Consumer<Message<List<String>>> propertyIngest(
+        IngestService ingestService,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        return new BatchIngestConsumer(
+            "propertyIngest",
+            ingestService::ingestProperties,
+            applicationProperties.getIngest().getTimeout(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public Consumer<Message<List<String>>> transactionIngest(
+        IngestService ingestService,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        return new BatchIngestConsumer(
+            "transactionIngest",
+            ingestService::ingestTransactions,
+            applicationProperties.getIngest().getTimeout(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> ingestErrorHandlerCustomizer(
+        ApplicationProperties applicationProperties,
+        BindingServiceProperties bindingServiceProperties
+    ) {
+        ApplicationProperties.Ingest ingest = applicationProperties.getIngest();
+        Set<String> ingestDestinations = INGEST_BINDING_NAMES.stream()
+            .map(bindingServiceProperties::getBindingDestination)
+            .collect(Collectors.toSet());
+        return (container, destinationName, group) -> {
+            if (!ingestDestinations.contains(destinationName)) {
+                return;
+            }
+            ExponentialBackOff backOff = new ExponentialBackOff(ingest.getInitialBackoff().toMillis(), 2.0);
+            backOff.setMaxInterval(ingest.getMaxBackoff().toMillis());
+            container.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        };
+    }
+}
@@ -30,29 +30,91 @@ public class Complex implements Serializable {
 
     @Size(max = 100)
     @Column("state")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String state;
 
     @Size(max = 100)
     @Column("county")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String county;
 
     @Size(max = 100)
     @Column("city")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String city;
 
     @Size(max = 100)
     @Column("town")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String town;
 
     @Size(max = 10)
     @Column("address_code")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String addressCode;
 
+    @DecimalMin(value = "-90")
+    @DecimalMax(value = "90")
+    @Column("latitude")
+    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Double)
+    private Double latitude;
+
+    @DecimalMin(value = "-180")
+    @DecimalMax(value = "180")
+    @Column("longitude")
+    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Double)
+    private Double longitude;
+
     @NotNull(message = "must not be null")
     @Column("created_at")
     private Instant createdAt;
@@ -153,6 +215,32 @@ public class Complex implements Serializable {
         this.addressCode = addressCode;
     }
 
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public Complex latitude(Double latitude) {
+        this.setLatitude(latitude);
+        return this;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public Complex longitude(Double longitude) {
+        this.setLongitude(longitude);
+        return this;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     public Instant getCreatedAt() {
         return this.createdAt;
     }
@@ -209,6 +297,8 @@ public class Complex implements Serializable {
             ", city='" + getCity() + "'" +
             ", town='" + getTown() + "'" +
             ", addressCode='" + getAddressCode() + "'" +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
             ", createdAt='" + getCreatedAt() + "'" +
             ", updatedAt='" + getUpdatedAt() + "'" +
             "}";
@@ -0,0 +1,264 @@
+package com.dnc.mprs.propservice.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A run of the bulk import of a trade file, with the checkpoint to resume it from.
+ */
+@Table("import_job")
+public class ImportJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("file_name")
+    private String fileName;
+
+    @Column("charset")
+    private String charset;
+
+    @Column("status")
+    private Status status;
+
+    @Column("file_size")
+    private Long fileSize;
+
+    @Column("checkpoint")
+    private Long checkpoint;
+
+    @Column("rows_read")
+    private Long rowsRead;
+
+    @Column("imported")
+    private Long imported;
+
+    @Column("rejected")
+    private Long rejected;
+
+    @Column("first_rejection")
+    private String firstRejection;
+
+    @Column("error")
+    private String error;
+
+    @Column("started_at")
+    private Instant startedAt;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public ImportJob id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    public ImportJob fileName(String fileName) {
+        this.setFileName(fileName);
+        return this;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getCharset() {
+        return this.charset;
+    }
+
+    public ImportJob charset(String charset) {
+        this.setCharset(charset);
+        return this;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public ImportJob status(Status status) {
+        this.setStatus(status);
+        return this;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getFileSize() {
+        return this.fileSize;
+    }
+
+    public ImportJob fileSize(Long fileSize) {
+        this.setFileSize(fileSize);
+        return this;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getCheckpoint() {
+        return this.checkpoint;
+    }
+
+    public ImportJob checkpoint(Long checkpoint) {
+        this.setCheckpoint(checkpoint);
+        return this;
+    }
+
+    public void setCheckpoint(Long checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public Long getRowsRead() {
+        return this.rowsRead;
+    }
+
+    public ImportJob rowsRead(Long rowsRead) {
+        this.setRowsRead(rowsRead);
+        return this;
+    }
+
+    public void setRowsRead(Long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public Long getImported() {
+        return this.imported;
+    }
+
+    public ImportJob imported(Long imported) {
+        this.setImported(imported);
+        return this;
+    }
+
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+
+    public Long getRejected() {
+        return this.rejected;
+    }
+
+    public ImportJob rejected(Long rejected) {
+        this.setRejected(rejected);
+        return this;
+    }
+
+    public void setRejected(Long rejected) {
+        this.rejected = rejected;
+    }
+
+    public String getFirstRejection() {
+        return this.firstRejection;
+    }
+
+    public ImportJob firstRejection(String firstRejection) {
+        this.setFirstRejection(firstRejection);
+        return this;
+    }
+
+    public void setFirstRejection(String firstRejection) {
+        this.firstRejection = firstRejection;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public ImportJob error(String error) {
+        this.setError(error);
+        return this;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getStartedAt() {
+        return this.startedAt;
+    }
+
+    public ImportJob startedAt(Instant startedAt) {
+        this.setStartedAt(startedAt);
+        return this;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public ImportJob updatedAt(Instant updatedAt) {
+        this.setUpdatedAt(updatedAt);
+        return this;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImportJob)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((ImportJob) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportJob{" +
+            "id=" + getId() +
+            ", fileName='" + getFileName() + "'" +
+            ", charset='" + getCharset() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", fileSize=" + getFileSize() +
+            ", checkpoint=" + getCheckpoint() +
+            ", rowsRead=" + getRowsRead() +
+            ", imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            ", startedAt='" + getStartedAt() + "'" +
+            "}";
+    }
+}
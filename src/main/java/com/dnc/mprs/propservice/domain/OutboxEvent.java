@@ -0,0 +1,181 @@
+package com.dnc.mprs.propservice.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A change event of an entity, written in the transaction of the change and relayed to Kafka afterwards.
+ */
+@Table("outbox_event")
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum EventType {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("aggregate_type")
+    private String aggregateType;
+
+    @Column("aggregate_id")
+    private Long aggregateId;
+
+    @Column("event_type")
+    private EventType eventType;
+
+    @Column("payload")
+    private String payload;
+
+    @Column("created_at")
+    private Instant createdAt;
+
+    @Column("claimed_by")
+    private String claimedBy;
+
+    @Column("claimed_until")
+    private Instant claimedUntil;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public OutboxEvent id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAggregateType() {
+        return this.aggregateType;
+    }
+
+    public OutboxEvent aggregateType(String aggregateType) {
+        this.setAggregateType(aggregateType);
+        return this;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public OutboxEvent aggregateId(Long aggregateId) {
+        this.setAggregateId(aggregateId);
+        return this;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public EventType getEventType() {
+        return this.eventType;
+    }
+
+    public OutboxEvent eventType(EventType eventType) {
+        this.setEventType(eventType);
+        return this;
+    }
+
+    public void setEventType(EventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public OutboxEvent payload(String payload) {
+        this.setPayload(payload);
+        return this;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public OutboxEvent createdAt(Instant createdAt) {
+        this.setCreatedAt(createdAt);
+        return this;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getClaimedBy() {
+        return this.claimedBy;
+    }
+
+    public OutboxEvent claimedBy(String claimedBy) {
+        this.setClaimedBy(claimedBy);
+        return this;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public Instant getClaimedUntil() {
+        return this.claimedUntil;
+    }
+
+    public OutboxEvent claimedUntil(Instant claimedUntil) {
+        this.setClaimedUntil(claimedUntil);
+        return this;
+    }
+
+    public void setClaimedUntil(Instant claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxEvent)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((OutboxEvent) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+            "id=" + getId() +
+            ", aggregateType='" + getAggregateType() + "'" +
+            ", aggregateId=" + getAggregateId() +
+            ", eventType='" + getEventType() + "'" +
+            ", createdAt='" + getCreatedAt() + "'" +
+            ", claimedBy='" + getClaimedBy() + "'" +
+            ", claimedUntil='" + getClaimedUntil() + "'" +
+            "}";
+    }
+}
@@ -31,7 +31,17 @@ public class Property implements Serializable {
 
     @Size(max = 255)
     @Column("region_cd")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String regionCd;
 
     @Size(max = 255)
@@ -51,7 +61,17 @@ public class Property implements Serializable {
     @NotNull(message = "must not be null")
     @Size(max = 100)
     @Column("type")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String type;
 
     @NotNull(message = "must not be null")
@@ -75,13 +95,35 @@ public class Property implements Serializable {
 
     @Size(min = 1, max = 1)
     @Column("parking_yn")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String parkingYn;
 
     @Column("description")
     @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
     private String description;
 
+    @DecimalMin(value = "-90")
+    @DecimalMax(value = "90")
+    @Column("latitude")
+    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Double)
+    private Double latitude;
+
+    @DecimalMin(value = "-180")
+    @DecimalMax(value = "180")
+    @Column("longitude")
+    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Double)
+    private Double longitude;
+
     @NotNull(message = "must not be null")
     @Column("created_at")
     private Instant createdAt;
@@ -266,6 +308,32 @@ public class Property implements Serializable {
         this.description = description;
     }
 
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public Property latitude(Double latitude) {
+        this.setLatitude(latitude);
+        return this;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public Property longitude(Double longitude) {
+        this.setLongitude(longitude);
+        return this;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     public Instant getCreatedAt() {
         return this.createdAt;
     }
@@ -350,6 +418,8 @@ public class Property implements Serializable {
             ", buildYear=" + getBuildYear() +
             ", parkingYn='" + getParkingYn() + "'" +
             ", description='" + getDescription() + "'" +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
             ", createdAt='" + getCreatedAt() + "'" +
             ", updatedAt='" + getUpdatedAt() + "'" +
             "}";
@@ -0,0 +1,235 @@
+package com.dnc.mprs.propservice.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A run of the Elasticsearch reindex of an entity, with the checkpoint to resume it from.
+ */
+@Table("reindex_job")
+public class ReindexJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Mode {
+        FULL,
+        INCREMENTAL,
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("entity_name")
+    private String entityName;
+
+    @Column("mode")
+    private Mode mode;
+
+    @Column("status")
+    private Status status;
+
+    @Column("updated_since")
+    private Instant updatedSince;
+
+    @Column("checkpoint")
+    private String checkpoint;
+
+    @Column("indexed")
+    private Long indexed;
+
+    @Column("total")
+    private Long total;
+
+    @Column("error")
+    private String error;
+
+    @Column("started_at")
+    private Instant startedAt;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public ReindexJob id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityName() {
+        return this.entityName;
+    }
+
+    public ReindexJob entityName(String entityName) {
+        this.setEntityName(entityName);
+        return this;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public ReindexJob mode(Mode mode) {
+        this.setMode(mode);
+        return this;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public ReindexJob status(Status status) {
+        this.setStatus(status);
+        return this;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getUpdatedSince() {
+        return this.updatedSince;
+    }
+
+    public ReindexJob updatedSince(Instant updatedSince) {
+        this.setUpdatedSince(updatedSince);
+        return this;
+    }
+
+    public void setUpdatedSince(Instant updatedSince) {
+        this.updatedSince = updatedSince;
+    }
+
+    public String getCheckpoint() {
+        return this.checkpoint;
+    }
+
+    public ReindexJob checkpoint(String checkpoint) {
+        this.setCheckpoint(checkpoint);
+        return this;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public Long getIndexed() {
+        return this.indexed;
+    }
+
+    public ReindexJob indexed(Long indexed) {
+        this.setIndexed(indexed);
+        return this;
+    }
+
+    public void setIndexed(Long indexed) {
+        this.indexed = indexed;
+    }
+
+    public Long getTotal() {
+        return this.total;
+    }
+
+    public ReindexJob total(Long total) {
+        this.setTotal(total);
+        return this;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public ReindexJob error(String error) {
+        this.setError(error);
+        return this;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getStartedAt() {
+        return this.startedAt;
+    }
+
+    public ReindexJob startedAt(Instant startedAt) {
+        this.setStartedAt(startedAt);
+        return this;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public ReindexJob updatedAt(Instant updatedAt) {
+        this.setUpdatedAt(updatedAt);
+        return this;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReindexJob)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((ReindexJob) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReindexJob{" +
+            "id=" + getId() +
+            ", entityName='" + getEntityName() + "'" +
+            ", mode='" + getMode() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", updatedSince='" + getUpdatedSince() + "'" +
+            ", indexed=" + getIndexed() +
+            ", total=" + getTotal() +
+            ", startedAt='" + getStartedAt() + "'" +
+            "}";
+    }
+}
@@ -30,7 +30,17 @@ public class Transaction implements Serializable {
     @NotNull(message = "must not be null")
     @Size(max = 50)
     @Column("transaction_type")
-    @org.springframework.data.elasticsearch.annotations.Field(type = org.springframework.data.elasticsearch.annotations.FieldType.Text)
+    @org.springframework.data.elasticsearch.annotations.MultiField(
+        mainField = @org.springframework.data.elasticsearch.annotations.Field(
+            type = org.springframework.data.elasticsearch.annotations.FieldType.Text
+        ),
+        otherFields = {
+            @org.springframework.data.elasticsearch.annotations.InnerField(
+                suffix = "keyword",
+                type = org.springframework.data.elasticsearch.annotations.FieldType.Keyword
+            ),
+        }
+    )
     private String transactionType;
 
     @NotNull(message = "must not be null")
@@ -0,0 +1,251 @@
+package com.dnc.mprs.propservice.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * The transactions of a complex or a region in a month, pre-aggregated by the TransactionRollupService.
+ * <p>
+ * The price per area is summed over the transactions of the properties with an area, counted in {@code areaCount}. The
+ * distribution of the prices is kept in a serialized PriceSketch, {@code null} in the rows written before it was added.
+ */
+@Table("transaction_rollup")
+public class TransactionRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Dimension {
+        COMPLEX,
+        REGION,
+    }
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("dimension")
+    private Dimension dimension;
+
+    @Column("dimension_key")
+    private String dimensionKey;
+
+    @Column("period")
+    private String period;
+
+    @Column("transaction_count")
+    private Long transactionCount;
+
+    @Column("price_sum")
+    private BigDecimal priceSum;
+
+    @Column("price_min")
+    private BigDecimal priceMin;
+
+    @Column("price_max")
+    private BigDecimal priceMax;
+
+    @Column("price_per_area_sum")
+    private BigDecimal pricePerAreaSum;
+
+    @Column("area_count")
+    private Long areaCount;
+
+    @Column("price_sketch")
+    private byte[] priceSketch;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public TransactionRollup id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Dimension getDimension() {
+        return this.dimension;
+    }
+
+    public TransactionRollup dimension(Dimension dimension) {
+        this.setDimension(dimension);
+        return this;
+    }
+
+    public void setDimension(Dimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return this.dimensionKey;
+    }
+
+    public TransactionRollup dimensionKey(String dimensionKey) {
+        this.setDimensionKey(dimensionKey);
+        return this;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public String getPeriod() {
+        return this.period;
+    }
+
+    public TransactionRollup period(String period) {
+        this.setPeriod(period);
+        return this;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public Long getTransactionCount() {
+        return this.transactionCount;
+    }
+
+    public TransactionRollup transactionCount(Long transactionCount) {
+        this.setTransactionCount(transactionCount);
+        return this;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public BigDecimal getPriceSum() {
+        return this.priceSum;
+    }
+
+    public TransactionRollup priceSum(BigDecimal priceSum) {
+        this.setPriceSum(priceSum);
+        return this;
+    }
+
+    public void setPriceSum(BigDecimal priceSum) {
+        this.priceSum = priceSum;
+    }
+
+    public BigDecimal getPriceMin() {
+        return this.priceMin;
+    }
+
+    public TransactionRollup priceMin(BigDecimal priceMin) {
+        this.setPriceMin(priceMin);
+        return this;
+    }
+
+    public void setPriceMin(BigDecimal priceMin) {
+        this.priceMin = priceMin;
+    }
+
+    public BigDecimal getPriceMax() {
+        return this.priceMax;
+    }
+
+    public TransactionRollup priceMax(BigDecimal priceMax) {
+        this.setPriceMax(priceMax);
+        return this;
+    }
+
+    public void setPriceMax(BigDecimal priceMax) {
+        this.priceMax = priceMax;
+    }
+
+    public BigDecimal getPricePerAreaSum() {
+        return this.pricePerAreaSum;
+    }
+
+    public TransactionRollup pricePerAreaSum(BigDecimal pricePerAreaSum) {
+        this.setPricePerAreaSum(pricePerAreaSum);
+        return this;
+    }
+
+    public void setPricePerAreaSum(BigDecimal pricePerAreaSum) {
+        this.pricePerAreaSum = pricePerAreaSum;
+    }
+
+    public Long getAreaCount() {
+        return this.areaCount;
+    }
+
+    public TransactionRollup areaCount(Long areaCount) {
+        this.setAreaCount(areaCount);
+        return this;
+    }
+
+    public void setAreaCount(Long areaCount) {
+        this.areaCount = areaCount;
+    }
+
+    public byte[] getPriceSketch() {
+        return this.priceSketch;
+    }
+
+    public TransactionRollup priceSketch(byte[] priceSketch) {
+        this.setPriceSketch(priceSketch);
+        return this;
+    }
+
+    public void setPriceSketch(byte[] priceSketch) {
+        this.priceSketch = priceSketch;
+    }
+
+    public Instant getUpdatedAt() {
+        return this.updatedAt;
+    }
+
+    public TransactionRollup updatedAt(Instant updatedAt) {
+        this.setUpdatedAt(updatedAt);
+        return this;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransactionRollup)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((TransactionRollup) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TransactionRollup{" +
+            "id=" + getId() +
+            ", dimension='" + getDimension() + "'" +
+            ", dimensionKey='" + getDimensionKey() + "'" +
+            ", period='" + getPeriod() + "'" +
+            ", transactionCount=" + getTransactionCount() +
+            ", priceSum=" + getPriceSum() +
+            ", priceMin=" + getPriceMin() +
+            ", priceMax=" + getPriceMax() +
+            ", pricePerAreaSum=" + getPricePerAreaSum() +
+            ", areaCount=" + getAreaCount() +
+            "}";
+    }
+}
@@ -0,0 +1,205 @@
+package com.dnc.mprs.propservice.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the search of the {@link com.dnc.mprs.propservice.domain.Complex} entity. This class is used in
+ * {@link com.dnc.mprs.propservice.web.rest.ComplexResource} to receive all the possible filtering options from the Http
+ * request parameters, compiled into the filter clauses of the Elasticsearch query.
+ * For example the following could be a valid request:
+ * {@code /api/complexes/_search?state.equals=Seoul&city.in=Jongno-gu,Jung-gu}
+ * <p>
+ * The string filters match the whole value; only {@code equals}, {@code notEquals}, {@code in}, {@code notIn} and
+ * {@code specified} are supported.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ComplexCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter state;
+
+    private StringFilter county;
+
+    private StringFilter city;
+
+    private StringFilter town;
+
+    private StringFilter addressCode;
+
+    public ComplexCriteria() {}
+
+    public ComplexCriteria(ComplexCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.state = other.optionalState().map(StringFilter::copy).orElse(null);
+        this.county = other.optionalCounty().map(StringFilter::copy).orElse(null);
+        this.city = other.optionalCity().map(StringFilter::copy).orElse(null);
+        this.town = other.optionalTown().map(StringFilter::copy).orElse(null);
+        this.addressCode = other.optionalAddressCode().map(StringFilter::copy).orElse(null);
+    }
+
+    @Override
+    public ComplexCriteria copy() {
+        return new ComplexCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getState() {
+        return state;
+    }
+
+    public Optional<StringFilter> optionalState() {
+        return Optional.ofNullable(state);
+    }
+
+    public StringFilter state() {
+        if (state == null) {
+            setState(new StringFilter());
+        }
+        return state;
+    }
+
+    public void setState(StringFilter state) {
+        this.state = state;
+    }
+
+    public StringFilter getCounty() {
+        return county;
+    }
+
+    public Optional<StringFilter> optionalCounty() {
+        return Optional.ofNullable(county);
+    }
+
+    public StringFilter county() {
+        if (county == null) {
+            setCounty(new StringFilter());
+        }
+        return county;
+    }
+
+    public void setCounty(StringFilter county) {
+        this.county = county;
+    }
+
+    public StringFilter getCity() {
+        return city;
+    }
+
+    public Optional<StringFilter> optionalCity() {
+        return Optional.ofNullable(city);
+    }
+
+    public StringFilter city() {
+        if (city == null) {
+            setCity(new StringFilter());
+        }
+        return city;
+    }
+
+    public void setCity(StringFilter city) {
+        this.city = city;
+    }
+
+    public StringFilter getTown() {
+        return town;
+    }
+
+    public Optional<StringFilter> optionalTown() {
+        return Optional.ofNullable(town);
+    }
+
+    public StringFilter town() {
+        if (town == null) {
+            setTown(new StringFilter());
+        }
+        return town;
+    }
+
+    public void setTown(StringFilter town) {
+        this.town = town;
+    }
+
+    public StringFilter getAddressCode() {
+        return addressCode;
+    }
+
+    public Optional<StringFilter> optionalAddressCode() {
+        return Optional.ofNullable(addressCode);
+    }
+
+    public StringFilter addressCode() {
+        if (addressCode == null) {
+            setAddressCode(new StringFilter());
+        }
+        return addressCode;
+    }
+
+    public void setAddressCode(StringFilter addressCode) {
+        this.addressCode = addressCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ComplexCriteria that = (ComplexCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(state, that.state) &&
+            Objects.equals(county, that.county) &&
+            Objects.equals(city, that.city) &&
+            Objects.equals(town, that.town) &&
+            Objects.equals(addressCode, that.addressCode)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, state, county, city, town, addressCode);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ComplexCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalState().map(f -> "state=" + f + ", ").orElse("") +
+            optionalCounty().map(f -> "county=" + f + ", ").orElse("") +
+            optionalCity().map(f -> "city=" + f + ", ").orElse("") +
+            optionalTown().map(f -> "town=" + f + ", ").orElse("") +
+            optionalAddressCode().map(f -> "addressCode=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,239 @@
+package com.dnc.mprs.propservice.domain.criteria;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Geographic criteria of the search of the entities with coordinates, in WGS 84 degrees. This class is used in
+ * {@link com.dnc.mprs.propservice.web.rest.ComplexResource} and {@link com.dnc.mprs.propservice.web.rest.PropertyResource}
+ * to receive the geographic filtering options from the Http request parameters, compiled into the filter clauses of the
+ * Elasticsearch query.
+ * For example the following could be a valid request:
+ * {@code /api/complexes/_search?latitude=37.5547&longitude=126.9707&distance=2km&sort=distance,asc}
+ * <p>
+ * The filters can be combined: a radius around {@code latitude} and {@code longitude}, a bounding box between
+ * {@code north}, {@code south}, {@code west} and {@code east}, and a polygon given as a flat list of latitudes and longitudes
+ * ({@code polygon=37.56,126.97,37.55,126.99,37.54,126.96}). With a center, the hits can be sorted by {@value #DISTANCE_SORT},
+ * in meters. With a {@code geohashPrecision}, the faceted search counts the hits per geohash cell, to cluster them on a map.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class GeoCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The sort property ordering the hits by distance from the center.
+     */
+    public static final String DISTANCE_SORT = "distance";
+
+    private static final Pattern DISTANCE_PATTERN = Pattern.compile("\\d+(\\.\\d+)?(mm|cm|m|km|in|ft|yd|mi|nmi|NM)?");
+
+    private static final int MAX_GEOHASH_PRECISION = 12;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private String distance;
+
+    private Double north;
+
+    private Double south;
+
+    private Double west;
+
+    private Double east;
+
+    private List<Double> polygon;
+
+    private Integer geohashPrecision;
+
+    public GeoCriteria() {}
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    /**
+     * @return the radius around the center, with an Elasticsearch distance unit such as {@code 500m} or {@code 2km}.
+     */
+    public String getDistance() {
+        return distance;
+    }
+
+    public void setDistance(String distance) {
+        this.distance = distance;
+    }
+
+    public Double getNorth() {
+        return north;
+    }
+
+    public void setNorth(Double north) {
+        this.north = north;
+    }
+
+    public Double getSouth() {
+        return south;
+    }
+
+    public void setSouth(Double south) {
+        this.south = south;
+    }
+
+    public Double getWest() {
+        return west;
+    }
+
+    public void setWest(Double west) {
+        this.west = west;
+    }
+
+    public Double getEast() {
+        return east;
+    }
+
+    public void setEast(Double east) {
+        this.east = east;
+    }
+
+    /**
+     * @return the vertices of the polygon as a flat list of latitudes and longitudes, the polygon being closed if needed.
+     */
+    public List<Double> getPolygon() {
+        return polygon;
+    }
+
+    public void setPolygon(List<Double> polygon) {
+        this.polygon = polygon;
+    }
+
+    /**
+     * @return the length of the geohashes of the cells counted by the faceted search, from 1 to 12.
+     */
+    public Integer getGeohashPrecision() {
+        return geohashPrecision;
+    }
+
+    public void setGeohashPrecision(Integer geohashPrecision) {
+        this.geohashPrecision = geohashPrecision;
+    }
+
+    public boolean hasCenter() {
+        return latitude != null && longitude != null;
+    }
+
+    public boolean hasBoundingBox() {
+        return north != null && south != null && west != null && east != null;
+    }
+
+    public boolean hasPolygon() {
+        return polygon != null && !polygon.isEmpty();
+    }
+
+    /**
+     * Checks that the criteria are complete and in range, and that a sort by distance has a center.
+     *
+     * @param sort the requested sort.
+     * @return {@code true} if the criteria can be compiled into a query.
+     */
+    public boolean isValid(Sort sort) {
+        if ((latitude == null) != (longitude == null) || (hasCenter() && (!isLatitude(latitude) || !isLongitude(longitude)))) {
+            return false;
+        }
+        if (distance != null && (!hasCenter() || !DISTANCE_PATTERN.matcher(distance).matches())) {
+            return false;
+        }
+        if (sort.getOrderFor(DISTANCE_SORT) != null && !hasCenter()) {
+            return false;
+        }
+        boolean anyBound = north != null || south != null || west != null || east != null;
+        if (anyBound && (!hasBoundingBox() || !isLatitude(north) || !isLatitude(south) || north < south)) {
+            return false;
+        }
+        if (anyBound && (!isLongitude(west) || !isLongitude(east))) {
+            return false;
+        }
+        if (hasPolygon() && (polygon.size() < 6 || polygon.size() % 2 != 0 || !isPolygonInRange())) {
+            return false;
+        }
+        return geohashPrecision == null || (geohashPrecision >= 1 && geohashPrecision <= MAX_GEOHASH_PRECISION);
+    }
+
+    private boolean isPolygonInRange() {
+        for (int i = 0; i < polygon.size(); i += 2) {
+            if (!isLatitude(polygon.get(i)) || !isLongitude(polygon.get(i + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLatitude(Double value) {
+        return value != null && value >= -90 && value <= 90;
+    }
+
+    private static boolean isLongitude(Double value) {
+        return value != null && value >= -180 && value <= 180;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final GeoCriteria that = (GeoCriteria) o;
+        return (
+            Objects.equals(latitude, that.latitude) &&
+            Objects.equals(longitude, that.longitude) &&
+            Objects.equals(distance, that.distance) &&
+            Objects.equals(north, that.north) &&
+            Objects.equals(south, that.south) &&
+            Objects.equals(west, that.west) &&
+            Objects.equals(east, that.east) &&
+            Objects.equals(polygon, that.polygon) &&
+            Objects.equals(geohashPrecision, that.geohashPrecision)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(latitude, longitude, distance, north, south, west, east, polygon, geohashPrecision);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "GeoCriteria{" +
+            (latitude != null ? "latitude=" + latitude + ", " : "") +
+            (longitude != null ? "longitude=" + longitude + ", " : "") +
+            (distance != null ? "distance=" + distance + ", " : "") +
+            (north != null ? "north=" + north + ", " : "") +
+            (south != null ? "south=" + south + ", " : "") +
+            (west != null ? "west=" + west + ", " : "") +
+            (east != null ? "east=" + east + ", " : "") +
+            (polygon != null ? "polygon=" + polygon + ", " : "") +
+            (geohashPrecision != null ? "geohashPrecision=" + geohashPrecision + ", " : "") +
+        "}";
+    }
+}
@@ -0,0 +1,255 @@
+package com.dnc.mprs.propservice.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.BigDecimalFilter;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the search of the {@link com.dnc.mprs.propservice.domain.Property} entity. This class is used in
+ * {@link com.dnc.mprs.propservice.web.rest.PropertyResource} to receive all the possible filtering options from the Http
+ * request parameters, compiled into the filter clauses of the Elasticsearch query.
+ * For example the following could be a valid request:
+ * {@code /api/properties/_search?regionCd.equals=1111010100&type.in=APT,VILLA&area.greaterThanOrEqual=60}
+ * <p>
+ * The string filters match the whole value; only {@code equals}, {@code notEquals}, {@code in}, {@code notIn} and
+ * {@code specified} are supported, with the bounds of the range filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class PropertyCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter regionCd;
+
+    private StringFilter type;
+
+    private StringFilter parkingYn;
+
+    private BigDecimalFilter area;
+
+    private IntegerFilter rooms;
+
+    private IntegerFilter buildYear;
+
+    private LongFilter complexId;
+
+    public PropertyCriteria() {}
+
+    public PropertyCriteria(PropertyCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.regionCd = other.optionalRegionCd().map(StringFilter::copy).orElse(null);
+        this.type = other.optionalType().map(StringFilter::copy).orElse(null);
+        this.parkingYn = other.optionalParkingYn().map(StringFilter::copy).orElse(null);
+        this.area = other.optionalArea().map(BigDecimalFilter::copy).orElse(null);
+        this.rooms = other.optionalRooms().map(IntegerFilter::copy).orElse(null);
+        this.buildYear = other.optionalBuildYear().map(IntegerFilter::copy).orElse(null);
+        this.complexId = other.optionalComplexId().map(LongFilter::copy).orElse(null);
+    }
+
+    @Override
+    public PropertyCriteria copy() {
+        return new PropertyCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getRegionCd() {
+        return regionCd;
+    }
+
+    public Optional<StringFilter> optionalRegionCd() {
+        return Optional.ofNullable(regionCd);
+    }
+
+    public StringFilter regionCd() {
+        if (regionCd == null) {
+            setRegionCd(new StringFilter());
+        }
+        return regionCd;
+    }
+
+    public void setRegionCd(StringFilter regionCd) {
+        this.regionCd = regionCd;
+    }
+
+    public StringFilter getType() {
+        return type;
+    }
+
+    public Optional<StringFilter> optionalType() {
+        return Optional.ofNullable(type);
+    }
+
+    public StringFilter type() {
+        if (type == null) {
+            setType(new StringFilter());
+        }
+        return type;
+    }
+
+    public void setType(StringFilter type) {
+        this.type = type;
+    }
+
+    public StringFilter getParkingYn() {
+        return parkingYn;
+    }
+
+    public Optional<StringFilter> optionalParkingYn() {
+        return Optional.ofNullable(parkingYn);
+    }
+
+    public StringFilter parkingYn() {
+        if (parkingYn == null) {
+            setParkingYn(new StringFilter());
+        }
+        return parkingYn;
+    }
+
+    public void setParkingYn(StringFilter parkingYn) {
+        this.parkingYn = parkingYn;
+    }
+
+    public BigDecimalFilter getArea() {
+        return area;
+    }
+
+    public Optional<BigDecimalFilter> optionalArea() {
+        return Optional.ofNullable(area);
+    }
+
+    public BigDecimalFilter area() {
+        if (area == null) {
+            setArea(new BigDecimalFilter());
+        }
+        return area;
+    }
+
+    public void setArea(BigDecimalFilter area) {
+        this.area = area;
+    }
+
+    public IntegerFilter getRooms() {
+        return rooms;
+    }
+
+    public Optional<IntegerFilter> optionalRooms() {
+        return Optional.ofNullable(rooms);
+    }
+
+    public IntegerFilter rooms() {
+        if (rooms == null) {
+            setRooms(new IntegerFilter());
+        }
+        return rooms;
+    }
+
+    public void setRooms(IntegerFilter rooms) {
+        this.rooms = rooms;
+    }
+
+    public IntegerFilter getBuildYear() {
+        return buildYear;
+    }
+
+    public Optional<IntegerFilter> optionalBuildYear() {
+        return Optional.ofNullable(buildYear);
+    }
+
+    public IntegerFilter buildYear() {
+        if (buildYear == null) {
+            setBuildYear(new IntegerFilter());
+        }
+        return buildYear;
+    }
+
+    public void setBuildYear(IntegerFilter buildYear) {
+        this.buildYear = buildYear;
+    }
+
+    public LongFilter getComplexId() {
+        return complexId;
+    }
+
+    public Optional<LongFilter> optionalComplexId() {
+        return Optional.ofNullable(complexId);
+    }
+
+    public LongFilter complexId() {
+        if (complexId == null) {
+            setComplexId(new LongFilter());
+        }
+        return complexId;
+    }
+
+    public void setComplexId(LongFilter complexId) {
+        this.complexId = complexId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PropertyCriteria that = (PropertyCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(regionCd, that.regionCd) &&
+            Objects.equals(type, that.type) &&
+            Objects.equals(parkingYn, that.parkingYn) &&
+            Objects.equals(area, that.area) &&
+            Objects.equals(rooms, that.rooms) &&
+            Objects.equals(buildYear, that.buildYear) &&
+            Objects.equals(complexId, that.complexId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, regionCd, type, parkingYn, area, rooms, buildYear, complexId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PropertyCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalRegionCd().map(f -> "regionCd=" + f + ", ").orElse("") +
+            optionalType().map(f -> "type=" + f + ", ").orElse("") +
+            optionalParkingYn().map(f -> "parkingYn=" + f + ", ").orElse("") +
+            optionalArea().map(f -> "area=" + f + ", ").orElse("") +
+            optionalRooms().map(f -> "rooms=" + f + ", ").orElse("") +
+            optionalBuildYear().map(f -> "buildYear=" + f + ", ").orElse("") +
+            optionalComplexId().map(f -> "complexId=" + f + ", ").orElse("") +
+        "}";
+    }
+}
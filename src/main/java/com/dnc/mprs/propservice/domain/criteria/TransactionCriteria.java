@@ -0,0 +1,183 @@
+package com.dnc.mprs.propservice.domain.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.BigDecimalFilter;
+import tech.jhipster.service.filter.InstantFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the search of the {@link com.dnc.mprs.propservice.domain.Transaction} entity. This class is used in
+ * {@link com.dnc.mprs.propservice.web.rest.TransactionResource} to receive all the possible filtering options from the Http
+ * request parameters, compiled into the filter clauses of the Elasticsearch query.
+ * For example the following could be a valid request:
+ * {@code /api/transactions/_search?transactionType.equals=SALE&price.lessThan=1000000000}
+ * <p>
+ * The string filters match the whole value; only {@code equals}, {@code notEquals}, {@code in}, {@code notIn} and
+ * {@code specified} are supported, with the bounds of the range filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class TransactionCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private LongFilter propertyId;
+
+    private StringFilter transactionType;
+
+    private BigDecimalFilter price;
+
+    private InstantFilter transactionDate;
+
+    public TransactionCriteria() {}
+
+    public TransactionCriteria(TransactionCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.propertyId = other.optionalPropertyId().map(LongFilter::copy).orElse(null);
+        this.transactionType = other.optionalTransactionType().map(StringFilter::copy).orElse(null);
+        this.price = other.optionalPrice().map(BigDecimalFilter::copy).orElse(null);
+        this.transactionDate = other.optionalTransactionDate().map(InstantFilter::copy).orElse(null);
+    }
+
+    @Override
+    public TransactionCriteria copy() {
+        return new TransactionCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public LongFilter getPropertyId() {
+        return propertyId;
+    }
+
+    public Optional<LongFilter> optionalPropertyId() {
+        return Optional.ofNullable(propertyId);
+    }
+
+    public LongFilter propertyId() {
+        if (propertyId == null) {
+            setPropertyId(new LongFilter());
+        }
+        return propertyId;
+    }
+
+    public void setPropertyId(LongFilter propertyId) {
+        this.propertyId = propertyId;
+    }
+
+    public StringFilter getTransactionType() {
+        return transactionType;
+    }
+
+    public Optional<StringFilter> optionalTransactionType() {
+        return Optional.ofNullable(transactionType);
+    }
+
+    public StringFilter transactionType() {
+        if (transactionType == null) {
+            setTransactionType(new StringFilter());
+        }
+        return transactionType;
+    }
+
+    public void setTransactionType(StringFilter transactionType) {
+        this.transactionType = transactionType;
+    }
+
+    public BigDecimalFilter getPrice() {
+        return price;
+    }
+
+    public Optional<BigDecimalFilter> optionalPrice() {
+        return Optional.ofNullable(price);
+    }
+
+    public BigDecimalFilter price() {
+        if (price == null) {
+            setPrice(new BigDecimalFilter());
+        }
+        return price;
+    }
+
+    public void setPrice(BigDecimalFilter price) {
+        this.price = price;
+    }
+
+    public InstantFilter getTransactionDate() {
+        return transactionDate;
+    }
+
+    public Optional<InstantFilter> optionalTransactionDate() {
+        return Optional.ofNullable(transactionDate);
+    }
+
+    public InstantFilter transactionDate() {
+        if (transactionDate == null) {
+            setTransactionDate(new InstantFilter());
+        }
+        return transactionDate;
+    }
+
+    public void setTransactionDate(InstantFilter transactionDate) {
+        this.transactionDate = transactionDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final TransactionCriteria that = (TransactionCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(propertyId, that.propertyId) &&
+            Objects.equals(transactionType, that.transactionType) &&
+            Objects.equals(price, that.price) &&
+            Objects.equals(transactionDate, that.transactionDate)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, propertyId, transactionType, price, transactionDate);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TransactionCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalPropertyId().map(f -> "propertyId=" + f + ", ").orElse("") +
+            optionalTransactionType().map(f -> "transactionType=" + f + ", ").orElse("") +
+            optionalPrice().map(f -> "price=" + f + ", ").orElse("") +
+            optionalTransactionDate().map(f -> "transactionDate=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Criteria of the search endpoints.
+ */
+package com.dnc.mprs.propservice.domain.criteria;
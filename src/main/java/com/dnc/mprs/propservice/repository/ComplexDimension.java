@@ -0,0 +1,194 @@
+package com.dnc.mprs.propservice.repository;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory store of the complexes by id, attached to the properties read from the database instead of joining the
+ * {@code complex} table in every property query.
+ * <p>
+ * Complexes are few and rarely change compared with properties, so the store holds all of them: it is preloaded when the
+ * application is ready, and the complexes missing from it are loaded on first use, with one query per batch of properties.
+ * The map is copied on every change and read without locking. The owning service evicts the complexes it changes after the
+ * completion of the transaction, as well as the ones changed by the other instances; a complex loaded before its eviction is
+ * not stored, the other complexes of the load are. The attached instances are shared: they must not be modified. When
+ * disabled, the properties are queried with a join.
+ */
+@Component
+public class ComplexDimension {
+
+    /**
+     * Number of properties whose missing complexes are loaded with one query.
+     */
+    static final int ATTACH_BATCH_SIZE = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ComplexDimension.class);
+
+    private final ComplexRepository complexRepository;
+
+    private final boolean enabled;
+
+    private volatile LongObjectHashMap<Complex> complexes = new LongObjectHashMap<>();
+
+    private long generation;
+
+    /**
+     * Generation of the last eviction of every evicted complex, since the last {@link #clear()}.
+     */
+    private final LongLongHashMap evictedAt = new LongLongHashMap();
+
+    private long clearedAt;
+
+    public ComplexDimension(ComplexRepository complexRepository, ApplicationProperties applicationProperties) {
+        this.complexRepository = complexRepository;
+        this.enabled = applicationProperties.getCache().isEnabled();
+    }
+
+    /**
+     * Loads all the complexes in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled) {
+            return;
+        }
+        long expectedGeneration = currentGeneration();
+        complexRepository
+            .findAll()
+            .collectList()
+            .subscribe(
+                loaded -> LOG.info("Preloaded {} of {} complexes", putAll(loaded, expectedGeneration), loaded.size()),
+                e -> LOG.warn("Could not preload the complexes: {}", e.getMessage())
+            );
+    }
+
+    /**
+     * Attaches its complex to a property, loading the complex if it is not in memory.
+     *
+     * @param property the property, read without its complex.
+     * @return the property.
+     */
+    public Mono<Property> attach(Property property) {
+        return attachBatch(List.of(property)).next();
+    }
+
+    /**
+     * Attaches their complexes to properties, loading the complexes which are not in memory with one query per
+     * {@value #ATTACH_BATCH_SIZE} properties.
+     *
+     * @param properties the properties, read without their complex.
+     * @return the properties, in the same order.
+     */
+    public Flux<Property> attachAll(Flux<Property> properties) {
+        return properties.buffer(ATTACH_BATCH_SIZE).concatMap(this::attachBatch);
+    }
+
+    private Flux<Property> attachBatch(List<Property> properties) {
+        LongObjectHashMap<Complex> current = complexes;
+        Set<Long> missingIds = new HashSet<>();
+        for (Property property : properties) {
+            Long complexId = property.getComplexId();
+            if (complexId != null && !current.containsKey(complexId)) {
+                missingIds.add(complexId);
+            }
+        }
+        Mono<LongObjectHashMap<Complex>> missing = missingIds.isEmpty() ? Mono.just(new LongObjectHashMap<>()) : load(missingIds);
+        return missing.flatMapIterable(loaded -> {
+            for (Property property : properties) {
+                Long complexId = property.getComplexId();
+                if (complexId != null) {
+                    Complex complex = current.get(complexId);
+                    property.setComplex(complex != null ? complex : loaded.get(complexId));
+                }
+            }
+            return properties;
+        });
+    }
+
+    private Mono<LongObjectHashMap<Complex>> load(Collection<Long> ids) {
+        long expectedGeneration = currentGeneration();
+        return complexRepository
+            .findAllByIdIn(ids)
+            .collectList()
+            .map(loaded -> {
+                putAll(loaded, expectedGeneration);
+                LongObjectHashMap<Complex> byId = new LongObjectHashMap<>(loaded.size());
+                for (Complex complex : loaded) {
+                    byId.put(complex.getId(), complex);
+                }
+                return byId;
+            });
+    }
+
+    /**
+     * Evicts a complex, to be loaded again on next use.
+     *
+     * @param id the id of the complex.
+     */
+    public synchronized void evict(long id) {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        evictedAt.put(id, generation);
+        if (complexes.containsKey(id)) {
+            LongObjectHashMap<Complex> copy = new LongObjectHashMap<>(complexes);
+            copy.remove(id);
+            complexes = copy;
+        }
+    }
+
+    /**
+     * Evicts all the complexes.
+     */
+    public synchronized void clear() {
+        generation++;
+        clearedAt = generation;
+        evictedAt.clear();
+        complexes = new LongObjectHashMap<>();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Stores the loaded complexes which were not evicted since the load started.
+     *
+     * @return the number of stored complexes.
+     */
+    private synchronized int putAll(List<Complex> loaded, long expectedGeneration) {
+        if (clearedAt > expectedGeneration) {
+            return 0;
+        }
+        LongObjectHashMap<Complex> copy = new LongObjectHashMap<>(complexes.size() + loaded.size());
+        copy.putAll(complexes);
+        int stored = 0;
+        for (Complex complex : loaded) {
+            if (evictedAt.getOrDefault(complex.getId(), 0L) <= expectedGeneration) {
+                copy.put(complex.getId(), complex);
+                stored++;
+            }
+        }
+        complexes = copy;
+        return stored;
+    }
+}
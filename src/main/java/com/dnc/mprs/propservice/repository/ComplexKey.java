@@ -0,0 +1,10 @@
+package com.dnc.mprs.propservice.repository;
+
+/**
+ * The natural key of a complex, by which the bulk import finds the complexes it already created.
+ *
+ * @param id the id of the complex.
+ * @param addressCode the address code of the complex, may be {@code null}.
+ * @param complexName the name of the complex.
+ */
+public record ComplexKey(Long id, String addressCode, String complexName) {}
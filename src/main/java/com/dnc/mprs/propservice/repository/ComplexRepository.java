@@ -1,7 +1,11 @@
 package com.dnc.mprs.propservice.repository;
 
 import com.dnc.mprs.propservice.domain.Complex;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -15,6 +19,14 @@ import reactor.core.publisher.Mono;
 public interface ComplexRepository extends ReactiveCrudRepository<Complex, Long>, ComplexRepositoryInternal {
     Flux<Complex> findAllBy(Pageable pageable);
 
+    Flux<Complex> findAllBy(Keyset keyset);
+
+    @Query("SELECT entity.id FROM complex entity WHERE entity.id IN (:ids)")
+    Flux<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT COUNT(*) FROM complex entity WHERE entity.updated_at >= :since")
+    Mono<Long> countUpdatedSince(Instant since);
+
     @Override
     <S extends Complex> Mono<S> save(S entity);
 
@@ -33,9 +45,25 @@ interface ComplexRepositoryInternal {
 
     Flux<Complex> findAllBy(Pageable pageable);
 
+    Flux<Complex> findAllBy(Keyset keyset);
+
+    Flux<Complex> findAllUpdatedSince(Instant since, Keyset keyset);
+
+    Flux<Complex> findAllByIdIn(Collection<Long> ids);
+
     Flux<Complex> findAll();
 
     Mono<Complex> findById(Long id);
+
+    Mono<Long> deleteByIdReturningCount(Long id);
+
+    Flux<Complex> upsertAll(List<Complex> entities);
+
+    Mono<Long> estimateCount();
+
+    Flux<SuggestionSource> findAllSuggestionSources();
+
+    Flux<ComplexKey> findAllKeysByComplexNameIn(Collection<String> complexNames);
     // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
     // Flux<Complex> findAllBy(Pageable pageable, Criteria criteria);
 }
@@ -4,22 +4,24 @@ import com.dnc.mprs.propservice.domain.Complex;
 import com.dnc.mprs.propservice.repository.rowmapper.ComplexRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -35,8 +37,29 @@ class ComplexRepositoryInternalImpl extends SimpleR2dbcRepository<Complex, Long>
 
     private final ComplexRowMapper complexMapper;
 
+    private static final String SELECT_SUGGESTION_SOURCES =
+        "SELECT c.id, c.complex_name, CAST(COALESCE(r.volume, 0) AS SIGNED) AS volume FROM complex c" +
+        " LEFT JOIN (SELECT dimension_key, SUM(transaction_count) AS volume FROM transaction_rollup" +
+        " WHERE dimension = 'COMPLEX' GROUP BY dimension_key) r ON r.dimension_key = CAST(c.id AS CHAR)";
+
+    private static final String SELECT_KEYS_BY_COMPLEX_NAME =
+        "SELECT c.id, c.address_code, c.complex_name FROM complex c WHERE c.complex_name IN (:complexNames) ORDER BY c.id";
+
     private static final Table entityTable = Table.aliased("complex", EntityManager.ENTITY_ALIAS);
 
+    private static final Condition ID_CONDITION = Conditions.isEqual(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.ID_PARAMETER)
+    );
+    private static final Condition UPDATED_SINCE_CONDITION = Conditions.isGreaterOrEqualTo(
+        entityTable.column("updated_at"),
+        SQL.bindMarker(":" + EntityManager.UPDATED_SINCE_PARAMETER)
+    );
+    private static final Condition ID_IN_CONDITION = Conditions.in(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.IDS_PARAMETER)
+    );
+
     public ComplexRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -57,33 +80,109 @@ class ComplexRepositoryInternalImpl extends SimpleR2dbcRepository<Complex, Long>
 
     @Override
     public Flux<Complex> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("findAll", pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<Complex> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = ComplexSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
+    @Override
+    public Flux<Complex> findAllBy(Keyset keyset) {
+        return createQuery("findAll", keyset, null).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Complex> findAllUpdatedSince(Instant since, Keyset keyset) {
+        return createQuery("findAllUpdatedSince", keyset, UPDATED_SINCE_CONDITION)
+            .bind(EntityManager.UPDATED_SINCE_PARAMETER, entityManager.toBindValue(since))
+            .map(this::process)
+            .all();
+    }
+
+    @Override
+    public Flux<Complex> findAllByIdIn(Collection<Long> ids) {
+        return createQuery("findAllByIdIn", (Pageable) null, ID_IN_CONDITION)
+            .bind(EntityManager.IDS_PARAMETER, ids)
+            .map(this::process)
+            .all();
+    }
+
+    /**
+     * Creates the statement of a query, rendered once per shape and cached by the {@link EntityManager}: the condition must
+     * only depend on the query name, and use bind markers for its values.
+     */
+    DatabaseClient.GenericExecuteSpec createQuery(String queryName, Pageable pageable, Condition whereClause) {
         // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Complex.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        String select = entityManager.cachedSelect(Complex.class, queryName, pageable, () ->
+            entityManager.createSelect(createSelectFrom(), Complex.class, pageable, whereClause)
+        );
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    DatabaseClient.GenericExecuteSpec createQuery(String queryName, Keyset keyset, Condition whereClause) {
+        String select = entityManager.cachedSelect(Complex.class, queryName, keyset, () ->
+            entityManager.createSelect(createSelectFrom(), Complex.class, keyset, whereClause)
+        );
+        return entityManager.bindKeyset(db.sql(select), keyset);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
+        List<Expression> columns = ComplexSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
     public Flux<Complex> findAll() {
-        return findAllBy(null);
+        return findAllBy((Pageable) null);
     }
 
     @Override
     public Mono<Complex> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery("findById", (Pageable) null, ID_CONDITION).bind(EntityManager.ID_PARAMETER, id).map(this::process).one();
     }
 
     private Complex process(Row row, RowMetadata metadata) {
-        Complex entity = complexMapper.apply(row, "e");
+        Complex entity = complexMapper.apply(row, metadata, "e");
         return entity;
     }
 
+    @Override
+    public Mono<Long> deleteByIdReturningCount(Long id) {
+        return entityManager.deleteById(Complex.class, id);
+    }
+
+    @Override
+    public Flux<Complex> upsertAll(List<Complex> entities) {
+        return entityManager.upsertAll(Complex.class, entities);
+    }
+
+    @Override
+    public Mono<Long> estimateCount() {
+        return entityManager.estimateCount(Complex.class);
+    }
+
+    @Override
+    public Flux<SuggestionSource> findAllSuggestionSources() {
+        return db
+            .sql(SELECT_SUGGESTION_SOURCES)
+            .map(row ->
+                new SuggestionSource(
+                    row.get("id", Long.class),
+                    Stream.ofNullable(row.get("complex_name", String.class)).toList(),
+                    row.get("volume", Long.class)
+                )
+            )
+            .all();
+    }
+
+    @Override
+    public Flux<ComplexKey> findAllKeysByComplexNameIn(Collection<String> complexNames) {
+        return db
+            .sql(SELECT_KEYS_BY_COMPLEX_NAME)
+            .bind("complexNames", complexNames)
+            .map(row ->
+                new ComplexKey(row.get("id", Long.class), row.get("address_code", String.class), row.get("complex_name", String.class))
+            )
+            .all();
+    }
+
     @Override
     public <S extends Complex> Mono<S> save(S entity) {
         return super.save(entity);
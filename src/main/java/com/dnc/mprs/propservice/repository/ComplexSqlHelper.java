@@ -17,6 +17,8 @@ public class ComplexSqlHelper {
         columns.add(Column.aliased("city", table, columnPrefix + "_city"));
         columns.add(Column.aliased("town", table, columnPrefix + "_town"));
         columns.add(Column.aliased("address_code", table, columnPrefix + "_address_code"));
+        columns.add(Column.aliased("latitude", table, columnPrefix + "_latitude"));
+        columns.add(Column.aliased("longitude", table, columnPrefix + "_longitude"));
         columns.add(Column.aliased("created_at", table, columnPrefix + "_created_at"));
         columns.add(Column.aliased("updated_at", table, columnPrefix + "_updated_at"));
 
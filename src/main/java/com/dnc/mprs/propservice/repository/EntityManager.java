@@ -3,23 +3,40 @@ package com.dnc.mprs.propservice.repository;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.springframework.core.convert.ConversionService;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
@@ -36,6 +53,19 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    public static final String KEYSET_VALUE_PARAMETER = "keyset_value";
+    public static final String KEYSET_ID_PARAMETER = "keyset_id";
+    public static final String UPDATED_SINCE_PARAMETER = "updated_since";
+    public static final String ID_PARAMETER = "id";
+    public static final String IDS_PARAMETER = "ids";
+    public static final String LIMIT_PARAMETER = "page_limit";
+    public static final String OFFSET_PARAMETER = "page_offset";
+
+    /**
+     * Upper bound of the statement cache, as the sort of the paged queries comes from the clients.
+     */
+    private static final int MAX_CACHED_STATEMENTS = 512;
+
     public static class LinkTable {
 
         final String tableName;
@@ -56,16 +86,27 @@ public class EntityManager {
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final R2dbcCustomConversions conversions;
+    private final ConversionService conversionService;
+    private final Map<String, String> statements = new ConcurrentHashMap<>();
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcCustomConversions conversions
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.conversions = conversions;
+        this.conversionService = r2dbcEntityTemplate.getConverter().getConversionService();
     }
 
     /**
      * Creates an SQL select statement from the given fragment and pagination parameters.
+     * The page must be bound with {@link #bindPage(DatabaseClient.GenericExecuteSpec, Pageable)}.
      * @param selectFrom a representation of a select statement.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned.
@@ -73,31 +114,16 @@ public class EntityManager {
      * @return sql select statement
      */
     public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Condition where) {
-        if (pageable != null) {
-            if (where != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(where),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
-            }
-        } else {
-            if (where != null) {
-                return createSelectImpl(selectFrom.where(where), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
-            }
+        SelectOrdered select = where != null ? selectFrom.where(where) : selectFrom;
+        if (pageable == null) {
+            return createSelectImpl(select, entityType, null);
         }
+        return createSelectImpl(select, entityType, pageable.getSort()) + " LIMIT :" + LIMIT_PARAMETER + " OFFSET :" + OFFSET_PARAMETER;
     }
 
     /**
      * Creates an SQL select statement from the given fragment and pagination parameters.
+     * The page must be bound with {@link #bindPage(DatabaseClient.GenericExecuteSpec, Pageable)}.
      * @param selectFrom a representation of a select statement.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
@@ -105,27 +131,125 @@ public class EntityManager {
      * @return sql select statement
      */
     public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Condition where) {
-        if (pageable != null) {
-            if (where != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(where),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
-            }
-        } else {
-            if (where != null) {
-                return createSelectImpl(selectFrom.where(where), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
-            }
+        SelectOrdered select = where != null ? selectFrom.where(where) : selectFrom;
+        if (pageable == null) {
+            return createSelectImpl(select, entityType, null);
+        }
+        return createSelectImpl(select, entityType, pageable.getSort()) + " LIMIT :" + LIMIT_PARAMETER + " OFFSET :" + OFFSET_PARAMETER;
+    }
+
+    /**
+     * Creates an SQL select statement which seeks to the position of the given keyset, instead of skipping rows with an offset.
+     * The values of the keyset must be bound with {@link #bindKeyset(DatabaseClient.GenericExecuteSpec, Keyset)}.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the sort order, page size and position of the page.
+     * @param where condition or null. The condition to apply as where clause, in addition to the keyset condition.
+     * @return sql select statement
+     */
+    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Keyset keyset, Condition where) {
+        Condition condition = appendKeysetCondition(where, entityType, keyset);
+        SelectOrdered select = condition != null ? selectFrom.where(condition) : selectFrom;
+        return createSelectImpl(select, entityType, keyset.getSort()) + " LIMIT :" + LIMIT_PARAMETER;
+    }
+
+    /**
+     * Creates an SQL select statement which seeks to the position of the given keyset, instead of skipping rows with an offset.
+     * The values of the keyset must be bound with {@link #bindKeyset(DatabaseClient.GenericExecuteSpec, Keyset)}.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the sort order, page size and position of the page.
+     * @param where condition or null. The condition to apply as where clause, in addition to the keyset condition.
+     * @return sql select statement
+     */
+    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Keyset keyset, Condition where) {
+        Condition condition = appendKeysetCondition(where, entityType, keyset);
+        SelectOrdered select = condition != null ? selectFrom.where(condition) : selectFrom;
+        return createSelectImpl(select, entityType, keyset.getSort()) + " LIMIT :" + LIMIT_PARAMETER;
+    }
+
+    /**
+     * Binds the position of the keyset to a statement created by {@link #createSelect(SelectFromAndJoin, Class, Keyset, Condition)}.
+     * @param spec the statement to bind the values to.
+     * @param keyset the keyset which was used to create the statement.
+     * @return the statement with the keyset values bound.
+     */
+    public DatabaseClient.GenericExecuteSpec bindKeyset(DatabaseClient.GenericExecuteSpec spec, Keyset keyset) {
+        spec = spec.bind(LIMIT_PARAMETER, keyset.getSize());
+        if (!keyset.isPositioned()) {
+            return spec;
+        }
+        spec = spec.bind(KEYSET_ID_PARAMETER, keyset.getLastId());
+        if (!keyset.isSortedById() && keyset.getLastValue() != null) {
+            spec = spec.bind(KEYSET_VALUE_PARAMETER, toBindValue(keyset.getLastValue()));
+        }
+        return spec;
+    }
+
+    /**
+     * Binds the page to a statement created by {@link #createSelect(SelectFromAndJoin, Class, Pageable, Condition)}.
+     * @param spec the statement to bind the values to.
+     * @param pageable the page which was used to create the statement, or null.
+     * @return the statement with the page bound.
+     */
+    public DatabaseClient.GenericExecuteSpec bindPage(DatabaseClient.GenericExecuteSpec spec, Pageable pageable) {
+        if (pageable == null) {
+            return spec;
+        }
+        return spec.bind(LIMIT_PARAMETER, pageable.getPageSize()).bind(OFFSET_PARAMETER, pageable.getOffset());
+    }
+
+    /**
+     * Gets the SQL of a paged query, rendering it only on first use of the shape of the query: the given name, the sort and
+     * whether it is paged. The renderer must only use bind markers for the values, so the statement can be reused and prepared
+     * once by the server.
+     * @param entityType the entity type which holds the table name.
+     * @param queryName the name of the query, identifying its joins and condition.
+     * @param pageable page parameter, or null, if everything needs to be returned.
+     * @param renderer renders the statement, e.g. with {@link #createSelect(SelectFromAndJoin, Class, Pageable, Condition)}.
+     * @return sql select statement
+     */
+    public String cachedSelect(Class<?> entityType, String queryName, Pageable pageable, Supplier<String> renderer) {
+        String shape = pageable != null ? queryName + "|page|" + pageable.getSort() : queryName;
+        return cachedStatement(entityType, shape, renderer);
+    }
+
+    /**
+     * Gets the SQL of a keyset paginated query, rendering it only on first use of the shape of the query: the given name, the
+     * order of the keyset, whether it is positioned and whether the last sort key is null.
+     * @param entityType the entity type which holds the table name.
+     * @param queryName the name of the query, identifying its joins and condition.
+     * @param keyset the sort order, page size and position of the page.
+     * @param renderer renders the statement, e.g. with {@link #createSelect(SelectFromAndJoin, Class, Keyset, Condition)}.
+     * @return sql select statement
+     */
+    public String cachedSelect(Class<?> entityType, String queryName, Keyset keyset, Supplier<String> renderer) {
+        String shape = queryName + "|keyset|" + keyset.getOrder() + "|" + keyset.isPositioned() + "|" + (keyset.getLastValue() == null);
+        return cachedStatement(entityType, shape, renderer);
+    }
+
+    private String cachedStatement(Class<?> entityType, String shape, Supplier<String> renderer) {
+        String key = entityType.getName() + "|" + shape;
+        String statement = statements.get(key);
+        if (statement != null) {
+            return statement;
         }
+        statement = renderer.get();
+        if (statements.size() < MAX_CACHED_STATEMENTS) {
+            statements.putIfAbsent(key, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Converts a value with the registered custom write conversions, so it can be bound to a statement, e.g. an
+     * {@link java.time.Instant} becomes a {@link java.time.LocalDateTime}.
+     * @param value the value to convert.
+     * @return the value which can be bound to a statement.
+     */
+    public Object toBindValue(Object value) {
+        Optional<Class<?>> target = conversions.getCustomWriteTarget(value.getClass());
+        return target.isPresent() ? conversionService.convert(value, target.get()) : value;
     }
 
     /**
@@ -156,6 +280,41 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(delete)).fetch().rowsUpdated();
     }
 
+    /**
+     * Delete the entity with the given type and id, and return the number of deletions.
+     * @param entityType the entity type which holds the table name.
+     * @param id the id of the entity.
+     * @return the number of deleted entity, 0 if it did not exist.
+     */
+    public Mono<Long> deleteById(Class<?> entityType, Object id) {
+        Assert.notNull(id, "id is null");
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "entityType is not a persistent entity");
+        return r2dbcEntityTemplate.delete(Query.query(Criteria.where(entity.getRequiredIdProperty().getName()).is(id)), entityType);
+    }
+
+    /**
+     * Returns the estimated number of rows of the table of the given entity type, read from the MySQL table statistics instead of
+     * counting the rows. The estimate may be off by a large margin for InnoDB tables, and is only refreshed by MySQL when the
+     * statistics are recalculated or the cached statistics expire (see {@code information_schema_stats_expiry}).
+     * @param entityType the entity type which holds the table name.
+     * @return the estimated number of rows.
+     */
+    public Mono<Long> estimateCount(Class<?> entityType) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "entityType is not a persistent entity");
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(
+                "SELECT CAST(COALESCE(table_rows, 0) AS SIGNED) AS table_rows FROM information_schema.tables" +
+                " WHERE table_schema = DATABASE() AND table_name = :table_name"
+            )
+            .bind("table_name", entity.getTableName().getReference())
+            .map(row -> row.get("table_rows", Long.class))
+            .one()
+            .defaultIfEmpty(0L);
+    }
+
     /**
      * Inserts the given entity into the database - and sets the id, if it's an autoincrement field.
      * @param <S> the type of the persisted entity.
@@ -166,6 +325,94 @@ public class EntityManager {
         return r2dbcEntityTemplate.insert(entity);
     }
 
+    /**
+     * Inserts or updates the given entities with multi-row statements: one {@code INSERT} for the entities without id, and one
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE} for the entities with an id. The generated ids are set on the new entities.
+     * As the {@code INSERT} does not mix generated and explicit ids, MySQL assigns consecutive ids to its rows, starting at the
+     * id it reports as generated (with the default {@code auto_increment_increment} of 1).
+     * @param <S> the type of the persisted entities.
+     * @param entityType the entity type which holds the table name.
+     * @param entities the entities to save. The statements must run in a transaction to be atomic.
+     * @return the saved entities, in the given order.
+     */
+    public <S> Flux<S> upsertAll(Class<S> entityType, List<S> entities) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "entityType is not a persistent entity");
+        List<S> inserts = new ArrayList<>();
+        List<S> upserts = new ArrayList<>();
+        for (S row : entities) {
+            (entity.getIdentifierAccessor(row).getIdentifier() == null ? inserts : upserts).add(row);
+        }
+        return executeInsert(entity, inserts, false).then(executeInsert(entity, upserts, true)).thenMany(Flux.fromIterable(entities));
+    }
+
+    private Mono<Void> executeInsert(RelationalPersistentEntity<?> entity, List<?> rows, boolean upsert) {
+        if (rows.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveDataAccessStrategy dataAccessStrategy = r2dbcEntityTemplate.getDataAccessStrategy();
+        RelationalPersistentProperty idProperty = entity.getRequiredIdProperty();
+        List<OutboundRow> outboundRows = rows.stream().map(dataAccessStrategy::getOutboundRow).toList();
+        List<SqlIdentifier> columns = new ArrayList<>(outboundRows.get(0).keySet());
+        if (!upsert) {
+            columns.remove(idProperty.getColumnName());
+        }
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < outboundRows.size(); i++) {
+            StringJoiner markers = new StringJoiner(", ", "(", ")");
+            for (int j = 0; j < columns.size(); j++) {
+                markers.add(":" + bulkParameterName(i, j));
+            }
+            values.add(markers.toString());
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+            .append(dataAccessStrategy.toSql(entity.getTableName()))
+            .append(" (")
+            .append(columns.stream().map(dataAccessStrategy::toSql).collect(Collectors.joining(", ")))
+            .append(") VALUES ")
+            .append(values);
+        if (upsert) {
+            sql
+                .append(" AS new ON DUPLICATE KEY UPDATE ")
+                .append(
+                    columns
+                        .stream()
+                        .filter(column -> !column.equals(idProperty.getColumnName()))
+                        .map(dataAccessStrategy::toSql)
+                        .map(column -> column + " = new." + column)
+                        .collect(Collectors.joining(", "))
+                );
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString());
+        for (int i = 0; i < outboundRows.size(); i++) {
+            for (int j = 0; j < columns.size(); j++) {
+                spec = spec.bind(bulkParameterName(i, j), outboundRows.get(i).get(columns.get(j)));
+            }
+        }
+        if (upsert) {
+            return spec.then();
+        }
+        String idColumn = dataAccessStrategy.toSql(idProperty.getColumnName());
+        return spec
+            .filter(statement -> statement.returnGeneratedValues(idColumn))
+            .map(row -> row.get(0, Long.class))
+            .all()
+            .collectList()
+            .doOnNext(generatedIds -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    long id = generatedIds.size() == rows.size() ? generatedIds.get(i) : generatedIds.get(0) + i;
+                    entity.getPropertyAccessor(rows.get(i)).setProperty(idProperty, conversionService.convert(id, idProperty.getType()));
+                }
+            })
+            .then();
+    }
+
+    private static String bulkParameterName(int row, int column) {
+        return "r" + row + "_c" + column;
+    }
+
     /**
      * Updates the table, which links the entity with the referred entities.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
@@ -214,6 +461,48 @@ public class EntityManager {
         return createSelect(selectFrom.build());
     }
 
+    private Condition appendKeysetCondition(Condition where, Class<?> entityType, Keyset keyset) {
+        if (!keyset.isPositioned()) {
+            return where;
+        }
+        Condition keysetCondition = createKeysetCondition(entityType, keyset);
+        return where != null ? where.and(keysetCondition) : keysetCondition;
+    }
+
+    /**
+     * Creates the condition which selects the rows after the position of the keyset, in the order of the keyset: rows with a
+     * greater (or smaller, for descending order) sort key, or with the same sort key and a greater (or smaller) id. As MySQL
+     * sorts {@code NULL} first in ascending and last in descending order, a {@code NULL} sort key is handled separately.
+     */
+    private Condition createKeysetCondition(Class<?> entityType, Keyset keyset) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "entityType is not a persistent entity");
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        boolean ascending = keyset.getOrder().isAscending();
+
+        Column idColumn = table.column(entity.getRequiredIdProperty().getColumnName());
+        Expression lastId = SQL.bindMarker(":" + KEYSET_ID_PARAMETER);
+        Condition afterId = ascending ? Conditions.isGreater(idColumn, lastId) : Conditions.isLess(idColumn, lastId);
+        if (keyset.isSortedById()) {
+            return afterId;
+        }
+
+        RelationalPersistentProperty property = entity.getPersistentProperty(keyset.getOrder().getProperty());
+        if (property == null) {
+            throw new InvalidCursorException("Unknown sort property " + keyset.getOrder().getProperty());
+        }
+        Column sortColumn = table.column(property.getColumnName());
+        if (keyset.getLastValue() == null) {
+            Condition afterNull = sortColumn.isNull().and(afterId);
+            return Conditions.nest(ascending ? afterNull.or(sortColumn.isNotNull()) : afterNull);
+        }
+        Expression lastValue = SQL.bindMarker(":" + KEYSET_VALUE_PARAMETER);
+        Condition afterValue = ascending
+            ? Conditions.isGreater(sortColumn, lastValue)
+            : Conditions.isLess(sortColumn, lastValue).or(sortColumn.isNull());
+        return Conditions.nest(afterValue.or(Conditions.nest(Conditions.isEqual(sortColumn, lastValue).and(afterId))));
+    }
+
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
@@ -0,0 +1,13 @@
+package com.dnc.mprs.propservice.repository;
+
+/**
+ * A batch of an import job written after the checkpoint of the job, recorded in the transaction of its transactions so a
+ * resumed job does not write it again.
+ *
+ * @param end the byte offset of the row following the batch.
+ * @param rowsRead the number of rows of the batch.
+ * @param imported the number of transactions written.
+ * @param rejected the number of rows rejected.
+ * @param firstRejection the first rejection of the batch, may be {@code null}.
+ */
+public record ImportBatch(long end, long rowsRead, long imported, long rejected, String firstRejection) {}
@@ -0,0 +1,110 @@
+package com.dnc.mprs.propservice.repository;
+
+import com.dnc.mprs.propservice.domain.ImportJob;
+import java.time.Instant;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the ImportJob entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ImportJobRepository extends ReactiveCrudRepository<ImportJob, Long>, ImportJobRepositoryInternal {
+    Mono<ImportJob> findFirstByFileNameOrderByIdDesc(String fileName);
+
+    Flux<ImportJob> findTop20ByOrderByIdDesc();
+
+    /**
+     * Claims a job for an instance, unless another instance holds a claim which did not expire.
+     *
+     * @return 1 if the job is claimed, else 0.
+     */
+    @Modifying
+    @Query(
+        "UPDATE import_job SET claimed_by = :claimedBy, claimed_until = :claimedUntil" +
+        " WHERE id = :id AND (claimed_by IS NULL OR claimed_by = :claimedBy OR claimed_until < :now)"
+    )
+    Mono<Long> claim(Long id, String claimedBy, Instant claimedUntil, Instant now);
+
+    /**
+     * Extends the claim of a job, unless it expired and the job was claimed by another instance.
+     *
+     * @return 1 if the claim is extended, else 0.
+     */
+    @Modifying
+    @Query("UPDATE import_job SET claimed_until = :claimedUntil WHERE id = :id AND claimed_by = :claimedBy")
+    Mono<Long> renew(Long id, String claimedBy, Instant claimedUntil);
+
+    @Modifying
+    @Query("UPDATE import_job SET claimed_by = NULL, claimed_until = NULL WHERE id = :id AND claimed_by = :claimedBy")
+    Mono<Long> release(Long id, String claimedBy);
+
+    /**
+     * Deletes the recorded batches which the checkpoint of their job has passed.
+     */
+    @Modifying
+    @Query("DELETE FROM import_batch WHERE job_id = :jobId AND end_offset <= :checkpoint")
+    Mono<Long> deleteBatchesUpTo(Long jobId, long checkpoint);
+}
+
+interface ImportJobRepositoryInternal {
+    Mono<Void> insertBatch(Long jobId, ImportBatch batch);
+
+    Flux<ImportBatch> findBatchesAfter(Long jobId, long checkpoint);
+}
+
+class ImportJobRepositoryInternalImpl implements ImportJobRepositoryInternal {
+
+    private static final String INSERT_BATCH =
+        "INSERT INTO import_batch (job_id, end_offset, rows_read, imported, rejected, first_rejection)" +
+        " VALUES (:jobId, :end, :rowsRead, :imported, :rejected, :firstRejection)";
+
+    private static final String SELECT_BATCHES_AFTER =
+        "SELECT end_offset, rows_read, imported, rejected, first_rejection FROM import_batch" +
+        " WHERE job_id = :jobId AND end_offset > :checkpoint";
+
+    private final DatabaseClient db;
+
+    ImportJobRepositoryInternalImpl(DatabaseClient db) {
+        this.db = db;
+    }
+
+    @Override
+    public Mono<Void> insertBatch(Long jobId, ImportBatch batch) {
+        DatabaseClient.GenericExecuteSpec spec = db
+            .sql(INSERT_BATCH)
+            .bind("jobId", jobId)
+            .bind("end", batch.end())
+            .bind("rowsRead", batch.rowsRead())
+            .bind("imported", batch.imported())
+            .bind("rejected", batch.rejected());
+        spec = batch.firstRejection() != null
+            ? spec.bind("firstRejection", batch.firstRejection())
+            : spec.bindNull("firstRejection", String.class);
+        return spec.then();
+    }
+
+    @Override
+    public Flux<ImportBatch> findBatchesAfter(Long jobId, long checkpoint) {
+        return db
+            .sql(SELECT_BATCHES_AFTER)
+            .bind("jobId", jobId)
+            .bind("checkpoint", checkpoint)
+            .map(row ->
+                new ImportBatch(
+                    row.get("end_offset", Long.class),
+                    row.get("rows_read", Long.class),
+                    row.get("imported", Long.class),
+                    row.get("rejected", Long.class),
+                    row.get("first_rejection", String.class)
+                )
+            )
+            .all();
+    }
+}
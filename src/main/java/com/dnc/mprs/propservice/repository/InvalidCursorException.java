@@ -0,0 +1,20 @@
+package com.dnc.mprs.propservice.repository;
+
+/**
+ * Thrown when a continuation token cannot be decoded, or names a position the query cannot seek to: a sort property which
+ * does not exist, or an expired point in time of the search index.
+ * <p>
+ * The web layer reports it as an invalid cursor, unlike the other {@link IllegalArgumentException}s of a paginated query.
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,230 @@
+package com.dnc.mprs.propservice.repository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position of a keyset (seek) paginated query.
+ * <p>
+ * A keyset holds the sort order, the page size and - except for the first page - the sort key and the id of the last row of
+ * the previous page, so the next page can be selected with a {@code WHERE} condition instead of skipping rows with an
+ * {@code OFFSET}. It is exchanged with clients as an opaque, URL safe continuation token, see {@link #encode()} and
+ * {@link #decode(String, int)}.
+ */
+public final class Keyset {
+
+    public static final String ID_PROPERTY = "id";
+
+    private static final String SEPARATOR = "|";
+    private static final int TOKEN_PARTS = 5;
+
+    private final Sort.Order order;
+    private final int size;
+    private final boolean positioned;
+    private final Object lastValue;
+    private final Long lastId;
+
+    private Keyset(Sort.Order order, int size, boolean positioned, Object lastValue, Long lastId) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Keyset page size must be positive");
+        }
+        if (order.getProperty().contains(".")) {
+            throw new IllegalArgumentException("Keyset pagination does not support sorting by nested property " + order.getProperty());
+        }
+        this.order = order;
+        this.size = size;
+        this.positioned = positioned;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Creates the keyset for the first page. Only the first order of the given sort is used, rows are always ordered by id as
+     * tiebreaker.
+     *
+     * @param sort the requested sort, defaults to id ascending if unsorted.
+     * @param size the page size.
+     * @return the keyset of the first page.
+     */
+    public static Keyset first(Sort sort, int size) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(ID_PROPERTY));
+        return new Keyset(order, size, false, null, null);
+    }
+
+    /**
+     * Decodes a continuation token created by {@link #encode()}.
+     *
+     * @param token the continuation token.
+     * @param size the page size.
+     * @return the keyset of the page following the one which produced the token.
+     * @throws InvalidCursorException if the token is malformed.
+     */
+    public static Keyset decode(String token, int size) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed keyset token", e);
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, TOKEN_PARTS);
+        if (parts.length != TOKEN_PARTS) {
+            throw new InvalidCursorException("Malformed keyset token");
+        }
+        try {
+            Long lastId = Long.valueOf(parts[0]);
+            Sort.Order order = new Sort.Order(Sort.Direction.valueOf(parts[2]), parts[1]);
+            return new Keyset(order, size, true, parseValue(parts[3], parts[4]), lastId);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed keyset token", e);
+        }
+    }
+
+    /**
+     * Computes the keyset of the page following the given one.
+     *
+     * @param page the rows of the current page, in query order.
+     * @return the keyset of the next page, or empty if the given page was the last one.
+     */
+    public Optional<Keyset> next(List<?> page) {
+        if (page.size() < size) {
+            return Optional.empty();
+        }
+        BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(page.get(page.size() - 1));
+        Long id = (Long) last.getPropertyValue(ID_PROPERTY);
+        return Optional.of(new Keyset(order, size, true, last.getPropertyValue(order.getProperty()), id));
+    }
+
+    /**
+     * Encodes this keyset as an opaque, URL safe continuation token.
+     *
+     * @return the continuation token.
+     * @throws IllegalStateException if this is the keyset of the first page.
+     */
+    public String encode() {
+        if (!positioned) {
+            throw new IllegalStateException("The first page has no continuation token");
+        }
+        String raw = String.join(
+            SEPARATOR,
+            String.valueOf(lastId),
+            order.getProperty(),
+            order.getDirection().name(),
+            typeOf(lastValue),
+            lastValue != null ? lastValue.toString() : ""
+        );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the sort to apply, including the id tiebreaker.
+     */
+    public Sort getSort() {
+        if (isSortedById()) {
+            return Sort.by(order);
+        }
+        return Sort.by(order, new Sort.Order(order.getDirection(), ID_PROPERTY));
+    }
+
+    public boolean isSortedById() {
+        return ID_PROPERTY.equals(order.getProperty());
+    }
+
+    public Sort.Order getOrder() {
+        return order;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return {@code false} for the first page, {@code true} if the page starts after a known row.
+     */
+    public boolean isPositioned() {
+        return positioned;
+    }
+
+    public Object getLastValue() {
+        return lastValue;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    private static String typeOf(Object value) {
+        if (value == null) {
+            return "N";
+        }
+        if (value instanceof Long) {
+            return "L";
+        }
+        if (value instanceof Integer) {
+            return "I";
+        }
+        if (value instanceof BigDecimal) {
+            return "D";
+        }
+        if (value instanceof Instant) {
+            return "T";
+        }
+        if (value instanceof String) {
+            return "S";
+        }
+        throw new IllegalArgumentException("Unsupported keyset value type " + value.getClass().getName());
+    }
+
+    private static Object parseValue(String type, String value) {
+        return switch (type) {
+            case "N" -> null;
+            case "L" -> Long.valueOf(value);
+            case "I" -> Integer.valueOf(value);
+            case "D" -> new BigDecimal(value);
+            case "T" -> Instant.parse(value);
+            case "S" -> value;
+            default -> throw new IllegalArgumentException("Unsupported keyset value type " + type);
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Keyset)) {
+            return false;
+        }
+        Keyset keyset = (Keyset) o;
+        return (
+            size == keyset.size &&
+            positioned == keyset.positioned &&
+            order.equals(keyset.order) &&
+            Objects.equals(lastValue, keyset.lastValue) &&
+            Objects.equals(lastId, keyset.lastId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(order, size, positioned, lastValue, lastId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Keyset{" +
+            "order=" + order +
+            ", size=" + size +
+            ", lastValue=" + lastValue +
+            ", lastId=" + lastId +
+            "}";
+    }
+}
@@ -0,0 +1,61 @@
+package com.dnc.mprs.propservice.repository;
+
+import com.dnc.mprs.propservice.domain.OutboxEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the OutboxEvent entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface OutboxEventRepository extends ReactiveCrudRepository<OutboxEvent, Long>, OutboxEventRepositoryInternal {
+    /**
+     * Selects the oldest events and locks them until the end of the transaction, so concurrent relays take turns to claim
+     * them and the events are published in order.
+     */
+    @Query("SELECT * FROM outbox_event entity ORDER BY entity.id LIMIT :limit FOR UPDATE")
+    Flux<OutboxEvent> findOldestForUpdate(int limit);
+
+    @Modifying
+    @Query("UPDATE outbox_event SET claimed_by = :claimedBy, claimed_until = :claimedUntil WHERE id IN (:ids)")
+    Mono<Long> claim(Collection<Long> ids, String claimedBy, Instant claimedUntil);
+
+    /**
+     * Releases the claim of events, unless the claim expired and the events were claimed again.
+     */
+    @Modifying
+    @Query("UPDATE outbox_event SET claimed_by = NULL, claimed_until = NULL WHERE id IN (:ids) AND claimed_by = :claimedBy")
+    Mono<Long> release(Collection<Long> ids, String claimedBy);
+
+    Mono<OutboxEvent> findFirstByOrderByIdAsc();
+
+    @Modifying
+    @Query("DELETE FROM outbox_event WHERE id IN (:ids)")
+    Mono<Long> deleteByIdIn(Collection<Long> ids);
+}
+
+interface OutboxEventRepositoryInternal {
+    Flux<OutboxEvent> insertAll(List<OutboxEvent> events);
+}
+
+class OutboxEventRepositoryInternalImpl implements OutboxEventRepositoryInternal {
+
+    private final EntityManager entityManager;
+
+    OutboxEventRepositoryInternalImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Flux<OutboxEvent> insertAll(List<OutboxEvent> events) {
+        return events.isEmpty() ? Flux.empty() : entityManager.upsertAll(OutboxEvent.class, events);
+    }
+}
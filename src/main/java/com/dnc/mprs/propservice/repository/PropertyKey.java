@@ -0,0 +1,10 @@
+package com.dnc.mprs.propservice.repository;
+
+/**
+ * The natural key of a property, by which the bulk import finds the properties it already created.
+ *
+ * @param id the id of the property.
+ * @param address the address of the property.
+ * @param floor the floor of the property, may be {@code null}.
+ */
+public record PropertyKey(Long id, String address, Integer floor) {}
@@ -1,6 +1,9 @@
 package com.dnc.mprs.propservice.repository;
 
 import com.dnc.mprs.propservice.domain.Property;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -16,6 +19,14 @@ import reactor.core.publisher.Mono;
 public interface PropertyRepository extends ReactiveCrudRepository<Property, Long>, PropertyRepositoryInternal {
     Flux<Property> findAllBy(Pageable pageable);
 
+    Flux<Property> findAllBy(Keyset keyset);
+
+    @Query("SELECT entity.id FROM property entity WHERE entity.id IN (:ids)")
+    Flux<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT COUNT(*) FROM property entity WHERE entity.updated_at >= :since")
+    Mono<Long> countUpdatedSince(Instant since);
+
     @Query("SELECT * FROM property entity WHERE entity.complex_id = :id")
     Flux<Property> findByComplex(Long id);
 
@@ -40,9 +51,25 @@ interface PropertyRepositoryInternal {
 
     Flux<Property> findAllBy(Pageable pageable);
 
+    Flux<Property> findAllBy(Keyset keyset);
+
+    Flux<Property> findAllUpdatedSince(Instant since, Keyset keyset);
+
+    Flux<Property> findAllByIdIn(Collection<Long> ids);
+
     Flux<Property> findAll();
 
     Mono<Property> findById(Long id);
+
+    Mono<Long> deleteByIdReturningCount(Long id);
+
+    Flux<Property> upsertAll(List<Property> entities);
+
+    Mono<Long> estimateCount();
+
+    Flux<SuggestionSource> findAllSuggestionSources();
+
+    Flux<PropertyKey> findAllKeysByAddressIn(Collection<String> addresses);
     // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
     // Flux<Property> findAllBy(Pageable pageable, Criteria criteria);
 }
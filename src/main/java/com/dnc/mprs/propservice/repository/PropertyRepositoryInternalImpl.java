@@ -5,23 +5,27 @@ import com.dnc.mprs.propservice.repository.rowmapper.ComplexRowMapper;
 import com.dnc.mprs.propservice.repository.rowmapper.PropertyRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -34,16 +38,38 @@ class PropertyRepositoryInternalImpl extends SimpleR2dbcRepository<Property, Lon
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
+    private final ComplexDimension complexDimension;
 
     private final ComplexRowMapper complexMapper;
     private final PropertyRowMapper propertyMapper;
 
+    private static final String SELECT_SUGGESTION_SOURCES =
+        "SELECT p.id, p.address, p.local_name, COALESCE(t.volume, 0) AS volume FROM property p" +
+        " LEFT JOIN (SELECT property_id, COUNT(*) AS volume FROM transaction GROUP BY property_id) t ON t.property_id = p.id";
+
+    private static final String SELECT_KEYS_BY_ADDRESS =
+        "SELECT p.id, p.address, p.floor FROM property p WHERE p.address IN (:addresses) ORDER BY p.id";
+
     private static final Table entityTable = Table.aliased("property", EntityManager.ENTITY_ALIAS);
     private static final Table complexTable = Table.aliased("complex", "complex");
 
+    private static final Condition ID_CONDITION = Conditions.isEqual(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.ID_PARAMETER)
+    );
+    private static final Condition UPDATED_SINCE_CONDITION = Conditions.isGreaterOrEqualTo(
+        entityTable.column("updated_at"),
+        SQL.bindMarker(":" + EntityManager.UPDATED_SINCE_PARAMETER)
+    );
+    private static final Condition ID_IN_CONDITION = Conditions.in(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.IDS_PARAMETER)
+    );
+
     public PropertyRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
+        ComplexDimension complexDimension,
         ComplexRowMapper complexMapper,
         PropertyRowMapper propertyMapper,
         R2dbcEntityOperations entityOperations,
@@ -57,46 +83,146 @@ class PropertyRepositoryInternalImpl extends SimpleR2dbcRepository<Property, Lon
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
+        this.complexDimension = complexDimension;
         this.complexMapper = complexMapper;
         this.propertyMapper = propertyMapper;
     }
 
     @Override
     public Flux<Property> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return attachComplexes(createQuery("findAll", pageable, null).map(this::process).all());
+    }
+
+    @Override
+    public Flux<Property> findAllBy(Keyset keyset) {
+        return attachComplexes(createQuery("findAll", keyset, null).map(this::process).all());
+    }
+
+    @Override
+    public Flux<Property> findAllUpdatedSince(Instant since, Keyset keyset) {
+        return attachComplexes(
+            createQuery("findAllUpdatedSince", keyset, UPDATED_SINCE_CONDITION)
+                .bind(EntityManager.UPDATED_SINCE_PARAMETER, entityManager.toBindValue(since))
+                .map(this::process)
+                .all()
+        );
+    }
+
+    @Override
+    public Flux<Property> findAllByIdIn(Collection<Long> ids) {
+        return attachComplexes(
+            createQuery("findAllByIdIn", (Pageable) null, ID_IN_CONDITION)
+                .bind(EntityManager.IDS_PARAMETER, ids)
+                .map(this::process)
+                .all()
+        );
+    }
+
+    /**
+     * Creates the statement of a query, rendered once per shape and cached by the {@link EntityManager}: the condition must
+     * only depend on the query name, and use bind markers for its values.
+     */
+    DatabaseClient.GenericExecuteSpec createQuery(String queryName, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.cachedSelect(Property.class, queryName, pageable, () ->
+            complexDimension.isEnabled()
+                ? entityManager.createSelect(createSelectProperty(), Property.class, pageable, whereClause)
+                : entityManager.createSelect(createSelectFrom(), Property.class, pageable, whereClause)
+        );
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    DatabaseClient.GenericExecuteSpec createQuery(String queryName, Keyset keyset, Condition whereClause) {
+        String select = entityManager.cachedSelect(Property.class, queryName, keyset, () ->
+            complexDimension.isEnabled()
+                ? entityManager.createSelect(createSelectProperty(), Property.class, keyset, whereClause)
+                : entityManager.createSelect(createSelectFrom(), Property.class, keyset, whereClause)
+        );
+        return entityManager.bindKeyset(db.sql(select), keyset);
     }
 
-    RowsFetchSpec<Property> createQuery(Pageable pageable, Condition whereClause) {
+    /**
+     * Selects the property columns only, the complexes being attached from the {@link ComplexDimension}.
+     */
+    private SelectFromAndJoin createSelectProperty() {
+        return Select.builder().select(PropertySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS)).from(entityTable);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = PropertySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(ComplexSqlHelper.getColumns(complexTable, "complex"));
-        SelectFromAndJoinCondition selectFrom = Select.builder()
+        return Select.builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(complexTable)
             .on(Column.create("complex_id", entityTable))
             .equals(Column.create("id", complexTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Property.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
     }
 
     @Override
     public Flux<Property> findAll() {
-        return findAllBy(null);
+        return findAllBy((Pageable) null);
     }
 
     @Override
     public Mono<Property> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        Mono<Property> property = createQuery("findById", (Pageable) null, ID_CONDITION)
+            .bind(EntityManager.ID_PARAMETER, id)
+            .map(this::process)
+            .one();
+        return complexDimension.isEnabled() ? property.flatMap(complexDimension::attach) : property;
     }
 
     private Property process(Row row, RowMetadata metadata) {
-        Property entity = propertyMapper.apply(row, "e");
-        entity.setComplex(complexMapper.apply(row, "complex"));
+        Property entity = propertyMapper.apply(row, metadata, "e");
+        if (!complexDimension.isEnabled()) {
+            entity.setComplex(complexMapper.apply(row, metadata, "complex"));
+        }
         return entity;
     }
 
+    private Flux<Property> attachComplexes(Flux<Property> properties) {
+        return complexDimension.isEnabled() ? complexDimension.attachAll(properties) : properties;
+    }
+
+    @Override
+    public Mono<Long> deleteByIdReturningCount(Long id) {
+        return entityManager.deleteById(Property.class, id);
+    }
+
+    @Override
+    public Flux<Property> upsertAll(List<Property> entities) {
+        return entityManager.upsertAll(Property.class, entities);
+    }
+
+    @Override
+    public Mono<Long> estimateCount() {
+        return entityManager.estimateCount(Property.class);
+    }
+
+    @Override
+    public Flux<SuggestionSource> findAllSuggestionSources() {
+        return db
+            .sql(SELECT_SUGGESTION_SOURCES)
+            .map(row ->
+                new SuggestionSource(
+                    row.get("id", Long.class),
+                    Stream.of(row.get("address", String.class), row.get("local_name", String.class)).filter(Objects::nonNull).toList(),
+                    row.get("volume", Long.class)
+                )
+            )
+            .all();
+    }
+
+    @Override
+    public Flux<PropertyKey> findAllKeysByAddressIn(Collection<String> addresses) {
+        return db
+            .sql(SELECT_KEYS_BY_ADDRESS)
+            .bind("addresses", addresses)
+            .map(row -> new PropertyKey(row.get("id", Long.class), row.get("address", String.class), row.get("floor", Integer.class)))
+            .all();
+    }
+
     @Override
     public <S extends Property> Mono<S> save(S entity) {
         return super.save(entity);
@@ -23,6 +23,8 @@ public class PropertySqlHelper {
         columns.add(Column.aliased("build_year", table, columnPrefix + "_build_year"));
         columns.add(Column.aliased("parking_yn", table, columnPrefix + "_parking_yn"));
         columns.add(Column.aliased("description", table, columnPrefix + "_description"));
+        columns.add(Column.aliased("latitude", table, columnPrefix + "_latitude"));
+        columns.add(Column.aliased("longitude", table, columnPrefix + "_longitude"));
         columns.add(Column.aliased("created_at", table, columnPrefix + "_created_at"));
         columns.add(Column.aliased("updated_at", table, columnPrefix + "_updated_at"));
 
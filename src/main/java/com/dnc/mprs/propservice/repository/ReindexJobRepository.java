@@ -0,0 +1,54 @@
+package com.dnc.mprs.propservice.repository;
+
+import com.dnc.mprs.propservice.domain.ReindexJob;
+import java.time.Instant;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the ReindexJob entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ReindexJobRepository extends ReactiveCrudRepository<ReindexJob, Long> {
+    Mono<ReindexJob> findFirstByEntityNameOrderByIdDesc(String entityName);
+
+    Mono<ReindexJob> findFirstByEntityNameAndStatusOrderByIdDesc(String entityName, ReindexJob.Status status);
+
+    /**
+     * Claims a job for an instance, unless another instance holds a claim which did not expire.
+     *
+     * @return 1 if the job is claimed, else 0.
+     */
+    @Modifying
+    @Query(
+        "UPDATE reindex_job SET claimed_by = :claimedBy, claimed_until = :claimedUntil" +
+        " WHERE id = :id AND (claimed_by IS NULL OR claimed_by = :claimedBy OR claimed_until < :now)"
+    )
+    Mono<Long> claim(Long id, String claimedBy, Instant claimedUntil, Instant now);
+
+    /**
+     * Extends the claim of a job, unless it expired and the job was claimed by another instance.
+     *
+     * @return 1 if the claim is extended, else 0.
+     */
+    @Modifying
+    @Query("UPDATE reindex_job SET claimed_until = :claimedUntil WHERE id = :id AND claimed_by = :claimedBy")
+    Mono<Long> renew(Long id, String claimedBy, Instant claimedUntil);
+
+    @Modifying
+    @Query("UPDATE reindex_job SET claimed_by = NULL, claimed_until = NULL WHERE id = :id AND claimed_by = :claimedBy")
+    Mono<Long> release(Long id, String claimedBy);
+
+    /**
+     * Counts the jobs of an entity claimed by other instances, whose claim did not expire.
+     */
+    @Query(
+        "SELECT COUNT(*) FROM reindex_job" +
+        " WHERE entity_name = :entityName AND claimed_by <> :claimedBy AND claimed_until >= :now"
+    )
+    Mono<Long> countClaimedByOthers(String entityName, String claimedBy, Instant now);
+}
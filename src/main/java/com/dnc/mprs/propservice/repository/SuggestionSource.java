@@ -0,0 +1,12 @@
+package com.dnc.mprs.propservice.repository;
+
+import java.util.List;
+
+/**
+ * The texts of an entity completed by the typeahead endpoints, with the number of transactions ranking its suggestions.
+ *
+ * @param id the id of the entity.
+ * @param texts the names or addresses of the entity, without {@code null}.
+ * @param volume the number of transactions of the entity.
+ */
+public record SuggestionSource(Long id, List<String> texts, long volume) {}
@@ -0,0 +1,22 @@
+package com.dnc.mprs.propservice.repository;
+
+import java.time.Instant;
+
+/**
+ * The transactions of an export, every filter being optional.
+ *
+ * @param from the first transaction date, included.
+ * @param to the last transaction date, excluded.
+ * @param regionCd the region of the property.
+ * @param complexId the complex of the property.
+ * @param afterId the id of the last transaction already exported, to resume an interrupted export.
+ */
+public record TransactionExportFilter(Instant from, Instant to, String regionCd, Long complexId, Long afterId) {
+    /**
+     * @param afterId the id of the last transaction already exported.
+     * @return the same filters, resumed after another transaction.
+     */
+    public TransactionExportFilter after(Long afterId) {
+        return new TransactionExportFilter(from, to, regionCd, complexId, afterId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.dnc.mprs.propservice.repository;
+
+import com.dnc.mprs.propservice.domain.Transaction;
+
+/**
+ * An exported transaction, with the columns of its property which the exports are filtered by.
+ *
+ * @param transaction the transaction.
+ * @param complexId the complex of the property, or {@code null}.
+ * @param regionCd the region of the property, or {@code null}.
+ */
+public record TransactionExportRow(Transaction transaction, Long complexId, String regionCd) {}
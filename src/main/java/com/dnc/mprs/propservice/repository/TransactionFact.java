@@ -0,0 +1,23 @@
+package com.dnc.mprs.propservice.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The columns of a transaction and of its property which the transaction rollups aggregate.
+ *
+ * @param transactionId the id of the transaction.
+ * @param price the price of the transaction.
+ * @param transactionDate the date of the transaction.
+ * @param complexId the complex of the property, or {@code null}.
+ * @param regionCd the region of the property, or {@code null}.
+ * @param area the area of the property, or {@code null}.
+ */
+public record TransactionFact(
+    Long transactionId,
+    BigDecimal price,
+    Instant transactionDate,
+    Long complexId,
+    String regionCd,
+    BigDecimal area
+) {}
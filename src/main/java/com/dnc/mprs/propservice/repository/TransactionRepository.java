@@ -1,7 +1,11 @@
 package com.dnc.mprs.propservice.repository;
 
 import com.dnc.mprs.propservice.domain.Transaction;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -15,6 +19,14 @@ import reactor.core.publisher.Mono;
 public interface TransactionRepository extends ReactiveCrudRepository<Transaction, Long>, TransactionRepositoryInternal {
     Flux<Transaction> findAllBy(Pageable pageable);
 
+    Flux<Transaction> findAllBy(Keyset keyset);
+
+    @Query("SELECT entity.id FROM transaction entity WHERE entity.id IN (:ids)")
+    Flux<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT COUNT(*) FROM transaction entity WHERE entity.updated_at >= :since")
+    Mono<Long> countUpdatedSince(Instant since);
+
     @Override
     <S extends Transaction> Mono<S> save(S entity);
 
@@ -33,9 +45,27 @@ interface TransactionRepositoryInternal {
 
     Flux<Transaction> findAllBy(Pageable pageable);
 
+    Flux<Transaction> findAllBy(Keyset keyset);
+
+    Flux<Transaction> findAllUpdatedSince(Instant since, Keyset keyset);
+
+    Flux<Transaction> findAllByIdIn(Collection<Long> ids);
+
+    Flux<Transaction> findAllByPropertyId(Long propertyId, Keyset keyset);
+
+    Flux<Transaction> findAllByPropertyIdIn(Collection<Long> propertyIds);
+
     Flux<Transaction> findAll();
 
     Mono<Transaction> findById(Long id);
+
+    Mono<Long> deleteByIdReturningCount(Long id);
+
+    Flux<Transaction> upsertAll(List<Transaction> entities);
+
+    Mono<Long> estimateCount();
+
+    Flux<TransactionExportRow> findAllForExport(TransactionExportFilter filter, int limit);
     // this is not supported at the moment because of https://github.com/jhipster/generator-jhipster/issues/18269
     // Flux<Transaction> findAllBy(Pageable pageable, Criteria criteria);
 }
@@ -4,22 +4,26 @@ import com.dnc.mprs.propservice.domain.Transaction;
 import com.dnc.mprs.propservice.repository.rowmapper.TransactionRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -37,6 +41,39 @@ class TransactionRepositoryInternalImpl extends SimpleR2dbcRepository<Transactio
 
     private static final Table entityTable = Table.aliased("transaction", EntityManager.ENTITY_ALIAS);
 
+    private static final Condition ID_CONDITION = Conditions.isEqual(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.ID_PARAMETER)
+    );
+    private static final Condition UPDATED_SINCE_CONDITION = Conditions.isGreaterOrEqualTo(
+        entityTable.column("updated_at"),
+        SQL.bindMarker(":" + EntityManager.UPDATED_SINCE_PARAMETER)
+    );
+    private static final Condition ID_IN_CONDITION = Conditions.in(
+        entityTable.column("id"),
+        SQL.bindMarker(":" + EntityManager.IDS_PARAMETER)
+    );
+
+    private static final String PROPERTY_ID_PARAMETER = "property_id";
+
+    private static final Condition PROPERTY_ID_CONDITION = Conditions.isEqual(
+        entityTable.column("property_id"),
+        SQL.bindMarker(":" + PROPERTY_ID_PARAMETER)
+    );
+    private static final Condition PROPERTY_ID_IN_CONDITION = Conditions.in(
+        entityTable.column("property_id"),
+        SQL.bindMarker(":" + EntityManager.IDS_PARAMETER)
+    );
+
+    // the transactions of each property are read in the order of idx_transaction_property_id, most recent first
+    private static final String BY_PROPERTY_ORDER = " ORDER BY e.property_id ASC, e.transaction_date DESC, e.id DESC";
+
+    private static final String SELECT_EXPORT =
+        "SELECT e.id AS e_id, e.property_id AS e_property_id, e.transaction_type AS e_transaction_type, e.price AS e_price," +
+        " e.transaction_date AS e_transaction_date, e.buyer AS e_buyer, e.seller AS e_seller, e.agent AS e_agent," +
+        " e.created_at AS e_created_at, e.updated_at AS e_updated_at, p.complex_id, p.region_cd" +
+        " FROM transaction e LEFT JOIN property p ON p.id = e.property_id";
+
     public TransactionRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -57,33 +94,136 @@ class TransactionRepositoryInternalImpl extends SimpleR2dbcRepository<Transactio
 
     @Override
     public Flux<Transaction> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("findAll", pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<Transaction> createQuery(Pageable pageable, Condition whereClause) {
-        List<Expression> columns = TransactionSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
+    @Override
+    public Flux<Transaction> findAllBy(Keyset keyset) {
+        return createQuery("findAll", keyset, null).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Transaction> findAllUpdatedSince(Instant since, Keyset keyset) {
+        return createQuery("findAllUpdatedSince", keyset, UPDATED_SINCE_CONDITION)
+            .bind(EntityManager.UPDATED_SINCE_PARAMETER, entityManager.toBindValue(since))
+            .map(this::process)
+            .all();
+    }
+
+    @Override
+    public Flux<Transaction> findAllByPropertyId(Long propertyId, Keyset keyset) {
+        return createQuery("findAllByPropertyId", keyset, PROPERTY_ID_CONDITION)
+            .bind(PROPERTY_ID_PARAMETER, propertyId)
+            .map(this::process)
+            .all();
+    }
+
+    @Override
+    public Flux<Transaction> findAllByPropertyIdIn(Collection<Long> propertyIds) {
+        String select = entityManager.cachedSelect(Transaction.class, "findAllByPropertyIdIn", (Pageable) null, () ->
+            entityManager.createSelect(createSelectFrom(), Transaction.class, (Pageable) null, PROPERTY_ID_IN_CONDITION) + BY_PROPERTY_ORDER
+        );
+        return db.sql(select).bind(EntityManager.IDS_PARAMETER, propertyIds).map(this::process).all();
+    }
+
+    @Override
+    public Flux<TransactionExportRow> findAllForExport(TransactionExportFilter filter, int limit) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (filter.afterId() != null) {
+            where.add("e.id > :afterId");
+            values.put("afterId", filter.afterId());
+        }
+        if (filter.from() != null) {
+            where.add("e.transaction_date >= :from");
+            values.put("from", entityManager.toBindValue(filter.from()));
+        }
+        if (filter.to() != null) {
+            where.add("e.transaction_date < :to");
+            values.put("to", entityManager.toBindValue(filter.to()));
+        }
+        if (filter.regionCd() != null) {
+            where.add("p.region_cd = :regionCd");
+            values.put("regionCd", filter.regionCd());
+        }
+        if (filter.complexId() != null) {
+            where.add("p.complex_id = :complexId");
+            values.put("complexId", filter.complexId());
+        }
+        values.put("limit", limit);
+        DatabaseClient.GenericExecuteSpec spec = db.sql(SELECT_EXPORT + where + " ORDER BY e.id LIMIT :limit");
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        return spec
+            .map((row, metadata) ->
+                new TransactionExportRow(process(row, metadata), row.get("complex_id", Long.class), row.get("region_cd", String.class))
+            )
+            .all();
+    }
+
+    @Override
+    public Flux<Transaction> findAllByIdIn(Collection<Long> ids) {
+        return createQuery("findAllByIdIn", (Pageable) null, ID_IN_CONDITION)
+            .bind(EntityManager.IDS_PARAMETER, ids)
+            .map(this::process)
+            .all();
+    }
+
+    /**
+     * Creates the statement of a query, rendered once per shape and cached by the {@link EntityManager}: the condition must
+     * only depend on the query name, and use bind markers for its values.
+     */
+    DatabaseClient.GenericExecuteSpec createQuery(String queryName, Pageable pageable, Condition whereClause) {
         // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Transaction.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        String select = entityManager.cachedSelect(Transaction.class, queryName, pageable, () ->
+            entityManager.createSelect(createSelectFrom(), Transaction.class, pageable, whereClause)
+        );
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    DatabaseClient.GenericExecuteSpec createQuery(String queryName, Keyset keyset, Condition whereClause) {
+        String select = entityManager.cachedSelect(Transaction.class, queryName, keyset, () ->
+            entityManager.createSelect(createSelectFrom(), Transaction.class, keyset, whereClause)
+        );
+        return entityManager.bindKeyset(db.sql(select), keyset);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
+        List<Expression> columns = TransactionSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
     public Flux<Transaction> findAll() {
-        return findAllBy(null);
+        return findAllBy((Pageable) null);
     }
 
     @Override
     public Mono<Transaction> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery("findById", (Pageable) null, ID_CONDITION).bind(EntityManager.ID_PARAMETER, id).map(this::process).one();
     }
 
     private Transaction process(Row row, RowMetadata metadata) {
-        Transaction entity = transactionMapper.apply(row, "e");
+        Transaction entity = transactionMapper.apply(row, metadata, "e");
         return entity;
     }
 
+    @Override
+    public Mono<Long> deleteByIdReturningCount(Long id) {
+        return entityManager.deleteById(Transaction.class, id);
+    }
+
+    @Override
+    public Flux<Transaction> upsertAll(List<Transaction> entities) {
+        return entityManager.upsertAll(Transaction.class, entities);
+    }
+
+    @Override
+    public Mono<Long> estimateCount() {
+        return entityManager.estimateCount(Transaction.class);
+    }
+
     @Override
     public <S extends Transaction> Mono<S> save(S entity) {
         return super.save(entity);
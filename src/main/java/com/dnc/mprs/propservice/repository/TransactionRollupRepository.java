@@ -0,0 +1,255 @@
+package com.dnc.mprs.propservice.repository;
+
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import com.dnc.mprs.propservice.repository.rowmapper.ColumnConverter;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the TransactionRollup entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface TransactionRollupRepository extends ReactiveCrudRepository<TransactionRollup, Long>, TransactionRollupRepositoryInternal {
+    Flux<TransactionRollup> findByDimensionAndDimensionKeyAndPeriodBetweenOrderByPeriod(
+        TransactionRollup.Dimension dimension,
+        String dimensionKey,
+        String fromPeriod,
+        String toPeriod
+    );
+
+    Flux<TransactionRollup> findByDimensionAndDimensionKeyStartingWithAndPeriodBetweenOrderByPeriod(
+        TransactionRollup.Dimension dimension,
+        String dimensionKeyPrefix,
+        String fromPeriod,
+        String toPeriod
+    );
+}
+
+interface TransactionRollupRepositoryInternal {
+    Flux<TransactionFact> findFactsByTransactionIdIn(Collection<Long> transactionIds);
+
+    Flux<TransactionFact> findFacts(TransactionRollup.Dimension dimension, String dimensionKey, Instant from, Instant to);
+
+    Flux<TransactionFact> findAllFacts();
+
+    Flux<TransactionRollup> findBucketsForUpdate(List<TransactionRollup> buckets);
+
+    Mono<Void> merge(List<TransactionRollup> deltas);
+
+    Mono<Void> replaceAll(List<TransactionRollup> rollups);
+}
+
+class TransactionRollupRepositoryInternalImpl implements TransactionRollupRepositoryInternal {
+
+    private static final String SELECT_FACTS =
+        "SELECT t.id, t.price, t.transaction_date, p.complex_id, p.region_cd, p.area" +
+        " FROM transaction t JOIN property p ON p.id = t.property_id";
+
+    private static final String INSERT =
+        "INSERT INTO transaction_rollup (dimension, dimension_key, period, transaction_count, price_sum, price_min, price_max," +
+        " price_per_area_sum, area_count, price_sketch, updated_at) VALUES ";
+
+    private static final String ADD_TO_EXISTING =
+        " AS new ON DUPLICATE KEY UPDATE transaction_count = transaction_count + new.transaction_count," +
+        " price_sum = price_sum + new.price_sum," +
+        " price_min = LEAST(COALESCE(price_min, new.price_min), COALESCE(new.price_min, price_min))," +
+        " price_max = GREATEST(COALESCE(price_max, new.price_max), COALESCE(new.price_max, price_max))," +
+        " price_per_area_sum = price_per_area_sum + new.price_per_area_sum," +
+        " area_count = area_count + new.area_count," +
+        " price_sketch = new.price_sketch," +
+        " updated_at = new.updated_at";
+
+    private static final String REPLACE_EXISTING =
+        " AS new ON DUPLICATE KEY UPDATE transaction_count = new.transaction_count," +
+        " price_sum = new.price_sum, price_min = new.price_min, price_max = new.price_max," +
+        " price_per_area_sum = new.price_per_area_sum, area_count = new.area_count, price_sketch = new.price_sketch," +
+        " updated_at = new.updated_at";
+
+    private static final String KEEP_EXISTING = " ON DUPLICATE KEY UPDATE transaction_count = transaction_count";
+
+    private static final int COLUMNS = 11;
+
+    private final DatabaseClient db;
+    private final EntityManager entityManager;
+    private final ColumnConverter converter;
+
+    TransactionRollupRepositoryInternalImpl(R2dbcEntityTemplate template, EntityManager entityManager, ColumnConverter converter) {
+        this.db = template.getDatabaseClient();
+        this.entityManager = entityManager;
+        this.converter = converter;
+    }
+
+    @Override
+    public Flux<TransactionFact> findFactsByTransactionIdIn(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return db.sql(SELECT_FACTS + " WHERE t.id IN (:ids)").bind("ids", transactionIds).map(this::toFact).all();
+    }
+
+    @Override
+    public Flux<TransactionFact> findFacts(TransactionRollup.Dimension dimension, String dimensionKey, Instant from, Instant to) {
+        String keyColumn = dimension == TransactionRollup.Dimension.COMPLEX ? "p.complex_id" : "p.region_cd";
+        Object key = dimension == TransactionRollup.Dimension.COMPLEX ? Long.valueOf(dimensionKey) : dimensionKey;
+        return db
+            .sql(
+                SELECT_FACTS + " WHERE " + keyColumn + " = :key AND t.transaction_date >= :from AND t.transaction_date < :to FOR SHARE"
+            )
+            .bind("key", key)
+            .bind("from", entityManager.toBindValue(from))
+            .bind("to", entityManager.toBindValue(to))
+            .map(this::toFact)
+            .all();
+    }
+
+    @Override
+    public Flux<TransactionFact> findAllFacts() {
+        return db.sql(SELECT_FACTS).map(this::toFact).all();
+    }
+
+    /**
+     * Locks the rollups of the buckets, inserting empty rollups for the missing ones first: a locking read of a missing row
+     * would lock the gap before the next one, and gap locks taken by concurrent transactions do not conflict with each other
+     * but block their inserts, which deadlocks. The insert locks every row exclusively, in the order of the buckets.
+     */
+    @Override
+    public Flux<TransactionRollup> findBucketsForUpdate(List<TransactionRollup> buckets) {
+        if (buckets.isEmpty()) {
+            return Flux.empty();
+        }
+        Instant now = Instant.now();
+        List<TransactionRollup> empty = buckets
+            .stream()
+            .map(bucket ->
+                new TransactionRollup()
+                    .dimension(bucket.getDimension())
+                    .dimensionKey(bucket.getDimensionKey())
+                    .period(bucket.getPeriod())
+                    .transactionCount(0L)
+                    .priceSum(BigDecimal.ZERO)
+                    .pricePerAreaSum(BigDecimal.ZERO)
+                    .areaCount(0L)
+                    .updatedAt(now)
+            )
+            .toList();
+        return insert(empty, KEEP_EXISTING).thenMany(Flux.defer(() -> selectForUpdate(buckets)));
+    }
+
+    private Flux<TransactionRollup> selectForUpdate(List<TransactionRollup> buckets) {
+        StringJoiner keys = new StringJoiner(", ");
+        for (int i = 0; i < buckets.size(); i++) {
+            keys.add("(:b" + i + "_d, :b" + i + "_k, :b" + i + "_p)");
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(
+            "SELECT dimension, dimension_key, period, transaction_count, price_sum, price_min, price_max, price_per_area_sum," +
+            " area_count, price_sketch FROM transaction_rollup" +
+            " WHERE (dimension, dimension_key, period) IN (" +
+            keys +
+            ") FOR UPDATE"
+        );
+        for (int i = 0; i < buckets.size(); i++) {
+            TransactionRollup bucket = buckets.get(i);
+            spec = spec
+                .bind("b" + i + "_d", bucket.getDimension().name())
+                .bind("b" + i + "_k", bucket.getDimensionKey())
+                .bind("b" + i + "_p", bucket.getPeriod());
+        }
+        return spec
+            .map((row, metadata) ->
+                new TransactionRollup()
+                    .dimension(converter.fromRow(row, "dimension", TransactionRollup.Dimension.class))
+                    .dimensionKey(converter.fromRow(row, "dimension_key", String.class))
+                    .period(converter.fromRow(row, "period", String.class))
+                    .transactionCount(converter.fromRow(row, "transaction_count", Long.class))
+                    .priceSum(converter.fromRow(row, "price_sum", BigDecimal.class))
+                    .priceMin(converter.fromRow(row, "price_min", BigDecimal.class))
+                    .priceMax(converter.fromRow(row, "price_max", BigDecimal.class))
+                    .pricePerAreaSum(converter.fromRow(row, "price_per_area_sum", BigDecimal.class))
+                    .areaCount(converter.fromRow(row, "area_count", Long.class))
+                    .priceSketch(converter.fromRow(row, "price_sketch", byte[].class))
+            )
+            .all();
+    }
+
+    @Override
+    public Mono<Void> merge(List<TransactionRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        return insert(deltas, ADD_TO_EXISTING);
+    }
+
+    @Override
+    public Mono<Void> replaceAll(List<TransactionRollup> rollups) {
+        List<TransactionRollup> empty = rollups.stream().filter(rollup -> rollup.getTransactionCount() == 0).toList();
+        List<TransactionRollup> filled = rollups.stream().filter(rollup -> rollup.getTransactionCount() > 0).toList();
+        return Flux.fromIterable(empty)
+            .concatMap(rollup ->
+                db
+                    .sql("DELETE FROM transaction_rollup WHERE dimension = :dimension AND dimension_key = :key AND period = :period")
+                    .bind("dimension", rollup.getDimension().name())
+                    .bind("key", rollup.getDimensionKey())
+                    .bind("period", rollup.getPeriod())
+                    .then()
+            )
+            .then(filled.isEmpty() ? Mono.empty() : insert(filled, REPLACE_EXISTING));
+    }
+
+    /**
+     * Inserts the rollups with one multi-row statement, resolving the existing buckets with the given clause.
+     */
+    private Mono<Void> insert(List<TransactionRollup> rollups, String onDuplicateKey) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rollups.size(); i++) {
+            StringJoiner markers = new StringJoiner(", ", "(", ")");
+            for (int j = 0; j < COLUMNS; j++) {
+                markers.add(":r" + i + "_c" + j);
+            }
+            values.add(markers.toString());
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(INSERT + values + onDuplicateKey);
+        for (int i = 0; i < rollups.size(); i++) {
+            TransactionRollup rollup = rollups.get(i);
+            Object[] columns = {
+                rollup.getDimension().name(),
+                rollup.getDimensionKey(),
+                rollup.getPeriod(),
+                rollup.getTransactionCount(),
+                rollup.getPriceSum(),
+                rollup.getPriceMin(),
+                rollup.getPriceMax(),
+                rollup.getPricePerAreaSum(),
+                rollup.getAreaCount(),
+                rollup.getPriceSketch(),
+                entityManager.toBindValue(rollup.getUpdatedAt()),
+            };
+            for (int j = 0; j < COLUMNS; j++) {
+                spec = columns[j] != null ? spec.bind("r" + i + "_c" + j, columns[j]) : spec.bindNull("r" + i + "_c" + j, BigDecimal.class);
+            }
+        }
+        return spec.then();
+    }
+
+    private TransactionFact toFact(Row row, RowMetadata metadata) {
+        return new TransactionFact(
+            converter.fromRow(row, "id", Long.class),
+            converter.fromRow(row, "price", BigDecimal.class),
+            converter.fromRow(row, "transaction_date", Instant.class),
+            converter.fromRow(row, "complex_id", Long.class),
+            converter.fromRow(row, "region_cd", String.class),
+            converter.fromRow(row, "area", BigDecimal.class)
+        );
+    }
+}
@@ -1,7 +1,13 @@
 package com.dnc.mprs.propservice.repository.rowmapper;
 
+import io.r2dbc.spi.ColumnMetadata;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.lang.Nullable;
@@ -50,19 +56,66 @@ public class ColumnConverter implements ColumnConverterReactive {
 
     /**
      * Convert a value from the {@link Row} to a type - throws an exception, if it's impossible.
+     * The value is read as the type the driver reads the column as, and only decoded by the driver as the target type if there
+     * is no conversion from that type, e.g. a blob read as a byte array.
      * @param row which contains the column values.
      * @param target class.
      * @param columnName the name of the column which to convert.
      * @param <T> the parameter for the intended type.
      * @return the value which can be constructed from the input.
      */
+    @SuppressWarnings("unchecked")
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
+        Object value = row.get(columnName);
+        if (value == null || ClassUtils.isAssignableValue(target, value)) {
+            return (T) value;
+        }
+        Function<Object, T> conversion = conversion(value.getClass(), target);
+        return conversion != null ? conversion.apply(value) : row.get(columnName, target);
+    }
+
+    /**
+     * Creates the reader of a column of the rows of a result. The index of the column and the conversion from the Java type the
+     * driver reads it as are resolved once, so the rows are read without looking up the column by name, and without exceptions.
+     * @param metadata the metadata of the rows of the result.
+     * @param columnName the name of the column which to convert.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the reader of the column.
+     * @throws NoSuchElementException if the rows have no such column.
+     */
+    public <T> ColumnReader<T> reader(RowMetadata metadata, String columnName, Class<T> target) {
+        List<? extends ColumnMetadata> columns = metadata.getColumnMetadatas();
+        for (int index = 0; index < columns.size(); index++) {
+            if (columns.get(index).getName().equalsIgnoreCase(columnName)) {
+                Class<?> source = columns.get(index).getJavaType();
+                Function<Object, T> conversion = source != null ? conversion(source, target) : null;
+                return new ColumnReader<>(this, index, target, conversion != null ? source : null, conversion);
+            }
+        }
+        throw new NoSuchElementException("Unknown column " + columnName);
+    }
+
+    /**
+     * Resolves the conversion of the values of a type to the target type, in the order of {@link #convert(Object, Class)}.
+     * @return the conversion, or null if the values cannot be converted to the target type.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private <T> Function<Object, T> conversion(Class<?> source, Class<T> target) {
+        if (ClassUtils.isAssignable(target, source)) {
+            return value -> (T) value;
+        }
+        TypeDescriptor sourceType = TypeDescriptor.valueOf(source);
+        TypeDescriptor targetType = TypeDescriptor.valueOf(target);
+        if (conversions.hasCustomReadTarget(source, target)) {
+            return value -> (T) conversionService.convert(value, sourceType, targetType);
+        }
+        if (Enum.class.isAssignableFrom(target)) {
+            return value -> (T) Enum.valueOf((Class<Enum>) target, value.toString());
+        }
+        if (conversionService.canConvert(sourceType, targetType)) {
+            return value -> (T) conversionService.convert(value, sourceType, targetType);
         }
+        return null;
     }
 }
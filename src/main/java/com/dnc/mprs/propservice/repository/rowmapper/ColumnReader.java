@@ -0,0 +1,48 @@
+package com.dnc.mprs.propservice.repository.rowmapper;
+
+import io.r2dbc.spi.Row;
+import java.util.function.Function;
+
+/**
+ * Reader of a column of the rows of a result, created by {@link ColumnConverter#reader(io.r2dbc.spi.RowMetadata, String, Class)}.
+ * The column is read by index, as the Java type the driver reads it as, and converted to the target type with the conversion
+ * resolved for that type.
+ * @param <T> the type the column is read as.
+ */
+public final class ColumnReader<T> {
+
+    private final ColumnConverter converter;
+    private final int index;
+    private final Class<T> target;
+    private final Class<?> source;
+    private final Function<Object, T> conversion;
+
+    /**
+     * @param source the Java type the driver reads the column as, or null if the driver is left to decode the target type.
+     * @param conversion the conversion of the values of the source type, or null if the driver is left to decode the target type.
+     */
+    ColumnReader(ColumnConverter converter, int index, Class<T> target, Class<?> source, Function<Object, T> conversion) {
+        this.converter = converter;
+        this.index = index;
+        this.target = target;
+        this.source = source;
+        this.conversion = conversion;
+    }
+
+    /**
+     * Reads the column of a row of the result.
+     * @param row the row.
+     * @return the value of the column, converted to the target type.
+     */
+    public T read(Row row) {
+        if (conversion == null) {
+            return row.get(index, target);
+        }
+        Object value = row.get(index);
+        if (value == null) {
+            return null;
+        }
+        // a driver may read some values as another type than the one of the column metadata
+        return source.isInstance(value) ? conversion.apply(value) : converter.convert(value, target);
+    }
+}
@@ -2,20 +2,23 @@ package com.dnc.mprs.propservice.repository.rowmapper;
 
 import com.dnc.mprs.propservice.domain.Complex;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
 import java.util.function.BiFunction;
 import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link Complex}, with proper type conversions.
+ * <p>
+ * The columns are read with a plan resolved once per shape of the rows, see {@link ColumnConverter#reader(RowMetadata, String, Class)}.
  */
 @Service
 public class ComplexRowMapper implements BiFunction<Row, String, Complex> {
 
-    private final ColumnConverter converter;
+    private final MappingPlanCache<Plan> plans;
 
     public ComplexRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new MappingPlanCache<>((metadata, prefix) -> new Plan(converter, metadata, prefix));
     }
 
     /**
@@ -24,16 +27,56 @@ public class ComplexRowMapper implements BiFunction<Row, String, Complex> {
      */
     @Override
     public Complex apply(Row row, String prefix) {
+        return apply(row, row.getMetadata(), prefix);
+    }
+
+    /**
+     * Take a {@link Row} of a result, the metadata of the rows of the result and a column prefix, and extract all the fields.
+     * @return the {@link Complex} stored in the database.
+     */
+    public Complex apply(Row row, RowMetadata metadata, String prefix) {
+        Plan plan = plans.get(metadata, prefix);
         Complex entity = new Complex();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setComplexName(converter.fromRow(row, prefix + "_complex_name", String.class));
-        entity.setState(converter.fromRow(row, prefix + "_state", String.class));
-        entity.setCounty(converter.fromRow(row, prefix + "_county", String.class));
-        entity.setCity(converter.fromRow(row, prefix + "_city", String.class));
-        entity.setTown(converter.fromRow(row, prefix + "_town", String.class));
-        entity.setAddressCode(converter.fromRow(row, prefix + "_address_code", String.class));
-        entity.setCreatedAt(converter.fromRow(row, prefix + "_created_at", Instant.class));
-        entity.setUpdatedAt(converter.fromRow(row, prefix + "_updated_at", Instant.class));
+        entity.setId(plan.id.read(row));
+        entity.setComplexName(plan.complexName.read(row));
+        entity.setState(plan.state.read(row));
+        entity.setCounty(plan.county.read(row));
+        entity.setCity(plan.city.read(row));
+        entity.setTown(plan.town.read(row));
+        entity.setAddressCode(plan.addressCode.read(row));
+        entity.setLatitude(plan.latitude.read(row));
+        entity.setLongitude(plan.longitude.read(row));
+        entity.setCreatedAt(plan.createdAt.read(row));
+        entity.setUpdatedAt(plan.updatedAt.read(row));
         return entity;
     }
+
+    private static final class Plan {
+
+        private final ColumnReader<Long> id;
+        private final ColumnReader<String> complexName;
+        private final ColumnReader<String> state;
+        private final ColumnReader<String> county;
+        private final ColumnReader<String> city;
+        private final ColumnReader<String> town;
+        private final ColumnReader<String> addressCode;
+        private final ColumnReader<Double> latitude;
+        private final ColumnReader<Double> longitude;
+        private final ColumnReader<Instant> createdAt;
+        private final ColumnReader<Instant> updatedAt;
+
+        Plan(ColumnConverter converter, RowMetadata metadata, String prefix) {
+            id = converter.reader(metadata, prefix + "_id", Long.class);
+            complexName = converter.reader(metadata, prefix + "_complex_name", String.class);
+            state = converter.reader(metadata, prefix + "_state", String.class);
+            county = converter.reader(metadata, prefix + "_county", String.class);
+            city = converter.reader(metadata, prefix + "_city", String.class);
+            town = converter.reader(metadata, prefix + "_town", String.class);
+            addressCode = converter.reader(metadata, prefix + "_address_code", String.class);
+            latitude = converter.reader(metadata, prefix + "_latitude", Double.class);
+            longitude = converter.reader(metadata, prefix + "_longitude", Double.class);
+            createdAt = converter.reader(metadata, prefix + "_created_at", Instant.class);
+            updatedAt = converter.reader(metadata, prefix + "_updated_at", Instant.class);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.dnc.mprs.propservice.repository.rowmapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.RowMetadata;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of the mapping plans of an entity, which hold the {@link ColumnReader}s of its columns, resolved once per shape of the
+ * rows: the column prefix and the names and types of the columns.
+ * <p>
+ * As the rows of a result share their {@link RowMetadata}, the plans of the results being read are also kept by identity of
+ * their metadata, so the shape is only computed once per result, even when the results are read on several threads at once.
+ * These entries are weakly referenced, and dropped with the results.
+ * @param <P> the type of the plans.
+ */
+final class MappingPlanCache<P> {
+
+    private static final int MAX_PLANS = 64;
+
+    private static final int MAX_RESULTS = 256;
+
+    private final BiFunction<RowMetadata, String, P> factory;
+    private final Map<String, P> plans = new ConcurrentHashMap<>();
+    private final Cache<RowMetadata, Map<String, P>> plansByResult = Caffeine.newBuilder()
+        .weakKeys()
+        .maximumSize(MAX_RESULTS)
+        .build();
+
+    /**
+     * @param factory resolves the plan of the rows with the given metadata and column prefix.
+     */
+    MappingPlanCache(BiFunction<RowMetadata, String, P> factory) {
+        this.factory = factory;
+    }
+
+    P get(RowMetadata metadata, String prefix) {
+        // weak keys are compared by identity
+        return plansByResult
+            .get(metadata, result -> new ConcurrentHashMap<>(2))
+            .computeIfAbsent(prefix, key -> resolve(metadata, key));
+    }
+
+    private P resolve(RowMetadata metadata, String prefix) {
+        String shape = shape(metadata, prefix);
+        P plan = plans.get(shape);
+        if (plan == null) {
+            plan = factory.apply(metadata, prefix);
+            if (plans.size() < MAX_PLANS) {
+                plans.putIfAbsent(shape, plan);
+            }
+        }
+        return plan;
+    }
+
+    private static String shape(RowMetadata metadata, String prefix) {
+        StringBuilder shape = new StringBuilder(prefix);
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            Class<?> javaType = column.getJavaType();
+            shape.append('|').append(column.getName()).append(':').append(javaType != null ? javaType.getName() : "");
+        }
+        return shape.toString();
+    }
+}
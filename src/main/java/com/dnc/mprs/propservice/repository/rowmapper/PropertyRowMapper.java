@@ -2,6 +2,7 @@ package com.dnc.mprs.propservice.repository.rowmapper;
 
 import com.dnc.mprs.propservice.domain.Property;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.function.BiFunction;
@@ -9,14 +10,16 @@ import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link Property}, with proper type conversions.
+ * <p>
+ * The columns are read with a plan resolved once per shape of the rows, see {@link ColumnConverter#reader(RowMetadata, String, Class)}.
  */
 @Service
 public class PropertyRowMapper implements BiFunction<Row, String, Property> {
 
-    private final ColumnConverter converter;
+    private final MappingPlanCache<Plan> plans;
 
     public PropertyRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new MappingPlanCache<>((metadata, prefix) -> new Plan(converter, metadata, prefix));
     }
 
     /**
@@ -25,23 +28,77 @@ public class PropertyRowMapper implements BiFunction<Row, String, Property> {
      */
     @Override
     public Property apply(Row row, String prefix) {
+        return apply(row, row.getMetadata(), prefix);
+    }
+
+    /**
+     * Take a {@link Row} of a result, the metadata of the rows of the result and a column prefix, and extract all the fields.
+     * @return the {@link Property} stored in the database.
+     */
+    public Property apply(Row row, RowMetadata metadata, String prefix) {
+        Plan plan = plans.get(metadata, prefix);
         Property entity = new Property();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setAddress(converter.fromRow(row, prefix + "_address", String.class));
-        entity.setRegionCd(converter.fromRow(row, prefix + "_region_cd", String.class));
-        entity.setLocalName(converter.fromRow(row, prefix + "_local_name", String.class));
-        entity.setStreet(converter.fromRow(row, prefix + "_street", String.class));
-        entity.setFloor(converter.fromRow(row, prefix + "_floor", Integer.class));
-        entity.setType(converter.fromRow(row, prefix + "_type", String.class));
-        entity.setArea(converter.fromRow(row, prefix + "_area", BigDecimal.class));
-        entity.setRooms(converter.fromRow(row, prefix + "_rooms", Integer.class));
-        entity.setBathrooms(converter.fromRow(row, prefix + "_bathrooms", Integer.class));
-        entity.setBuildYear(converter.fromRow(row, prefix + "_build_year", Integer.class));
-        entity.setParkingYn(converter.fromRow(row, prefix + "_parking_yn", String.class));
-        entity.setDescription(converter.fromRow(row, prefix + "_description", String.class));
-        entity.setCreatedAt(converter.fromRow(row, prefix + "_created_at", Instant.class));
-        entity.setUpdatedAt(converter.fromRow(row, prefix + "_updated_at", Instant.class));
-        entity.setComplexId(converter.fromRow(row, prefix + "_complex_id", Long.class));
+        entity.setId(plan.id.read(row));
+        entity.setAddress(plan.address.read(row));
+        entity.setRegionCd(plan.regionCd.read(row));
+        entity.setLocalName(plan.localName.read(row));
+        entity.setStreet(plan.street.read(row));
+        entity.setFloor(plan.floor.read(row));
+        entity.setType(plan.type.read(row));
+        entity.setArea(plan.area.read(row));
+        entity.setRooms(plan.rooms.read(row));
+        entity.setBathrooms(plan.bathrooms.read(row));
+        entity.setBuildYear(plan.buildYear.read(row));
+        entity.setParkingYn(plan.parkingYn.read(row));
+        entity.setDescription(plan.description.read(row));
+        entity.setLatitude(plan.latitude.read(row));
+        entity.setLongitude(plan.longitude.read(row));
+        entity.setCreatedAt(plan.createdAt.read(row));
+        entity.setUpdatedAt(plan.updatedAt.read(row));
+        entity.setComplexId(plan.complexId.read(row));
         return entity;
     }
+
+    private static final class Plan {
+
+        private final ColumnReader<Long> id;
+        private final ColumnReader<String> address;
+        private final ColumnReader<String> regionCd;
+        private final ColumnReader<String> localName;
+        private final ColumnReader<String> street;
+        private final ColumnReader<Integer> floor;
+        private final ColumnReader<String> type;
+        private final ColumnReader<BigDecimal> area;
+        private final ColumnReader<Integer> rooms;
+        private final ColumnReader<Integer> bathrooms;
+        private final ColumnReader<Integer> buildYear;
+        private final ColumnReader<String> parkingYn;
+        private final ColumnReader<String> description;
+        private final ColumnReader<Double> latitude;
+        private final ColumnReader<Double> longitude;
+        private final ColumnReader<Instant> createdAt;
+        private final ColumnReader<Instant> updatedAt;
+        private final ColumnReader<Long> complexId;
+
+        Plan(ColumnConverter converter, RowMetadata metadata, String prefix) {
+            id = converter.reader(metadata, prefix + "_id", Long.class);
+            address = converter.reader(metadata, prefix + "_address", String.class);
+            regionCd = converter.reader(metadata, prefix + "_region_cd", String.class);
+            localName = converter.reader(metadata, prefix + "_local_name", String.class);
+            street = converter.reader(metadata, prefix + "_street", String.class);
+            floor = converter.reader(metadata, prefix + "_floor", Integer.class);
+            type = converter.reader(metadata, prefix + "_type", String.class);
+            area = converter.reader(metadata, prefix + "_area", BigDecimal.class);
+            rooms = converter.reader(metadata, prefix + "_rooms", Integer.class);
+            bathrooms = converter.reader(metadata, prefix + "_bathrooms", Integer.class);
+            buildYear = converter.reader(metadata, prefix + "_build_year", Integer.class);
+            parkingYn = converter.reader(metadata, prefix + "_parking_yn", String.class);
+            description = converter.reader(metadata, prefix + "_description", String.class);
+            latitude = converter.reader(metadata, prefix + "_latitude", Double.class);
+            longitude = converter.reader(metadata, prefix + "_longitude", Double.class);
+            createdAt = converter.reader(metadata, prefix + "_created_at", Instant.class);
+            updatedAt = converter.reader(metadata, prefix + "_updated_at", Instant.class);
+            complexId = converter.reader(metadata, prefix + "_complex_id", Long.class);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.dnc.mprs.propservice.repository.rowmapper;
 
 import com.dnc.mprs.propservice.domain.Transaction;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.function.BiFunction;
@@ -9,14 +10,16 @@ import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link Transaction}, with proper type conversions.
+ * <p>
+ * The columns are read with a plan resolved once per shape of the rows, see {@link ColumnConverter#reader(RowMetadata, String, Class)}.
  */
 @Service
 public class TransactionRowMapper implements BiFunction<Row, String, Transaction> {
 
-    private final ColumnConverter converter;
+    private final MappingPlanCache<Plan> plans;
 
     public TransactionRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.plans = new MappingPlanCache<>((metadata, prefix) -> new Plan(converter, metadata, prefix));
     }
 
     /**
@@ -25,17 +28,53 @@ public class TransactionRowMapper implements BiFunction<Row, String, Transaction
      */
     @Override
     public Transaction apply(Row row, String prefix) {
+        return apply(row, row.getMetadata(), prefix);
+    }
+
+    /**
+     * Take a {@link Row} of a result, the metadata of the rows of the result and a column prefix, and extract all the fields.
+     * @return the {@link Transaction} stored in the database.
+     */
+    public Transaction apply(Row row, RowMetadata metadata, String prefix) {
+        Plan plan = plans.get(metadata, prefix);
         Transaction entity = new Transaction();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setPropertyId(converter.fromRow(row, prefix + "_property_id", Long.class));
-        entity.setTransactionType(converter.fromRow(row, prefix + "_transaction_type", String.class));
-        entity.setPrice(converter.fromRow(row, prefix + "_price", BigDecimal.class));
-        entity.setTransactionDate(converter.fromRow(row, prefix + "_transaction_date", Instant.class));
-        entity.setBuyer(converter.fromRow(row, prefix + "_buyer", String.class));
-        entity.setSeller(converter.fromRow(row, prefix + "_seller", String.class));
-        entity.setAgent(converter.fromRow(row, prefix + "_agent", String.class));
-        entity.setCreatedAt(converter.fromRow(row, prefix + "_created_at", Instant.class));
-        entity.setUpdatedAt(converter.fromRow(row, prefix + "_updated_at", Instant.class));
+        entity.setId(plan.id.read(row));
+        entity.setPropertyId(plan.propertyId.read(row));
+        entity.setTransactionType(plan.transactionType.read(row));
+        entity.setPrice(plan.price.read(row));
+        entity.setTransactionDate(plan.transactionDate.read(row));
+        entity.setBuyer(plan.buyer.read(row));
+        entity.setSeller(plan.seller.read(row));
+        entity.setAgent(plan.agent.read(row));
+        entity.setCreatedAt(plan.createdAt.read(row));
+        entity.setUpdatedAt(plan.updatedAt.read(row));
         return entity;
     }
+
+    private static final class Plan {
+
+        private final ColumnReader<Long> id;
+        private final ColumnReader<Long> propertyId;
+        private final ColumnReader<String> transactionType;
+        private final ColumnReader<BigDecimal> price;
+        private final ColumnReader<Instant> transactionDate;
+        private final ColumnReader<String> buyer;
+        private final ColumnReader<String> seller;
+        private final ColumnReader<String> agent;
+        private final ColumnReader<Instant> createdAt;
+        private final ColumnReader<Instant> updatedAt;
+
+        Plan(ColumnConverter converter, RowMetadata metadata, String prefix) {
+            id = converter.reader(metadata, prefix + "_id", Long.class);
+            propertyId = converter.reader(metadata, prefix + "_property_id", Long.class);
+            transactionType = converter.reader(metadata, prefix + "_transaction_type", String.class);
+            price = converter.reader(metadata, prefix + "_price", BigDecimal.class);
+            transactionDate = converter.reader(metadata, prefix + "_transaction_date", Instant.class);
+            buyer = converter.reader(metadata, prefix + "_buyer", String.class);
+            seller = converter.reader(metadata, prefix + "_seller", String.class);
+            agent = converter.reader(metadata, prefix + "_agent", String.class);
+            createdAt = converter.reader(metadata, prefix + "_created_at", Instant.class);
+            updatedAt = converter.reader(metadata, prefix + "_updated_at", Instant.class);
+        }
+    }
 }
@@ -1,14 +1,17 @@
 package com.dnc.mprs.propservice.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.criteria.ComplexCriteria;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Complex} entity.
@@ -16,28 +19,64 @@ import reactor.core.publisher.Flux;
 public interface ComplexSearchRepository extends ReactiveElasticsearchRepository<Complex, Long>, ComplexSearchRepositoryInternal {}
 
 interface ComplexSearchRepositoryInternal {
-    Flux<Complex> search(String query, Pageable pageable);
+    Mono<SearchPage<Complex>> search(String query, ComplexCriteria criteria, GeoCriteria geo, Pageable pageable, boolean faceted);
+
+    Mono<SearchCursor.Page<Complex>> search(String query, ComplexCriteria criteria, GeoCriteria geo, SearchCursor cursor);
 
     Flux<Complex> search(Query query);
+
+    Mono<Boolean> putMapping();
 }
 
 class ComplexSearchRepositoryInternalImpl implements ComplexSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    ComplexSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final ApplicationProperties.Search search;
+
+    ComplexSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.search = applicationProperties.getSearch();
+    }
+
+    @Override
+    public Mono<SearchPage<Complex>> search(String query, ComplexCriteria criteria, GeoCriteria geo, Pageable pageable, boolean faceted) {
+        FilterQueryBuilder builder = filters(query, criteria, geo);
+        if (faceted) {
+            builder
+                .termsFacet("state", "state" + FilterQueryBuilder.KEYWORD_SUFFIX, search.getFacetSize())
+                .termsFacet("city", "city" + FilterQueryBuilder.KEYWORD_SUFFIX, search.getFacetSize())
+                .geohashFacet("location", geo.getGeohashPrecision());
+        }
+        return reactiveElasticsearchTemplate.searchForPage(builder.build(pageable, search.getExactCountLimit()), Complex.class);
     }
 
     @Override
-    public Flux<Complex> search(String query, Pageable pageable) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        nativeQuery.setPageable(pageable);
-        return search(nativeQuery);
+    public Mono<SearchCursor.Page<Complex>> search(String query, ComplexCriteria criteria, GeoCriteria geo, SearchCursor cursor) {
+        return filters(query, criteria, geo).searchAfter(reactiveElasticsearchTemplate, cursor, search.getCursorKeepAlive(), Complex.class);
     }
 
     @Override
     public Flux<Complex> search(Query query) {
         return reactiveElasticsearchTemplate.search(query, Complex.class).map(SearchHit::getContent);
     }
+
+    @Override
+    public Mono<Boolean> putMapping() {
+        return GeoPointMapping.putMapping(reactiveElasticsearchTemplate.indexOps(Complex.class));
+    }
+
+    private static FilterQueryBuilder filters(String query, ComplexCriteria criteria, GeoCriteria geo) {
+        return new FilterQueryBuilder(query)
+            .filter("id", criteria.getId())
+            .keyword("state", criteria.getState())
+            .keyword("county", criteria.getCounty())
+            .keyword("city", criteria.getCity())
+            .keyword("town", criteria.getTown())
+            .keyword("addressCode", criteria.getAddressCode())
+            .geo(geo);
+    }
 }
@@ -0,0 +1,379 @@
+package com.dnc.mprs.propservice.repository.search;
+
+import co.elastic.clients.elasticsearch._types.DistanceUnit;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.GeoLocation;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.query_dsl.ExistsQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.GeoBoundingBoxQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.GeoDistanceQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.GeoShapeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermsQuery;
+import co.elastic.clients.json.JsonData;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
+import com.dnc.mprs.propservice.repository.InvalidCursorException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.RestStatusException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import reactor.core.publisher.Mono;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Compiles the criteria of a search endpoint into an Elasticsearch query, with its facets.
+ * <p>
+ * The criteria become the {@code filter} and {@code must_not} clauses of a bool query: they do not score, so Elasticsearch
+ * caches them between requests. The optional query string is the only scoring clause, and may not start a term with a
+ * wildcard. String filters match the {@code keyword} subfield of the text fields, geographic criteria the geo point computed
+ * from the coordinates. The facets are aggregations computed by the same request as the hits, over all the matching documents,
+ * and so is the total: exactly up to a limit, beyond which Elasticsearch stops counting and reports a lower bound. The same
+ * criteria can instead be walked with a {@link SearchCursor}.
+ */
+final class FilterQueryBuilder {
+
+    static final String KEYWORD_SUFFIX = ".keyword";
+
+    private static final int NOT_FOUND = 404;
+
+    private final List<Query> filters = new ArrayList<>();
+
+    private final List<Query> exclusions = new ArrayList<>();
+
+    private final Map<String, Aggregation> facets = new LinkedHashMap<>();
+
+    private final String query;
+
+    private GeoLocation center;
+
+    FilterQueryBuilder(String query) {
+        this.query = query;
+    }
+
+    /**
+     * Adds the conditions of a filter on the keyword subfield of a text field.
+     */
+    FilterQueryBuilder keyword(String field, StringFilter filter) {
+        return filter(field + KEYWORD_SUFFIX, filter);
+    }
+
+    /**
+     * Adds the conditions of a filter on a field: equality, inclusion, existence and, for a range filter, its bounds.
+     */
+    FilterQueryBuilder filter(String field, Filter<?> filter) {
+        if (filter == null) {
+            return this;
+        }
+        if (filter.getEquals() != null) {
+            filters.add(term(field, filter.getEquals()));
+        }
+        if (filter.getNotEquals() != null) {
+            exclusions.add(term(field, filter.getNotEquals()));
+        }
+        if (filter.getIn() != null) {
+            filters.add(terms(field, filter.getIn()));
+        }
+        if (filter.getNotIn() != null) {
+            exclusions.add(terms(field, filter.getNotIn()));
+        }
+        if (filter.getSpecified() != null) {
+            (filter.getSpecified() ? filters : exclusions).add(ExistsQuery.of(e -> e.field(field))._toQuery());
+        }
+        if (filter instanceof RangeFilter<?> range) {
+            range(field, range);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the geographic conditions on the geo point: radius, bounding box and polygon. The center of the radius is also the
+     * origin of the sort by {@value GeoCriteria#DISTANCE_SORT}.
+     */
+    FilterQueryBuilder geo(GeoCriteria geo) {
+        if (geo == null) {
+            return this;
+        }
+        if (geo.hasCenter()) {
+            GeoLocation location = latLon(geo.getLatitude(), geo.getLongitude());
+            center = location;
+            if (geo.getDistance() != null) {
+                filters.add(
+                    GeoDistanceQuery.of(g -> g.field(GeoPointMapping.FIELD).location(location).distance(geo.getDistance()))._toQuery()
+                );
+            }
+        }
+        if (geo.hasBoundingBox()) {
+            GeoLocation topLeft = latLon(geo.getNorth(), geo.getWest());
+            GeoLocation bottomRight = latLon(geo.getSouth(), geo.getEast());
+            filters.add(
+                GeoBoundingBoxQuery.of(g ->
+                    g.field(GeoPointMapping.FIELD).boundingBox(b -> b.tlbr(t -> t.topLeft(topLeft).bottomRight(bottomRight)))
+                )._toQuery()
+            );
+        }
+        if (geo.hasPolygon()) {
+            JsonData shape = JsonData.of(Map.of("type", "polygon", "coordinates", List.of(ring(geo.getPolygon()))));
+            filters.add(GeoShapeQuery.of(g -> g.field(GeoPointMapping.FIELD).shape(sh -> sh.shape(shape)))._toQuery());
+        }
+        return this;
+    }
+
+    /**
+     * Adds a facet counting the matching documents per value of a keyword field.
+     */
+    FilterQueryBuilder termsFacet(String name, String field, int size) {
+        facets.put(name, Aggregation.of(a -> a.terms(t -> t.field(field).size(size))));
+        return this;
+    }
+
+    /**
+     * Adds a facet counting the matching documents per interval of a numeric field, omitting the empty intervals.
+     */
+    FilterQueryBuilder histogramFacet(String name, String field, double interval) {
+        facets.put(name, Aggregation.of(a -> a.histogram(h -> h.field(field).interval(interval).minDocCount(1))));
+        return this;
+    }
+
+    /**
+     * Adds a facet counting the matching documents per month of a date field, omitting the empty months.
+     */
+    FilterQueryBuilder monthlyFacet(String name, String field) {
+        facets.put(
+            name,
+            Aggregation.of(a ->
+                a.dateHistogram(d -> d.field(field).calendarInterval(CalendarInterval.Month).format("yyyy-MM").minDocCount(1))
+            )
+        );
+        return this;
+    }
+
+    /**
+     * Adds a facet counting the matching documents per geohash cell of the geo point, if a precision is given.
+     */
+    FilterQueryBuilder geohashFacet(String name, Integer precision) {
+        if (precision != null) {
+            facets.put(
+                name,
+                Aggregation.of(a -> a.geohashGrid(g -> g.field(GeoPointMapping.FIELD).precision(p -> p.geohashLength(precision))))
+            );
+        }
+        return this;
+    }
+
+    boolean isScored() {
+        return query != null && !query.isBlank();
+    }
+
+    /**
+     * Builds the query of a page of hits with the facets, in a single request.
+     *
+     * @param pageable the pagination information.
+     * @param exactCountLimit the number of matching documents up to which the total is counted exactly.
+     */
+    NativeQuery build(Pageable pageable, int exactCountLimit) {
+        NativeQueryBuilder builder = NativeQuery.builder()
+            .withQuery(toQuery())
+            .withTrackTotalHitsUpTo(exactCountLimit)
+            .withPageable(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
+            .withSort(sortOptions(pageable.getSort()));
+        facets.forEach(builder::withAggregation);
+        return builder.build();
+    }
+
+    /**
+     * Searches a page of a point in time walk, without facets nor total. The point in time is opened by the first page and
+     * closed by the last one; it is left to expire if the client stops before.
+     *
+     * @throws InvalidCursorException (signaled) if the point in time of the cursor expired.
+     */
+    <T> Mono<SearchCursor.Page<T>> searchAfter(
+        ReactiveElasticsearchTemplate template,
+        SearchCursor cursor,
+        Duration keepAlive,
+        Class<T> type
+    ) {
+        Mono<String> pointInTime = cursor.isPositioned()
+            ? Mono.just(cursor.getPointInTimeId())
+            : template.openPointInTime(template.getIndexCoordinatesFor(type), keepAlive, false);
+        return pointInTime
+            .flatMap(pointInTimeId -> {
+                NativeQuery nativeQuery = NativeQuery.builder()
+                    .withQuery(toQuery())
+                    .withPageable(PageRequest.of(0, cursor.getSize()))
+                    .withSort(sortOptions(cursor.getSort()))
+                    .withTrackTotalHits(false)
+                    .withPointInTime(new org.springframework.data.elasticsearch.core.query.Query.PointInTime(pointInTimeId, keepAlive))
+                    .withSearchAfter(cursor.isPositioned() ? cursor.getSearchAfter() : null)
+                    .build();
+                return template
+                    .searchForPage(nativeQuery, type)
+                    .flatMap(page -> {
+                        List<SearchHit<T>> hits = page.getContent();
+                        List<T> contents = hits.stream().map(SearchHit::getContent).toList();
+                        String nextPointInTimeId = Objects.requireNonNullElse(page.getSearchHits().getPointInTimeId(), pointInTimeId);
+                        if (hits.size() < cursor.getSize()) {
+                            return template
+                                .closePointInTime(nextPointInTimeId)
+                                .onErrorReturn(false)
+                                .thenReturn(new SearchCursor.Page<>(contents, null));
+                        }
+                        List<Object> sortValues = hits.get(hits.size() - 1).getSortValues();
+                        return Mono.just(new SearchCursor.Page<>(contents, cursor.next(nextPointInTimeId, sortValues)));
+                    });
+            })
+            .onErrorMap(FilterQueryBuilder::isNotFound, e -> new InvalidCursorException("Expired search cursor", e));
+    }
+
+    private Query toQuery() {
+        List<Query> scoring = new ArrayList<>(1);
+        if (isScored()) {
+            scoring.add(QueryStringQuery.of(qs -> qs.query(query).allowLeadingWildcard(false))._toQuery());
+        }
+        return Query.of(q -> q.bool(b -> b.must(scoring).filter(filters).mustNot(exclusions)));
+    }
+
+    /**
+     * Converts the sort of a request, which may order the hits by score or by distance from the center.
+     *
+     * @throws InvalidCursorException if the hits are sorted by distance without center.
+     */
+    private List<SortOptions> sortOptions(Sort sort) {
+        List<SortOptions> sortOptions = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            SortOrder direction = order.isAscending() ? SortOrder.Asc : SortOrder.Desc;
+            if (GeoCriteria.DISTANCE_SORT.equals(order.getProperty())) {
+                if (center == null) {
+                    throw new InvalidCursorException("Sort by distance without center");
+                }
+                GeoLocation origin = center;
+                sortOptions.add(
+                    SortOptions.of(so ->
+                        so.geoDistance(g -> g.field(GeoPointMapping.FIELD).location(origin).order(direction).unit(DistanceUnit.Meters))
+                    )
+                );
+            } else if (SearchCursor.SCORE_FIELD.equals(order.getProperty())) {
+                sortOptions.add(SortOptions.of(so -> so.score(sc -> sc.order(direction))));
+            } else {
+                sortOptions.add(SortOptions.of(so -> so.field(f -> f.field(order.getProperty()).order(direction))));
+            }
+        }
+        return sortOptions;
+    }
+
+    private static GeoLocation latLon(double latitude, double longitude) {
+        return GeoLocation.of(l -> l.latlon(ll -> ll.lat(latitude).lon(longitude)));
+    }
+
+    /**
+     * Converts a flat list of latitudes and longitudes into a closed GeoJSON ring, of longitude and latitude pairs.
+     */
+    private static List<List<Double>> ring(List<Double> polygon) {
+        List<List<Double>> ring = new ArrayList<>(polygon.size() / 2 + 1);
+        for (int i = 0; i + 1 < polygon.size(); i += 2) {
+            ring.add(List.of(polygon.get(i + 1), polygon.get(i)));
+        }
+        if (!ring.get(0).equals(ring.get(ring.size() - 1))) {
+            ring.add(ring.get(0));
+        }
+        return ring;
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestStatusException restStatusException && restStatusException.getStatus() == NOT_FOUND) {
+                return true;
+            }
+            if (
+                cause instanceof UncategorizedElasticsearchException uncategorized &&
+                uncategorized.getStatusCode() != null &&
+                uncategorized.getStatusCode() == NOT_FOUND
+            ) {
+                return true;
+            }
+            if (cause instanceof ElasticsearchException elasticsearchException && elasticsearchException.status() == NOT_FOUND) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Query term(String field, Object value) {
+        return TermQuery.of(t -> t.field(field).value(fieldValue(value)))._toQuery();
+    }
+
+    private static Query terms(String field, List<?> values) {
+        List<FieldValue> fieldValues = values.stream().map(FilterQueryBuilder::fieldValue).toList();
+        return TermsQuery.of(t -> t.field(field).terms(v -> v.value(fieldValues)))._toQuery();
+    }
+
+    private void range(String field, RangeFilter<?> range) {
+        if (
+            range.getGreaterThan() == null &&
+            range.getGreaterThanOrEqual() == null &&
+            range.getLessThan() == null &&
+            range.getLessThanOrEqual() == null
+        ) {
+            return;
+        }
+        filters.add(
+            RangeQuery.of(r -> {
+                r.field(field);
+                if (range.getGreaterThan() != null) {
+                    r.gt(JsonData.of(jsonValue(range.getGreaterThan())));
+                }
+                if (range.getGreaterThanOrEqual() != null) {
+                    r.gte(JsonData.of(jsonValue(range.getGreaterThanOrEqual())));
+                }
+                if (range.getLessThan() != null) {
+                    r.lt(JsonData.of(jsonValue(range.getLessThan())));
+                }
+                if (range.getLessThanOrEqual() != null) {
+                    r.lte(JsonData.of(jsonValue(range.getLessThanOrEqual())));
+                }
+                return r;
+            })._toQuery()
+        );
+    }
+
+    private static FieldValue fieldValue(Object value) {
+        if (value instanceof Long || value instanceof Integer) {
+            return FieldValue.of(((Number) value).longValue());
+        }
+        if (value instanceof BigDecimal number) {
+            return FieldValue.of(number.doubleValue());
+        }
+        if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        }
+        return FieldValue.of(value.toString());
+    }
+
+    /**
+     * Writes the instants like the documents do, as ISO-8601 strings.
+     */
+    private static Object jsonValue(Object value) {
+        return value instanceof Instant ? value.toString() : value;
+    }
+}
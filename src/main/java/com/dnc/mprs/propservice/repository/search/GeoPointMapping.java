@@ -0,0 +1,38 @@
+package com.dnc.mprs.propservice.repository.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.data.elasticsearch.core.ReactiveIndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mapping of the {@value #FIELD} geo point of the documents with coordinates.
+ * <p>
+ * The geo point is not a property of the entities: the mapping computes it with an index-time script from the
+ * {@code latitude} and {@code longitude} fields, so the entities keep plain numeric columns and the documents without
+ * coordinates have no location. The field is added to the mapping generated from the annotations of the entity.
+ */
+final class GeoPointMapping {
+
+    static final String FIELD = "location";
+
+    private static final String SCRIPT =
+        "if (doc['latitude'].size() > 0 && doc['longitude'].size() > 0) { emit(doc['latitude'].value, doc['longitude'].value); }";
+
+    private GeoPointMapping() {}
+
+    /**
+     * Adds the fields missing from the mapping of an index, including the geo point.
+     */
+    static Mono<Boolean> putMapping(ReactiveIndexOperations indexOps) {
+        return indexOps.putMapping(indexOps.createMapping().map(GeoPointMapping::withGeoPoint));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document withGeoPoint(Document mapping) {
+        Map<String, Object> properties = (Map<String, Object>) mapping.computeIfAbsent("properties", key -> new LinkedHashMap<>());
+        properties.put(FIELD, Map.of("type", "geo_point", "script", Map.of("source", SCRIPT)));
+        return mapping;
+    }
+}
@@ -1,14 +1,17 @@
 package com.dnc.mprs.propservice.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
+import com.dnc.mprs.propservice.domain.criteria.PropertyCriteria;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Property} entity.
@@ -16,28 +19,73 @@ import reactor.core.publisher.Flux;
 public interface PropertySearchRepository extends ReactiveElasticsearchRepository<Property, Long>, PropertySearchRepositoryInternal {}
 
 interface PropertySearchRepositoryInternal {
-    Flux<Property> search(String query, Pageable pageable);
+    Mono<SearchPage<Property>> search(String query, PropertyCriteria criteria, GeoCriteria geo, Pageable pageable, boolean faceted);
+
+    Mono<SearchCursor.Page<Property>> search(String query, PropertyCriteria criteria, GeoCriteria geo, SearchCursor cursor);
 
     Flux<Property> search(Query query);
+
+    Mono<Boolean> putMapping();
 }
 
 class PropertySearchRepositoryInternalImpl implements PropertySearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    PropertySearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final ApplicationProperties.Search search;
+
+    PropertySearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.search = applicationProperties.getSearch();
+    }
+
+    @Override
+    public Mono<SearchPage<Property>> search(String query, PropertyCriteria criteria, GeoCriteria geo, Pageable pageable, boolean faceted) {
+        FilterQueryBuilder builder = filters(query, criteria, geo);
+        if (faceted) {
+            builder
+                .termsFacet("type", "type" + FilterQueryBuilder.KEYWORD_SUFFIX, search.getFacetSize())
+                .termsFacet("parkingYn", "parkingYn" + FilterQueryBuilder.KEYWORD_SUFFIX, search.getFacetSize())
+                .termsFacet("rooms", "rooms", search.getFacetSize())
+                .histogramFacet("area", "area", search.getAreaInterval())
+                .geohashFacet("location", geo.getGeohashPrecision());
+        }
+        return reactiveElasticsearchTemplate.searchForPage(builder.build(pageable, search.getExactCountLimit()), Property.class);
     }
 
     @Override
-    public Flux<Property> search(String query, Pageable pageable) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        nativeQuery.setPageable(pageable);
-        return search(nativeQuery);
+    public Mono<SearchCursor.Page<Property>> search(String query, PropertyCriteria criteria, GeoCriteria geo, SearchCursor cursor) {
+        return filters(query, criteria, geo).searchAfter(
+            reactiveElasticsearchTemplate,
+            cursor,
+            search.getCursorKeepAlive(),
+            Property.class
+        );
     }
 
     @Override
     public Flux<Property> search(Query query) {
         return reactiveElasticsearchTemplate.search(query, Property.class).map(SearchHit::getContent);
     }
+
+    @Override
+    public Mono<Boolean> putMapping() {
+        return GeoPointMapping.putMapping(reactiveElasticsearchTemplate.indexOps(Property.class));
+    }
+
+    private static FilterQueryBuilder filters(String query, PropertyCriteria criteria, GeoCriteria geo) {
+        return new FilterQueryBuilder(query)
+            .filter("id", criteria.getId())
+            .keyword("regionCd", criteria.getRegionCd())
+            .keyword("type", criteria.getType())
+            .keyword("parkingYn", criteria.getParkingYn())
+            .filter("area", criteria.getArea())
+            .filter("rooms", criteria.getRooms())
+            .filter("buildYear", criteria.getBuildYear())
+            .filter("complexId", criteria.getComplexId())
+            .geo(geo);
+    }
 }
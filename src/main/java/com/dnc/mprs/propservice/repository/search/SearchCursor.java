@@ -0,0 +1,234 @@
+package com.dnc.mprs.propservice.repository.search;
+
+import com.dnc.mprs.propservice.repository.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position of a search walked with a point in time and {@code search_after}.
+ * <p>
+ * The first page opens a point in time, a snapshot of the index kept alive between the pages, so the walk is consistent
+ * whatever the concurrent changes. Every page is sorted with the id as tiebreaker and starts after the sort values of the
+ * last hit of the previous one, so deep pages cost as much as the first one and are not limited by the
+ * {@code max_result_window} of the index. The position is exchanged with clients as an opaque, URL safe continuation token,
+ * see {@link #encode()} and {@link #decode(String, int)}.
+ */
+public final class SearchCursor {
+
+    public static final String ID_FIELD = "id";
+
+    public static final String SCORE_FIELD = "_score";
+
+    private static final String SEPARATOR = ".";
+
+    private final String pointInTimeId;
+
+    private final Sort sort;
+
+    private final int size;
+
+    private final List<Object> searchAfter;
+
+    private SearchCursor(String pointInTimeId, Sort sort, int size, List<Object> searchAfter) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Search cursor page size must be positive");
+        }
+        this.pointInTimeId = pointInTimeId;
+        this.sort = sort;
+        this.size = size;
+        this.searchAfter = searchAfter;
+    }
+
+    /**
+     * Creates the cursor of the first page. The hits are sorted by the given sort then by id.
+     *
+     * @param sort the requested sort; if unsorted, by score when there is a query string, else by id.
+     * @param size the page size.
+     * @param scored whether the search has a query string.
+     * @return the cursor of the first page, without point in time.
+     */
+    public static SearchCursor first(Sort sort, int size, boolean scored) {
+        if (sort.isUnsorted()) {
+            sort = scored ? Sort.by(Sort.Order.desc(SCORE_FIELD)) : Sort.unsorted();
+        }
+        if (sort.getOrderFor(ID_FIELD) == null) {
+            sort = sort.and(Sort.by(Sort.Order.asc(ID_FIELD)));
+        }
+        return new SearchCursor(null, sort, size, List.of());
+    }
+
+    /**
+     * Decodes a continuation token created by {@link #encode()}.
+     *
+     * @param token the continuation token.
+     * @param size the page size.
+     * @return the cursor of the page following the one which produced the token.
+     * @throws InvalidCursorException if the token is malformed.
+     */
+    public static SearchCursor decode(String token, int size) {
+        try {
+            String[] parts = token.split("\\" + SEPARATOR, -1);
+            if (parts.length < 3) {
+                throw new InvalidCursorException("Malformed search cursor token");
+            }
+            List<Sort.Order> orders = new ArrayList<>();
+            for (String order : decodePart(parts[1]).split(",")) {
+                String[] fieldAndDirection = order.split(":", 2);
+                orders.add(new Sort.Order(Sort.Direction.valueOf(fieldAndDirection[1]), fieldAndDirection[0]));
+            }
+            List<Object> searchAfter = new ArrayList<>(parts.length - 2);
+            for (int i = 2; i < parts.length; i++) {
+                searchAfter.add(parseValue(decodePart(parts[i])));
+            }
+            if (searchAfter.size() != orders.size()) {
+                throw new InvalidCursorException("Malformed search cursor token");
+            }
+            return new SearchCursor(decodePart(parts[0]), Sort.by(orders), size, searchAfter);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed search cursor token", e);
+        }
+    }
+
+    /**
+     * Creates the cursor of the next page.
+     *
+     * @param pointInTimeId the id of the point in time returned with the current page.
+     * @param sortValues the sort values of the last hit of the current page.
+     * @return the cursor of the next page.
+     */
+    public SearchCursor next(String pointInTimeId, List<Object> sortValues) {
+        return new SearchCursor(pointInTimeId, sort, size, Collections.unmodifiableList(new ArrayList<>(sortValues)));
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL safe continuation token.
+     *
+     * @return the continuation token.
+     * @throws IllegalStateException if this is the cursor of the first page.
+     */
+    public String encode() {
+        if (!isPositioned()) {
+            throw new IllegalStateException("The first page has no continuation token");
+        }
+        List<String> parts = new ArrayList<>(2 + searchAfter.size());
+        parts.add(encodePart(pointInTimeId));
+        List<String> orders = sort.stream().map(order -> order.getProperty() + ":" + order.getDirection().name()).toList();
+        parts.add(encodePart(String.join(",", orders)));
+        searchAfter.forEach(value -> parts.add(encodePart(formatValue(value))));
+        return String.join(SEPARATOR, parts);
+    }
+
+    /**
+     * @return {@code false} for the first page, {@code true} if the page starts after a known hit of a point in time.
+     */
+    public boolean isPositioned() {
+        return pointInTimeId != null;
+    }
+
+    public String getPointInTimeId() {
+        return pointInTimeId;
+    }
+
+    /**
+     * @return the sort to apply, including the id tiebreaker.
+     */
+    public Sort getSort() {
+        return sort;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public List<Object> getSearchAfter() {
+        return searchAfter;
+    }
+
+    private static String encodePart(String part) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(part.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String part) {
+        return new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Formats a sort value of a hit, as returned by Elasticsearch, with its type as prefix.
+     */
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "N";
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return "L" + value;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return "D" + value;
+        }
+        if (value instanceof Boolean) {
+            return "B" + value;
+        }
+        if (value instanceof String) {
+            return "S" + value;
+        }
+        throw new IllegalArgumentException("Unsupported sort value type " + value.getClass().getName());
+    }
+
+    private static Object parseValue(String value) {
+        String content = value.substring(1);
+        return switch (value.charAt(0)) {
+            case 'N' -> null;
+            case 'L' -> Long.valueOf(content);
+            case 'D' -> Double.valueOf(content);
+            case 'B' -> Boolean.valueOf(content);
+            case 'S' -> content;
+            default -> throw new IllegalArgumentException("Unsupported sort value type " + value.charAt(0));
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchCursor)) {
+            return false;
+        }
+        SearchCursor cursor = (SearchCursor) o;
+        return (
+            size == cursor.size &&
+            Objects.equals(pointInTimeId, cursor.pointInTimeId) &&
+            sort.equals(cursor.sort) &&
+            searchAfter.equals(cursor.searchAfter)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pointInTimeId, sort, size, searchAfter);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchCursor{" +
+            "sort=" + sort +
+            ", size=" + size +
+            ", searchAfter=" + searchAfter +
+            "}";
+    }
+
+    /**
+     * A page of hits, with the cursor of the next page.
+     *
+     * @param hits the hits of the page.
+     * @param next the cursor of the next page, {@code null} on the last page.
+     * @param <T> the type of the hits.
+     */
+    public record Page<T>(List<T> hits, SearchCursor next) {}
+}
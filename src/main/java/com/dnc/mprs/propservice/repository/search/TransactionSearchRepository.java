@@ -1,14 +1,16 @@
 package com.dnc.mprs.propservice.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.TransactionCriteria;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Transaction} entity.
@@ -17,28 +19,62 @@ public interface TransactionSearchRepository
     extends ReactiveElasticsearchRepository<Transaction, Long>, TransactionSearchRepositoryInternal {}
 
 interface TransactionSearchRepositoryInternal {
-    Flux<Transaction> search(String query, Pageable pageable);
+    Mono<SearchPage<Transaction>> search(String query, TransactionCriteria criteria, Pageable pageable, boolean faceted);
+
+    Mono<SearchCursor.Page<Transaction>> search(String query, TransactionCriteria criteria, SearchCursor cursor);
 
     Flux<Transaction> search(Query query);
+
+    Mono<Boolean> putMapping();
 }
 
 class TransactionSearchRepositoryInternalImpl implements TransactionSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    TransactionSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final ApplicationProperties.Search search;
+
+    TransactionSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        ApplicationProperties applicationProperties
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.search = applicationProperties.getSearch();
+    }
+
+    @Override
+    public Mono<SearchPage<Transaction>> search(String query, TransactionCriteria criteria, Pageable pageable, boolean faceted) {
+        FilterQueryBuilder builder = filters(query, criteria);
+        if (faceted) {
+            builder
+                .termsFacet("transactionType", "transactionType" + FilterQueryBuilder.KEYWORD_SUFFIX, search.getFacetSize())
+                .histogramFacet("price", "price", search.getPriceInterval())
+                .monthlyFacet("transactionDate", "transactionDate");
+        }
+        return reactiveElasticsearchTemplate.searchForPage(builder.build(pageable, search.getExactCountLimit()), Transaction.class);
     }
 
     @Override
-    public Flux<Transaction> search(String query, Pageable pageable) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        nativeQuery.setPageable(pageable);
-        return search(nativeQuery);
+    public Mono<SearchCursor.Page<Transaction>> search(String query, TransactionCriteria criteria, SearchCursor cursor) {
+        return filters(query, criteria).searchAfter(reactiveElasticsearchTemplate, cursor, search.getCursorKeepAlive(), Transaction.class);
     }
 
     @Override
     public Flux<Transaction> search(Query query) {
         return reactiveElasticsearchTemplate.search(query, Transaction.class).map(SearchHit::getContent);
     }
+
+    @Override
+    public Mono<Boolean> putMapping() {
+        return reactiveElasticsearchTemplate.indexOps(Transaction.class).putMapping();
+    }
+
+    private static FilterQueryBuilder filters(String query, TransactionCriteria criteria) {
+        return new FilterQueryBuilder(query)
+            .filter("id", criteria.getId())
+            .filter("propertyId", criteria.getPropertyId())
+            .keyword("transactionType", criteria.getTransactionType())
+            .filter("price", criteria.getPrice())
+            .filter("transactionDate", criteria.getTransactionDate());
+    }
 }
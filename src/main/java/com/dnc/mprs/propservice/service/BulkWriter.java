@@ -0,0 +1,254 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import io.r2dbc.spi.R2dbcTransientException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Writes a stream of entities in chunks, for the bulk create/update endpoints.
+ * <p>
+ * Every chunk is validated, then written in its own transaction: with multi-row statements and indexed with the Elasticsearch
+ * bulk API by the given persist function, along with the change events of the outbox. Invalid items and the items of a chunk
+ * which could not be written are reported as failed, the following chunks are still written. Transient failures of the
+ * database or of the search engine are propagated instead, so the caller can retry. The results are emitted in input order,
+ * chunk by chunk.
+ */
+@Component
+public class BulkWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkWriter.class);
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Validator validator;
+
+    private final OutboxService outboxService;
+
+    private final int chunkSize;
+
+    public BulkWriter(
+        TransactionalOperator transactionalOperator,
+        Validator validator,
+        OutboxService outboxService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.outboxService = outboxService;
+        this.chunkSize = applicationProperties.getBulk().getChunkSize();
+    }
+
+    /**
+     * Writes the given entities.
+     *
+     * @param <T> the type of the entities.
+     * @param entityType the type of the entities.
+     * @param entities the entities to create or update; entities without id are created.
+     * @param idOf the id accessor of the entities.
+     * @param findExistingIds returns which of the given ids already exist, so updated entities can be told from created ones.
+     * @param persist saves and indexes a chunk of entities, setting the ids of the created ones.
+     * @param counter the counter of the entity, adjusted by the number of created entities.
+     * @return the result of every entity, in input order.
+     */
+    public <T> Flux<BulkItemResult> write(
+        Class<T> entityType,
+        Flux<T> entities,
+        Function<T, Long> idOf,
+        Function<Collection<Long>, Flux<Long>> findExistingIds,
+        Function<List<T>, Flux<T>> persist,
+        EntityCounter counter
+    ) {
+        return entities
+            .index()
+            .buffer(chunkSize)
+            .concatMap(chunk -> writeChunk(entityType, chunk, idOf, findExistingIds, persist, counter, results -> Mono.empty()));
+    }
+
+    /**
+     * Writes the given entities as a single chunk, whatever the chunk size, so they are all written or all failed together.
+     *
+     * @param <T> the type of the entities.
+     * @param entityType the type of the entities.
+     * @param entities the entities to create or update; entities without id are created.
+     * @param idOf the id accessor of the entities.
+     * @param findExistingIds returns which of the given ids already exist, so updated entities can be told from created ones.
+     * @param persist saves and indexes the entities, setting the ids of the created ones.
+     * @param counter the counter of the entity, adjusted by the number of created entities.
+     * @param inTransaction given the result of every entity, runs in the transaction of the valid ones, so the caller can record
+     * that they were written; not run when no entity is valid.
+     * @return the result of every entity, in input order.
+     */
+    public <T> Flux<BulkItemResult> writeAtomically(
+        Class<T> entityType,
+        List<T> entities,
+        Function<T, Long> idOf,
+        Function<Collection<Long>, Flux<Long>> findExistingIds,
+        Function<List<T>, Flux<T>> persist,
+        EntityCounter counter,
+        Function<List<BulkItemResult>, Mono<Void>> inTransaction
+    ) {
+        List<Tuple2<Long, T>> chunk = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            chunk.add(Tuples.of((long) i, entities.get(i)));
+        }
+        return writeChunk(entityType, chunk, idOf, findExistingIds, persist, counter, inTransaction);
+    }
+
+    private <T> Flux<BulkItemResult> writeChunk(
+        Class<T> entityType,
+        List<Tuple2<Long, T>> chunk,
+        Function<T, Long> idOf,
+        Function<Collection<Long>, Flux<Long>> findExistingIds,
+        Function<List<T>, Flux<T>> persist,
+        EntityCounter counter,
+        Function<List<BulkItemResult>, Mono<Void>> inTransaction
+    ) {
+        List<BulkItemResult> invalid = new ArrayList<>();
+        List<Long> indexes = new ArrayList<>();
+        List<T> valid = new ArrayList<>();
+        for (Tuple2<Long, T> item : chunk) {
+            String error = validate(item.getT2());
+            if (error != null) {
+                invalid.add(BulkItemResult.failed(item.getT1(), idOf.apply(item.getT2()), error));
+            } else {
+                indexes.add(item.getT1());
+                valid.add(item.getT2());
+            }
+        }
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(invalid);
+        }
+
+        List<Long> requestedIds = valid.stream().map(idOf).toList();
+        List<Long> ids = requestedIds.stream().filter(Objects::nonNull).toList();
+        Mono<Set<Long>> existingIds = ids.isEmpty() ? Mono.just(Set.of()) : findExistingIds.apply(ids).collect(Collectors.toSet());
+        return existingIds
+            .flatMap(existing ->
+                persist
+                    .apply(valid)
+                    .collectList()
+                    .flatMap(saved -> {
+                        List<BulkItemResult> results = toResults(indexes, requestedIds, existing, saved, idOf);
+                        return outboxService
+                            .recordAll(changeEvents(entityType, saved, results))
+                            .then(Mono.defer(() -> inTransaction.apply(inInputOrder(results, invalid))))
+                            .thenReturn(results);
+                    })
+            )
+            .as(transactionalOperator::transactional)
+            .doOnNext(results -> counter.add(results.stream().filter(r -> r.getStatus() == BulkItemResult.Status.CREATED).count()))
+            .onErrorResume(e -> !isTransient(e), e -> Mono.just(failed(indexes, requestedIds, e)))
+            .flatMapIterable(results -> inInputOrder(results, invalid));
+    }
+
+    private static List<BulkItemResult> inInputOrder(List<BulkItemResult> results, List<BulkItemResult> invalid) {
+        List<BulkItemResult> all = new ArrayList<>(results.size() + invalid.size());
+        all.addAll(results);
+        all.addAll(invalid);
+        all.sort(Comparator.comparingLong(BulkItemResult::getIndex));
+        return all;
+    }
+
+    private static <T> List<BulkItemResult> toResults(
+        List<Long> indexes,
+        List<Long> requestedIds,
+        Set<Long> existingIds,
+        List<T> saved,
+        Function<T, Long> idOf
+    ) {
+        List<BulkItemResult> results = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            Long requestedId = requestedIds.get(i);
+            Long id = idOf.apply(saved.get(i));
+            results.add(
+                requestedId != null && existingIds.contains(requestedId)
+                    ? BulkItemResult.updated(indexes.get(i), id)
+                    : BulkItemResult.created(indexes.get(i), id)
+            );
+        }
+        return results;
+    }
+
+    private static List<BulkItemResult> failed(List<Long> indexes, List<Long> requestedIds, Throwable e) {
+        String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        LOG.warn("Bulk chunk of {} items could not be written: {}", indexes.size(), error);
+        List<BulkItemResult> failed = new ArrayList<>(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            failed.add(BulkItemResult.failed(indexes.get(i), requestedIds.get(i), error));
+        }
+        return failed;
+    }
+
+    private <T> List<OutboxEvent> changeEvents(Class<T> entityType, List<T> saved, List<BulkItemResult> results) {
+        List<OutboxEvent> events = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            BulkItemResult result = results.get(i);
+            OutboxEvent.EventType eventType = result.getStatus() == BulkItemResult.Status.CREATED
+                ? OutboxEvent.EventType.CREATED
+                : OutboxEvent.EventType.UPDATED;
+            events.add(outboxService.event(eventType, entityType, result.getId(), saved.get(i)));
+        }
+        return events;
+    }
+
+    /**
+     * Tells whether a failure is caused by the infrastructure rather than by the written data, so writing again may succeed.
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (
+                cause instanceof TransientDataAccessException ||
+                cause instanceof RecoverableDataAccessException ||
+                cause instanceof DataAccessResourceFailureException ||
+                cause instanceof R2dbcTransientException ||
+                cause instanceof TimeoutException ||
+                cause instanceof IOException
+            ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Validates the bean constraints of an entity, except the id which is generated for created entities.
+     *
+     * @return the violations, or {@code null} if the entity is valid.
+     */
+    private <T> String validate(T entity) {
+        Set<String> violations = new HashSet<>();
+        for (ConstraintViolation<T> violation : validator.validate(entity)) {
+            String property = violation.getPropertyPath().toString();
+            if (!"id".equals(property)) {
+                violations.add(property + ": " + violation.getMessage());
+            }
+        }
+        return violations.isEmpty() ? null : violations.stream().sorted().collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,244 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.broker.CacheInvalidationBus;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+
+/**
+ * Service propagating the invalidations of the entity caches and counters between the instances of the service.
+ * <p>
+ * The ids evicted and the count adjustments made on this instance are collected and published every {@code flush-interval} in
+ * one message, with the ids deduplicated and the adjustments summed per entity, so a burst of changes costs one small message;
+ * past {@value #MAX_IDS} ids, the whole cache of the entity is invalidated instead. Every instance applies the messages of the
+ * other instances to its caches and counters.
+ * <p>
+ * The messages of an instance are numbered. When a number is missing, a message was lost: all the caches are cleared and the
+ * counters reconciled with the database. A message lost without a following one is only covered by the time to live of the
+ * caches and the periodic reconciliation of the counters.
+ */
+@Service
+public class CacheInvalidationService {
+
+    static final int MAX_IDS = 10_000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Long>> pendingIds = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> pendingCounts = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+
+    private final Timer latency;
+
+    private final Counter lost;
+
+    private final Disposable subscription;
+
+    public CacheInvalidationService(
+        CacheInvalidationBus cacheInvalidationBus,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.objectMapper = objectMapper;
+        this.enabled = applicationProperties.getCacheInvalidation().isEnabled();
+        this.latency = Timer.builder("cache.invalidation.latency")
+            .description("Time between the publication of an invalidation by an instance and its application by another one")
+            .register(meterRegistry);
+        this.lost = Counter.builder("cache.invalidation.lost")
+            .description("Number of gaps in the invalidations received from the other instances")
+            .register(meterRegistry);
+        this.subscription = enabled ? cacheInvalidationBus.getFlux().subscribe(this::receive) : null;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Registers the cache and the counter of an entity, to apply the invalidations published by the other instances.
+     *
+     * @param entityName the name of the entity.
+     * @param invalidate evicts the entities of a message from the cache.
+     * @param invalidateAll evicts all the entities from the cache.
+     * @param counter the counter of the entity.
+     */
+    public void register(String entityName, Consumer<Set<Long>> invalidate, Runnable invalidateAll, EntityCounter counter) {
+        targets.put(entityName, new Target(invalidate, invalidateAll, counter));
+    }
+
+    /**
+     * Adds an evicted entity to the next invalidation message.
+     *
+     * @param entityName the name of the entity.
+     * @param id the id of the entity.
+     */
+    public void invalidated(String entityName, long id) {
+        if (!enabled) {
+            return;
+        }
+        pendingIds.compute(entityName, (key, ids) -> {
+            Set<Long> pending = ids != null ? ids : new HashSet<>();
+            if (pending.size() <= MAX_IDS) {
+                pending.add(id);
+            }
+            return pending;
+        });
+    }
+
+    /**
+     * Adds a count adjustment to the next invalidation message.
+     *
+     * @param entityName the name of the entity.
+     * @param delta the number of inserted (positive) or deleted (negative) rows.
+     */
+    public void counted(String entityName, long delta) {
+        if (enabled) {
+            pendingCounts.merge(entityName, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Publishes the invalidations collected since the last flush, if any.
+     */
+    @Scheduled(fixedDelayString = "${application.cache-invalidation.flush-interval:PT0.05S}")
+    public void flush() {
+        Map<String, Set<Long>> ids = new HashMap<>();
+        Set<String> cleared = new HashSet<>();
+        for (String entityName : List.copyOf(pendingIds.keySet())) {
+            Set<Long> entityIds = pendingIds.remove(entityName);
+            if (entityIds != null && entityIds.size() > MAX_IDS) {
+                cleared.add(entityName);
+            } else if (entityIds != null) {
+                ids.put(entityName, entityIds);
+            }
+        }
+        Map<String, Long> counts = new HashMap<>();
+        for (String entityName : List.copyOf(pendingCounts.keySet())) {
+            Long delta = pendingCounts.remove(entityName);
+            if (delta != null && delta != 0) {
+                counts.put(entityName, delta);
+            }
+        }
+        if (ids.isEmpty() && cleared.isEmpty() && counts.isEmpty()) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(origin, sequence.incrementAndGet(), System.currentTimeMillis(), ids, cleared, counts);
+        try {
+            if (!cacheInvalidationBus.publish(origin, objectMapper.writeValueAsString(invalidation))) {
+                LOG.warn("Cache invalidation #{} could not be published", invalidation.sequence());
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOG.warn("Cache invalidation #{} could not be published: {}", invalidation.sequence(), e.getMessage());
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            apply(objectMapper.readValue(payload, Invalidation.class));
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOG.warn("Could not apply cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Invalidation invalidation) {
+        if (origin.equals(invalidation.origin())) {
+            return;
+        }
+        Long last = lastSequences.get(invalidation.origin());
+        if (last != null && invalidation.sequence() <= last) {
+            return;
+        }
+        lastSequences.put(invalidation.origin(), invalidation.sequence());
+        latency.record(Duration.ofMillis(Math.max(0L, System.currentTimeMillis() - invalidation.sentAt())));
+        if (last != null && invalidation.sequence() > last + 1) {
+            LOG.warn("Lost cache invalidations #{} to #{} of {}", last + 1, invalidation.sequence() - 1, invalidation.origin());
+            lost.increment();
+            targets.values().forEach(this::reset);
+            return;
+        }
+        invalidation
+            .ids()
+            .forEach((entityName, ids) -> {
+                Target target = targets.get(entityName);
+                if (target != null) {
+                    target.invalidate().accept(ids);
+                }
+            });
+        invalidation
+            .cleared()
+            .forEach(entityName -> {
+                Target target = targets.get(entityName);
+                if (target != null) {
+                    target.invalidateAll().run();
+                }
+            });
+        invalidation
+            .counts()
+            .forEach((entityName, delta) -> {
+                Target target = targets.get(entityName);
+                if (target != null) {
+                    target.counter().addRemote(delta);
+                }
+            });
+    }
+
+    private void reset(Target target) {
+        target.invalidateAll().run();
+        target.counter().reconcile().subscribe(null, e -> LOG.warn("Could not reconcile count: {}", e.getMessage()));
+    }
+
+    /**
+     * The cache and the counter of an entity.
+     */
+    private record Target(Consumer<Set<Long>> invalidate, Runnable invalidateAll, EntityCounter counter) {}
+
+    /**
+     * An invalidation message: the evicted ids, the entities with all ids evicted and the count adjustments, by entity name.
+     */
+    record Invalidation(
+        String origin,
+        long sequence,
+        long sentAt,
+        Map<String, Set<Long>> ids,
+        Set<String> cleared,
+        Map<String, Long> counts
+    ) {}
+}
@@ -1,12 +1,27 @@
 package com.dnc.mprs.propservice.service;
 
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.criteria.ComplexCriteria;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
+import com.dnc.mprs.propservice.repository.ComplexDimension;
 import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.Keyset;
 import com.dnc.mprs.propservice.repository.search.ComplexSearchRepository;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.SearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,9 +39,69 @@ public class ComplexService {
 
     private final ComplexSearchRepository complexSearchRepository;
 
-    public ComplexService(ComplexRepository complexRepository, ComplexSearchRepository complexSearchRepository) {
+    private final EntityCounter complexCounter;
+
+    private final BulkWriter bulkWriter;
+
+    private final OutboxService outboxService;
+
+    private final PropertyService propertyService;
+
+    private final EntityCache<Complex> complexCache;
+
+    private final ComplexDimension complexDimension;
+
+    private final SuggestionService suggestionService;
+
+    private final int batchLookupChunkSize;
+
+    public ComplexService(
+        ComplexRepository complexRepository,
+        ComplexSearchRepository complexSearchRepository,
+        ComplexDimension complexDimension,
+        SuggestionService suggestionService,
+        BulkWriter bulkWriter,
+        OutboxService outboxService,
+        CacheInvalidationService cacheInvalidationService,
+        PropertyService propertyService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.complexRepository = complexRepository;
         this.complexSearchRepository = complexSearchRepository;
+        this.bulkWriter = bulkWriter;
+        this.outboxService = outboxService;
+        this.propertyService = propertyService;
+        this.complexDimension = complexDimension;
+        this.suggestionService = suggestionService;
+        this.batchLookupChunkSize = applicationProperties.getBatchLookup().getChunkSize();
+        this.complexCache = new EntityCache<>("complex", applicationProperties.getCache(), meterRegistry, id -> {
+            complexDimension.evict(id);
+            cacheInvalidationService.invalidated("complex", id);
+        });
+        this.complexCounter = new EntityCounter(
+            complexRepository::count,
+            applicationProperties.getCountCache().isEnabled(),
+            delta -> cacheInvalidationService.counted("complex", delta)
+        );
+        cacheInvalidationService.register(
+            "complex",
+            ids -> {
+                ids.forEach(id -> {
+                    complexCache.invalidate(id);
+                    complexDimension.evict(id);
+                    propertyService.invalidateComplex(id);
+                });
+                suggestionService.refreshComplexes(ids);
+            },
+            () -> {
+                complexCache.invalidateAll();
+                complexDimension.clear();
+                propertyService.invalidateComplex(null);
+                suggestionService.refreshComplexes();
+            },
+            complexCounter
+        );
     }
 
     /**
@@ -37,7 +112,40 @@ public class ComplexService {
      */
     public Mono<Complex> save(Complex complex) {
         LOG.debug("Request to save Complex : {}", complex);
-        return complexRepository.save(complex).flatMap(complexSearchRepository::save);
+        boolean isNew = complex.getId() == null;
+        OutboxEvent.EventType eventType = isNew ? OutboxEvent.EventType.CREATED : OutboxEvent.EventType.UPDATED;
+        return complexRepository
+            .save(touch(complex))
+            .flatMap(savedComplex -> recordChange(eventType, savedComplex))
+            .flatMap(complexSearchRepository::save)
+            .flatMap(savedComplex -> isNew ? complexCounter.addOnCommit(1).thenReturn(savedComplex) : Mono.just(savedComplex));
+    }
+
+    /**
+     * Create or update complexes in bulk, in chunks written with multi-row statements, each chunk in its own transaction.
+     *
+     * @param complexes the entities to save, the ones without id are created.
+     * @return the result of every entity, in input order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkItemResult> saveAll(Flux<Complex> complexes) {
+        LOG.debug("Request to save Complexes in bulk");
+        return bulkWriter
+            .write(
+                Complex.class,
+                complexes,
+                Complex::getId,
+                complexRepository::findIdsByIdIn,
+                chunk ->
+                    complexRepository
+                        .upsertAll(touchAll(chunk))
+                        .collectList()
+                        .flatMapMany(complexSearchRepository::saveAll)
+                        .collectList()
+                        .flatMapMany(saved -> suggestionService.complexesChanged(saved).thenMany(Flux.fromIterable(saved))),
+                complexCounter
+            )
+            .concatMap(this::evictWritten);
     }
 
     /**
@@ -48,7 +156,10 @@ public class ComplexService {
      */
     public Mono<Complex> update(Complex complex) {
         LOG.debug("Request to update Complex : {}", complex);
-        return complexRepository.save(complex).flatMap(complexSearchRepository::save);
+        return complexRepository
+            .save(touch(complex))
+            .flatMap(savedComplex -> recordChange(OutboxEvent.EventType.UPDATED, savedComplex))
+            .flatMap(complexSearchRepository::save);
     }
 
     /**
@@ -81,16 +192,21 @@ public class ComplexService {
                 if (complex.getAddressCode() != null) {
                     existingComplex.setAddressCode(complex.getAddressCode());
                 }
+                if (complex.getLatitude() != null) {
+                    existingComplex.setLatitude(complex.getLatitude());
+                }
+                if (complex.getLongitude() != null) {
+                    existingComplex.setLongitude(complex.getLongitude());
+                }
                 if (complex.getCreatedAt() != null) {
                     existingComplex.setCreatedAt(complex.getCreatedAt());
                 }
-                if (complex.getUpdatedAt() != null) {
-                    existingComplex.setUpdatedAt(complex.getUpdatedAt());
-                }
 
                 return existingComplex;
             })
+            .map(ComplexService::touch)
             .flatMap(complexRepository::save)
+            .flatMap(savedComplex -> recordChange(OutboxEvent.EventType.UPDATED, savedComplex))
             .flatMap(savedComplex -> {
                 complexSearchRepository.save(savedComplex);
                 return Mono.just(savedComplex);
@@ -110,20 +226,62 @@ public class ComplexService {
     }
 
     /**
-     * Returns the number of complexes available.
+     * Get a page of complexes with keyset pagination.
+     *
+     * @param keyset the sort order, page size and position of the page.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Complex> findAll(Keyset keyset) {
+        LOG.debug("Request to get all Complexes after {}", keyset);
+        return complexRepository.findAllBy(keyset);
+    }
+
+    /**
+     * Returns the number of complexes available, kept in memory between the reconciliations with the database.
      * @return the number of entities in the database.
      *
      */
     public Mono<Long> countAll() {
-        return complexRepository.count();
+        return complexCounter.get();
     }
 
     /**
-     * Returns the number of complexes available in search repository.
+     * Returns the estimated number of complexes available, read from the database table statistics.
+     * @return the estimated number of entities in the database.
+     */
+    @Transactional(readOnly = true)
+    public Mono<Long> countEstimated() {
+        return complexRepository.estimateCount();
+    }
+
+    /**
+     * Reconciles the number of complexes kept in memory with the database.
+     * @return a Mono to signal the reconciliation.
+     */
+    @Scheduled(
+        initialDelayString = "${application.count-cache.reconcile-interval:PT5M}",
+        fixedDelayString = "${application.count-cache.reconcile-interval:PT5M}"
+    )
+    @Transactional(readOnly = true)
+    public Mono<Void> reconcileCount() {
+        return complexCounter.reconcile().doOnNext(count -> LOG.debug("Reconciled number of complexes : {}", count)).then();
+    }
+
+    /**
+     * Get complexes by id, the cached ones from memory and the others with one query per chunk of ids.
      *
+     * @param ids the ids of the entities, without duplicates.
+     * @return the entities found, in the order of the ids.
      */
-    public Mono<Long> searchCount() {
-        return complexSearchRepository.count();
+    @Transactional(readOnly = true)
+    public Flux<Complex> findAllById(List<Long> ids) {
+        LOG.debug("Request to get Complexes : {}", ids);
+        return complexCache.getAll(
+            ids,
+            missing -> Flux.fromIterable(missing).buffer(batchLookupChunkSize).concatMap(complexRepository::findAllByIdIn),
+            Complex::getId
+        );
     }
 
     /**
@@ -135,7 +293,7 @@ public class ComplexService {
     @Transactional(readOnly = true)
     public Mono<Complex> findOne(Long id) {
         LOG.debug("Request to get Complex : {}", id);
-        return complexRepository.findById(id);
+        return complexCache.get(id, complexRepository::findById);
     }
 
     /**
@@ -146,19 +304,84 @@ public class ComplexService {
      */
     public Mono<Void> delete(Long id) {
         LOG.debug("Request to delete Complex : {}", id);
-        return complexRepository.deleteById(id).then(complexSearchRepository.deleteById(id));
+        return complexRepository
+            .deleteByIdReturningCount(id)
+            .flatMap(deleted -> complexCounter.addOnCommit(-deleted).thenReturn(deleted))
+            .filter(deleted -> deleted > 0)
+            .flatMap(deleted -> suggestionService.complexDeleted(id).thenReturn(deleted))
+            .flatMap(deleted -> outboxService.recordDeletion(Complex.class, id))
+            .then(complexCache.evict(id))
+            .then(propertyService.evictComplex(id))
+            .then(complexSearchRepository.deleteById(id));
+    }
+
+    /**
+     * Records the change event of a complex and evicts it from the cache, in the transaction of the change, and indexes its name
+     * once the change commits.
+     */
+    private Mono<Complex> recordChange(OutboxEvent.EventType eventType, Complex complex) {
+        return outboxService
+            .record(eventType, Complex.class, complex.getId(), complex)
+            .then(complexCache.evict(complex.getId()))
+            .then(propertyService.evictComplex(complex.getId()))
+            .then(suggestionService.complexesChanged(List.of(complex)))
+            .thenReturn(complex);
+    }
+
+    /**
+     * Stamps the modification time of a complex, as {@link PropertyService} does.
+     */
+    private static Complex touch(Complex complex) {
+        complex.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        return complex;
+    }
+
+    private static List<Complex> touchAll(List<Complex> complexes) {
+        complexes.forEach(ComplexService::touch);
+        return complexes;
+    }
+
+    /**
+     * Evicts a complex written by the bulk save, and the properties holding a copy of an updated one. The other instances are
+     * notified of created complexes too, so they index their names.
+     */
+    private Mono<BulkItemResult> evictWritten(BulkItemResult result) {
+        if (result.getStatus() == BulkItemResult.Status.FAILED) {
+            return Mono.just(result);
+        }
+        Mono<Void> evictProperties = result.getStatus() == BulkItemResult.Status.UPDATED
+            ? propertyService.evictComplex(result.getId())
+            : Mono.empty();
+        return complexCache.evict(result.getId()).then(evictProperties).thenReturn(result);
     }
 
     /**
-     * Search for the complex corresponding to the query.
+     * Search for the complex corresponding to the query and the criteria.
      *
-     * @param query the query of the search.
+     * @param query the query of the search, optional.
+     * @param criteria the filters of the search.
+     * @param geo the geographic filters of the search.
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param faceted whether to compute the facets of the matching entities, which are otherwise empty.
+     * @return the page of entities, with the total number of matching entities and the facets.
      */
     @Transactional(readOnly = true)
-    public Flux<Complex> search(String query, Pageable pageable) {
-        LOG.debug("Request to search for a page of Complexes for query {}", query);
-        return complexSearchRepository.search(query, pageable);
+    public Mono<SearchResult<Complex>> search(String query, ComplexCriteria criteria, GeoCriteria geo, Pageable pageable, boolean faceted) {
+        LOG.debug("Request to search for a page of Complexes for query {} and criteria {} {}", query, criteria, geo);
+        return complexSearchRepository.search(query, criteria, geo, pageable, faceted).map(SearchResult::new);
+    }
+
+    /**
+     * Search for the complex corresponding to the query and the criteria, walking a point in time.
+     *
+     * @param query the query of the search, optional.
+     * @param criteria the filters of the search.
+     * @param geo the geographic filters of the search.
+     * @param cursor the sort order, page size and position of the page.
+     * @return the page of entities, with the cursor of the next page.
+     */
+    public Mono<SearchCursor.Page<Complex>> search(String query, ComplexCriteria criteria, GeoCriteria geo, SearchCursor cursor) {
+        LOG.debug("Request to search for Complexes for query {} and criteria {} {} after {}", query, criteria, geo, cursor);
+        return complexSearchRepository.search(query, criteria, geo, cursor);
     }
 }
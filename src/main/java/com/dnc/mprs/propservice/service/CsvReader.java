@@ -0,0 +1,175 @@
+package com.dnc.mprs.propservice.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental reader of the records of a CSV file (RFC 4180: quoted fields with doubled quotes, CRLF or LF line breaks).
+ * <p>
+ * The records are split on the bytes of the file before their fields are decoded, so the byte offset of every record is known
+ * and a reader can be moved back to it. This holds for UTF-8 and for the legacy Korean encodings (EUC-KR, CP949) alike, whose
+ * multibyte characters never contain the bytes of the commas, quotes and line breaks. A UTF-8 byte order mark starting the file
+ * is skipped.
+ */
+final class CsvReader implements Closeable {
+
+    private static final byte[] BYTE_ORDER_MARK = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final SeekableByteChannel channel;
+
+    private final Charset charset;
+
+    private final ByteBuffer buffer;
+
+    private long position;
+
+    private byte[] field = new byte[64];
+
+    private int fieldLength;
+
+    /**
+     * @param channel the channel of the file, closed with the reader.
+     * @param charset the charset of the fields.
+     * @param bufferSize the number of bytes read from the channel at once.
+     */
+    CsvReader(SeekableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, BYTE_ORDER_MARK.length)).flip();
+    }
+
+    /**
+     * @return the byte offset of the next record.
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Moves the reader to a record.
+     *
+     * @param position the byte offset of the record, as returned by {@link #position()}.
+     * @throws IOException if the channel cannot be moved.
+     */
+    void seek(long position) throws IOException {
+        channel.position(position);
+        buffer.clear().flip();
+        this.position = position;
+    }
+
+    /**
+     * Reads the next record. A blank line is read as a record of one empty field.
+     *
+     * @return the fields of the record, or {@code null} at the end of the file.
+     * @throws IOException if the file cannot be read, or has a field longer than 64 KiB, such as a field missing its closing quote.
+     */
+    List<String> read() throws IOException {
+        if (position == 0) {
+            skipByteOrderMark();
+        }
+        if (!buffer.hasRemaining() && !fill()) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        boolean quoted = false;
+        fieldLength = 0;
+        while (buffer.hasRemaining() || fill()) {
+            byte b = next();
+            if (quoted) {
+                if (b != '"') {
+                    append(b);
+                } else if (peek() == '"') {
+                    append(next());
+                } else {
+                    quoted = false;
+                }
+            } else if (b == '"' && fieldLength == 0) {
+                quoted = true;
+            } else if (b == ',') {
+                fields.add(takeField());
+            } else if (b == '\r' || b == '\n') {
+                if (b == '\r' && peek() == '\n') {
+                    next();
+                }
+                fields.add(takeField());
+                return fields;
+            } else {
+                append(b);
+            }
+        }
+        fields.add(takeField());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        while (buffer.remaining() < BYTE_ORDER_MARK.length && fill()) {
+            // read until the byte order mark can be checked
+        }
+        if (buffer.remaining() < BYTE_ORDER_MARK.length) {
+            return;
+        }
+        for (int i = 0; i < BYTE_ORDER_MARK.length; i++) {
+            if (buffer.get(buffer.position() + i) != BYTE_ORDER_MARK[i]) {
+                return;
+            }
+        }
+        buffer.position(buffer.position() + BYTE_ORDER_MARK.length);
+        position = BYTE_ORDER_MARK.length;
+    }
+
+    /**
+     * Reads more bytes from the channel, keeping the unread ones.
+     *
+     * @return {@code false} at the end of the file.
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        try {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0 && buffer.hasRemaining());
+            return read > 0;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    private byte next() {
+        position++;
+        return buffer.get();
+    }
+
+    private int peek() throws IOException {
+        return buffer.hasRemaining() || fill() ? buffer.get(buffer.position()) : -1;
+    }
+
+    private void append(byte b) throws IOException {
+        if (fieldLength == field.length) {
+            if (fieldLength >= MAX_FIELD_LENGTH) {
+                throw new IOException("Field longer than " + MAX_FIELD_LENGTH + " bytes before offset " + position);
+            }
+            field = Arrays.copyOf(field, fieldLength * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private String takeField() {
+        String value = new String(field, 0, fieldLength, charset);
+        fieldLength = 0;
+        return value;
+    }
+}
@@ -0,0 +1,192 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of the entities of one type by id, in front of the {@code findOne} of the owning service.
+ * <p>
+ * Concurrent reads of the same missing id share one database query. The entries are bounded in number and expire after a
+ * time to live, which bounds the staleness of the changes made by other instances. The owning service evicts the entities it
+ * changes, at once and again when the transaction completes, so a read racing with the transaction cannot cache the previous
+ * state; the evicted ids are then passed to the invalidation listener, to be evicted by the other instances as well. The cached
+ * instances are shared: they must not be modified. When disabled, every read queries the database.
+ *
+ * @param <T> the type of the entities.
+ */
+public class EntityCache<T> {
+
+    private final AsyncCache<Long, T> cache;
+
+    private final LongConsumer invalidationListener;
+
+    public EntityCache(String name, ApplicationProperties.Cache properties, MeterRegistry meterRegistry) {
+        this(name, properties, meterRegistry, id -> {});
+    }
+
+    public EntityCache(
+        String name,
+        ApplicationProperties.Cache properties,
+        MeterRegistry meterRegistry,
+        LongConsumer invalidationListener
+    ) {
+        this.invalidationListener = invalidationListener;
+        if (!properties.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getTimeToLive())
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), name);
+    }
+
+    /**
+     * Gets an entity, loading it on a miss. Entities which are not found are not cached.
+     *
+     * @param id the id of the entity.
+     * @param loader loads the entity from the database.
+     * @return the entity, or empty if not found.
+     */
+    public Mono<T> get(Long id, Function<Long, Mono<T>> loader) {
+        if (cache == null || id == null) {
+            return loader.apply(id);
+        }
+        // a cancelled subscriber must not cancel the load shared with the other readers
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * Gets entities by id, the cached ones from memory and the others with one call of the loader, which are then cached.
+     * Entities which are not found are not cached. The ids being loaded by another read are waited for instead of being loaded
+     * again, and an id evicted while it is loaded is not cached with its previous state.
+     *
+     * @param ids the ids of the entities, without duplicates.
+     * @param loader loads the entities of the missing ids from the database.
+     * @param idOf the id of an entity.
+     * @return the entities found, in the order of the ids.
+     */
+    public Flux<T> getAll(List<Long> ids, Function<List<Long>, Flux<T>> loader, Function<T, Long> idOf) {
+        if (cache == null) {
+            return loader.apply(ids).collectMap(idOf).flatMapIterable(found -> inOrder(ids, found));
+        }
+        // a cancelled subscriber must not cancel the loads shared with the other readers
+        return Mono.fromFuture(
+            () -> cache.getAll(ids, (missing, executor) -> loader.apply(new ArrayList<>(missing)).collectMap(idOf).toFuture()),
+            true
+        ).flatMapIterable(found -> inOrder(ids, found));
+    }
+
+    private static <T> List<T> inOrder(List<Long> ids, Map<Long, T> found) {
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Evicts an entity, at once and, if there is one, after the completion of the current transaction. The invalidation
+     * listener is notified after the completion of the transaction, even when the cache is disabled: the other instances also
+     * refresh what they derive from the entity.
+     *
+     * @param id the id of the entity.
+     * @return a Mono to signal the eviction.
+     */
+    public Mono<Void> evict(Long id) {
+        if (id == null) {
+            return Mono.empty();
+        }
+        return evictWhen(() -> invalidate(id), () -> invalidationListener.accept(id));
+    }
+
+    /**
+     * Evicts the cached entities matching a predicate, at once and after the completion of the current transaction.
+     *
+     * @param predicate selects the entities to evict.
+     * @return a Mono to signal the eviction.
+     */
+    public Mono<Void> evictIf(Predicate<T> predicate) {
+        if (cache == null) {
+            return Mono.empty();
+        }
+        return evictWhen(() -> invalidateIf(predicate), () -> {});
+    }
+
+    /**
+     * Evicts an entity at once, without notifying the invalidation listener.
+     *
+     * @param id the id of the entity.
+     */
+    public void invalidate(long id) {
+        if (cache != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    /**
+     * Evicts the cached entities matching a predicate at once, without notifying the invalidation listener.
+     *
+     * @param predicate selects the entities to evict.
+     */
+    public void invalidateIf(Predicate<T> predicate) {
+        if (cache != null) {
+            cache.synchronous().asMap().values().removeIf(predicate);
+        }
+    }
+
+    /**
+     * Evicts all the entities at once, without notifying the invalidation listener.
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    private Mono<Void> evictWhen(Runnable eviction, Runnable afterEviction) {
+        return Mono.fromRunnable(eviction)
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .map(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return false;
+                }
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(() -> {
+                                eviction.run();
+                                afterEviction.run();
+                            });
+                        }
+                    }
+                );
+                return true;
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.just(false))
+            .doOnNext(registered -> {
+                if (!registered) {
+                    afterEviction.run();
+                }
+            })
+            .then();
+    }
+}
@@ -0,0 +1,125 @@
+package com.dnc.mprs.propservice.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Total number of rows of an entity, kept in memory so paginated list requests do not issue a {@code SELECT COUNT(*)} for
+ * every page.
+ * <p>
+ * The count is loaded from the database on first use, adjusted by the owning service when it inserts or deletes rows, and
+ * periodically reconciled with the database to correct any drift, e.g. from writes made around the services. The adjustments
+ * of a transaction are applied and passed to the change listener once it commits, to be applied by the other instances as
+ * well. When disabled, every call counts the rows in the database.
+ */
+public class EntityCounter {
+
+    private static final long UNKNOWN = -1L;
+
+    private final Supplier<Mono<Long>> exactCount;
+
+    private final boolean enabled;
+
+    private final LongConsumer changeListener;
+
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    public EntityCounter(Supplier<Mono<Long>> exactCount, boolean enabled) {
+        this(exactCount, enabled, delta -> {});
+    }
+
+    public EntityCounter(Supplier<Mono<Long>> exactCount, boolean enabled, LongConsumer changeListener) {
+        this.exactCount = exactCount;
+        this.enabled = enabled;
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * @return the number of rows, loaded from the database if it is not known yet.
+     */
+    public Mono<Long> get() {
+        if (!enabled) {
+            return exactCount.get();
+        }
+        long current = count.get();
+        return current != UNKNOWN ? Mono.just(current) : reconcile();
+    }
+
+    /**
+     * Replaces the count kept in memory with the number of rows in the database.
+     *
+     * @return the number of rows, or empty if the counter is disabled.
+     */
+    public Mono<Long> reconcile() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return exactCount.get().doOnNext(count::set);
+    }
+
+    /**
+     * Adjusts the count kept in memory, unless it is not known yet, and notifies the change listener, at once: for rows whose
+     * insertion or deletion is already committed.
+     *
+     * @param delta the number of inserted (positive) or deleted (negative) rows.
+     */
+    public void add(long delta) {
+        addRemote(delta);
+        if (enabled && delta != 0) {
+            changeListener.accept(delta);
+        }
+    }
+
+    /**
+     * Adjusts the count kept in memory and notifies the change listener after the commit of the current transaction, or at
+     * once outside of a transaction. Nothing is adjusted if the transaction rolls back.
+     *
+     * @param delta the number of inserted (positive) or deleted (negative) rows.
+     * @return a Mono to signal the adjustment, or its registration.
+     */
+    public Mono<Void> addOnCommit(long delta) {
+        if (!enabled || delta == 0) {
+            return Mono.empty();
+        }
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .map(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return false;
+                }
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(() -> add(delta));
+                        }
+                    }
+                );
+                return true;
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.just(false))
+            .doOnNext(registered -> {
+                if (!registered) {
+                    add(delta);
+                }
+            })
+            .then();
+    }
+
+    /**
+     * Adjusts the count kept in memory, unless it is not known yet, for rows inserted or deleted by another instance.
+     *
+     * @param delta the number of inserted (positive) or deleted (negative) rows.
+     */
+    public void addRemote(long delta) {
+        count.getAndUpdate(current -> current == UNKNOWN ? UNKNOWN : Math.max(0L, current + delta));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
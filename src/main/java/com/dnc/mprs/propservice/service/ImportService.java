@@ -0,0 +1,950 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.ImportJob;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.ImportBatch;
+import com.dnc.mprs.propservice.repository.ImportJobRepository;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.ImportProgress;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service importing trade files, such as the monthly files of the real estate transaction disclosure system: CSV files of one
+ * transaction per row, along with the property and the complex it belongs to.
+ * <p>
+ * A file is read incrementally and imported in batches of {@code batch-size} rows, flowing through three stages linked by bounded
+ * queues, so a slow database throttles the reading instead of filling the memory:
+ * <ol>
+ * <li>the rows are parsed on a dedicated thread, up to {@code queue-size} batches ahead;</li>
+ * <li>the complexes of a batch, by address code and name, then its properties, by address and floor, are resolved to ids: from
+ * the keys met by the import so far, kept in memory, else with one query for the missing keys of the batch, else by creating the
+ * still missing entities in bulk. The batches are resolved one at a time, so two batches never create the same entity;</li>
+ * <li>the transactions are written in bulk, {@code write-concurrency} batches in parallel.</li>
+ * </ol>
+ * The transactions of a batch are written in one database transaction, which also records the batch with its counts. Once the
+ * batches before it are written too, the job stores the byte offset of the row following the batch as its checkpoint, so a job
+ * which failed or was interrupted by a restart resumes there when started again, and skips the batches recorded after the
+ * checkpoint: every transaction is imported once. Invalid rows are rejected and counted, the first rejection being kept with
+ * the job.
+ * <p>
+ * A job is claimed by the instance running it, which renews the claim every third of the {@code lease} while the job runs, so
+ * the job is not started on another instance until the claim expires; a job whose claim was taken over stops.
+ * <p>
+ * The first row of a file names its columns, in any order: {@code address}, {@code type}, {@code area}, {@code build_year},
+ * {@code transaction_type}, {@code price} and {@code transaction_date} are required, {@code floor}, {@code region_cd},
+ * {@code local_name}, {@code street}, {@code rooms}, {@code bathrooms}, {@code parking_yn}, {@code complex_name},
+ * {@code address_code}, {@code state}, {@code county}, {@code city}, {@code town}, {@code buyer}, {@code seller} and
+ * {@code agent} are optional. The properties of the rows without complex name belong to no complex. The prices may have
+ * thousands separators and are multiplied by the {@code price-unit}, the dates are {@code yyyy-MM-dd}, {@code yyyyMMdd} or ISO
+ * instants.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private static final String UPLOAD_SUFFIX = ".part";
+
+    private static final String ADDRESS = "address";
+    private static final String FLOOR = "floor";
+    private static final String REGION_CD = "region_cd";
+    private static final String LOCAL_NAME = "local_name";
+    private static final String STREET = "street";
+    private static final String TYPE = "type";
+    private static final String AREA = "area";
+    private static final String ROOMS = "rooms";
+    private static final String BATHROOMS = "bathrooms";
+    private static final String BUILD_YEAR = "build_year";
+    private static final String PARKING_YN = "parking_yn";
+    private static final String COMPLEX_NAME = "complex_name";
+    private static final String ADDRESS_CODE = "address_code";
+    private static final String STATE = "state";
+    private static final String COUNTY = "county";
+    private static final String CITY = "city";
+    private static final String TOWN = "town";
+    private static final String TRANSACTION_TYPE = "transaction_type";
+    private static final String PRICE = "price";
+    private static final String TRANSACTION_DATE = "transaction_date";
+    private static final String BUYER = "buyer";
+    private static final String SELLER = "seller";
+    private static final String AGENT = "agent";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+        ADDRESS,
+        TYPE,
+        AREA,
+        BUILD_YEAR,
+        TRANSACTION_TYPE,
+        PRICE,
+        TRANSACTION_DATE
+    );
+
+    private final ImportJobRepository importJobRepository;
+
+    private final ComplexRepository complexRepository;
+
+    private final PropertyRepository propertyRepository;
+
+    private final ComplexService complexService;
+
+    private final PropertyService propertyService;
+
+    private final TransactionService transactionService;
+
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Path directory;
+
+    private final Charset charset;
+
+    private final int batchSize;
+
+    private final int queueSize;
+
+    private final int writeConcurrency;
+
+    private final int lookupSize;
+
+    private final BigDecimal priceUnit;
+
+    private final ZoneId zoneId;
+
+    private final Duration lease;
+
+    public ImportService(
+        ImportJobRepository importJobRepository,
+        ComplexRepository complexRepository,
+        PropertyRepository propertyRepository,
+        ComplexService complexService,
+        PropertyService propertyService,
+        TransactionService transactionService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.importJobRepository = importJobRepository;
+        this.complexRepository = complexRepository;
+        this.propertyRepository = propertyRepository;
+        this.complexService = complexService;
+        this.propertyService = propertyService;
+        this.transactionService = transactionService;
+        ApplicationProperties.BulkImport bulkImport = applicationProperties.getBulkImport();
+        this.directory = bulkImport.getDirectory();
+        this.charset = bulkImport.getCharset();
+        this.batchSize = bulkImport.getBatchSize();
+        this.queueSize = bulkImport.getQueueSize();
+        this.writeConcurrency = bulkImport.getWriteConcurrency();
+        this.lookupSize = bulkImport.getLookupSize();
+        this.priceUnit = bulkImport.getPriceUnit();
+        this.lease = bulkImport.getLease();
+        this.zoneId = applicationProperties.getRollup().getZoneId();
+    }
+
+    /**
+     * Starts the import of a file of the import directory in the background. The last job of the file is resumed if it did not
+     * complete.
+     *
+     * @param fileName the name of the file.
+     * @param charsetName the charset of the file, {@code null} for the configured one or the one of the resumed job.
+     * @return the progress of the started job.
+     * @throws IllegalArgumentException if the file or the charset is invalid, or the file has no header naming the required columns.
+     * @throws IllegalStateException if the file is being imported, here or on another instance, was already imported, or changed
+     * since its last import.
+     */
+    public Mono<ImportProgress> start(String fileName, String charsetName) {
+        Path file;
+        Charset requested;
+        try {
+            file = fileOf(fileName);
+            requested = charsetName != null ? Charset.forName(charsetName) : null;
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        Run run = new Run();
+        if (!reserve(fileName, run)) {
+            return Mono.error(new IllegalStateException("An import of " + fileName + " is already running"));
+        }
+        return Mono.fromCallable(() -> Files.size(file))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorMap(NoSuchFileException.class, e -> new IllegalArgumentException("No file " + fileName + " to import"))
+            .flatMap(fileSize ->
+                importJobRepository
+                    .findFirstByFileNameOrderByIdDesc(fileName)
+                    .flatMap(last -> resumeJob(last, file, fileSize, requested))
+                    .switchIfEmpty(Mono.defer(() -> createJob(file, fileName, fileSize, requested)))
+            )
+            .doOnNext(job -> {
+                LOG.info("Starting import of {} from {}", fileName, job.getCheckpoint() != null ? "checkpoint" : "start");
+                run.start(job);
+                execute(job, file).subscribe();
+            })
+            .map(run::progress)
+            .doOnError(e -> runs.remove(fileName, run));
+    }
+
+    /**
+     * Stores an uploaded file in the import directory, then starts its import in the background.
+     *
+     * @param fileName the name of the file.
+     * @param charsetName the charset of the file, {@code null} for the configured one.
+     * @param content the content of the file.
+     * @return the progress of the started job.
+     * @throws IllegalArgumentException if the file name is invalid, or the file has no header naming the required columns.
+     * @throws IllegalStateException if a file of that name already exists or is being uploaded.
+     */
+    public Mono<ImportProgress> upload(String fileName, String charsetName, Flux<DataBuffer> content) {
+        Path file;
+        try {
+            file = fileOf(fileName);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        Path part = file.resolveSibling(fileName + UPLOAD_SUFFIX);
+        return Mono.fromCallable(() -> {
+            Files.createDirectories(directory);
+            if (Files.exists(file)) {
+                throw new IllegalStateException("A file " + fileName + " already exists");
+            }
+            return part;
+        })
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(path ->
+                DataBufferUtils.write(content, path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+                    .onErrorMap(FileAlreadyExistsException.class, e ->
+                        new IllegalStateException("An upload of " + fileName + " is already running")
+                    )
+                    .then(
+                        Mono.fromCallable(() -> Files.move(path, file, StandardCopyOption.ATOMIC_MOVE)).subscribeOn(
+                            Schedulers.boundedElastic()
+                        )
+                    )
+                    .onErrorResume(e -> !(e instanceof IllegalStateException), e -> delete(part).then(Mono.error(e)))
+            )
+            .then(Mono.defer(() -> start(fileName, charsetName).onErrorResume(e -> delete(file).then(Mono.error(e)))));
+    }
+
+    /**
+     * Gets the progress of the last import jobs.
+     *
+     * @return the progress of the last 20 jobs, with the throughput and the ETA of the jobs running on this instance.
+     */
+    public Flux<ImportProgress> progress() {
+        return importJobRepository
+            .findTop20ByOrderByIdDesc()
+            .map(job -> {
+                Run run = runs.get(job.getFileName());
+                if (run != null && run.job != null && run.job.getId().equals(job.getId())) {
+                    return run.progress(run.job);
+                }
+                return new ImportProgress(job, null, null);
+            });
+    }
+
+    private Mono<Void> delete(Path path) {
+        return Mono.fromCallable(() -> Files.deleteIfExists(path))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(IOException.class, e -> {
+                LOG.warn("Could not delete {}: {}", path, e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private Path fileOf(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches() || fileName.endsWith(UPLOAD_SUFFIX)) {
+            throw new IllegalArgumentException("Invalid file name " + fileName + ", expected letters, digits, '.', '_' or '-'");
+        }
+        return directory.resolve(fileName);
+    }
+
+    private synchronized boolean reserve(String fileName, Run run) {
+        Run current = runs.get(fileName);
+        if (current != null && current.isActive()) {
+            return false;
+        }
+        runs.put(fileName, run);
+        return true;
+    }
+
+    /**
+     * Claims the last job of a file, then resumes it from its state once claimed.
+     */
+    private Mono<ImportJob> resumeJob(ImportJob last, Path file, long fileSize, Charset requested) {
+        return claim(last)
+            .flatMap(claimed -> importJobRepository.findById(claimed.getId()))
+            .map(job -> resume(job, fileSize, requested))
+            .flatMap(job -> begin(job, file))
+            .onErrorResume(e -> importJobRepository.release(last.getId(), instanceId).then(Mono.error(e)));
+    }
+
+    /**
+     * Creates the job of a file, unless another instance created one meanwhile, then claims it.
+     */
+    private Mono<ImportJob> createJob(Path file, String fileName, long fileSize, Charset requested) {
+        ImportJob job = new ImportJob()
+            .fileName(fileName)
+            .charset((requested != null ? requested : charset).name())
+            .fileSize(fileSize)
+            .rowsRead(0L)
+            .imported(0L)
+            .rejected(0L)
+            .startedAt(Instant.now());
+        return begin(job, file)
+            .onErrorMap(DataIntegrityViolationException.class, e ->
+                new IllegalStateException("An import of " + fileName + " is already running")
+            )
+            .flatMap(this::claim);
+    }
+
+    private Mono<ImportJob> claim(ImportJob job) {
+        Instant now = Instant.now();
+        return importJobRepository
+            .claim(job.getId(), instanceId, now.plus(lease), now)
+            .flatMap(claimed ->
+                claimed > 0
+                    ? Mono.just(job)
+                    : Mono.error(new IllegalStateException("An import of " + job.getFileName() + " is running on another instance"))
+            );
+    }
+
+    /**
+     * Checks that the header of the file names the required columns, then marks the job as running.
+     */
+    private Mono<ImportJob> begin(ImportJob job, Path file) {
+        return Mono.fromCallable(() -> readHeader(file, Charset.forName(job.getCharset())))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(Mono.defer(() -> importJobRepository.save(job.status(ImportJob.Status.RUNNING).error(null).updatedAt(Instant.now()))));
+    }
+
+    private ImportJob resume(ImportJob last, long fileSize, Charset requested) {
+        if (last.getStatus() == ImportJob.Status.COMPLETED) {
+            throw new IllegalStateException(last.getFileName() + " is already imported");
+        }
+        if (last.getFileSize() != fileSize) {
+            throw new IllegalStateException(last.getFileName() + " changed since its last import");
+        }
+        if (requested != null && !requested.name().equals(last.getCharset())) {
+            throw new IllegalStateException(last.getFileName() + " is being imported as " + last.getCharset());
+        }
+        return last;
+    }
+
+    private Mono<Void> execute(ImportJob job, Path file) {
+        Lookup lookup = new Lookup(lookupSize);
+        Mono<ImportJob> imported = importJobRepository
+            .findBatchesAfter(job.getId(), job.getCheckpoint() != null ? job.getCheckpoint() : 0)
+            .collectMap(ImportBatch::end)
+            .flatMapMany(recorded ->
+                Flux.<Batch, Parser>generate(
+                    () -> new Parser(file, job),
+                    (parser, sink) -> {
+                        try {
+                            Batch batch = parser.next();
+                            if (batch != null) {
+                                sink.next(batch);
+                            } else {
+                                sink.complete();
+                            }
+                        } catch (IOException e) {
+                            sink.error(e);
+                        }
+                        return parser;
+                    },
+                    Parser::close
+                )
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .concatMap(
+                        batch -> {
+                            ImportBatch written = recorded.get(batch.end);
+                            return written != null ? Mono.just(batch.replay(written)) : resolve(batch, lookup);
+                        },
+                        queueSize
+                    )
+            )
+            .flatMapSequential(batch -> batch.recorded ? Mono.just(batch) : write(job, batch), writeConcurrency, 1)
+            .concatMap(batch -> {
+                job
+                    .rowsRead(job.getRowsRead() + batch.read)
+                    .imported(job.getImported() + batch.imported)
+                    .rejected(job.getRejected() + batch.rejected)
+                    .checkpoint(batch.end)
+                    .updatedAt(Instant.now());
+                if (job.getFirstRejection() == null && batch.firstRejection != null) {
+                    job.setFirstRejection(truncate(batch.firstRejection));
+                }
+                Mono<ImportJob> saved = importJobRepository.save(job);
+                if (!batch.recorded) {
+                    return saved;
+                }
+                // the record of the batch is only needed until the checkpoint passes it
+                return saved.flatMap(checkpointed ->
+                    importJobRepository.deleteBatchesUpTo(job.getId(), batch.end).thenReturn(checkpointed)
+                );
+            })
+            .then(Mono.defer(() -> importJobRepository.save(job.status(ImportJob.Status.COMPLETED).updatedAt(Instant.now()))));
+        return Mono.firstWithSignal(imported, heartbeat(job))
+            .doOnNext(completed ->
+                LOG.info(
+                    "Completed import of {}: {} transactions, {} rows rejected",
+                    completed.getFileName(),
+                    completed.getImported(),
+                    completed.getRejected()
+                )
+            )
+            .onErrorResume(
+                e -> !(e instanceof LeaseLostException),
+                e -> {
+                    String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    LOG.warn("Import of {} failed: {}", job.getFileName(), error);
+                    job.status(ImportJob.Status.FAILED).error(truncate(error)).updatedAt(Instant.now());
+                    return importJobRepository.save(job);
+                }
+            )
+            .then(Mono.defer(() -> importJobRepository.release(job.getId(), instanceId)))
+            .onErrorResume(LeaseLostException.class, e -> {
+                // the job belongs to another instance now, so its state is left to it
+                LOG.warn("Import of {} stopped: {}", job.getFileName(), e.getMessage());
+                job.status(ImportJob.Status.FAILED).error(e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Renews the claim of a running job, every third of the lease.
+     *
+     * @return a Mono which only signals the loss of the claim, as a {@link LeaseLostException}.
+     */
+    private Mono<ImportJob> heartbeat(ImportJob job) {
+        return Flux.interval(lease.dividedBy(3))
+            .onBackpressureDrop()
+            .concatMap(tick -> importJobRepository.renew(job.getId(), instanceId, Instant.now().plus(lease)))
+            .filter(renewed -> renewed == 0)
+            .next()
+            .flatMap(lost -> Mono.error(new LeaseLostException("The claim of the job expired and was taken by another instance")));
+    }
+
+    private Mono<Batch> resolve(Batch batch, Lookup lookup) {
+        Map<String, Complex> complexes = new LinkedHashMap<>();
+        for (Row row : batch.rows) {
+            if (row.complex() != null) {
+                complexes.putIfAbsent(row.complexKey(), row.complex());
+            }
+        }
+        return resolveKeys(
+            complexes,
+            lookup.complexIds,
+            batch.complexIds,
+            batch.complexFailures,
+            this::findComplexKeys,
+            complexService::saveAll
+        )
+            .then(
+                Mono.defer(() -> {
+                    Map<String, Property> properties = new LinkedHashMap<>();
+                    for (Row row : batch.rows) {
+                        if (row.complex() == null || batch.complexIds.containsKey(row.complexKey())) {
+                            row.property().setComplexId(row.complex() != null ? batch.complexIds.get(row.complexKey()) : null);
+                            properties.putIfAbsent(row.propertyKey(), row.property());
+                        }
+                    }
+                    return resolveKeys(
+                        properties,
+                        lookup.propertyIds,
+                        batch.propertyIds,
+                        batch.propertyFailures,
+                        this::findPropertyKeys,
+                        propertyService::saveAll
+                    );
+                })
+            )
+            .then(Mono.fromSupplier(batch::collectTransactions));
+    }
+
+    /**
+     * Resolves the natural keys of the entities of a batch to ids: from the lookup, else from the database, else by creating the
+     * entities.
+     */
+    private <T> Mono<Void> resolveKeys(
+        Map<String, T> entities,
+        Cache<String, Long> lookup,
+        Map<String, Long> ids,
+        Map<String, String> failures,
+        Function<Collection<T>, Flux<Map.Entry<String, Long>>> findExistingKeys,
+        Function<Flux<T>, Flux<BulkItemResult>> saveAll
+    ) {
+        Map<String, T> missing = new LinkedHashMap<>();
+        entities.forEach((key, entity) -> {
+            Long id = lookup.getIfPresent(key);
+            if (id != null) {
+                ids.put(key, id);
+            } else {
+                missing.put(key, entity);
+            }
+        });
+        if (missing.isEmpty()) {
+            return Mono.empty();
+        }
+        return findExistingKeys
+            .apply(new ArrayList<>(missing.values()))
+            .filter(existing -> missing.remove(existing.getKey()) != null)
+            .doOnNext(existing -> {
+                ids.put(existing.getKey(), existing.getValue());
+                lookup.put(existing.getKey(), existing.getValue());
+            })
+            .then(
+                Mono.defer(() -> {
+                    if (missing.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    List<String> keys = new ArrayList<>(missing.keySet());
+                    return saveAll
+                        .apply(Flux.fromIterable(missing.values()))
+                        .doOnNext(result -> {
+                            String key = keys.get((int) result.getIndex());
+                            if (result.getStatus() == BulkItemResult.Status.FAILED) {
+                                failures.put(key, result.getError());
+                            } else {
+                                ids.put(key, result.getId());
+                                lookup.put(key, result.getId());
+                            }
+                        })
+                        .then();
+                })
+            );
+    }
+
+    private Flux<Map.Entry<String, Long>> findComplexKeys(Collection<Complex> complexes) {
+        return complexRepository
+            .findAllKeysByComplexNameIn(complexes.stream().map(Complex::getComplexName).collect(Collectors.toSet()))
+            .map(key -> Map.entry(complexKey(key.addressCode(), key.complexName()), key.id()));
+    }
+
+    private Flux<Map.Entry<String, Long>> findPropertyKeys(Collection<Property> properties) {
+        return propertyRepository
+            .findAllKeysByAddressIn(properties.stream().map(Property::getAddress).collect(Collectors.toSet()))
+            .map(key -> Map.entry(propertyKey(key.address(), key.floor()), key.id()));
+    }
+
+    /**
+     * Writes the transactions of a batch in one database transaction, recording the batch with its counts in it.
+     */
+    private Mono<Batch> write(ImportJob job, Batch batch) {
+        if (batch.transactions.isEmpty()) {
+            return Mono.just(batch);
+        }
+        return transactionService
+            .saveAll(batch.transactions, results -> importJobRepository.insertBatch(job.getId(), batch.outcome(results)))
+            .doOnNext(result -> {
+                if (result.getStatus() == BulkItemResult.Status.FAILED) {
+                    batch.reject(batch.transactionRows.get((int) result.getIndex()), result.getError());
+                } else {
+                    batch.imported++;
+                }
+            })
+            // the batch is recorded if and only if some of its transactions were written
+            .then(Mono.fromSupplier(() -> batch.recorded(batch.imported > 0)));
+    }
+
+    private Map<String, Integer> readHeader(Path file, Charset fileCharset) throws IOException {
+        try (CsvReader reader = new CsvReader(FileChannel.open(file, StandardOpenOption.READ), fileCharset, BUFFER_SIZE)) {
+            return columns(reader.read());
+        }
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).strip().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("The header of the file misses the columns " + missing);
+        }
+        return columns;
+    }
+
+    private static String complexKey(String addressCode, String complexName) {
+        return (addressCode != null ? addressCode : "") + '\0' + complexName;
+    }
+
+    private static String propertyKey(String address, Integer floor) {
+        return address + '\0' + (floor != null ? floor : "");
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    /**
+     * Reads the rows of a file in batches, from the checkpoint of a job.
+     */
+    private final class Parser {
+
+        private final CsvReader reader;
+
+        private final Map<String, Integer> columns;
+
+        private long rowNumber;
+
+        Parser(Path file, ImportJob job) throws IOException {
+            this.reader = new CsvReader(FileChannel.open(file, StandardOpenOption.READ), Charset.forName(job.getCharset()), BUFFER_SIZE);
+            try {
+                this.columns = columns(reader.read());
+                if (job.getCheckpoint() != null) {
+                    reader.seek(job.getCheckpoint());
+                }
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+            this.rowNumber = job.getRowsRead();
+        }
+
+        /**
+         * @return the next batch, or {@code null} at the end of the file.
+         */
+        Batch next() throws IOException {
+            Batch batch = new Batch();
+            List<String> fields;
+            while (batch.read < batchSize && (fields = reader.read()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                long number = ++rowNumber;
+                batch.read++;
+                try {
+                    batch.rows.add(parse(number, fields));
+                } catch (IllegalArgumentException e) {
+                    batch.reject(number, e.getMessage());
+                }
+            }
+            batch.end = reader.position();
+            return batch.read > 0 ? batch : null;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close an imported file: {}", e.getMessage());
+            }
+        }
+
+        private Row parse(long number, List<String> fields) {
+            Instant now = Instant.now();
+            String complexName = value(fields, COMPLEX_NAME);
+            Complex complex = complexName == null
+                ? null
+                : new Complex()
+                    .complexName(complexName)
+                    .addressCode(value(fields, ADDRESS_CODE))
+                    .state(value(fields, STATE))
+                    .county(value(fields, COUNTY))
+                    .city(value(fields, CITY))
+                    .town(value(fields, TOWN))
+                    .createdAt(now);
+            Integer rooms = integer(fields, ROOMS);
+            Integer bathrooms = integer(fields, BATHROOMS);
+            Property property = new Property()
+                .address(required(fields, ADDRESS))
+                .floor(integer(fields, FLOOR))
+                .regionCd(value(fields, REGION_CD))
+                .localName(value(fields, LOCAL_NAME))
+                .street(value(fields, STREET))
+                .type(required(fields, TYPE))
+                .area(decimal(AREA, required(fields, AREA)))
+                .rooms(rooms != null ? rooms : 0)
+                .bathrooms(bathrooms != null ? bathrooms : 0)
+                .buildYear(integer(fields, BUILD_YEAR))
+                .parkingYn(value(fields, PARKING_YN))
+                .createdAt(now);
+            if (property.getBuildYear() == null) {
+                throw new IllegalArgumentException(BUILD_YEAR + " is missing");
+            }
+            Transaction transaction = new Transaction()
+                .transactionType(required(fields, TRANSACTION_TYPE))
+                .price(decimal(PRICE, required(fields, PRICE)).multiply(priceUnit))
+                .transactionDate(date(TRANSACTION_DATE, required(fields, TRANSACTION_DATE)))
+                .buyer(value(fields, BUYER))
+                .seller(value(fields, SELLER))
+                .agent(value(fields, AGENT))
+                .createdAt(now);
+            return new Row(number, complex, property, transaction);
+        }
+
+        private String value(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).strip();
+            return value.isEmpty() ? null : value;
+        }
+
+        private String required(List<String> fields, String column) {
+            String value = value(fields, column);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is missing");
+            }
+            return value;
+        }
+
+        private Integer integer(List<String> fields, String column) {
+            String value = value(fields, column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(value.replace(",", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not an integer: " + value);
+            }
+        }
+
+        private BigDecimal decimal(String column, String value) {
+            try {
+                return new BigDecimal(value.replace(",", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a number: " + value);
+            }
+        }
+
+        private Instant date(String column, String value) {
+            try {
+                if (value.indexOf('T') >= 0) {
+                    return Instant.parse(value);
+                }
+                LocalDate date = value.length() == 8 ? LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE) : LocalDate.parse(value);
+                return date.atStartOfDay(zoneId).toInstant();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(column + " is not a date: " + value);
+            }
+        }
+    }
+
+    /**
+     * A parsed row, numbered from 1 after the header.
+     */
+    private record Row(long number, Complex complex, Property property, Transaction transaction) {
+        String complexKey() {
+            return ImportService.complexKey(complex.getAddressCode(), complex.getComplexName());
+        }
+
+        String propertyKey() {
+            return ImportService.propertyKey(property.getAddress(), property.getFloor());
+        }
+    }
+
+    /**
+     * A batch of rows, passed from stage to stage.
+     */
+    private static final class Batch {
+
+        private final List<Row> rows = new ArrayList<>();
+
+        private final Map<String, Long> complexIds = new HashMap<>();
+
+        private final Map<String, String> complexFailures = new HashMap<>();
+
+        private final Map<String, Long> propertyIds = new HashMap<>();
+
+        private final Map<String, String> propertyFailures = new HashMap<>();
+
+        private final List<Transaction> transactions = new ArrayList<>();
+
+        private final List<Long> transactionRows = new ArrayList<>();
+
+        private int read;
+
+        private long end;
+
+        private long imported;
+
+        private long rejected;
+
+        private String firstRejection;
+
+        private boolean recorded;
+
+        void reject(long number, String reason) {
+            rejected++;
+            if (firstRejection == null) {
+                firstRejection = rejection(number, reason);
+            }
+        }
+
+        private static String rejection(long number, String reason) {
+            return "Row " + number + ": " + reason;
+        }
+
+        /**
+         * @return the counts of the batch once its transactions are written with the given results.
+         */
+        ImportBatch outcome(List<BulkItemResult> results) {
+            long written = 0;
+            long failed = 0;
+            String first = firstRejection;
+            for (BulkItemResult result : results) {
+                if (result.getStatus() != BulkItemResult.Status.FAILED) {
+                    written++;
+                } else {
+                    failed++;
+                    if (first == null) {
+                        first = rejection(transactionRows.get((int) result.getIndex()), result.getError());
+                    }
+                }
+            }
+            return new ImportBatch(end, read, imported + written, rejected + failed, truncate(first));
+        }
+
+        /**
+         * Takes the counts of a batch written by an earlier run of the job, instead of writing it again.
+         */
+        Batch replay(ImportBatch batch) {
+            rows.clear();
+            imported = batch.imported();
+            rejected = batch.rejected();
+            firstRejection = batch.firstRejection();
+            recorded = true;
+            return this;
+        }
+
+        Batch recorded(boolean recorded) {
+            this.recorded = recorded;
+            return this;
+        }
+
+        Batch collectTransactions() {
+            for (Row row : rows) {
+                String failure = row.complex() != null ? complexFailures.get(row.complexKey()) : null;
+                if (failure == null) {
+                    failure = propertyFailures.get(row.propertyKey());
+                }
+                Long propertyId = propertyIds.get(row.propertyKey());
+                if (failure != null || propertyId == null) {
+                    reject(row.number(), failure != null ? failure : "the property could not be resolved");
+                } else {
+                    transactions.add(row.transaction().propertyId(propertyId));
+                    transactionRows.add(row.number());
+                }
+            }
+            rows.clear();
+            return this;
+        }
+    }
+
+    /**
+     * Signals that the claim of a running job was taken by another instance.
+     */
+    private static final class LeaseLostException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        LeaseLostException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The ids of the natural keys met by a running import.
+     */
+    private static final class Lookup {
+
+        private final Cache<String, Long> complexIds;
+
+        private final Cache<String, Long> propertyIds;
+
+        Lookup(int maximumSize) {
+            this.complexIds = Caffeine.newBuilder().maximumSize(maximumSize).build();
+            this.propertyIds = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        }
+    }
+
+    /**
+     * A job running on this instance.
+     */
+    private static final class Run {
+
+        private volatile ImportJob job;
+
+        private volatile long resumedRows;
+
+        private volatile long resumedPosition;
+
+        private volatile Instant resumedAt = Instant.now();
+
+        void start(ImportJob job) {
+            this.resumedRows = job.getRowsRead();
+            this.resumedPosition = job.getCheckpoint() != null ? job.getCheckpoint() : 0;
+            this.resumedAt = Instant.now();
+            this.job = job;
+        }
+
+        boolean isActive() {
+            return job == null || job.getStatus() == ImportJob.Status.RUNNING;
+        }
+
+        ImportProgress progress(ImportJob job) {
+            double seconds = Duration.between(resumedAt, Instant.now()).toMillis() / 1000.0;
+            if (seconds <= 0) {
+                return new ImportProgress(job, null, null);
+            }
+            long position = job.getCheckpoint() != null ? job.getCheckpoint() : 0;
+            return new ImportProgress(job, (job.getRowsRead() - resumedRows) / seconds, (position - resumedPosition) / seconds);
+        }
+    }
+}
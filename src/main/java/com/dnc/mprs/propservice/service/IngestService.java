@@ -0,0 +1,82 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service writing the batches of listing and transaction events consumed from Kafka.
+ * <p>
+ * Every batch is written with the bulk path of the entity services, multi-row statements along with the change events of the
+ * outbox, in a single transaction: a batch consumed again after a failure is then written again from scratch, instead of
+ * creating a second time the records of the chunks committed before the failure. Records which cannot be parsed or validated
+ * are rejected and skipped; transient failures are propagated so the batch is consumed again.
+ */
+@Service
+public class IngestService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestService.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final PropertyService propertyService;
+
+    private final TransactionService transactionService;
+
+    public IngestService(ObjectMapper objectMapper, PropertyService propertyService, TransactionService transactionService) {
+        this.objectMapper = objectMapper;
+        this.propertyService = propertyService;
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * Creates or updates the properties of a batch of listing events.
+     *
+     * @param records the JSON properties; properties without id are created.
+     * @return the number of rejected records.
+     */
+    public Mono<Long> ingestProperties(List<String> records) {
+        return ingest(records, Property.class, properties -> propertyService.saveAll(properties, results -> Mono.empty()));
+    }
+
+    /**
+     * Creates or updates the transactions of a batch of transaction events.
+     *
+     * @param records the JSON transactions; transactions without id are created.
+     * @return the number of rejected records.
+     */
+    public Mono<Long> ingestTransactions(List<String> records) {
+        return ingest(records, Transaction.class, transactions -> transactionService.saveAll(transactions, results -> Mono.empty()));
+    }
+
+    private <T> Mono<Long> ingest(List<String> records, Class<T> type, Function<List<T>, Flux<BulkItemResult>> saveAll) {
+        List<T> entities = new ArrayList<>(records.size());
+        for (String record : records) {
+            try {
+                entities.add(objectMapper.readValue(record, type));
+            } catch (JsonProcessingException e) {
+                LOG.warn("Rejected {} record: {}", type.getSimpleName(), e.getOriginalMessage());
+            }
+        }
+        long unparsable = records.size() - entities.size();
+        if (entities.isEmpty()) {
+            return Mono.just(unparsable);
+        }
+        return saveAll
+            .apply(entities)
+            .filter(result -> result.getStatus() == BulkItemResult.Status.FAILED)
+            .doOnNext(result -> LOG.warn("Rejected {} record {}: {}", type.getSimpleName(), result.getIndex(), result.getError()))
+            .count()
+            .map(failed -> unparsable + failed);
+    }
+}
@@ -0,0 +1,289 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.broker.KafkaProducer;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
+import com.dnc.mprs.propservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service for the transactional outbox of the entity change events.
+ * <p>
+ * The services record an event in the transaction of every change, so an event is stored if and only if the change is
+ * committed. The relay then drains the outbox to Kafka in batches, in id order, and deletes the published events. A batch is
+ * claimed in a short transaction and published without holding row locks; the claim expires after a lease, so the events of
+ * a relay which stopped are published by another one. Events of the same entity are published one after the other, and not
+ * while an earlier event of the entity is claimed by another relay; events of different entities are published concurrently.
+ * Delivery is at least once: consumers should deduplicate on the {@value #EVENT_ID_HEADER} header.
+ */
+@Service
+public class OutboxService {
+
+    public static final String EVENT_ID_HEADER = "eventId";
+    public static final String EVENT_TYPE_HEADER = "eventType";
+    public static final String AGGREGATE_TYPE_HEADER = "aggregateType";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final KafkaProducer kafkaProducer;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+
+    private final int sendConcurrency;
+
+    private final Duration claimLease;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxService(
+        OutboxEventRepository outboxEventRepository,
+        KafkaProducer kafkaProducer,
+        TransactionalOperator transactionalOperator,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionalOperator = transactionalOperator;
+        this.objectMapper = objectMapper;
+        this.batchSize = applicationProperties.getOutbox().getBatchSize();
+        this.sendConcurrency = applicationProperties.getOutbox().getSendConcurrency();
+        this.claimLease = applicationProperties.getOutbox().getClaimLease();
+        Gauge.builder("outbox.events.pending", pendingEvents, AtomicLong::get)
+            .description("Number of change events waiting in the outbox")
+            .register(meterRegistry);
+        TimeGauge.builder("outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Age of the oldest change event waiting in the outbox")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Creates the change event of an entity.
+     *
+     * @param eventType the type of the change.
+     * @param aggregateType the type of the changed entity.
+     * @param aggregateId the id of the changed entity.
+     * @param state the state of the entity after the change, serialized as payload.
+     * @return the event, to be recorded with {@link #recordAll(List)}.
+     */
+    public OutboxEvent event(OutboxEvent.EventType eventType, Class<?> aggregateType, Long aggregateId, Object state) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize the change event of " + aggregateType.getSimpleName(), e);
+        }
+        return new OutboxEvent()
+            .eventType(eventType)
+            .aggregateType(aggregateType.getSimpleName())
+            .aggregateId(aggregateId)
+            .payload(payload)
+            .createdAt(Instant.now());
+    }
+
+    /**
+     * Records the change event of an entity, in the current transaction.
+     *
+     * @param eventType the type of the change.
+     * @param aggregateType the type of the changed entity.
+     * @param aggregateId the id of the changed entity.
+     * @param state the state of the entity after the change.
+     * @return a Mono to signal the recording.
+     */
+    public Mono<Void> record(OutboxEvent.EventType eventType, Class<?> aggregateType, Long aggregateId, Object state) {
+        return Mono.fromCallable(() -> event(eventType, aggregateType, aggregateId, state)).flatMap(outboxEventRepository::save).then();
+    }
+
+    /**
+     * Records the deletion of an entity, in the current transaction. The payload only holds the id.
+     *
+     * @param aggregateType the type of the deleted entity.
+     * @param aggregateId the id of the deleted entity.
+     * @return a Mono to signal the recording.
+     */
+    public Mono<Void> recordDeletion(Class<?> aggregateType, Long aggregateId) {
+        return record(OutboxEvent.EventType.DELETED, aggregateType, aggregateId, Map.of("id", aggregateId));
+    }
+
+    /**
+     * Records change events with one multi-row statement, in the current transaction.
+     *
+     * @param events the events created with {@link #event(OutboxEvent.EventType, Class, Long, Object)}.
+     * @return a Mono to signal the recording.
+     */
+    public Mono<Void> recordAll(List<OutboxEvent> events) {
+        return outboxEventRepository.insertAll(events).then();
+    }
+
+    /**
+     * Publishes the events of the outbox to Kafka, batch after batch until the outbox is drained or a batch could not be
+     * published completely, then updates the outbox metrics.
+     *
+     * @return a Mono to signal the end of the relay.
+     */
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval:PT1S}")
+    public Mono<Void> relay() {
+        return relayBatch()
+            .expand(published -> published == batchSize ? relayBatch() : Mono.empty())
+            .reduce(0, Integer::sum)
+            .doOnNext(published -> {
+                if (published > 0) {
+                    LOG.debug("Published {} change events", published);
+                }
+            })
+            .then(updateMetrics())
+            .onErrorResume(e -> {
+                LOG.warn("Outbox relay failed: {}", e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Claims the oldest events of the outbox, publishes them, deletes the published ones and releases the others.
+     *
+     * @return the number of published events.
+     */
+    private Mono<Integer> relayBatch() {
+        String relayId = UUID.randomUUID().toString();
+        return claimBatch(relayId).flatMap(events ->
+            events.isEmpty() ? Mono.just(0) : publish(events).flatMap(published -> complete(events, published, relayId))
+        );
+    }
+
+    /**
+     * Claims the oldest events which are not claimed by another relay, in a transaction which only locks them while they
+     * are claimed.
+     */
+    private Mono<List<OutboxEvent>> claimBatch(String relayId) {
+        Instant now = Instant.now();
+        return outboxEventRepository
+            .findOldestForUpdate(batchSize)
+            .collectList()
+            .map(events -> claimable(events, now))
+            .flatMap(events ->
+                events.isEmpty()
+                    ? Mono.just(events)
+                    : outboxEventRepository.claim(ids(events), relayId, now.plus(claimLease)).thenReturn(events)
+            )
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Selects the events without a live claim, skipping the entities with an event claimed by another relay, so their
+     * later events are not published before it.
+     *
+     * @param events the oldest events, in id order.
+     * @param now the current time.
+     * @return the events to claim, in id order.
+     */
+    static List<OutboxEvent> claimable(List<OutboxEvent> events, Instant now) {
+        Set<String> claimedAggregates = new HashSet<>();
+        List<OutboxEvent> claimable = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            if (event.getClaimedUntil() != null && event.getClaimedUntil().isAfter(now)) {
+                claimedAggregates.add(aggregateKey(event));
+            } else if (!claimedAggregates.contains(aggregateKey(event))) {
+                claimable.add(event);
+            }
+        }
+        return claimable;
+    }
+
+    private Mono<Integer> complete(List<OutboxEvent> claimed, List<Long> published, String relayId) {
+        Set<Long> publishedIds = new HashSet<>(published);
+        List<Long> unpublished = ids(claimed).stream().filter(id -> !publishedIds.contains(id)).toList();
+        return (published.isEmpty() ? Mono.<Long>empty() : outboxEventRepository.deleteByIdIn(published))
+            .then(unpublished.isEmpty() ? Mono.<Long>empty() : outboxEventRepository.release(unpublished, relayId))
+            .thenReturn(published.size());
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private Mono<List<Long>> publish(List<OutboxEvent> events) {
+        Collection<List<OutboxEvent>> eventsByAggregate = events
+            .stream()
+            .collect(Collectors.groupingBy(OutboxService::aggregateKey, LinkedHashMap::new, Collectors.toList()))
+            .values();
+        return Flux.fromIterable(eventsByAggregate)
+            .flatMap(
+                aggregateEvents ->
+                    Flux.fromIterable(aggregateEvents)
+                        .concatMap(this::send)
+                        .onErrorResume(e -> {
+                            // the following events of the entity stay in the outbox, to be published in order by the next relay
+                            LOG.warn("Change event could not be published: {}", e.getMessage());
+                            return Mono.empty();
+                        }),
+                sendConcurrency
+            )
+            .collectList();
+    }
+
+    private static String aggregateKey(OutboxEvent event) {
+        return event.getAggregateType() + ":" + event.getAggregateId();
+    }
+
+    private Mono<Long> send(OutboxEvent event) {
+        return Mono.fromCallable(() -> {
+            kafkaProducer.send(
+                String.valueOf(event.getAggregateId()),
+                event.getPayload(),
+                Map.of(
+                    EVENT_ID_HEADER,
+                    String.valueOf(event.getId()),
+                    EVENT_TYPE_HEADER,
+                    event.getEventType().name(),
+                    AGGREGATE_TYPE_HEADER,
+                    event.getAggregateType()
+                )
+            );
+            return event.getId();
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<Void> updateMetrics() {
+        return outboxEventRepository
+            .count()
+            .doOnNext(pendingEvents::set)
+            .then(outboxEventRepository.findFirstByOrderByIdAsc().map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now())))
+            .defaultIfEmpty(Duration.ZERO)
+            .doOnNext(lag -> lagMillis.set(lag.toMillis()))
+            .then();
+    }
+}
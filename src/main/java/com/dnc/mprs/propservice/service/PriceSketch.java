@@ -0,0 +1,216 @@
+package com.dnc.mprs.propservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch of prices, with a bounded relative error.
+ * <p>
+ * The prices are counted in buckets of exponentially growing width, in the manner of DDSketch: bucket {@code i} holds the
+ * prices in {@code (gamma^(i-1), gamma^i]}, with {@code gamma = (1 + alpha) / (1 - alpha)}, so any quantile is estimated
+ * within a relative error of {@code alpha} = {@value #RELATIVE_ACCURACY} of the true value. Merging two sketches adds their
+ * bucket counts, so the sketches of months and regions can be combined into the sketch of any range of months or group of
+ * regions, with the same accuracy. Prices from 1 to 10^12 fit in fewer than 1400 buckets; beyond {@value #MAX_BUCKETS}
+ * buckets, the lowest ones are collapsed.
+ * <p>
+ * The serialized form is a version byte, followed by the count of the zero prices, the number of buckets, and for every bucket
+ * the difference of its index with the previous one and its count, all as variable-length integers.
+ */
+public class PriceSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+
+    static final int MAX_BUCKETS = 2048;
+
+    private static final byte VERSION = 1;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+
+    private long zeroCount;
+
+    private long count;
+
+    /**
+     * Adds a price; prices which are not positive are counted as zero.
+     *
+     * @param price the price.
+     */
+    public void add(BigDecimal price) {
+        add(price.doubleValue(), 1);
+    }
+
+    private void add(double price, long occurrences) {
+        count += occurrences;
+        if (price <= 0) {
+            zeroCount += occurrences;
+            return;
+        }
+        buckets.merge((int) Math.ceil(Math.log(price) / LOG_GAMMA), occurrences, Long::sum);
+        collapse();
+    }
+
+    /**
+     * Adds the prices of another sketch.
+     *
+     * @param other the sketch to merge into this one.
+     * @return this sketch.
+     */
+    public PriceSketch merge(PriceSketch other) {
+        count += other.count;
+        zeroCount += other.zeroCount;
+        other.buckets.forEach((index, occurrences) -> buckets.merge(index, occurrences, Long::sum));
+        collapse();
+        return this;
+    }
+
+    /**
+     * Removes the prices of another sketch, which were added to this one. The removal fails if a bucket of the other sketch
+     * holds more prices than the same bucket of this one, e.g. when it was collapsed: this sketch is then unchanged.
+     *
+     * @param other the sketch whose prices to remove.
+     * @return whether the prices were removed.
+     */
+    public boolean subtract(PriceSketch other) {
+        if (other.zeroCount > zeroCount) {
+            return false;
+        }
+        for (Map.Entry<Integer, Long> bucket : other.buckets.entrySet()) {
+            if (buckets.getOrDefault(bucket.getKey(), 0L) < bucket.getValue()) {
+                return false;
+            }
+        }
+        count -= other.count;
+        zeroCount -= other.zeroCount;
+        other.buckets.forEach((index, occurrences) ->
+            buckets.compute(index, (key, current) -> current.longValue() == occurrences.longValue() ? null : current - occurrences)
+        );
+        return true;
+    }
+
+    /**
+     * @return the number of prices.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates a quantile of the prices.
+     *
+     * @param quantile the quantile, between 0 and 1.
+     * @return the estimated price, or {@code null} if the sketch is empty.
+     */
+    public BigDecimal quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("The quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return BigDecimal.ZERO;
+        }
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (rank < seen) {
+                // the value with the same relative distance to both bounds of the bucket
+                double estimate = (2 * Math.pow(GAMMA, bucket.getKey())) / (GAMMA + 1);
+                return BigDecimal.valueOf(estimate).setScale(2, RoundingMode.HALF_UP);
+            }
+        }
+        throw new IllegalStateException("Inconsistent sketch count " + count);
+    }
+
+    /**
+     * @return the serialized sketch.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + buckets.size() * 3);
+        out.write(VERSION);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, buckets.size());
+        int previous = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            writeVarLong(out, zigZag(bucket.getKey() - previous));
+            writeVarLong(out, bucket.getValue());
+            previous = bucket.getKey();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a serialized sketch.
+     *
+     * @param bytes the serialized sketch, or {@code null}.
+     * @return the sketch, empty if {@code bytes} is {@code null}.
+     * @throws IllegalArgumentException if the bytes are not a serialized sketch.
+     */
+    public static PriceSketch fromBytes(byte[] bytes) {
+        PriceSketch sketch = new PriceSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported price sketch version " + bytes[0]);
+        }
+        int[] position = { 1 };
+        sketch.zeroCount = readVarLong(bytes, position);
+        sketch.count = sketch.zeroCount;
+        long size = readVarLong(bytes, position);
+        int index = 0;
+        for (long i = 0; i < size; i++) {
+            index += unZigZag(readVarLong(bytes, position));
+            long occurrences = readVarLong(bytes, position);
+            sketch.buckets.put(index, occurrences);
+            sketch.count += occurrences;
+        }
+        return sketch;
+    }
+
+    private void collapse() {
+        while (buckets.size() > MAX_BUCKETS) {
+            Map.Entry<Integer, Long> lowest = buckets.pollFirstEntry();
+            buckets.merge(buckets.firstKey(), lowest.getValue(), Long::sum);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unZigZag(long value) {
+        return (int) ((value >>> 1) ^ -(value & 1));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated price sketch");
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed price sketch");
+    }
+}
@@ -1,12 +1,31 @@
 package com.dnc.mprs.propservice.service;
 
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
 import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
+import com.dnc.mprs.propservice.domain.criteria.PropertyCriteria;
+import com.dnc.mprs.propservice.repository.Keyset;
 import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.repository.TransactionRepository;
 import com.dnc.mprs.propservice.repository.search.PropertySearchRepository;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.PropertyWithTransactions;
+import com.dnc.mprs.propservice.service.dto.SearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,9 +43,61 @@ public class PropertyService {
 
     private final PropertySearchRepository propertySearchRepository;
 
-    public PropertyService(PropertyRepository propertyRepository, PropertySearchRepository propertySearchRepository) {
+    private final TransactionRepository transactionRepository;
+
+    private final EntityCounter propertyCounter;
+
+    private final BulkWriter bulkWriter;
+
+    private final OutboxService outboxService;
+
+    private final EntityCache<Property> propertyCache;
+
+    private final SuggestionService suggestionService;
+
+    private final int batchLookupChunkSize;
+
+    public PropertyService(
+        PropertyRepository propertyRepository,
+        PropertySearchRepository propertySearchRepository,
+        TransactionRepository transactionRepository,
+        SuggestionService suggestionService,
+        BulkWriter bulkWriter,
+        OutboxService outboxService,
+        CacheInvalidationService cacheInvalidationService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.propertyRepository = propertyRepository;
         this.propertySearchRepository = propertySearchRepository;
+        this.transactionRepository = transactionRepository;
+        this.bulkWriter = bulkWriter;
+        this.outboxService = outboxService;
+        this.suggestionService = suggestionService;
+        this.batchLookupChunkSize = applicationProperties.getBatchLookup().getChunkSize();
+        this.propertyCache = new EntityCache<>(
+            "property",
+            applicationProperties.getCache(),
+            meterRegistry,
+            id -> cacheInvalidationService.invalidated("property", id)
+        );
+        this.propertyCounter = new EntityCounter(
+            propertyRepository::count,
+            applicationProperties.getCountCache().isEnabled(),
+            delta -> cacheInvalidationService.counted("property", delta)
+        );
+        cacheInvalidationService.register(
+            "property",
+            ids -> {
+                ids.forEach(propertyCache::invalidate);
+                suggestionService.refreshProperties(ids);
+            },
+            () -> {
+                propertyCache.invalidateAll();
+                suggestionService.refreshProperties();
+            },
+            propertyCounter
+        );
     }
 
     /**
@@ -37,7 +108,66 @@ public class PropertyService {
      */
     public Mono<Property> save(Property property) {
         LOG.debug("Request to save Property : {}", property);
-        return propertyRepository.save(property).flatMap(propertySearchRepository::save);
+        boolean isNew = property.getId() == null;
+        OutboxEvent.EventType eventType = isNew ? OutboxEvent.EventType.CREATED : OutboxEvent.EventType.UPDATED;
+        return propertyRepository
+            .save(touch(property))
+            .flatMap(savedProperty -> recordChange(eventType, savedProperty))
+            .flatMap(propertySearchRepository::save)
+            .flatMap(savedProperty -> isNew ? propertyCounter.addOnCommit(1).thenReturn(savedProperty) : Mono.just(savedProperty));
+    }
+
+    /**
+     * Create or update properties in bulk, in chunks written with multi-row statements, each chunk in its own transaction.
+     *
+     * @param properties the entities to save, the ones without id are created.
+     * @return the result of every entity, in input order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkItemResult> saveAll(Flux<Property> properties) {
+        LOG.debug("Request to save Properties in bulk");
+        return bulkWriter
+            .write(
+                Property.class,
+                properties,
+                Property::getId,
+                propertyRepository::findIdsByIdIn,
+                this::upsertChunk,
+                propertyCounter
+            )
+            .concatMap(this::evictWritten);
+    }
+
+    /**
+     * Create or update properties in bulk, all in one transaction which also runs the given statements.
+     *
+     * @param properties the entities to save, the ones without id are created.
+     * @param inTransaction given the result of every entity, runs in the transaction before it commits.
+     * @return the result of every entity, in input order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkItemResult> saveAll(List<Property> properties, Function<List<BulkItemResult>, Mono<Void>> inTransaction) {
+        LOG.debug("Request to save {} Properties in one transaction", properties.size());
+        return bulkWriter
+            .writeAtomically(
+                Property.class,
+                properties,
+                Property::getId,
+                propertyRepository::findIdsByIdIn,
+                this::upsertChunk,
+                propertyCounter,
+                inTransaction
+            )
+            .concatMap(this::evictWritten);
+    }
+
+    private Flux<Property> upsertChunk(List<Property> chunk) {
+        return propertyRepository
+            .upsertAll(touchAll(chunk))
+            .collectList()
+            .flatMapMany(propertySearchRepository::saveAll)
+            .collectList()
+            .flatMapMany(saved -> suggestionService.propertiesChanged(saved).thenMany(Flux.fromIterable(saved)));
     }
 
     /**
@@ -48,7 +178,10 @@ public class PropertyService {
      */
     public Mono<Property> update(Property property) {
         LOG.debug("Request to update Property : {}", property);
-        return propertyRepository.save(property).flatMap(propertySearchRepository::save);
+        return propertyRepository
+            .save(touch(property))
+            .flatMap(savedProperty -> recordChange(OutboxEvent.EventType.UPDATED, savedProperty))
+            .flatMap(propertySearchRepository::save);
     }
 
     /**
@@ -99,16 +232,21 @@ public class PropertyService {
                 if (property.getDescription() != null) {
                     existingProperty.setDescription(property.getDescription());
                 }
+                if (property.getLatitude() != null) {
+                    existingProperty.setLatitude(property.getLatitude());
+                }
+                if (property.getLongitude() != null) {
+                    existingProperty.setLongitude(property.getLongitude());
+                }
                 if (property.getCreatedAt() != null) {
                     existingProperty.setCreatedAt(property.getCreatedAt());
                 }
-                if (property.getUpdatedAt() != null) {
-                    existingProperty.setUpdatedAt(property.getUpdatedAt());
-                }
 
                 return existingProperty;
             })
+            .map(PropertyService::touch)
             .flatMap(propertyRepository::save)
+            .flatMap(savedProperty -> recordChange(OutboxEvent.EventType.UPDATED, savedProperty))
             .flatMap(savedProperty -> {
                 propertySearchRepository.save(savedProperty);
                 return Mono.just(savedProperty);
@@ -128,20 +266,90 @@ public class PropertyService {
     }
 
     /**
-     * Returns the number of properties available.
+     * Get a page of properties with keyset pagination.
+     *
+     * @param keyset the sort order, page size and position of the page.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Property> findAll(Keyset keyset) {
+        LOG.debug("Request to get all Properties after {}", keyset);
+        return propertyRepository.findAllBy(keyset);
+    }
+
+    /**
+     * Returns the number of properties available, kept in memory between the reconciliations with the database.
      * @return the number of entities in the database.
      *
      */
     public Mono<Long> countAll() {
-        return propertyRepository.count();
+        return propertyCounter.get();
+    }
+
+    /**
+     * Returns the estimated number of properties available, read from the database table statistics.
+     * @return the estimated number of entities in the database.
+     */
+    @Transactional(readOnly = true)
+    public Mono<Long> countEstimated() {
+        return propertyRepository.estimateCount();
+    }
+
+    /**
+     * Reconciles the number of properties kept in memory with the database.
+     * @return a Mono to signal the reconciliation.
+     */
+    @Scheduled(
+        initialDelayString = "${application.count-cache.reconcile-interval:PT5M}",
+        fixedDelayString = "${application.count-cache.reconcile-interval:PT5M}"
+    )
+    @Transactional(readOnly = true)
+    public Mono<Void> reconcileCount() {
+        return propertyCounter.reconcile().doOnNext(count -> LOG.debug("Reconciled number of properties : {}", count)).then();
+    }
+
+    /**
+     * Get properties by id, the cached ones from memory and the others with one query per chunk of ids.
+     *
+     * @param ids the ids of the entities, without duplicates.
+     * @return the entities found, in the order of the ids.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Property> findAllById(List<Long> ids) {
+        LOG.debug("Request to get Properties : {}", ids);
+        return propertyCache.getAll(
+            ids,
+            missing -> Flux.fromIterable(missing).buffer(batchLookupChunkSize).concatMap(propertyRepository::findAllByIdIn),
+            Property::getId
+        );
     }
 
     /**
-     * Returns the number of properties available in search repository.
+     * Get properties by id with all their transactions: the properties as by {@link #findAllById(List)}, then the transactions
+     * of all of them with one query per chunk of ids, grouped by property in memory.
      *
+     * @param ids the ids of the properties, without duplicates.
+     * @return the properties with their transactions, in the order of the ids; the ids of no property are skipped.
      */
-    public Mono<Long> searchCount() {
-        return propertySearchRepository.count();
+    @Transactional(readOnly = true)
+    public Flux<PropertyWithTransactions> findAllWithTransactions(List<Long> ids) {
+        LOG.debug("Request to get Properties with their Transactions : {}", ids);
+        return findAllById(ids)
+            .collectList()
+            .filter(properties -> !properties.isEmpty())
+            .flatMapMany(properties ->
+                Flux.fromIterable(properties)
+                    .map(Property::getId)
+                    .buffer(batchLookupChunkSize)
+                    .concatMap(transactionRepository::findAllByPropertyIdIn)
+                    .collect(Collectors.groupingBy(Transaction::getPropertyId))
+                    .flatMapIterable(transactions ->
+                        properties
+                            .stream()
+                            .map(property -> new PropertyWithTransactions(property, transactions.getOrDefault(property.getId(), List.of())))
+                            .toList()
+                    )
+            );
     }
 
     /**
@@ -153,7 +361,7 @@ public class PropertyService {
     @Transactional(readOnly = true)
     public Mono<Property> findOne(Long id) {
         LOG.debug("Request to get Property : {}", id);
-        return propertyRepository.findById(id);
+        return propertyCache.get(id, propertyRepository::findById);
     }
 
     /**
@@ -164,19 +372,107 @@ public class PropertyService {
      */
     public Mono<Void> delete(Long id) {
         LOG.debug("Request to delete Property : {}", id);
-        return propertyRepository.deleteById(id).then(propertySearchRepository.deleteById(id));
+        return propertyRepository
+            .deleteByIdReturningCount(id)
+            .flatMap(deleted -> propertyCounter.addOnCommit(-deleted).thenReturn(deleted))
+            .filter(deleted -> deleted > 0)
+            .flatMap(deleted -> suggestionService.propertyDeleted(id).thenReturn(deleted))
+            .flatMap(deleted -> outboxService.recordDeletion(Property.class, id))
+            .then(propertyCache.evict(id))
+            .then(propertySearchRepository.deleteById(id));
+    }
+
+    /**
+     * Evicts the cached properties of a complex, which hold a copy of it.
+     *
+     * @param complexId the id of the changed complex.
+     * @return a Mono to signal the eviction.
+     */
+    public Mono<Void> evictComplex(Long complexId) {
+        return propertyCache.evictIf(property -> complexId.equals(property.getComplexId()));
+    }
+
+    /**
+     * Evicts at once the cached properties of a complex changed by another instance.
+     *
+     * @param complexId the id of the changed complex, or {@code null} for all the complexes.
+     */
+    public void invalidateComplex(Long complexId) {
+        propertyCache.invalidateIf(
+            property -> property.getComplexId() != null && (complexId == null || complexId.equals(property.getComplexId()))
+        );
     }
 
     /**
-     * Search for the property corresponding to the query.
+     * Records the change event of a property and evicts it from the cache, in the transaction of the change, and indexes its
+     * address once the change commits.
+     */
+    private Mono<Property> recordChange(OutboxEvent.EventType eventType, Property property) {
+        return outboxService
+            .record(eventType, Property.class, property.getId(), property)
+            .then(propertyCache.evict(property.getId()))
+            .then(suggestionService.propertiesChanged(List.of(property)))
+            .thenReturn(property);
+    }
+
+    /**
+     * Stamps the modification time of a property, read by the incremental reindex. The client value is ignored, and the time is
+     * truncated to the precision of the search index.
+     */
+    private static Property touch(Property property) {
+        property.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        return property;
+    }
+
+    private static List<Property> touchAll(List<Property> properties) {
+        properties.forEach(PropertyService::touch);
+        return properties;
+    }
+
+    /**
+     * Evicts a property written by the bulk save, which also notifies the other instances to index its address, whether it was
+     * created or updated.
+     */
+    private Mono<BulkItemResult> evictWritten(BulkItemResult result) {
+        if (result.getStatus() == BulkItemResult.Status.FAILED) {
+            return Mono.just(result);
+        }
+        return propertyCache.evict(result.getId()).thenReturn(result);
+    }
+
+    /**
+     * Search for the property corresponding to the query and the criteria.
      *
-     * @param query the query of the search.
+     * @param query the query of the search, optional.
+     * @param criteria the filters of the search.
+     * @param geo the geographic filters of the search.
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param faceted whether to compute the facets of the matching entities, which are otherwise empty.
+     * @return the page of entities, with the total number of matching entities and the facets.
      */
     @Transactional(readOnly = true)
-    public Flux<Property> search(String query, Pageable pageable) {
-        LOG.debug("Request to search for a page of Properties for query {}", query);
-        return propertySearchRepository.search(query, pageable);
+    public Mono<SearchResult<Property>> search(
+        String query,
+        PropertyCriteria criteria,
+        GeoCriteria geo,
+        Pageable pageable,
+        boolean faceted
+    ) {
+        LOG.debug("Request to search for a page of Properties for query {} and criteria {} {}", query, criteria, geo);
+        return propertySearchRepository.search(query, criteria, geo, pageable, faceted).map(SearchResult::new);
+    }
+
+    /**
+     * Search for the property corresponding to the query and the criteria, walking a point in time.
+     *
+     * @param query the query of the search, optional.
+     * @param criteria the filters of the search.
+     * @param geo the geographic filters of the search.
+     * @param cursor the sort order, page size and position of the page.
+     * @return the page of entities, with the cursor of the next page.
+     */
+    public Mono<SearchCursor.Page<Property>> search(String query, PropertyCriteria criteria, GeoCriteria geo, SearchCursor cursor) {
+        LOG.debug("Request to search for Properties for query {} and criteria {} {} after {}", query, criteria, geo, cursor);
+        return propertySearchRepository.search(query, criteria, geo, cursor);
     }
 }
@@ -0,0 +1,439 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.ReindexJob;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.Keyset;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.repository.ReindexJobRepository;
+import com.dnc.mprs.propservice.repository.TransactionRepository;
+import com.dnc.mprs.propservice.repository.search.ComplexSearchRepository;
+import com.dnc.mprs.propservice.repository.search.PropertySearchRepository;
+import com.dnc.mprs.propservice.repository.search.TransactionSearchRepository;
+import com.dnc.mprs.propservice.service.dto.ReindexProgress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.RestStatusException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service rebuilding the Elasticsearch indexes from the database.
+ * <p>
+ * A reindex job streams the rows of an entity in id order, one keyset page of {@code fetch-size} rows at a time, and indexes
+ * every page with a bulk request, several pages in parallel. Bulk requests rejected because the cluster is overloaded are
+ * retried with an exponential backoff. After every indexed page the job stores the position of the next page, so a job which
+ * failed or was interrupted by a restart resumes where it stopped when it is started again.
+ * <p>
+ * A job is claimed by the instance running it, which renews the claim every third of the {@code lease}, so that no other
+ * instance starts a job of the same entity until the claim expires. A job whose claim was taken over by another instance
+ * stops without touching the state of the job.
+ * <p>
+ * A full job reindexes all the rows. An incremental job only reindexes the rows updated since the start of the last completed
+ * job of the entity; rows without {@code updated_at} are only reindexed by full jobs. The fields missing from the mappings of
+ * the indexes, such as new keyword subfields or the geo points, are added on startup and by every full job; the existing
+ * documents only get them once reindexed.
+ */
+@Service
+public class ReindexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReindexService.class);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final ReindexJobRepository reindexJobRepository;
+
+    private final Map<String, Source<?>> sources = new LinkedHashMap<>();
+
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final int fetchSize;
+
+    private final int concurrency;
+
+    private final Retry retry;
+
+    private final Duration lease;
+
+    public ReindexService(
+        ReindexJobRepository reindexJobRepository,
+        ComplexRepository complexRepository,
+        ComplexSearchRepository complexSearchRepository,
+        PropertyRepository propertyRepository,
+        PropertySearchRepository propertySearchRepository,
+        TransactionRepository transactionRepository,
+        TransactionSearchRepository transactionSearchRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.reindexJobRepository = reindexJobRepository;
+        sources.put(
+            "complex",
+            new Source<>(
+                complexRepository::findAllBy,
+                complexRepository::findAllUpdatedSince,
+                complexRepository::count,
+                complexRepository::countUpdatedSince,
+                complexSearchRepository::saveAll,
+                complexSearchRepository::putMapping
+            )
+        );
+        sources.put(
+            "property",
+            new Source<>(
+                propertyRepository::findAllBy,
+                propertyRepository::findAllUpdatedSince,
+                propertyRepository::count,
+                propertyRepository::countUpdatedSince,
+                propertySearchRepository::saveAll,
+                propertySearchRepository::putMapping
+            )
+        );
+        sources.put(
+            "transaction",
+            new Source<>(
+                transactionRepository::findAllBy,
+                transactionRepository::findAllUpdatedSince,
+                transactionRepository::count,
+                transactionRepository::countUpdatedSince,
+                transactionSearchRepository::saveAll,
+                transactionSearchRepository::putMapping
+            )
+        );
+        ApplicationProperties.Reindex reindex = applicationProperties.getReindex();
+        this.fetchSize = reindex.getFetchSize();
+        this.concurrency = reindex.getConcurrency();
+        this.lease = reindex.getLease();
+        this.retry = Retry.backoff(reindex.getMaxRetries(), reindex.getInitialBackoff())
+            .filter(ReindexService::isTooManyRequests)
+            .doBeforeRetry(signal -> LOG.debug("Bulk request rejected, retry #{}", signal.totalRetries() + 1));
+    }
+
+    /**
+     * Adds the fields missing from the mappings of the indexes in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void putMappings() {
+        sources.forEach((entityName, source) ->
+            source
+                .putMapping()
+                .get()
+                .subscribe(
+                    updated -> LOG.debug("Updated the mapping of {}", entityName),
+                    e -> LOG.warn("Could not update the mapping of {}: {}", entityName, e.getMessage())
+                )
+        );
+    }
+
+    /**
+     * Starts the reindex of an entity in the background. The last job of the entity is resumed if it has the same mode and did
+     * not complete.
+     *
+     * @param entityName the name of the entity: {@code complex}, {@code property} or {@code transaction}.
+     * @param mode the mode of the job.
+     * @return the progress of the started job.
+     * @throws IllegalArgumentException if the entity is unknown.
+     * @throws IllegalStateException if a reindex of the entity is already running, on this instance or on another one.
+     */
+    public Mono<ReindexProgress> start(String entityName, ReindexJob.Mode mode) {
+        Source<?> source = sources.get(entityName);
+        if (source == null) {
+            return Mono.error(new IllegalArgumentException("Unknown entity " + entityName + ", expected one of " + sources.keySet()));
+        }
+        Run run = new Run();
+        if (!reserve(entityName, run)) {
+            return Mono.error(new IllegalStateException("A reindex of " + entityName + " is already running"));
+        }
+        return reindexJobRepository
+            .findFirstByEntityNameOrderByIdDesc(entityName)
+            .filter(last -> last.getStatus() != ReindexJob.Status.COMPLETED && last.getMode() == mode)
+            .flatMap(this::resumeJob)
+            .switchIfEmpty(Mono.defer(() -> createJob(entityName, mode, source)))
+            .flatMap(job -> reindexJobRepository.save(job.status(ReindexJob.Status.RUNNING).error(null).updatedAt(Instant.now())))
+            .doOnNext(job -> {
+                LOG.info("Starting {} reindex of {} from {}", mode, entityName, job.getCheckpoint() != null ? "checkpoint" : "start");
+                run.start(job);
+                execute(source, job, run).subscribe();
+            })
+            .map(run::progress)
+            .doOnError(e -> runs.remove(entityName, run));
+    }
+
+    /**
+     * Gets the progress of the last reindex job of every entity.
+     *
+     * @return the progress of the jobs, with the throughput and the ETA of the jobs running on this instance.
+     */
+    public Flux<ReindexProgress> progress() {
+        return Flux.fromIterable(sources.keySet()).concatMap(entityName -> {
+            Run run = runs.get(entityName);
+            if (run != null && run.job != null) {
+                return Mono.just(run.progress(run.job));
+            }
+            return reindexJobRepository
+                .findFirstByEntityNameOrderByIdDesc(entityName)
+                .map(job -> new ReindexProgress(job, job.getIndexed(), null));
+        });
+    }
+
+    private synchronized boolean reserve(String entityName, Run run) {
+        Run current = runs.get(entityName);
+        if (current != null && current.isActive()) {
+            return false;
+        }
+        runs.put(entityName, run);
+        return true;
+    }
+
+    /**
+     * Claims the last job of an entity, then resumes it from its state once claimed.
+     */
+    private Mono<ReindexJob> resumeJob(ReindexJob last) {
+        return claim(last)
+            .then(Mono.defer(() -> reindexJobRepository.findById(last.getId())))
+            .flatMap(job -> checkNotClaimedElsewhere(job, false))
+            .onErrorResume(e -> reindexJobRepository.release(last.getId(), instanceId).then(Mono.error(e)));
+    }
+
+    /**
+     * Creates a job of an entity, then claims it.
+     */
+    private Mono<ReindexJob> createJob(String entityName, ReindexJob.Mode mode, Source<?> source) {
+        return newJob(entityName, mode, source)
+            .flatMap(job -> reindexJobRepository.save(job.status(ReindexJob.Status.RUNNING).updatedAt(Instant.now())))
+            .flatMap(job ->
+                claim(job)
+                    .flatMap(claimed -> checkNotClaimedElsewhere(claimed, true))
+                    .onErrorResume(e -> reindexJobRepository.release(job.getId(), instanceId).then(Mono.error(e)))
+            );
+    }
+
+    private Mono<ReindexJob> claim(ReindexJob job) {
+        Instant now = Instant.now();
+        return reindexJobRepository
+            .claim(job.getId(), instanceId, now.plus(lease), now)
+            .flatMap(claimed -> claimed > 0 ? Mono.just(job) : Mono.error(runningElsewhere(job)));
+    }
+
+    private static IllegalStateException runningElsewhere(ReindexJob job) {
+        return new IllegalStateException("A reindex of " + job.getEntityName() + " is running on another instance");
+    }
+
+    /**
+     * Checks that no other job of the entity is claimed by another instance, which may have created it meanwhile. As every
+     * instance claims its job before checking, of two instances starting a job at the same time at least one sees the claim of
+     * the other; the job it created is then deleted, so it is not resumed later.
+     */
+    private Mono<ReindexJob> checkNotClaimedElsewhere(ReindexJob job, boolean created) {
+        return reindexJobRepository
+            .countClaimedByOthers(job.getEntityName(), instanceId, Instant.now())
+            .flatMap(others -> {
+                if (others == 0) {
+                    return Mono.just(job);
+                }
+                Mono<Void> undo = created ? reindexJobRepository.deleteById(job.getId()) : Mono.empty();
+                return undo.then(Mono.<ReindexJob>error(runningElsewhere(job)));
+            });
+    }
+
+    private Mono<ReindexJob> newJob(String entityName, ReindexJob.Mode mode, Source<?> source) {
+        Mono<Optional<Instant>> updatedSince = mode == ReindexJob.Mode.FULL
+            ? Mono.just(Optional.empty())
+            : reindexJobRepository
+                .findFirstByEntityNameAndStatusOrderByIdDesc(entityName, ReindexJob.Status.COMPLETED)
+                .map(last -> Optional.of(last.getStartedAt()))
+                .defaultIfEmpty(Optional.empty());
+        return updatedSince.flatMap(since ->
+            source
+                .count(since.orElse(null))
+                .map(total ->
+                    new ReindexJob()
+                        .entityName(entityName)
+                        .mode(mode)
+                        .updatedSince(since.orElse(null))
+                        .indexed(0L)
+                        .total(total)
+                        .startedAt(Instant.now())
+                )
+        );
+    }
+
+    private <T> Mono<Void> execute(Source<T> source, ReindexJob job, Run run) {
+        return Mono.firstWithSignal(reindex(source, job, run), heartbeat(job))
+            .doOnNext(completed -> LOG.info("Completed reindex of {}: {} documents", completed.getEntityName(), completed.getIndexed()))
+            .onErrorResume(
+                e -> !(e instanceof LeaseLostException),
+                e -> {
+                    String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    LOG.warn("Reindex of {} failed: {}", job.getEntityName(), error);
+                    job.status(ReindexJob.Status.FAILED).updatedAt(Instant.now());
+                    job.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                    return reindexJobRepository.save(job);
+                }
+            )
+            .then(Mono.defer(() -> reindexJobRepository.release(job.getId(), instanceId)))
+            .onErrorResume(LeaseLostException.class, e -> {
+                // the entity is reindexed by another instance now, so the state of the job is left to it
+                LOG.warn("Reindex of {} stopped: {}", job.getEntityName(), e.getMessage());
+                job.status(ReindexJob.Status.FAILED).error(e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Renews the claim of a running job, every third of the lease.
+     *
+     * @return a Mono which only signals the loss of the claim, as a {@link LeaseLostException}.
+     */
+    private Mono<ReindexJob> heartbeat(ReindexJob job) {
+        return Flux.interval(lease.dividedBy(3))
+            .onBackpressureDrop()
+            .concatMap(tick -> reindexJobRepository.renew(job.getId(), instanceId, Instant.now().plus(lease)))
+            .filter(renewed -> renewed == 0)
+            .next()
+            .flatMap(lost -> Mono.error(new LeaseLostException("The claim of the job expired and was taken by another instance")));
+    }
+
+    private <T> Mono<ReindexJob> reindex(Source<T> source, ReindexJob job, Run run) {
+        Keyset first = job.getCheckpoint() != null
+            ? Keyset.decode(job.getCheckpoint(), fetchSize)
+            : Keyset.first(Sort.by(Keyset.ID_PROPERTY), fetchSize);
+        Instant since = job.getUpdatedSince();
+        Mono<Boolean> prepare = job.getMode() == ReindexJob.Mode.FULL ? source.putMapping().get() : Mono.empty();
+        return prepare
+            .thenMany(fetch(source, since, first))
+            .expand(page -> page.next() != null ? fetch(source, since, page.next()) : Mono.empty())
+            .flatMapSequential(page -> index(source, page), concurrency, 1)
+            .concatMap(page -> {
+                run.indexed.addAndGet(page.rows().size());
+                job
+                    .indexed(run.indexed.get())
+                    .checkpoint(page.next() != null ? page.next().encode() : null)
+                    .updatedAt(Instant.now());
+                return reindexJobRepository.save(job);
+            })
+            .then(Mono.defer(() -> reindexJobRepository.save(job.status(ReindexJob.Status.COMPLETED).updatedAt(Instant.now()))));
+    }
+
+    private <T> Mono<Page<T>> fetch(Source<T> source, Instant since, Keyset keyset) {
+        return source.findAll(since, keyset).collectList().map(rows -> new Page<>(rows, keyset.next(rows).orElse(null)));
+    }
+
+    private <T> Mono<Page<T>> index(Source<T> source, Page<T> page) {
+        if (page.rows().isEmpty()) {
+            return Mono.just(page);
+        }
+        return Mono.defer(() -> source.index().apply(page.rows()).then()).retryWhen(retry).thenReturn(page);
+    }
+
+    private static boolean isTooManyRequests(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestStatusException restStatusException && restStatusException.getStatus() == TOO_MANY_REQUESTS) {
+                return true;
+            }
+            if (
+                cause instanceof BulkFailureException bulkFailureException &&
+                bulkFailureException
+                    .getFailedDocuments()
+                    .values()
+                    .stream()
+                    .anyMatch(failure -> failure.status() != null && failure.status() == TOO_MANY_REQUESTS)
+            ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The queries and the search repository of an entity.
+     */
+    private record Source<T>(
+        Function<Keyset, Flux<T>> findAll,
+        BiFunction<Instant, Keyset, Flux<T>> findAllUpdatedSince,
+        Supplier<Mono<Long>> count,
+        Function<Instant, Mono<Long>> countUpdatedSince,
+        Function<List<T>, Flux<T>> index,
+        Supplier<Mono<Boolean>> putMapping
+    ) {
+        Flux<T> findAll(Instant since, Keyset keyset) {
+            return since != null ? findAllUpdatedSince.apply(since, keyset) : findAll.apply(keyset);
+        }
+
+        Mono<Long> count(Instant since) {
+            return since != null ? countUpdatedSince.apply(since) : count.get();
+        }
+    }
+
+    /**
+     * A page of rows, with the keyset of the next page or {@code null} if it is the last one.
+     */
+    private record Page<T>(List<T> rows, Keyset next) {}
+
+    /**
+     * Signals that the claim of a running job was taken by another instance.
+     */
+    private static final class LeaseLostException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        LeaseLostException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A job running on this instance.
+     */
+    private static final class Run {
+
+        private final AtomicLong indexed = new AtomicLong();
+
+        private volatile ReindexJob job;
+
+        private volatile long resumedIndexed;
+
+        private volatile Instant resumedAt = Instant.now();
+
+        void start(ReindexJob job) {
+            this.resumedIndexed = job.getIndexed();
+            this.indexed.set(job.getIndexed());
+            this.resumedAt = Instant.now();
+            this.job = job;
+        }
+
+        boolean isActive() {
+            return job == null || job.getStatus() == ReindexJob.Status.RUNNING;
+        }
+
+        ReindexProgress progress(ReindexJob job) {
+            long current = indexed.get();
+            double seconds = Duration.between(resumedAt, Instant.now()).toMillis() / 1000.0;
+            Double documentsPerSecond = seconds > 0 ? (current - resumedIndexed) / seconds : null;
+            return new ReindexProgress(job, current, documentsPerSecond);
+        }
+    }
+}
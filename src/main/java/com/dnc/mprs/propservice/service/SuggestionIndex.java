@@ -0,0 +1,535 @@
+package com.dnc.mprs.propservice.service;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.dnc.mprs.propservice.repository.SuggestionSource;
+import com.dnc.mprs.propservice.service.dto.Suggestion;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * In-memory prefix index of the names or addresses of the entities of one type, serving the typeahead endpoints without
+ * querying Elasticsearch or the database.
+ * <p>
+ * The texts are indexed from the start of each of their words, so {@code gang} completes {@code Seoul Gangnam-gu}, and ranked
+ * by the transaction volume of their entity. Most of the entries are held in an immutable snapshot: the word starts of the
+ * normalized texts sorted as a suffix array, with a segment tree of the largest volume over every range of it, so the most
+ * traded entities matching a prefix are found in O(k log n) however many entities match. The entities changed since the
+ * snapshot are held in a small sorted map, read before the snapshot and shadowing its entries of the same entities. Past
+ * {@code compact-threshold} changed entities, or when the owning service rebuilds the index from the database, a new snapshot
+ * is built in the background and the changes made meanwhile are kept on top of it. Reads never lock.
+ * <p>
+ * The volumes are refreshed by the rebuilds only: a changed entity keeps the volume it had, a new one has none until the next
+ * rebuild.
+ */
+public class SuggestionIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    /**
+     * Maximum number of words of a text from which it is indexed.
+     */
+    static final int MAX_WORDS = 8;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Comparator<Suggestion> BY_VOLUME = Comparator.comparingLong(Suggestion::getVolume)
+        .reversed()
+        .thenComparing(Suggestion::getText);
+
+    private final String name;
+
+    private final int compactThreshold;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile State state = new State(Snapshot.EMPTY, null, new Changes());
+
+    public SuggestionIndex(String name, int compactThreshold) {
+        this.name = name;
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Finds the texts starting with a prefix, or with a word starting with it, at most one per entity.
+     *
+     * @param prefix the typed prefix, compared ignoring case, width and repeated spaces.
+     * @param size the maximum number of suggestions.
+     * @return the suggestions, by decreasing volume.
+     */
+    public List<Suggestion> suggest(String prefix, int size) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || size < 1) {
+            return List.of();
+        }
+        State current = state;
+        LongHashSet seen = new LongHashSet();
+        List<Suggestion> suggestions = new ArrayList<>();
+        current.changes().collect(key, id -> false, seen, suggestions);
+        if (current.frozen() != null) {
+            current.frozen().collect(key, current.changes()::shadows, seen, suggestions);
+        }
+        current.snapshot().collect(key, size, current::shadows, suggestions);
+        suggestions.sort(BY_VOLUME);
+        return suggestions.size() > size ? List.copyOf(suggestions.subList(0, size)) : suggestions;
+    }
+
+    /**
+     * Indexes the texts of a created or changed entity, replacing the previous ones.
+     *
+     * @param id the id of the entity.
+     * @param texts the names or addresses of the entity, {@code null} being ignored.
+     */
+    public void put(long id, String... texts) {
+        List<String> indexed = Stream.of(texts).filter(text -> !normalize(text).isEmpty()).toList();
+        boolean compact;
+        synchronized (this) {
+            State current = state;
+            current.changes().put(new SuggestionSource(id, indexed, current.volumeOf(id)));
+            compact = current.changes().size() >= compactThreshold;
+        }
+        if (compact) {
+            compact().subscribe(null, e -> LOG.warn("Could not compact the {} suggestions: {}", name, e.getMessage()));
+        }
+    }
+
+    /**
+     * Removes the texts of a deleted entity.
+     *
+     * @param id the id of the entity.
+     */
+    public void remove(long id) {
+        put(id);
+    }
+
+    /**
+     * Replaces the snapshot with the entities loaded from the database, keeping the changes made since the rebuild started. If
+     * the entities cannot be loaded, the changes are compacted into the current snapshot instead. Does nothing if a rebuild is
+     * already running.
+     *
+     * @param sources the texts and volumes of all the entities.
+     * @return a Mono to signal the rebuild.
+     */
+    public Mono<Void> rebuild(Flux<SuggestionSource> sources) {
+        return Mono.defer(() -> {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            State frozen = freeze();
+            return sources
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(loaded -> Snapshot.build(loaded, frozen.frozen()))
+                .onErrorResume(e -> {
+                    LOG.warn("Could not load the {} suggestions, compacting them instead: {}", name, e.getMessage());
+                    return Mono.fromCallable(() -> Snapshot.build(frozen.snapshot().sources(), frozen.frozen())).subscribeOn(
+                        Schedulers.boundedElastic()
+                    );
+                })
+                .doOnNext(snapshot -> {
+                    install(snapshot);
+                    LOG.debug("Rebuilt the {} suggestions of {} entities", name, snapshot.size());
+                })
+                .doFinally(signal -> rebuilding.set(false))
+                .then();
+        });
+    }
+
+    /**
+     * Folds the changes into a new snapshot, without loading the entities again.
+     *
+     * @return a Mono to signal the compaction.
+     */
+    public Mono<Void> compact() {
+        return rebuild(Flux.defer(() -> Flux.fromIterable(state.snapshot().sources())));
+    }
+
+    /**
+     * Moves the changes under a new empty change set, to be folded into the next snapshot. The changes left by an interrupted
+     * rebuild are folded as well.
+     */
+    private synchronized State freeze() {
+        State current = state;
+        Changes frozen = current.frozen() == null ? current.changes() : Changes.merge(current.frozen(), current.changes());
+        state = new State(current.snapshot(), frozen, new Changes());
+        return state;
+    }
+
+    private synchronized void install(Snapshot snapshot) {
+        state = new State(snapshot, null, state.changes());
+    }
+
+    /**
+     * Normalizes a text or a prefix: compatibility characters composed, lower case, and spaces collapsed.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+    }
+
+    /**
+     * @return the offsets of the first {@value #MAX_WORDS} words of a normalized text, the first one being 0.
+     */
+    static int[] wordStarts(String normalized) {
+        IntArrayList starts = new IntArrayList();
+        for (int i = 0; i < normalized.length() && starts.size() < MAX_WORDS; i++) {
+            if (i == 0 || (Character.isLetterOrDigit(normalized.charAt(i)) && !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                starts.add(i);
+            }
+        }
+        return starts.toArray();
+    }
+
+    /**
+     * Compares the suffixes of two texts from the given offsets.
+     */
+    private static int compareSuffixes(String a, int offsetA, String b, int offsetB) {
+        int lengthA = a.length() - offsetA;
+        int lengthB = b.length() - offsetB;
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            int diff = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * The snapshot, the changes being folded into the next snapshot if a rebuild is running, and the latest changes.
+     */
+    private record State(Snapshot snapshot, Changes frozen, Changes changes) {
+        boolean shadows(long id) {
+            return changes.shadows(id) || (frozen != null && frozen.shadows(id));
+        }
+
+        long volumeOf(long id) {
+            SuggestionSource changed = changes.get(id);
+            if (changed == null && frozen != null) {
+                changed = frozen.get(id);
+            }
+            return changed != null ? changed.volume() : snapshot.volumeOf(id);
+        }
+    }
+
+    /**
+     * An indexed text of a changed entity.
+     */
+    private record Entry(long id, String text, long volume) {}
+
+    /**
+     * The entities changed since a snapshot, a deleted entity having no text. Written under the lock of the index.
+     */
+    private static final class Changes {
+
+        private static final char ID_SEPARATOR = '\u0000';
+
+        private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+        private final Map<Long, SuggestionSource> documents = new ConcurrentHashMap<>();
+
+        static Changes merge(Changes older, Changes newer) {
+            Changes merged = new Changes();
+            older.documents.values().forEach(merged::put);
+            newer.documents.values().forEach(merged::put);
+            return merged;
+        }
+
+        void put(SuggestionSource document) {
+            SuggestionSource previous = documents.put(document.id(), document);
+            if (previous != null) {
+                keys(previous).forEach(key -> entries.remove(key.key()));
+            }
+            keys(document).forEach(key -> entries.put(key.key(), new Entry(document.id(), key.text(), document.volume())));
+        }
+
+        SuggestionSource get(long id) {
+            return documents.get(id);
+        }
+
+        boolean shadows(long id) {
+            return documents.containsKey(id);
+        }
+
+        int size() {
+            return documents.size();
+        }
+
+        void collect(String key, LongPredicate skip, LongHashSet seen, List<Suggestion> into) {
+            for (Entry entry : entries.subMap(key, key + Character.MAX_VALUE).values()) {
+                if (!skip.test(entry.id()) && seen.add(entry.id())) {
+                    into.add(new Suggestion(entry.id(), entry.text(), entry.volume()));
+                }
+            }
+        }
+
+        private static List<IndexedText> keys(SuggestionSource document) {
+            List<IndexedText> keys = new ArrayList<>();
+            for (String text : document.texts()) {
+                String normalized = normalize(text);
+                for (int offset : wordStarts(normalized)) {
+                    keys.add(new IndexedText(normalized.substring(offset) + ID_SEPARATOR + document.id(), text));
+                }
+            }
+            return keys;
+        }
+
+        private record IndexedText(String key, String text) {}
+    }
+
+    /**
+     * The immutable bulk of the index. The texts of an entity are contiguous; the keys, the word starts of the texts, are
+     * sorted by their suffix, and {@code tree} holds, for every node of a segment tree over the keys, the key with the largest
+     * volume below it.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(List.of());
+
+        private final long[] ids;
+
+        private final long[] volumes;
+
+        private final int[] firstTexts;
+
+        private final String[] texts;
+
+        private final String[] normalizedTexts;
+
+        private final int[] textEntities;
+
+        private final int[] keyTexts;
+
+        private final int[] keyOffsets;
+
+        private final int[] tree;
+
+        private final LongIntHashMap entitiesById;
+
+        static Snapshot build(Collection<SuggestionSource> sources, Changes overlay) {
+            LongObjectHashMap<SuggestionSource> byId = new LongObjectHashMap<>(sources.size());
+            List<Long> order = new ArrayList<>(sources.size());
+            for (SuggestionSource source : sources) {
+                if (byId.put(source.id(), source) == null) {
+                    order.add(source.id());
+                }
+            }
+            if (overlay != null) {
+                for (SuggestionSource changed : overlay.documents.values()) {
+                    SuggestionSource loaded = byId.get(changed.id());
+                    if (loaded == null) {
+                        order.add(changed.id());
+                    }
+                    long volume = loaded != null ? loaded.volume() : changed.volume();
+                    byId.put(changed.id(), new SuggestionSource(changed.id(), changed.texts(), volume));
+                }
+            }
+            List<SuggestionSource> merged = new ArrayList<>(order.size());
+            for (Long id : order) {
+                SuggestionSource source = byId.get(id);
+                if (!source.texts().isEmpty()) {
+                    merged.add(source);
+                }
+            }
+            return new Snapshot(merged);
+        }
+
+        private Snapshot(List<SuggestionSource> sources) {
+            int entityCount = sources.size();
+            ids = new long[entityCount];
+            volumes = new long[entityCount];
+            firstTexts = new int[entityCount + 1];
+            entitiesById = new LongIntHashMap(entityCount);
+            List<String> textList = new ArrayList<>();
+            List<String> normalizedList = new ArrayList<>();
+            IntArrayList textEntityList = new IntArrayList();
+            IntArrayList keyTextList = new IntArrayList();
+            IntArrayList keyOffsetList = new IntArrayList();
+            for (int entity = 0; entity < entityCount; entity++) {
+                SuggestionSource source = sources.get(entity);
+                ids[entity] = source.id();
+                volumes[entity] = source.volume();
+                firstTexts[entity] = textList.size();
+                entitiesById.put(source.id(), entity);
+                for (String text : source.texts()) {
+                    String normalized = normalize(text);
+                    int textIndex = textList.size();
+                    textList.add(text);
+                    normalizedList.add(normalized);
+                    textEntityList.add(entity);
+                    for (int offset : wordStarts(normalized)) {
+                        keyTextList.add(textIndex);
+                        keyOffsetList.add(offset);
+                    }
+                }
+            }
+            firstTexts[entityCount] = textList.size();
+            texts = textList.toArray(String[]::new);
+            normalizedTexts = normalizedList.toArray(String[]::new);
+            textEntities = textEntityList.toArray();
+            int[] unsortedTexts = keyTextList.toArray();
+            int[] unsortedOffsets = keyOffsetList.toArray();
+            int[] sorted = IntStream.range(0, unsortedTexts.length)
+                .boxed()
+                .sorted((a, b) -> {
+                    String textA = normalizedTexts[unsortedTexts[a]];
+                    String textB = normalizedTexts[unsortedTexts[b]];
+                    return compareSuffixes(textA, unsortedOffsets[a], textB, unsortedOffsets[b]);
+                })
+                .mapToInt(Integer::intValue)
+                .toArray();
+            keyTexts = new int[sorted.length];
+            keyOffsets = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                keyTexts[i] = unsortedTexts[sorted[i]];
+                keyOffsets[i] = unsortedOffsets[sorted[i]];
+            }
+            int keyCount = keyTexts.length;
+            tree = new int[2 * keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                tree[keyCount + i] = i;
+            }
+            for (int node = keyCount - 1; node > 0; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        long volumeOf(long id) {
+            int entity = entitiesById.getOrDefault(id, -1);
+            return entity >= 0 ? volumes[entity] : 0L;
+        }
+
+        /**
+         * @return the texts of the entities, to build the next snapshot.
+         */
+        List<SuggestionSource> sources() {
+            List<SuggestionSource> sources = new ArrayList<>(ids.length);
+            for (int entity = 0; entity < ids.length; entity++) {
+                List<String> entityTexts = List.of(Arrays.copyOfRange(texts, firstTexts[entity], firstTexts[entity + 1]));
+                sources.add(new SuggestionSource(ids[entity], entityTexts, volumes[entity]));
+            }
+            return sources;
+        }
+
+        /**
+         * Adds the suggestions of the {@code size} entities with the largest volumes having a key starting with the prefix,
+         * walking the ranges of the keys by decreasing maximum volume.
+         */
+        void collect(String key, int size, LongPredicate skip, List<Suggestion> into) {
+            int from = lowerBound(key);
+            int to = endOfPrefix(key, from);
+            if (from >= to) {
+                return;
+            }
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compareKeys(a[2], b[2]));
+            ranges.add(range(from, to));
+            LongHashSet added = new LongHashSet();
+            while (added.size() < size && !ranges.isEmpty()) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                int entity = textEntities[keyTexts[best]];
+                if (!skip.test(ids[entity]) && added.add(ids[entity])) {
+                    into.add(new Suggestion(ids[entity], texts[keyTexts[best]], volumes[entity]));
+                }
+                if (range[0] < best) {
+                    ranges.add(range(range[0], best));
+                }
+                if (best + 1 < range[1]) {
+                    ranges.add(range(best + 1, range[1]));
+                }
+            }
+        }
+
+        /**
+         * @return the bounds of a range of keys and its key with the largest volume.
+         */
+        private int[] range(int from, int to) {
+            int best = -1;
+            int keyCount = keyTexts.length;
+            for (int left = from + keyCount, right = to + keyCount; left < right; left >>= 1, right >>= 1) {
+                if ((left & 1) == 1) {
+                    best = better(best, tree[left++]);
+                }
+                if ((right & 1) == 1) {
+                    best = better(best, tree[--right]);
+                }
+            }
+            return new int[] { from, to, best };
+        }
+
+        /**
+         * @return the first key not before the prefix.
+         */
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = keyTexts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareSuffixes(normalizedTexts[keyTexts[middle]], keyOffsets[middle], prefix, 0) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the first key from {@code from} not starting with the prefix.
+         */
+        private int endOfPrefix(String prefix, int from) {
+            int low = from;
+            int high = keyTexts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (normalizedTexts[keyTexts[middle]].startsWith(prefix, keyOffsets[middle])) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int better(int a, int b) {
+            return a < 0 || compareKeys(b, a) < 0 ? b : a;
+        }
+
+        /**
+         * Orders the keys by decreasing volume of their entity, then by suffix.
+         */
+        private int compareKeys(int a, int b) {
+            int byVolume = Long.compare(volumes[textEntities[keyTexts[b]]], volumes[textEntities[keyTexts[a]]]);
+            return byVolume != 0 ? byVolume : Integer.compare(a, b);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.service.dto.Suggestion;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service completing the names of the complexes and the addresses of the properties for the typeahead endpoints, from
+ * {@link SuggestionIndex in-memory prefix indexes} rather than Elasticsearch.
+ * <p>
+ * The indexes are loaded when the application is ready and rebuilt from the database every {@code rebuild-interval}, which
+ * refreshes the transaction volumes ranking the suggestions. In between, the owning services index the entities they change once
+ * the transaction of the change commits, and the entities changed by the other instances are loaded again when their
+ * invalidation is received, a chunk of ids per query.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestionService.class);
+
+    private final ComplexRepository complexRepository;
+
+    private final PropertyRepository propertyRepository;
+
+    private final SuggestionIndex complexSuggestions;
+
+    private final SuggestionIndex propertySuggestions;
+
+    private final int maxSize;
+
+    private final int refreshChunkSize;
+
+    public SuggestionService(
+        ComplexRepository complexRepository,
+        PropertyRepository propertyRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.complexRepository = complexRepository;
+        this.propertyRepository = propertyRepository;
+        this.maxSize = applicationProperties.getSuggest().getMaxSize();
+        this.refreshChunkSize = applicationProperties.getBatchLookup().getChunkSize();
+        int compactThreshold = applicationProperties.getSuggest().getCompactThreshold();
+        this.complexSuggestions = new SuggestionIndex("complex", compactThreshold);
+        this.propertySuggestions = new SuggestionIndex("property", compactThreshold);
+    }
+
+    /**
+     * Loads the indexes in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        rebuild().subscribe(null, e -> LOG.warn("Could not preload the suggestions: {}", e.getMessage()));
+    }
+
+    /**
+     * Rebuilds the indexes from the database.
+     *
+     * @return a Mono to signal the rebuild.
+     */
+    @Scheduled(
+        initialDelayString = "${application.suggest.rebuild-interval:PT10M}",
+        fixedDelayString = "${application.suggest.rebuild-interval:PT10M}"
+    )
+    public Mono<Void> rebuild() {
+        return complexSuggestions
+            .rebuild(complexRepository.findAllSuggestionSources())
+            .then(propertySuggestions.rebuild(propertyRepository.findAllSuggestionSources()));
+    }
+
+    /**
+     * Completes the names of the complexes.
+     *
+     * @param prefix the typed prefix of the name, or of one of its words.
+     * @param size the maximum number of suggestions, up to {@code max-size}.
+     * @return the suggestions, the most traded complexes first.
+     */
+    public List<Suggestion> suggestComplexes(String prefix, int size) {
+        return complexSuggestions.suggest(prefix, Math.min(size, maxSize));
+    }
+
+    /**
+     * Completes the addresses and local names of the properties.
+     *
+     * @param prefix the typed prefix of the address or local name, or of one of their words.
+     * @param size the maximum number of suggestions, up to {@code max-size}.
+     * @return the suggestions, the most traded properties first.
+     */
+    public List<Suggestion> suggestProperties(String prefix, int size) {
+        return propertySuggestions.suggest(prefix, Math.min(size, maxSize));
+    }
+
+    /**
+     * Indexes changed complexes, once the current transaction commits.
+     *
+     * @param complexes the saved complexes.
+     * @return a Mono to signal the registration.
+     */
+    public Mono<Void> complexesChanged(List<Complex> complexes) {
+        return onCommit(() -> complexes.forEach(this::complexChanged));
+    }
+
+    /**
+     * Removes a deleted complex, once the current transaction commits.
+     *
+     * @param id the id of the complex.
+     * @return a Mono to signal the registration.
+     */
+    public Mono<Void> complexDeleted(long id) {
+        return onCommit(() -> complexSuggestions.remove(id));
+    }
+
+    private void complexChanged(Complex complex) {
+        complexSuggestions.put(complex.getId(), complex.getComplexName());
+    }
+
+    /**
+     * Indexes again the complexes changed by another instance, in the background.
+     *
+     * @param ids the ids of the complexes.
+     */
+    public void refreshComplexes(Collection<Long> ids) {
+        refresh("complex", ids, complexRepository::findAllByIdIn, Complex::getId, this::complexChanged, complexSuggestions::remove);
+    }
+
+    /**
+     * Rebuilds the complex index in the background, after invalidations from another instance were lost.
+     */
+    public void refreshComplexes() {
+        complexSuggestions
+            .rebuild(complexRepository.findAllSuggestionSources())
+            .subscribe(null, e -> LOG.warn("Could not rebuild the complex suggestions: {}", e.getMessage()));
+    }
+
+    /**
+     * Indexes changed properties, once the current transaction commits.
+     *
+     * @param properties the saved properties.
+     * @return a Mono to signal the registration.
+     */
+    public Mono<Void> propertiesChanged(List<Property> properties) {
+        return onCommit(() -> properties.forEach(this::propertyChanged));
+    }
+
+    /**
+     * Removes a deleted property, once the current transaction commits.
+     *
+     * @param id the id of the property.
+     * @return a Mono to signal the registration.
+     */
+    public Mono<Void> propertyDeleted(long id) {
+        return onCommit(() -> propertySuggestions.remove(id));
+    }
+
+    private void propertyChanged(Property property) {
+        propertySuggestions.put(property.getId(), property.getAddress(), property.getLocalName());
+    }
+
+    /**
+     * Indexes again the properties changed by another instance, in the background.
+     *
+     * @param ids the ids of the properties.
+     */
+    public void refreshProperties(Collection<Long> ids) {
+        refresh("property", ids, propertyRepository::findAllByIdIn, Property::getId, this::propertyChanged, propertySuggestions::remove);
+    }
+
+    /**
+     * Rebuilds the property index in the background, after invalidations from another instance were lost.
+     */
+    public void refreshProperties() {
+        propertySuggestions
+            .rebuild(propertyRepository.findAllSuggestionSources())
+            .subscribe(null, e -> LOG.warn("Could not rebuild the property suggestions: {}", e.getMessage()));
+    }
+
+    /**
+     * Loads entities again one chunk of ids after the other, so the ids of a coalesced invalidation take one connection at a
+     * time; the ids not found were deleted.
+     */
+    private <T> void refresh(
+        String entityName,
+        Collection<Long> ids,
+        Function<Collection<Long>, Flux<T>> findAllByIdIn,
+        Function<T, Long> idOf,
+        Consumer<T> changed,
+        LongConsumer deleted
+    ) {
+        Flux.fromIterable(ids)
+            .buffer(refreshChunkSize)
+            .concatMap(chunk ->
+                findAllByIdIn
+                    .apply(chunk)
+                    .doOnNext(changed)
+                    .map(idOf)
+                    .collect(Collectors.toSet())
+                    .doOnNext(found -> chunk.stream().filter(id -> !found.contains(id)).forEach(deleted::accept))
+            )
+            .subscribe(null, e -> LOG.warn("Could not refresh the {} suggestions: {}", entityName, e.getMessage()));
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or at once outside of a transaction, so a change rolled back is
+     * never suggested.
+     */
+    private static Mono<Void> onCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+            .map(synchronizationManager -> {
+                if (!synchronizationManager.isSynchronizationActive()) {
+                    return false;
+                }
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    }
+                );
+                return true;
+            })
+            .onErrorResume(NoTransactionException.class, e -> Mono.just(false))
+            .doOnNext(registered -> {
+                if (!registered) {
+                    action.run();
+                }
+            })
+            .then();
+    }
+}
@@ -0,0 +1,428 @@
+package com.dnc.mprs.propservice.service;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import com.dnc.mprs.propservice.repository.TransactionFact;
+import com.dnc.mprs.propservice.repository.TransactionRollupRepository;
+import com.dnc.mprs.propservice.service.dto.PriceQuantiles;
+import com.dnc.mprs.propservice.service.dto.TransactionStats;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service maintaining the monthly transaction rollups of every complex and region.
+ * <p>
+ * The transaction service takes a {@link #snapshot(Collection)} of the transactions it is about to change, and passes it to
+ * {@link #update(Map, Collection)} once they are changed, in the same transaction. The rollups of the buckets the transactions
+ * leave or enter are locked, then adjusted by the difference; only a bucket losing its minimum or maximum price is recomputed
+ * from the database, under the lock. The month of a transaction is taken in the {@code zone-id} time zone.
+ * <p>
+ * Every rollup keeps a {@link PriceSketch} of its prices, merged on reading into the price quantiles of any range of months,
+ * and of a region with its subregions.
+ * <p>
+ * Changes of the complex, region or area of a property are only reflected by the next {@link #rebuild()}.
+ */
+@Service
+@Transactional
+public class TransactionRollupService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionRollupService.class);
+
+    private static final int PRICE_PER_AREA_SCALE = 4;
+
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparing(Bucket::dimension)
+        .thenComparing(Bucket::key)
+        .thenComparing(Bucket::period);
+
+    private final TransactionRollupRepository transactionRollupRepository;
+
+    private final ZoneId zoneId;
+
+    private final int chunkSize;
+
+    public TransactionRollupService(TransactionRollupRepository transactionRollupRepository, ApplicationProperties applicationProperties) {
+        this.transactionRollupRepository = transactionRollupRepository;
+        this.zoneId = applicationProperties.getRollup().getZoneId();
+        this.chunkSize = applicationProperties.getBulk().getChunkSize();
+    }
+
+    /**
+     * Reads the aggregated columns of transactions before they are changed.
+     *
+     * @param transactionIds the ids of the transactions to change.
+     * @return the aggregated columns of the existing transactions, by id.
+     */
+    public Mono<Map<Long, TransactionFact>> snapshot(Collection<Long> transactionIds) {
+        return transactionRollupRepository.findFactsByTransactionIdIn(transactionIds).collectMap(TransactionFact::transactionId);
+    }
+
+    /**
+     * Updates the rollups after a change of transactions.
+     *
+     * @param before the snapshot of the transactions taken before the change.
+     * @param transactionIds the ids of the changed transactions, including the created and deleted ones.
+     * @return a Mono to signal the update.
+     */
+    public Mono<Void> update(Map<Long, TransactionFact> before, Collection<Long> transactionIds) {
+        return transactionRollupRepository
+            .findFactsByTransactionIdIn(transactionIds)
+            .collectMap(TransactionFact::transactionId)
+            .flatMap(after -> {
+                Set<Long> ids = new HashSet<>(before.keySet());
+                ids.addAll(after.keySet());
+                ids.removeIf(id -> Objects.equals(before.get(id), after.get(id)));
+
+                Map<Bucket, Delta> deltas = new TreeMap<>(BUCKET_ORDER);
+                for (Long id : ids) {
+                    TransactionFact removed = before.get(id);
+                    if (removed != null) {
+                        buckets(removed).forEach(bucket -> deltas.computeIfAbsent(bucket, key -> new Delta()).removed.add(removed));
+                    }
+                    TransactionFact added = after.get(id);
+                    if (added != null) {
+                        buckets(added).forEach(bucket -> deltas.computeIfAbsent(bucket, key -> new Delta()).added.add(added));
+                    }
+                }
+                return apply(deltas);
+            });
+    }
+
+    /**
+     * Recomputes all the rollups from the transactions.
+     *
+     * @return the number of rollups.
+     */
+    public Mono<Long> rebuild() {
+        return transactionRollupRepository
+            .findAllFacts()
+            .reduceWith(HashMap<Bucket, Accumulator>::new, (accumulators, fact) -> {
+                buckets(fact).forEach(bucket -> accumulators.computeIfAbsent(bucket, key -> new Accumulator()).add(fact));
+                return accumulators;
+            })
+            .flatMap(accumulators -> {
+                List<TransactionRollup> rollups = toRollups(accumulators);
+                return transactionRollupRepository
+                    .deleteAll()
+                    .thenMany(Flux.fromIterable(rollups))
+                    .buffer(chunkSize)
+                    .concatMap(transactionRollupRepository::merge)
+                    .then(Mono.just((long) rollups.size()));
+            })
+            .doOnNext(count -> LOG.info("Rebuilt {} transaction rollups", count));
+    }
+
+    /**
+     * Gets the monthly statistics of the transactions of a complex or a region.
+     *
+     * @param dimension the kind of the key.
+     * @param key the id of the complex, or the code of the region.
+     * @param from the first month.
+     * @param to the last month, included.
+     * @return the statistics of the months with transactions, in order.
+     */
+    @Transactional(readOnly = true)
+    public Flux<TransactionStats> findStats(TransactionRollup.Dimension dimension, String key, YearMonth from, YearMonth to) {
+        return transactionRollupRepository
+            .findByDimensionAndDimensionKeyAndPeriodBetweenOrderByPeriod(dimension, key, from.toString(), to.toString())
+            .map(TransactionStats::new);
+    }
+
+    /**
+     * Gets the monthly price quantiles of the transactions of a complex or a region.
+     *
+     * @param dimension the kind of the key.
+     * @param key the id of the complex, or the code of the region.
+     * @param subregions whether to include the regions whose code starts with {@code key}.
+     * @param from the first month.
+     * @param to the last month, included.
+     * @param quantiles the quantiles to estimate, between 0 and 1.
+     * @return the quantiles of the months with transactions, in order.
+     */
+    @Transactional(readOnly = true)
+    public Flux<PriceQuantiles> findMonthlyPriceQuantiles(
+        TransactionRollup.Dimension dimension,
+        String key,
+        boolean subregions,
+        YearMonth from,
+        YearMonth to,
+        List<Double> quantiles
+    ) {
+        return findRollups(dimension, key, subregions, from, to)
+            .bufferUntilChanged(TransactionRollup::getPeriod)
+            .map(rollups -> {
+                YearMonth period = YearMonth.parse(rollups.get(0).getPeriod());
+                return toPriceQuantiles(dimension, key, period, period, mergeSketches(rollups), quantiles);
+            });
+    }
+
+    /**
+     * Gets the price quantiles of the transactions of a complex or a region over a range of months.
+     *
+     * @param dimension the kind of the key.
+     * @param key the id of the complex, or the code of the region.
+     * @param subregions whether to include the regions whose code starts with {@code key}.
+     * @param from the first month.
+     * @param to the last month, included.
+     * @param quantiles the quantiles to estimate, between 0 and 1.
+     * @return the quantiles of the range, without prices if there is no transaction.
+     */
+    @Transactional(readOnly = true)
+    public Mono<PriceQuantiles> findPriceQuantiles(
+        TransactionRollup.Dimension dimension,
+        String key,
+        boolean subregions,
+        YearMonth from,
+        YearMonth to,
+        List<Double> quantiles
+    ) {
+        return findRollups(dimension, key, subregions, from, to)
+            .collectList()
+            .map(rollups -> toPriceQuantiles(dimension, key, from, to, mergeSketches(rollups), quantiles));
+    }
+
+    private Flux<TransactionRollup> findRollups(
+        TransactionRollup.Dimension dimension,
+        String key,
+        boolean subregions,
+        YearMonth from,
+        YearMonth to
+    ) {
+        if (subregions) {
+            return transactionRollupRepository.findByDimensionAndDimensionKeyStartingWithAndPeriodBetweenOrderByPeriod(
+                dimension,
+                key,
+                from.toString(),
+                to.toString()
+            );
+        }
+        return transactionRollupRepository.findByDimensionAndDimensionKeyAndPeriodBetweenOrderByPeriod(
+            dimension,
+            key,
+            from.toString(),
+            to.toString()
+        );
+    }
+
+    private static PriceSketch mergeSketches(List<TransactionRollup> rollups) {
+        PriceSketch sketch = new PriceSketch();
+        rollups.forEach(rollup -> sketch.merge(PriceSketch.fromBytes(rollup.getPriceSketch())));
+        return sketch;
+    }
+
+    private static PriceQuantiles toPriceQuantiles(
+        TransactionRollup.Dimension dimension,
+        String key,
+        YearMonth from,
+        YearMonth to,
+        PriceSketch sketch,
+        List<Double> quantiles
+    ) {
+        PriceQuantiles priceQuantiles = new PriceQuantiles();
+        priceQuantiles.setDimension(dimension);
+        priceQuantiles.setDimensionKey(key);
+        priceQuantiles.setFrom(from.toString());
+        priceQuantiles.setTo(to.toString());
+        priceQuantiles.setTransactionCount(sketch.getCount());
+        priceQuantiles.setQuantiles(
+            quantiles.stream().map(quantile -> new PriceQuantiles.Quantile(quantile, sketch.quantile(quantile))).toList()
+        );
+        return priceQuantiles;
+    }
+
+    /**
+     * Applies the deltas to the rollups of their buckets. The rollups are locked first, in bucket order, so the changes of the
+     * same buckets by concurrent transactions are applied one after the other; a bucket whose delta cannot be applied is
+     * recomputed under the lock.
+     */
+    private Mono<Void> apply(Map<Bucket, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        return transactionRollupRepository
+            .findBucketsForUpdate(deltas.keySet().stream().map(Bucket::toRollup).toList())
+            .collectMap(Bucket::of)
+            .flatMap(existing -> {
+                Instant now = Instant.now();
+                List<TransactionRollup> rollups = new ArrayList<>(deltas.size());
+                List<Bucket> outdated = new ArrayList<>();
+                deltas.forEach((bucket, delta) -> {
+                    TransactionRollup rollup = delta.applyTo(bucket, existing.get(bucket), now);
+                    if (rollup != null) {
+                        rollups.add(rollup);
+                    } else {
+                        outdated.add(bucket);
+                    }
+                });
+                return Flux.fromIterable(outdated)
+                    .concatMap(bucket -> recompute(bucket, now))
+                    .doOnNext(rollups::add)
+                    .then(Mono.defer(() -> transactionRollupRepository.replaceAll(rollups)));
+            });
+    }
+
+    private Mono<TransactionRollup> recompute(Bucket bucket, Instant now) {
+        ZonedDateTime start = bucket.period().atDay(1).atStartOfDay(zoneId);
+        return transactionRollupRepository
+            .findFacts(bucket.dimension(), bucket.key(), start.toInstant(), start.plusMonths(1).toInstant())
+            .reduceWith(Accumulator::new, Accumulator::add)
+            .map(accumulator -> accumulator.toRollup(bucket, now));
+    }
+
+    private List<Bucket> buckets(TransactionFact fact) {
+        YearMonth period = YearMonth.from(fact.transactionDate().atZone(zoneId));
+        List<Bucket> buckets = new ArrayList<>(2);
+        if (fact.complexId() != null) {
+            buckets.add(new Bucket(TransactionRollup.Dimension.COMPLEX, fact.complexId().toString(), period));
+        }
+        if (fact.regionCd() != null) {
+            buckets.add(new Bucket(TransactionRollup.Dimension.REGION, fact.regionCd(), period));
+        }
+        return buckets;
+    }
+
+    private static List<TransactionRollup> toRollups(Map<Bucket, Accumulator> accumulators) {
+        Instant now = Instant.now();
+        return accumulators.entrySet().stream().map(entry -> entry.getValue().toRollup(entry.getKey(), now)).toList();
+    }
+
+    /**
+     * The rollup of a complex or a region in a month.
+     */
+    private record Bucket(TransactionRollup.Dimension dimension, String key, YearMonth period) {
+        static Bucket of(TransactionRollup rollup) {
+            return new Bucket(rollup.getDimension(), rollup.getDimensionKey(), YearMonth.parse(rollup.getPeriod()));
+        }
+
+        TransactionRollup toRollup() {
+            return new TransactionRollup().dimension(dimension).dimensionKey(key).period(period.toString());
+        }
+    }
+
+    /**
+     * The aggregates of the transactions of a bucket.
+     */
+    private static final class Accumulator {
+
+        private long count;
+
+        private BigDecimal sum = BigDecimal.ZERO;
+
+        private BigDecimal min;
+
+        private BigDecimal max;
+
+        private BigDecimal pricePerAreaSum = BigDecimal.ZERO;
+
+        private long areaCount;
+
+        private final PriceSketch sketch = new PriceSketch();
+
+        Accumulator add(TransactionFact fact) {
+            BigDecimal price = fact.price();
+            count++;
+            sum = sum.add(price);
+            min = min == null || price.compareTo(min) < 0 ? price : min;
+            max = max == null || price.compareTo(max) > 0 ? price : max;
+            sketch.add(price);
+            if (fact.area() != null && fact.area().signum() > 0) {
+                pricePerAreaSum = pricePerAreaSum.add(price.divide(fact.area(), PRICE_PER_AREA_SCALE, RoundingMode.HALF_UP));
+                areaCount++;
+            }
+            return this;
+        }
+
+        TransactionRollup toRollup(Bucket bucket, Instant now) {
+            return bucket
+                .toRollup()
+                .transactionCount(count)
+                .priceSum(sum)
+                .priceMin(min)
+                .priceMax(max)
+                .pricePerAreaSum(pricePerAreaSum)
+                .areaCount(areaCount)
+                .priceSketch(sketch.toBytes())
+                .updatedAt(now);
+        }
+    }
+
+    /**
+     * The transactions leaving and entering a bucket.
+     */
+    private static final class Delta {
+
+        private final Accumulator removed = new Accumulator();
+
+        private final Accumulator added = new Accumulator();
+
+        /**
+         * Applies the delta to the locked rollup of the bucket. The count, the sums and the sketch are adjusted, but the
+         * minimum and maximum can only be widened: removing a price at either bound requires a recomputation, as does a rollup
+         * whose sketch does not count all its transactions, because it was written before the sketches.
+         *
+         * @param bucket the bucket.
+         * @param existing the rollup of the bucket, or {@code null} if there is none.
+         * @param now the time of the update.
+         * @return the new rollup, or {@code null} if the bucket has to be recomputed from the transactions.
+         */
+        TransactionRollup applyTo(Bucket bucket, TransactionRollup existing, Instant now) {
+            if (existing == null) {
+                return removed.count == 0 ? added.toRollup(bucket, now) : null;
+            }
+            PriceSketch sketch = PriceSketch.fromBytes(existing.getPriceSketch());
+            if (sketch.getCount() != existing.getTransactionCount()) {
+                return null;
+            }
+            if (
+                removed.count > 0 &&
+                (existing.getPriceMin() == null ||
+                    removed.min.compareTo(existing.getPriceMin()) <= 0 ||
+                    removed.max.compareTo(existing.getPriceMax()) >= 0)
+            ) {
+                return null;
+            }
+            if (!sketch.subtract(removed.sketch)) {
+                return null;
+            }
+            return bucket
+                .toRollup()
+                .transactionCount(existing.getTransactionCount() - removed.count + added.count)
+                .priceSum(existing.getPriceSum().subtract(removed.sum).add(added.sum))
+                .priceMin(bound(existing.getPriceMin(), added.min, -1))
+                .priceMax(bound(existing.getPriceMax(), added.max, 1))
+                .pricePerAreaSum(existing.getPricePerAreaSum().subtract(removed.pricePerAreaSum).add(added.pricePerAreaSum))
+                .areaCount(existing.getAreaCount() - removed.areaCount + added.areaCount)
+                .priceSketch(sketch.merge(added.sketch).toBytes())
+                .updatedAt(now);
+        }
+
+        /**
+         * @return the lowest of two prices for a negative {@code direction}, the highest for a positive one, ignoring nulls.
+         */
+        private static BigDecimal bound(BigDecimal first, BigDecimal second, int direction) {
+            if (first == null || second == null) {
+                return first != null ? first : second;
+            }
+            return Integer.signum(second.compareTo(first)) == direction ? second : first;
+        }
+    }
+}
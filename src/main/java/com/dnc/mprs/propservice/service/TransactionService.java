@@ -1,12 +1,29 @@
 package com.dnc.mprs.propservice.service;
 
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
 import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.TransactionCriteria;
+import com.dnc.mprs.propservice.repository.Keyset;
+import com.dnc.mprs.propservice.repository.TransactionExportFilter;
+import com.dnc.mprs.propservice.repository.TransactionExportRow;
 import com.dnc.mprs.propservice.repository.TransactionRepository;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
 import com.dnc.mprs.propservice.repository.search.TransactionSearchRepository;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.SearchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,9 +41,57 @@ public class TransactionService {
 
     private final TransactionSearchRepository transactionSearchRepository;
 
-    public TransactionService(TransactionRepository transactionRepository, TransactionSearchRepository transactionSearchRepository) {
+    private final EntityCounter transactionCounter;
+
+    private final BulkWriter bulkWriter;
+
+    private final OutboxService outboxService;
+
+    private final TransactionRollupService transactionRollupService;
+
+    private final EntityCache<Transaction> transactionCache;
+
+    private final int exportPageSize;
+
+    private final int exportRowsPerBuffer;
+
+    private final int batchLookupChunkSize;
+
+    public TransactionService(
+        TransactionRepository transactionRepository,
+        TransactionSearchRepository transactionSearchRepository,
+        BulkWriter bulkWriter,
+        OutboxService outboxService,
+        TransactionRollupService transactionRollupService,
+        CacheInvalidationService cacheInvalidationService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.transactionRepository = transactionRepository;
         this.transactionSearchRepository = transactionSearchRepository;
+        this.bulkWriter = bulkWriter;
+        this.outboxService = outboxService;
+        this.transactionRollupService = transactionRollupService;
+        this.exportPageSize = applicationProperties.getExport().getPageSize();
+        this.exportRowsPerBuffer = applicationProperties.getExport().getRowsPerBuffer();
+        this.batchLookupChunkSize = applicationProperties.getBatchLookup().getChunkSize();
+        this.transactionCache = new EntityCache<>(
+            "transaction",
+            applicationProperties.getCache(),
+            meterRegistry,
+            id -> cacheInvalidationService.invalidated("transaction", id)
+        );
+        this.transactionCounter = new EntityCounter(
+            transactionRepository::count,
+            applicationProperties.getCountCache().isEnabled(),
+            delta -> cacheInvalidationService.counted("transaction", delta)
+        );
+        cacheInvalidationService.register(
+            "transaction",
+            ids -> ids.forEach(transactionCache::invalidate),
+            transactionCache::invalidateAll,
+            transactionCounter
+        );
     }
 
     /**
@@ -37,7 +102,58 @@ public class TransactionService {
      */
     public Mono<Transaction> save(Transaction transaction) {
         LOG.debug("Request to save Transaction : {}", transaction);
-        return transactionRepository.save(transaction).flatMap(transactionSearchRepository::save);
+        boolean isNew = transaction.getId() == null;
+        OutboxEvent.EventType eventType = isNew ? OutboxEvent.EventType.CREATED : OutboxEvent.EventType.UPDATED;
+        return saveAndRollUp(transaction)
+            .flatMap(savedTransaction -> recordChange(eventType, savedTransaction))
+            .flatMap(transactionSearchRepository::save)
+            .flatMap(savedTransaction ->
+                isNew ? transactionCounter.addOnCommit(1).thenReturn(savedTransaction) : Mono.just(savedTransaction)
+            );
+    }
+
+    /**
+     * Create or update transactions in bulk, in chunks written with multi-row statements, each chunk in its own transaction.
+     *
+     * @param transactions the entities to save, the ones without id are created.
+     * @return the result of every entity, in input order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkItemResult> saveAll(Flux<Transaction> transactions) {
+        LOG.debug("Request to save Transactions in bulk");
+        return bulkWriter
+            .write(
+                Transaction.class,
+                transactions,
+                Transaction::getId,
+                transactionRepository::findIdsByIdIn,
+                this::upsertChunk,
+                transactionCounter
+            )
+            .concatMap(this::evictUpdated);
+    }
+
+    /**
+     * Create or update transactions in bulk, all in one transaction which also runs the given statements.
+     *
+     * @param transactions the entities to save, the ones without id are created.
+     * @param inTransaction given the result of every entity, runs in the transaction before it commits.
+     * @return the result of every entity, in input order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkItemResult> saveAll(List<Transaction> transactions, Function<List<BulkItemResult>, Mono<Void>> inTransaction) {
+        LOG.debug("Request to save {} Transactions in one transaction", transactions.size());
+        return bulkWriter
+            .writeAtomically(
+                Transaction.class,
+                transactions,
+                Transaction::getId,
+                transactionRepository::findIdsByIdIn,
+                this::upsertChunk,
+                transactionCounter,
+                inTransaction
+            )
+            .concatMap(this::evictUpdated);
     }
 
     /**
@@ -48,7 +164,9 @@ public class TransactionService {
      */
     public Mono<Transaction> update(Transaction transaction) {
         LOG.debug("Request to update Transaction : {}", transaction);
-        return transactionRepository.save(transaction).flatMap(transactionSearchRepository::save);
+        return saveAndRollUp(transaction)
+            .flatMap(savedTransaction -> recordChange(OutboxEvent.EventType.UPDATED, savedTransaction))
+            .flatMap(transactionSearchRepository::save);
     }
 
     /**
@@ -87,13 +205,11 @@ public class TransactionService {
                 if (transaction.getCreatedAt() != null) {
                     existingTransaction.setCreatedAt(transaction.getCreatedAt());
                 }
-                if (transaction.getUpdatedAt() != null) {
-                    existingTransaction.setUpdatedAt(transaction.getUpdatedAt());
-                }
 
                 return existingTransaction;
             })
-            .flatMap(transactionRepository::save)
+            .flatMap(this::saveAndRollUp)
+            .flatMap(savedTransaction -> recordChange(OutboxEvent.EventType.UPDATED, savedTransaction))
             .flatMap(savedTransaction -> {
                 transactionSearchRepository.save(savedTransaction);
                 return Mono.just(savedTransaction);
@@ -113,20 +229,99 @@ public class TransactionService {
     }
 
     /**
-     * Returns the number of transactions available.
+     * Get a page of transactions with keyset pagination.
+     *
+     * @param keyset the sort order, page size and position of the page.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Transaction> findAll(Keyset keyset) {
+        LOG.debug("Request to get all Transactions after {}", keyset);
+        return transactionRepository.findAllBy(keyset);
+    }
+
+    /**
+     * Get a page of the transactions of a property with keyset pagination, read through the index of the property and the
+     * transaction date.
+     *
+     * @param propertyId the id of the property.
+     * @param keyset the sort order, page size and position of the page.
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Transaction> findAllByProperty(Long propertyId, Keyset keyset) {
+        LOG.debug("Request to get the Transactions of Property {} after {}", propertyId, keyset);
+        return transactionRepository.findAllByPropertyId(propertyId, keyset);
+    }
+
+    /**
+     * Returns the number of transactions available, kept in memory between the reconciliations with the database.
      * @return the number of entities in the database.
      *
      */
     public Mono<Long> countAll() {
-        return transactionRepository.count();
+        return transactionCounter.get();
     }
 
     /**
-     * Returns the number of transactions available in search repository.
+     * Returns the estimated number of transactions available, read from the database table statistics.
+     * @return the estimated number of entities in the database.
+     */
+    @Transactional(readOnly = true)
+    public Mono<Long> countEstimated() {
+        return transactionRepository.estimateCount();
+    }
+
+    /**
+     * Streams the transactions of an export by id, read in pages of {@code page-size} transactions, each page with a query
+     * after the last id of the previous one. The pages are read outside of a transaction, so a long export neither holds a
+     * connection nor a snapshot which would keep the purge of the undo logs waiting; the memory used does not depend on the
+     * number of transactions.
      *
+     * @param filter the transactions to export.
+     * @return the transactions with the region and complex of their property, in batches of {@code rows-per-buffer}.
      */
-    public Mono<Long> searchCount() {
-        return transactionSearchRepository.count();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<List<TransactionExportRow>> export(TransactionExportFilter filter) {
+        LOG.debug("Request to export Transactions {}", filter);
+        return exportPage(filter)
+            .expand(page ->
+                page.size() < exportPageSize ? Mono.empty() : exportPage(filter.after(page.get(page.size() - 1).transaction().getId()))
+            )
+            .concatMap(page -> Flux.fromIterable(page).buffer(exportRowsPerBuffer));
+    }
+
+    private Mono<List<TransactionExportRow>> exportPage(TransactionExportFilter filter) {
+        return transactionRepository.findAllForExport(filter, exportPageSize).collectList();
+    }
+
+    /**
+     * Reconciles the number of transactions kept in memory with the database.
+     * @return a Mono to signal the reconciliation.
+     */
+    @Scheduled(
+        initialDelayString = "${application.count-cache.reconcile-interval:PT5M}",
+        fixedDelayString = "${application.count-cache.reconcile-interval:PT5M}"
+    )
+    @Transactional(readOnly = true)
+    public Mono<Void> reconcileCount() {
+        return transactionCounter.reconcile().doOnNext(count -> LOG.debug("Reconciled number of transactions : {}", count)).then();
+    }
+
+    /**
+     * Get transactions by id, the cached ones from memory and the others with one query per chunk of ids.
+     *
+     * @param ids the ids of the entities, without duplicates.
+     * @return the entities found, in the order of the ids.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Transaction> findAllById(List<Long> ids) {
+        LOG.debug("Request to get Transactions : {}", ids);
+        return transactionCache.getAll(
+            ids,
+            missing -> Flux.fromIterable(missing).buffer(batchLookupChunkSize).concatMap(transactionRepository::findAllByIdIn),
+            Transaction::getId
+        );
     }
 
     /**
@@ -138,7 +333,7 @@ public class TransactionService {
     @Transactional(readOnly = true)
     public Mono<Transaction> findOne(Long id) {
         LOG.debug("Request to get Transaction : {}", id);
-        return transactionRepository.findById(id);
+        return transactionCache.get(id, transactionRepository::findById);
     }
 
     /**
@@ -149,19 +344,108 @@ public class TransactionService {
      */
     public Mono<Void> delete(Long id) {
         LOG.debug("Request to delete Transaction : {}", id);
-        return transactionRepository.deleteById(id).then(transactionSearchRepository.deleteById(id));
+        return transactionRollupService
+            .snapshot(List.of(id))
+            .flatMap(before ->
+                transactionRepository
+                    .deleteByIdReturningCount(id)
+                    .flatMap(deleted -> transactionCounter.addOnCommit(-deleted).thenReturn(deleted))
+                    .filter(deleted -> deleted > 0)
+                    .flatMap(deleted -> outboxService.recordDeletion(Transaction.class, id))
+                    .then(transactionRollupService.update(before, List.of(id)))
+            )
+            .then(transactionCache.evict(id))
+            .then(transactionSearchRepository.deleteById(id));
+    }
+
+    /**
+     * Saves a transaction and updates the rollups of the buckets it leaves and joins.
+     */
+    private Mono<Transaction> saveAndRollUp(Transaction transaction) {
+        List<Long> existingIds = transaction.getId() != null ? List.of(transaction.getId()) : List.of();
+        return transactionRollupService
+            .snapshot(existingIds)
+            .flatMap(before ->
+                transactionRepository
+                    .save(touch(transaction))
+                    .flatMap(saved -> transactionRollupService.update(before, List.of(saved.getId())).thenReturn(saved))
+            );
+    }
+
+    /**
+     * Writes a chunk of the bulk save and updates the rollups, in the transaction of the chunk.
+     */
+    private Flux<Transaction> upsertChunk(List<Transaction> chunk) {
+        List<Long> existingIds = chunk.stream().map(Transaction::getId).filter(Objects::nonNull).toList();
+        return transactionRollupService
+            .snapshot(existingIds)
+            .flatMap(before ->
+                transactionRepository
+                    .upsertAll(touchAll(chunk))
+                    .collectList()
+                    .flatMap(saved -> {
+                        List<Long> ids = saved.stream().map(Transaction::getId).toList();
+                        return transactionRollupService.update(before, ids).thenReturn(saved);
+                    })
+            )
+            .flatMapMany(transactionSearchRepository::saveAll);
+    }
+
+    /**
+     * Stamps the modification time of a transaction, as {@link PropertyService} does.
+     */
+    private static Transaction touch(Transaction transaction) {
+        transaction.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        return transaction;
+    }
+
+    private static List<Transaction> touchAll(List<Transaction> transactions) {
+        transactions.forEach(TransactionService::touch);
+        return transactions;
     }
 
     /**
-     * Search for the transaction corresponding to the query.
+     * Records the change event of a transaction and evicts it from the cache, in the transaction of the change.
+     */
+    private Mono<Transaction> recordChange(OutboxEvent.EventType eventType, Transaction transaction) {
+        return outboxService
+            .record(eventType, Transaction.class, transaction.getId(), transaction)
+            .then(transactionCache.evict(transaction.getId()))
+            .thenReturn(transaction);
+    }
+
+    private Mono<BulkItemResult> evictUpdated(BulkItemResult result) {
+        if (result.getStatus() != BulkItemResult.Status.UPDATED) {
+            return Mono.just(result);
+        }
+        return transactionCache.evict(result.getId()).thenReturn(result);
+    }
+
+    /**
+     * Search for the transaction corresponding to the query and the criteria.
      *
-     * @param query the query of the search.
+     * @param query the query of the search, optional.
+     * @param criteria the filters of the search.
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param faceted whether to compute the facets of the matching entities, which are otherwise empty.
+     * @return the page of entities, with the total number of matching entities and the facets.
      */
     @Transactional(readOnly = true)
-    public Flux<Transaction> search(String query, Pageable pageable) {
-        LOG.debug("Request to search for a page of Transactions for query {}", query);
-        return transactionSearchRepository.search(query, pageable);
+    public Mono<SearchResult<Transaction>> search(String query, TransactionCriteria criteria, Pageable pageable, boolean faceted) {
+        LOG.debug("Request to search for a page of Transactions for query {} and criteria {}", query, criteria);
+        return transactionSearchRepository.search(query, criteria, pageable, faceted).map(SearchResult::new);
+    }
+
+    /**
+     * Search for the transaction corresponding to the query and the criteria, walking a point in time.
+     *
+     * @param query the query of the search, optional.
+     * @param criteria the filters of the search.
+     * @param cursor the sort order, page size and position of the page.
+     * @return the page of entities, with the cursor of the next page.
+     */
+    public Mono<SearchCursor.Page<Transaction>> search(String query, TransactionCriteria criteria, SearchCursor cursor) {
+        LOG.debug("Request to search for Transactions for query {} and criteria {} after {}", query, criteria, cursor);
+        return transactionSearchRepository.search(query, criteria, cursor);
     }
 }
@@ -0,0 +1,110 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Result of one item of a bulk request.
+ */
+public class BulkItemResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED,
+    }
+
+    private long index;
+
+    private Long id;
+
+    private Status status;
+
+    private String error;
+
+    public BulkItemResult() {}
+
+    public BulkItemResult(long index, Long id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public static BulkItemResult created(long index, Long id) {
+        return new BulkItemResult(index, id, Status.CREATED, null);
+    }
+
+    public static BulkItemResult updated(long index, Long id) {
+        return new BulkItemResult(index, id, Status.UPDATED, null);
+    }
+
+    public static BulkItemResult failed(long index, Long id, String error) {
+        return new BulkItemResult(index, id, Status.FAILED, error);
+    }
+
+    /**
+     * @return the position of the item in the request, starting at 0.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BulkItemResult)) {
+            return false;
+        }
+        BulkItemResult that = (BulkItemResult) o;
+        return index == that.index && Objects.equals(id, that.id) && status == that.status && Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, id, status, error);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkItemResult{" +
+            "index=" + index +
+            ", id=" + id +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,211 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import com.dnc.mprs.propservice.domain.ImportJob;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Progress of the bulk import of a trade file.
+ */
+public class ImportProgress implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String fileName;
+
+    private String charset;
+
+    private ImportJob.Status status;
+
+    private long fileSize;
+
+    private long position;
+
+    private long rowsRead;
+
+    private long imported;
+
+    private long rejected;
+
+    private String firstRejection;
+
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+    private Double rowsPerSecond;
+
+    private Long etaSeconds;
+
+    private String error;
+
+    public ImportProgress() {}
+
+    public ImportProgress(ImportJob job, Double rowsPerSecond, Double bytesPerSecond) {
+        this.fileName = job.getFileName();
+        this.charset = job.getCharset();
+        this.status = job.getStatus();
+        this.fileSize = job.getFileSize();
+        this.position = job.getCheckpoint() != null ? job.getCheckpoint() : 0;
+        this.rowsRead = job.getRowsRead();
+        this.imported = job.getImported();
+        this.rejected = job.getRejected();
+        this.firstRejection = job.getFirstRejection();
+        this.startedAt = job.getStartedAt();
+        this.updatedAt = job.getUpdatedAt();
+        this.error = job.getError();
+        this.rowsPerSecond = rowsPerSecond;
+        if (job.getStatus() == ImportJob.Status.RUNNING && bytesPerSecond != null && bytesPerSecond > 0) {
+            this.etaSeconds = (long) Math.ceil(Math.max(0, fileSize - position) / bytesPerSecond);
+        }
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public ImportJob.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportJob.Status status) {
+        this.status = status;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * @return the byte offset of the next row to import.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    /**
+     * @return the number of rows read, imported or rejected.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    /**
+     * @return the number of imported transactions.
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    /**
+     * @return the number of rejected rows.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * @return the row number and the reason of the first rejected row, {@code null} if none.
+     */
+    public String getFirstRejection() {
+        return firstRejection;
+    }
+
+    public void setFirstRejection(String firstRejection) {
+        this.firstRejection = firstRejection;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @return the throughput since the job was (re)started on this instance, {@code null} if it does not run here.
+     */
+    public Double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(Double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * @return the estimated time to completion at the current throughput, {@code null} if unknown.
+     */
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportProgress{" +
+            "fileName='" + getFileName() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", fileSize=" + getFileSize() +
+            ", position=" + getPosition() +
+            ", rowsRead=" + getRowsRead() +
+            ", imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            ", rowsPerSecond=" + getRowsPerSecond() +
+            ", etaSeconds=" + getEtaSeconds() +
+            "}";
+    }
+}
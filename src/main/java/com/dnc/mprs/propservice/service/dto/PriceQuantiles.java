@@ -0,0 +1,131 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Estimated quantiles of the transaction prices of a complex or a region over a range of months.
+ */
+public class PriceQuantiles implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private TransactionRollup.Dimension dimension;
+
+    private String dimensionKey;
+
+    private String from;
+
+    private String to;
+
+    private long transactionCount;
+
+    private List<Quantile> quantiles;
+
+    public TransactionRollup.Dimension getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(TransactionRollup.Dimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public List<Quantile> getQuantiles() {
+        return quantiles;
+    }
+
+    public void setQuantiles(List<Quantile> quantiles) {
+        this.quantiles = quantiles;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PriceQuantiles{" +
+            "dimension='" + getDimension() + "'" +
+            ", dimensionKey='" + getDimensionKey() + "'" +
+            ", from='" + getFrom() + "'" +
+            ", to='" + getTo() + "'" +
+            ", transactionCount=" + getTransactionCount() +
+            ", quantiles=" + getQuantiles() +
+            "}";
+    }
+
+    /**
+     * An estimated quantile, within 1% of the actual price; {@code null} without transactions.
+     */
+    public static class Quantile implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private double quantile;
+
+        private BigDecimal price;
+
+        public Quantile() {}
+
+        public Quantile(double quantile, BigDecimal price) {
+            this.quantile = quantile;
+            this.price = price;
+        }
+
+        public double getQuantile() {
+            return quantile;
+        }
+
+        public void setQuantile(double quantile) {
+            this.quantile = quantile;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Quantile{" +
+                "quantile=" + getQuantile() +
+                ", price=" + getPrice() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A property with all its transactions, most recent first.
+ */
+public class PropertyWithTransactions implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Property property;
+
+    private List<Transaction> transactions;
+
+    public PropertyWithTransactions() {}
+
+    public PropertyWithTransactions(Property property, List<Transaction> transactions) {
+        this.property = property;
+        this.transactions = transactions;
+    }
+
+    public Property getProperty() {
+        return property;
+    }
+
+    public void setProperty(Property property) {
+        this.property = property;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<Transaction> transactions) {
+        this.transactions = transactions;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PropertyWithTransactions{" +
+            "property=" + property +
+            ", transactions=" + transactions +
+            "}";
+    }
+}
@@ -0,0 +1,167 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import com.dnc.mprs.propservice.domain.ReindexJob;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Progress of the Elasticsearch reindex of an entity.
+ */
+public class ReindexProgress implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String entityName;
+
+    private ReindexJob.Mode mode;
+
+    private ReindexJob.Status status;
+
+    private Instant updatedSince;
+
+    private long indexed;
+
+    private Long total;
+
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+    private Double documentsPerSecond;
+
+    private Long etaSeconds;
+
+    private String error;
+
+    public ReindexProgress() {}
+
+    public ReindexProgress(ReindexJob job, long indexed, Double documentsPerSecond) {
+        this.entityName = job.getEntityName();
+        this.mode = job.getMode();
+        this.status = job.getStatus();
+        this.updatedSince = job.getUpdatedSince();
+        this.indexed = indexed;
+        this.total = job.getTotal();
+        this.startedAt = job.getStartedAt();
+        this.updatedAt = job.getUpdatedAt();
+        this.error = job.getError();
+        this.documentsPerSecond = documentsPerSecond;
+        if (job.getStatus() == ReindexJob.Status.RUNNING && total != null && documentsPerSecond != null && documentsPerSecond > 0) {
+            this.etaSeconds = (long) Math.ceil(Math.max(0, total - indexed) / documentsPerSecond);
+        }
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public ReindexJob.Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(ReindexJob.Mode mode) {
+        this.mode = mode;
+    }
+
+    public ReindexJob.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReindexJob.Status status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the lower bound of the {@code updated_at} of the reindexed rows, {@code null} if all the rows are reindexed.
+     */
+    public Instant getUpdatedSince() {
+        return updatedSince;
+    }
+
+    public void setUpdatedSince(Instant updatedSince) {
+        this.updatedSince = updatedSince;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    /**
+     * @return the number of rows to reindex, counted when the job was created.
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @return the throughput since the job was (re)started on this instance, {@code null} if it does not run here.
+     */
+    public Double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    public void setDocumentsPerSecond(Double documentsPerSecond) {
+        this.documentsPerSecond = documentsPerSecond;
+    }
+
+    /**
+     * @return the estimated time to completion at the current throughput, {@code null} if unknown.
+     */
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ReindexProgress{" +
+            "entityName='" + getEntityName() + "'" +
+            ", mode='" + getMode() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", indexed=" + getIndexed() +
+            ", total=" + getTotal() +
+            ", documentsPerSecond=" + getDocumentsPerSecond() +
+            ", etaSeconds=" + getEtaSeconds() +
+            "}";
+    }
+}
@@ -0,0 +1,180 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+
+/**
+ * A page of search hits, with the total number of matching documents and the facets computed over all of them, all read from a
+ * single search response.
+ *
+ * @param <T> the type of the hits.
+ */
+public class SearchResult<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long total;
+
+    private boolean totalExact;
+
+    private List<T> hits;
+
+    private Map<String, List<FacetBucket>> facets;
+
+    public SearchResult() {}
+
+    public SearchResult(SearchPage<T> page) {
+        this.total = page.getTotalElements();
+        this.totalExact = page.getSearchHits().getTotalHitsRelation() == TotalHitsRelation.EQUAL_TO;
+        this.hits = page.getContent().stream().map(SearchHit::getContent).toList();
+        this.facets = new LinkedHashMap<>();
+        if (page.getSearchHits().getAggregations() instanceof ElasticsearchAggregations aggregations) {
+            for (ElasticsearchAggregation aggregation : aggregations.aggregations()) {
+                facets.put(aggregation.aggregation().getName(), toBuckets(aggregation.aggregation().getAggregate()));
+            }
+        }
+    }
+
+    private static List<FacetBucket> toBuckets(Aggregate aggregate) {
+        return switch (aggregate._kind()) {
+            case Sterms -> aggregate
+                .sterms()
+                .buckets()
+                .array()
+                .stream()
+                .map(bucket -> new FacetBucket(bucket.key().stringValue(), bucket.docCount()))
+                .toList();
+            case Lterms -> aggregate
+                .lterms()
+                .buckets()
+                .array()
+                .stream()
+                .map(bucket -> new FacetBucket(String.valueOf(bucket.key()), bucket.docCount()))
+                .toList();
+            case Histogram -> aggregate
+                .histogram()
+                .buckets()
+                .array()
+                .stream()
+                .map(bucket -> new FacetBucket(String.valueOf(bucket.key()), bucket.docCount()))
+                .toList();
+            case DateHistogram -> aggregate
+                .dateHistogram()
+                .buckets()
+                .array()
+                .stream()
+                .map(bucket -> new FacetBucket(bucket.keyAsString(), bucket.docCount()))
+                .toList();
+            case GeohashGrid -> aggregate
+                .geohashGrid()
+                .buckets()
+                .array()
+                .stream()
+                .map(bucket -> new FacetBucket(bucket.key(), bucket.docCount()))
+                .toList();
+            default -> List.of();
+        };
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return {@code false} if the search stopped counting the matching documents, the total being then a lower bound.
+     */
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+
+    public List<T> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<T> hits) {
+        this.hits = hits;
+    }
+
+    /**
+     * @return the buckets of every facet by name; the keys of a histogram are the lower bounds of its intervals, the keys of
+     * the location facet are geohashes.
+     */
+    public Map<String, List<FacetBucket>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetBucket>> facets) {
+        this.facets = facets;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+            "total=" + getTotal() +
+            ", totalExact=" + isTotalExact() +
+            ", hits=" + getHits().size() +
+            ", facets=" + getFacets().keySet() +
+            "}";
+    }
+
+    /**
+     * The number of matching documents with a value, or in an interval.
+     */
+    public static class FacetBucket implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String key;
+
+        private long count;
+
+        public FacetBucket() {}
+
+        public FacetBucket(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "FacetBucket{" +
+                "key='" + getKey() + "'" +
+                ", count=" + getCount() +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A completion of the typeahead endpoints: the name or address of an entity starting with the typed prefix, or with a word
+ * starting with it.
+ */
+public class Suggestion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String text;
+
+    private long volume;
+
+    public Suggestion() {}
+
+    public Suggestion(Long id, String text, long volume) {
+        this.id = id;
+        this.text = text;
+        this.volume = volume;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the name or address which matched, as stored.
+     */
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @return the number of transactions of the entity, ranking the suggestions.
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    public void setVolume(long volume) {
+        this.volume = volume;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Suggestion{" +
+            "id=" + getId() +
+            ", text='" + getText() + "'" +
+            ", volume=" + getVolume() +
+            "}";
+    }
+}
@@ -0,0 +1,143 @@
+package com.dnc.mprs.propservice.service.dto;
+
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Statistics of the transactions of a complex or a region in a month.
+ */
+public class TransactionStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SCALE = 2;
+
+    private TransactionRollup.Dimension dimension;
+
+    private String dimensionKey;
+
+    private String period;
+
+    private long transactionCount;
+
+    private BigDecimal priceSum;
+
+    private BigDecimal priceMin;
+
+    private BigDecimal priceMax;
+
+    private BigDecimal priceAverage;
+
+    private BigDecimal pricePerAreaAverage;
+
+    public TransactionStats() {}
+
+    public TransactionStats(TransactionRollup rollup) {
+        this.dimension = rollup.getDimension();
+        this.dimensionKey = rollup.getDimensionKey();
+        this.period = rollup.getPeriod();
+        this.transactionCount = rollup.getTransactionCount();
+        this.priceSum = rollup.getPriceSum();
+        this.priceMin = rollup.getPriceMin();
+        this.priceMax = rollup.getPriceMax();
+        if (transactionCount > 0) {
+            this.priceAverage = priceSum.divide(BigDecimal.valueOf(transactionCount), SCALE, RoundingMode.HALF_UP);
+        }
+        if (rollup.getAreaCount() > 0) {
+            BigDecimal areaCount = BigDecimal.valueOf(rollup.getAreaCount());
+            this.pricePerAreaAverage = rollup.getPricePerAreaSum().divide(areaCount, SCALE, RoundingMode.HALF_UP);
+        }
+    }
+
+    public TransactionRollup.Dimension getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(TransactionRollup.Dimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public BigDecimal getPriceSum() {
+        return priceSum;
+    }
+
+    public void setPriceSum(BigDecimal priceSum) {
+        this.priceSum = priceSum;
+    }
+
+    public BigDecimal getPriceMin() {
+        return priceMin;
+    }
+
+    public void setPriceMin(BigDecimal priceMin) {
+        this.priceMin = priceMin;
+    }
+
+    public BigDecimal getPriceMax() {
+        return priceMax;
+    }
+
+    public void setPriceMax(BigDecimal priceMax) {
+        this.priceMax = priceMax;
+    }
+
+    /**
+     * @return the average price, {@code null} without transactions.
+     */
+    public BigDecimal getPriceAverage() {
+        return priceAverage;
+    }
+
+    public void setPriceAverage(BigDecimal priceAverage) {
+        this.priceAverage = priceAverage;
+    }
+
+    /**
+     * @return the average of the price per area of the properties with an area, {@code null} if none has one.
+     */
+    public BigDecimal getPricePerAreaAverage() {
+        return pricePerAreaAverage;
+    }
+
+    public void setPricePerAreaAverage(BigDecimal pricePerAreaAverage) {
+        this.pricePerAreaAverage = pricePerAreaAverage;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TransactionStats{" +
+            "dimension='" + getDimension() + "'" +
+            ", dimensionKey='" + getDimensionKey() + "'" +
+            ", period='" + getPeriod() + "'" +
+            ", transactionCount=" + getTransactionCount() +
+            ", priceAverage=" + getPriceAverage() +
+            "}";
+    }
+}
@@ -1,14 +1,27 @@
 package com.dnc.mprs.propservice.web.rest;
 
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.criteria.ComplexCriteria;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
 import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.InvalidCursorException;
+import com.dnc.mprs.propservice.repository.Keyset;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
 import com.dnc.mprs.propservice.service.ComplexService;
+import com.dnc.mprs.propservice.service.SuggestionService;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.SearchResult;
+import com.dnc.mprs.propservice.service.dto.Suggestion;
 import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import com.dnc.mprs.propservice.web.util.BatchLookupUtil;
+import com.dnc.mprs.propservice.web.util.CountMode;
+import com.dnc.mprs.propservice.web.util.KeysetPaginationUtil;
+import com.dnc.mprs.propservice.web.util.StreamingUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
@@ -16,9 +29,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -47,9 +63,20 @@ public class ComplexResource {
 
     private final ComplexRepository complexRepository;
 
-    public ComplexResource(ComplexService complexService, ComplexRepository complexRepository) {
+    private final SuggestionService suggestionService;
+
+    private final int maxBatchLookupIds;
+
+    public ComplexResource(
+        ComplexService complexService,
+        ComplexRepository complexRepository,
+        SuggestionService suggestionService,
+        ApplicationProperties applicationProperties
+    ) {
         this.complexService = complexService;
         this.complexRepository = complexRepository;
+        this.suggestionService = suggestionService;
+        this.maxBatchLookupIds = applicationProperties.getBatchLookup().getMaxIds();
     }
 
     /**
@@ -78,6 +105,27 @@ public class ComplexResource {
             });
     }
 
+    /**
+     * {@code POST  /complexes/_bulk} : Create or update complexes in bulk.
+     * <p>
+     * The complexes are read from a JSON array or an NDJSON stream and written in chunks: each chunk is written in its own
+     * transaction with multi-row statements, and indexed with the Elasticsearch bulk API. Complexes without id are created, the
+     * others are created or updated. The result of every complex is returned in input order; with {@code Accept: application/x-ndjson}
+     * the results are streamed as each chunk is written, to report progress on large payloads.
+     *
+     * @param complexes the complexes to create or update.
+     * @return the result of every complex, with status {@code 200 (OK)}.
+     */
+    @PostMapping(
+        value = "/_bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    public Flux<BulkItemResult> bulkSaveComplexes(@RequestBody Flux<Complex> complexes) {
+        LOG.debug("REST request to save Complexes in bulk");
+        return complexService.saveAll(complexes);
+    }
+
     /**
      * {@code PUT  /complexes/:id} : Updates an existing complex.
      *
@@ -166,28 +214,97 @@ public class ComplexResource {
      * {@code GET  /complexes} : get all the complexes.
      *
      * @param pageable the pagination information.
+     * @param count the count mode of the total count headers: {@code exact} (default), {@code estimated} or {@code none}.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of complexes in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ResponseEntity<List<Complex>>> getAllComplexes(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CountMode.PARAMETER, required = false) String count,
         ServerHttpRequest request
     ) {
         LOG.debug("REST request to get a page of Complexes");
-        return complexService
-            .countAll()
+        CountMode countMode = CountMode.fromParameter(count, ENTITY_NAME);
+        if (countMode == CountMode.NONE) {
+            return complexService.findAll(pageable).collectList().map(entities -> ResponseEntity.ok().body(entities));
+        }
+        return (countMode == CountMode.ESTIMATED ? complexService.countEstimated() : complexService.countAll())
             .zipWith(complexService.findAll(pageable).collectList())
-            .map(countWithEntities ->
-                ResponseEntity.ok()
-                    .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
-                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
-                        )
-                    )
-                    .body(countWithEntities.getT2())
-            );
+            .map(countWithEntities -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+                    ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                    new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                );
+                if (countMode == CountMode.ESTIMATED) {
+                    headers.add(CountMode.ESTIMATED_HEADER, Boolean.TRUE.toString());
+                }
+                return ResponseEntity.ok().headers(headers).body(countWithEntities.getT2());
+            });
+    }
+
+    /**
+     * {@code GET  /complexes} : stream a page of complexes as newline delimited JSON, as they are read from the database.
+     *
+     * @param cursor rejected, keyset pages are not streamed.
+     * @param pageable the pagination information.
+     * @return the complexes, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Complex> streamAllComplexes(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Complexes");
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        return complexService.findAll(pageable);
+    }
+
+    /**
+     * {@code GET  /complexes} : stream a page of complexes as server-sent events, as they are read from the database, then
+     * their total count in a {@code count} event.
+     *
+     * @param cursor rejected, keyset pages are not streamed.
+     * @param pageable the pagination information.
+     * @param count the count mode of the total count event: {@code exact} (default), {@code estimated} or {@code none}.
+     * @return the events, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamAllComplexEvents(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CountMode.PARAMETER, required = false) String count
+    ) {
+        LOG.debug("REST request to stream a page of Complexes as events");
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        CountMode countMode = CountMode.fromParameter(count, ENTITY_NAME);
+        return StreamingUtil.toEvents(
+            complexService.findAll(pageable),
+            StreamingUtil.count(countMode, complexService.countAll(), complexService.countEstimated())
+        );
+    }
+
+    /**
+     * {@code GET  /complexes?cursor=:cursor} : get a page of complexes with keyset pagination.
+     * <p>
+     * Instead of skipping rows with an offset, the query seeks to the position encoded in the cursor, so deep pages cost as much as
+     * the first one. The cursor of the next page is returned in the {@code X-Next-Cursor} header; no total count is computed.
+     *
+     * @param cursor the continuation token of the page, or an empty string for the first page.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of complexes in body.
+     */
+    @GetMapping(value = "", params = KeysetPaginationUtil.CURSOR_PARAMETER, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Complex>>> getAllComplexesByCursor(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Complexes after cursor {}", cursor);
+        Keyset keyset = KeysetPaginationUtil.parseCursor(cursor, pageable, ENTITY_NAME);
+        return Flux.defer(() -> complexService.findAll(keyset))
+            .collectList()
+            .onErrorMap(InvalidCursorException.class, e -> KeysetPaginationUtil.invalidCursor(ENTITY_NAME))
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateCursorHttpHeaders(keyset, page)).body(page));
     }
 
     /**
@@ -203,6 +320,21 @@ public class ComplexResource {
         return ResponseUtil.wrapOrNotFound(complex);
     }
 
+    /**
+     * {@code POST  /complexes/_mget} : get complexes by id.
+     * <p>
+     * The cached complexes are served from memory and the others read with one query per {@code application.batch-lookup.chunk-size}
+     * ids, so resolving many ids costs one request instead of one per id.
+     *
+     * @param ids the ids of the complexes, as a JSON array, up to {@code application.batch-lookup.max-ids}.
+     * @return the complexes in the order of the ids, the unknown ids being skipped, with status {@code 200 (OK)}.
+     */
+    @PostMapping(value = "/_mget", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Complex>> multiGetComplexes(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to get Complexes : {}", ids);
+        return complexService.findAllById(BatchLookupUtil.distinctIds(ids, maxBatchLookupIds, ENTITY_NAME)).collectList();
+    }
+
     /**
      * {@code DELETE  /complexes/:id} : delete the "id" complex.
      *
@@ -225,29 +357,179 @@ public class ComplexResource {
 
     /**
      * {@code SEARCH  /complexes/_search?query=:query} : search for the complex corresponding
-     * to the query.
+     * to the query and the criteria.
      *
-     * @param query the query of the complex search.
+     * @param query the query of the complex search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the result of the search.
+     * @return the result of the search, with the total number of matching entities in the headers. Beyond
+     * {@code application.search.exact-count-limit} matching entities, the total is a lower bound flagged with the
+     * {@code X-Total-Count-Estimated} header.
      */
     @GetMapping("/_search")
     public Mono<ResponseEntity<Flux<Complex>>> searchComplexes(
-        @RequestParam("query") String query,
+        @RequestParam(name = "query", required = false) String query,
+        ComplexCriteria criteria,
+        GeoCriteria geo,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
         ServerHttpRequest request
     ) {
-        LOG.debug("REST request to search for a page of Complexes for query {}", query);
+        LOG.debug("REST request to search for a page of Complexes for query {} and criteria {} {}", query, criteria, geo);
+        checkGeo(geo, pageable.getSort());
         return complexService
-            .searchCount()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page ->
-                PaginationUtil.generatePaginationHttpHeaders(
+            .search(query, criteria, geo, pageable, false)
+            .map(result -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
                     ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                    page
+                    new PageImpl<>(result.getHits(), pageable, result.getTotal())
+                );
+                if (!result.isTotalExact()) {
+                    headers.add(CountMode.ESTIMATED_HEADER, Boolean.TRUE.toString());
+                }
+                return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(result.getHits()));
+            });
+    }
+
+    /**
+     * {@code SEARCH  /complexes/_search?query=:query} : stream the complexes corresponding to the query and the criteria as
+     * newline delimited JSON.
+     *
+     * @param cursor rejected, search cursor pages are not streamed.
+     * @param query the query of the complex search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the complexes, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Complex> streamSearchComplexes(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        ComplexCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Complexes for query {} and criteria {} {}", query, criteria, geo);
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        checkGeo(geo, pageable.getSort());
+        return complexService.search(query, criteria, geo, pageable, false).flatMapIterable(SearchResult::getHits);
+    }
+
+    /**
+     * {@code SEARCH  /complexes/_search?query=:query} : stream the complexes corresponding to the query and the criteria as
+     * server-sent events, then the total number of matching entities in a {@code count} event. Beyond
+     * {@code application.search.exact-count-limit} matching entities, the total is a lower bound flagged as not exact.
+     *
+     * @param cursor rejected, search cursor pages are not streamed.
+     * @param query the query of the complex search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the events, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamSearchComplexEvents(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        ComplexCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Complexes as events for query {} and criteria {} {}", query, criteria, geo);
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        checkGeo(geo, pageable.getSort());
+        return complexService
+            .search(query, criteria, geo, pageable, false)
+            .flatMapMany(result ->
+                StreamingUtil.toEvents(
+                    Flux.fromIterable(result.getHits()),
+                    Mono.just(new StreamingUtil.Count(result.getTotal(), result.isTotalExact()))
                 )
-            )
-            .map(headers -> ResponseEntity.ok().headers(headers).body(complexService.search(query, pageable)));
+            );
+    }
+
+    /**
+     * {@code SEARCH  /complexes/_search?cursor=:cursor} : search for the complex corresponding to the query and the
+     * criteria, walking a point in time of the index.
+     * <p>
+     * Deep pages cost as much as the first one and are not limited by the result window of the index. The cursor of the next
+     * page is returned in the {@code X-Next-Cursor} header; no total count nor facets are computed. The following pages must be
+     * requested with the same query and criteria.
+     *
+     * @param cursor the continuation token of the page, or an empty string for the first page.
+     * @param query the query of the complex search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of complexes in body.
+     */
+    @GetMapping(value = "/_search", params = KeysetPaginationUtil.CURSOR_PARAMETER, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Complex>>> searchComplexesByCursor(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        ComplexCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for Complexes for query {} and criteria {} {} after cursor {}", query, criteria, geo, cursor);
+        checkGeo(geo, pageable.getSort());
+        boolean scored = query != null && !query.isBlank();
+        SearchCursor searchCursor = KeysetPaginationUtil.parseSearchCursor(cursor, pageable, scored, ENTITY_NAME);
+        return complexService
+            .search(query, criteria, geo, searchCursor)
+            .onErrorMap(InvalidCursorException.class, e -> KeysetPaginationUtil.invalidCursor(ENTITY_NAME))
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateSearchCursorHttpHeaders(page)).body(page.hits()));
+    }
+
+    /**
+     * {@code POST  /complexes/_search?query=:query} : search for the complex corresponding
+     * to the query and the criteria, with the facets of all the matching entities.
+     *
+     * @param query the query of the complex search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the result of the search, with the total number of matching entities and the facets.
+     */
+    @PostMapping("/_search")
+    public Mono<SearchResult<Complex>> facetedSearchComplexes(
+        @RequestParam(name = "query", required = false) String query,
+        @RequestBody ComplexCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a faceted page of Complexes for query {} and criteria {} {}", query, criteria, geo);
+        checkGeo(geo, pageable.getSort());
+        return complexService.search(query, criteria, geo, pageable, true);
+    }
+
+    /**
+     * {@code GET  /complexes/_suggest?prefix=:prefix} : complete the names of the complexes, for a search box.
+     * <p>
+     * The suggestions are read from an in-memory prefix index, without querying Elasticsearch: the names starting with the
+     * prefix, or with a word starting with it, ranked by the number of transactions of the complex.
+     *
+     * @param prefix the typed prefix.
+     * @param size the maximum number of suggestions, up to {@code application.suggest.max-size}.
+     * @return the suggestions, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Suggestion>> suggestComplexes(
+        @RequestParam("prefix") String prefix,
+        @RequestParam(name = "size", defaultValue = "10") int size
+    ) {
+        LOG.debug("REST request to suggest Complexes for prefix {}", prefix);
+        if (size < 1) {
+            throw new BadRequestAlertException("The number of suggestions must be positive", ENTITY_NAME, "sizeinvalid");
+        }
+        return Mono.fromSupplier(() -> suggestionService.suggestComplexes(prefix, size));
+    }
+
+    private void checkGeo(GeoCriteria geo, Sort sort) {
+        if (!geo.isValid(sort)) {
+            throw new BadRequestAlertException("Invalid geographic criteria", ENTITY_NAME, "geoinvalid");
+        }
     }
 }
@@ -0,0 +1,50 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import com.dnc.mprs.propservice.service.ImportService;
+import com.dnc.mprs.propservice.service.dto.ImportProgress;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Actuator endpoint to start the bulk import of a trade file and follow its progress.
+ * <p>
+ * {@code GET /management/import} returns the progress of the last jobs, {@code POST /management/import/{file}} with an optional
+ * {@code {"charset": "EUC-KR"}} body starts or resumes the import of a file of the import directory.
+ */
+@Component
+@Endpoint(id = "import")
+public class ImportEndpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportEndpoint.class);
+
+    private final ImportService importService;
+
+    public ImportEndpoint(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @ReadOperation
+    public Mono<List<ImportProgress>> progress() {
+        return importService.progress().collectList();
+    }
+
+    @WriteOperation
+    public Mono<ImportProgress> start(@Selector String file, @Nullable String charset) {
+        LOG.debug("Request to import {} : {}", file, charset);
+        return importService
+            .start(file, charset)
+            .onErrorMap(
+                e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException,
+                e -> new InvalidEndpointRequestException(e.getMessage(), e.getMessage())
+            );
+    }
+}
@@ -1,24 +1,44 @@
 package com.dnc.mprs.propservice.web.rest;
 
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.GeoCriteria;
+import com.dnc.mprs.propservice.domain.criteria.PropertyCriteria;
+import com.dnc.mprs.propservice.repository.InvalidCursorException;
+import com.dnc.mprs.propservice.repository.Keyset;
 import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
 import com.dnc.mprs.propservice.service.PropertyService;
+import com.dnc.mprs.propservice.service.SuggestionService;
+import com.dnc.mprs.propservice.service.TransactionService;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.PropertyWithTransactions;
+import com.dnc.mprs.propservice.service.dto.SearchResult;
+import com.dnc.mprs.propservice.service.dto.Suggestion;
 import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import com.dnc.mprs.propservice.web.util.BatchLookupUtil;
+import com.dnc.mprs.propservice.web.util.CountMode;
+import com.dnc.mprs.propservice.web.util.KeysetPaginationUtil;
+import com.dnc.mprs.propservice.web.util.StreamingUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -40,6 +60,8 @@ public class PropertyResource {
 
     private static final String ENTITY_NAME = "propserviceProperty";
 
+    private static final String TRANSACTION_DATE_PROPERTY = "transactionDate";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -47,9 +69,24 @@ public class PropertyResource {
 
     private final PropertyRepository propertyRepository;
 
-    public PropertyResource(PropertyService propertyService, PropertyRepository propertyRepository) {
+    private final SuggestionService suggestionService;
+
+    private final TransactionService transactionService;
+
+    private final int maxBatchLookupIds;
+
+    public PropertyResource(
+        PropertyService propertyService,
+        PropertyRepository propertyRepository,
+        SuggestionService suggestionService,
+        TransactionService transactionService,
+        ApplicationProperties applicationProperties
+    ) {
         this.propertyService = propertyService;
         this.propertyRepository = propertyRepository;
+        this.suggestionService = suggestionService;
+        this.transactionService = transactionService;
+        this.maxBatchLookupIds = applicationProperties.getBatchLookup().getMaxIds();
     }
 
     /**
@@ -78,6 +115,27 @@ public class PropertyResource {
             });
     }
 
+    /**
+     * {@code POST  /properties/_bulk} : Create or update properties in bulk.
+     * <p>
+     * The properties are read from a JSON array or an NDJSON stream and written in chunks: each chunk is written in its own
+     * transaction with multi-row statements, and indexed with the Elasticsearch bulk API. Properties without id are created, the
+     * others are created or updated. The result of every property is returned in input order; with {@code Accept: application/x-ndjson}
+     * the results are streamed as each chunk is written, to report progress on large payloads.
+     *
+     * @param properties the properties to create or update.
+     * @return the result of every property, with status {@code 200 (OK)}.
+     */
+    @PostMapping(
+        value = "/_bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    public Flux<BulkItemResult> bulkSaveProperties(@RequestBody Flux<Property> properties) {
+        LOG.debug("REST request to save Properties in bulk");
+        return propertyService.saveAll(properties);
+    }
+
     /**
      * {@code PUT  /properties/:id} : Updates an existing property.
      *
@@ -166,28 +224,97 @@ public class PropertyResource {
      * {@code GET  /properties} : get all the properties.
      *
      * @param pageable the pagination information.
+     * @param count the count mode of the total count headers: {@code exact} (default), {@code estimated} or {@code none}.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of properties in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ResponseEntity<List<Property>>> getAllProperties(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CountMode.PARAMETER, required = false) String count,
         ServerHttpRequest request
     ) {
         LOG.debug("REST request to get a page of Properties");
-        return propertyService
-            .countAll()
+        CountMode countMode = CountMode.fromParameter(count, ENTITY_NAME);
+        if (countMode == CountMode.NONE) {
+            return propertyService.findAll(pageable).collectList().map(entities -> ResponseEntity.ok().body(entities));
+        }
+        return (countMode == CountMode.ESTIMATED ? propertyService.countEstimated() : propertyService.countAll())
             .zipWith(propertyService.findAll(pageable).collectList())
-            .map(countWithEntities ->
-                ResponseEntity.ok()
-                    .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
-                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
-                        )
-                    )
-                    .body(countWithEntities.getT2())
-            );
+            .map(countWithEntities -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+                    ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                    new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                );
+                if (countMode == CountMode.ESTIMATED) {
+                    headers.add(CountMode.ESTIMATED_HEADER, Boolean.TRUE.toString());
+                }
+                return ResponseEntity.ok().headers(headers).body(countWithEntities.getT2());
+            });
+    }
+
+    /**
+     * {@code GET  /properties} : stream a page of properties as newline delimited JSON, as they are read from the database.
+     *
+     * @param cursor rejected, keyset pages are not streamed.
+     * @param pageable the pagination information.
+     * @return the properties, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Property> streamAllProperties(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Properties");
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        return propertyService.findAll(pageable);
+    }
+
+    /**
+     * {@code GET  /properties} : stream a page of properties as server-sent events, as they are read from the database, then
+     * their total count in a {@code count} event.
+     *
+     * @param cursor rejected, keyset pages are not streamed.
+     * @param pageable the pagination information.
+     * @param count the count mode of the total count event: {@code exact} (default), {@code estimated} or {@code none}.
+     * @return the events, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamAllPropertyEvents(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CountMode.PARAMETER, required = false) String count
+    ) {
+        LOG.debug("REST request to stream a page of Properties as events");
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        CountMode countMode = CountMode.fromParameter(count, ENTITY_NAME);
+        return StreamingUtil.toEvents(
+            propertyService.findAll(pageable),
+            StreamingUtil.count(countMode, propertyService.countAll(), propertyService.countEstimated())
+        );
+    }
+
+    /**
+     * {@code GET  /properties?cursor=:cursor} : get a page of properties with keyset pagination.
+     * <p>
+     * Instead of skipping rows with an offset, the query seeks to the position encoded in the cursor, so deep pages cost as much as
+     * the first one. The cursor of the next page is returned in the {@code X-Next-Cursor} header; no total count is computed.
+     *
+     * @param cursor the continuation token of the page, or an empty string for the first page.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of properties in body.
+     */
+    @GetMapping(value = "", params = KeysetPaginationUtil.CURSOR_PARAMETER, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Property>>> getAllPropertiesByCursor(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Properties after cursor {}", cursor);
+        Keyset keyset = KeysetPaginationUtil.parseCursor(cursor, pageable, ENTITY_NAME);
+        return Flux.defer(() -> propertyService.findAll(keyset))
+            .collectList()
+            .onErrorMap(InvalidCursorException.class, e -> KeysetPaginationUtil.invalidCursor(ENTITY_NAME))
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateCursorHttpHeaders(keyset, page)).body(page));
     }
 
     /**
@@ -203,6 +330,66 @@ public class PropertyResource {
         return ResponseUtil.wrapOrNotFound(property);
     }
 
+    /**
+     * {@code GET  /properties/:id/transactions} : get a page of the transactions of the "id" property with keyset pagination.
+     * <p>
+     * The transactions are sorted by transaction date, the most recent first unless {@code sort=transactionDate,asc} is given.
+     * The cursor of the next page is returned in the {@code X-Next-Cursor} header; no total count is computed.
+     *
+     * @param id the id of the property.
+     * @param cursor the continuation token of the page, absent or empty for the first page.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of transactions in body, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}/transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Transaction>>> getPropertyTransactions(
+        @PathVariable("id") Long id,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of the Transactions of Property {} after cursor {}", id, cursor);
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, TRANSACTION_DATE_PROPERTY);
+        Keyset keyset = KeysetPaginationUtil.parseCursor(cursor, PageRequest.of(0, pageable.getPageSize(), sort), ENTITY_NAME);
+        if (!TRANSACTION_DATE_PROPERTY.equals(keyset.getOrder().getProperty())) {
+            throw new BadRequestAlertException("The transactions of a property are sorted by transaction date", ENTITY_NAME, "sortinvalid");
+        }
+        return propertyService
+            .findOne(id)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .flatMap(property -> transactionService.findAllByProperty(id, keyset).collectList())
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateCursorHttpHeaders(keyset, page)).body(page));
+    }
+
+    /**
+     * {@code GET  /properties/_with-transactions?ids=:ids} : get properties with all their transactions.
+     * <p>
+     * The transactions of all the properties are read in one query and grouped by property, so a list screen gets the price
+     * history of its rows in one request.
+     *
+     * @param ids the ids of the properties, up to {@code application.batch-lookup.max-ids}.
+     * @return the properties with their transactions in the order of the ids, the unknown ids being skipped, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_with-transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<PropertyWithTransactions>> getPropertiesWithTransactions(@RequestParam("ids") List<Long> ids) {
+        LOG.debug("REST request to get Properties with their Transactions : {}", ids);
+        return propertyService.findAllWithTransactions(BatchLookupUtil.distinctIds(ids, maxBatchLookupIds, ENTITY_NAME)).collectList();
+    }
+
+    /**
+     * {@code POST  /properties/_mget} : get properties by id.
+     * <p>
+     * The cached properties are served from memory and the others read with one query per {@code application.batch-lookup.chunk-size}
+     * ids, so resolving many ids costs one request instead of one per id.
+     *
+     * @param ids the ids of the properties, as a JSON array, up to {@code application.batch-lookup.max-ids}.
+     * @return the properties in the order of the ids, the unknown ids being skipped, with status {@code 200 (OK)}.
+     */
+    @PostMapping(value = "/_mget", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Property>> multiGetProperties(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to get Properties : {}", ids);
+        return propertyService.findAllById(BatchLookupUtil.distinctIds(ids, maxBatchLookupIds, ENTITY_NAME)).collectList();
+    }
+
     /**
      * {@code DELETE  /properties/:id} : delete the "id" property.
      *
@@ -225,29 +412,180 @@ public class PropertyResource {
 
     /**
      * {@code SEARCH  /properties/_search?query=:query} : search for the property corresponding
-     * to the query.
+     * to the query and the criteria.
      *
-     * @param query the query of the property search.
+     * @param query the query of the property search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the result of the search.
+     * @return the result of the search, with the total number of matching entities in the headers. Beyond
+     * {@code application.search.exact-count-limit} matching entities, the total is a lower bound flagged with the
+     * {@code X-Total-Count-Estimated} header.
      */
     @GetMapping("/_search")
     public Mono<ResponseEntity<Flux<Property>>> searchProperties(
-        @RequestParam("query") String query,
+        @RequestParam(name = "query", required = false) String query,
+        PropertyCriteria criteria,
+        GeoCriteria geo,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
         ServerHttpRequest request
     ) {
-        LOG.debug("REST request to search for a page of Properties for query {}", query);
+        LOG.debug("REST request to search for a page of Properties for query {} and criteria {} {}", query, criteria, geo);
+        checkGeo(geo, pageable.getSort());
         return propertyService
-            .searchCount()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page ->
-                PaginationUtil.generatePaginationHttpHeaders(
+            .search(query, criteria, geo, pageable, false)
+            .map(result -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
                     ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                    page
+                    new PageImpl<>(result.getHits(), pageable, result.getTotal())
+                );
+                if (!result.isTotalExact()) {
+                    headers.add(CountMode.ESTIMATED_HEADER, Boolean.TRUE.toString());
+                }
+                return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(result.getHits()));
+            });
+    }
+
+    /**
+     * {@code SEARCH  /properties/_search?query=:query} : stream the properties corresponding to the query and the criteria as
+     * newline delimited JSON.
+     *
+     * @param cursor rejected, search cursor pages are not streamed.
+     * @param query the query of the property search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the properties, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Property> streamSearchProperties(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        PropertyCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Properties for query {} and criteria {} {}", query, criteria, geo);
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        checkGeo(geo, pageable.getSort());
+        return propertyService.search(query, criteria, geo, pageable, false).flatMapIterable(SearchResult::getHits);
+    }
+
+    /**
+     * {@code SEARCH  /properties/_search?query=:query} : stream the properties corresponding to the query and the criteria as
+     * server-sent events, then the total number of matching entities in a {@code count} event. Beyond
+     * {@code application.search.exact-count-limit} matching entities, the total is a lower bound flagged as not exact.
+     *
+     * @param cursor rejected, search cursor pages are not streamed.
+     * @param query the query of the property search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the events, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamSearchPropertyEvents(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        PropertyCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Properties as events for query {} and criteria {} {}", query, criteria, geo);
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        checkGeo(geo, pageable.getSort());
+        return propertyService
+            .search(query, criteria, geo, pageable, false)
+            .flatMapMany(result ->
+                StreamingUtil.toEvents(
+                    Flux.fromIterable(result.getHits()),
+                    Mono.just(new StreamingUtil.Count(result.getTotal(), result.isTotalExact()))
                 )
-            )
-            .map(headers -> ResponseEntity.ok().headers(headers).body(propertyService.search(query, pageable)));
+            );
+    }
+
+    /**
+     * {@code SEARCH  /properties/_search?cursor=:cursor} : search for the property corresponding to the query and the
+     * criteria, walking a point in time of the index.
+     * <p>
+     * Deep pages cost as much as the first one and are not limited by the result window of the index. The cursor of the next
+     * page is returned in the {@code X-Next-Cursor} header; no total count nor facets are computed. The following pages must be
+     * requested with the same query and criteria.
+     *
+     * @param cursor the continuation token of the page, or an empty string for the first page.
+     * @param query the query of the property search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of properties in body.
+     */
+    @GetMapping(value = "/_search", params = KeysetPaginationUtil.CURSOR_PARAMETER, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Property>>> searchPropertiesByCursor(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        PropertyCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for Properties for query {} and criteria {} {} after cursor {}", query, criteria, geo, cursor);
+        checkGeo(geo, pageable.getSort());
+        boolean scored = query != null && !query.isBlank();
+        SearchCursor searchCursor = KeysetPaginationUtil.parseSearchCursor(cursor, pageable, scored, ENTITY_NAME);
+        return propertyService
+            .search(query, criteria, geo, searchCursor)
+            .onErrorMap(InvalidCursorException.class, e -> KeysetPaginationUtil.invalidCursor(ENTITY_NAME))
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateSearchCursorHttpHeaders(page)).body(page.hits()));
+    }
+
+    /**
+     * {@code POST  /properties/_search?query=:query} : search for the property corresponding
+     * to the query and the criteria, with the facets of all the matching entities.
+     *
+     * @param query the query of the property search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param geo the geographic criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the result of the search, with the total number of matching entities and the facets.
+     */
+    @PostMapping("/_search")
+    public Mono<SearchResult<Property>> facetedSearchProperties(
+        @RequestParam(name = "query", required = false) String query,
+        @RequestBody PropertyCriteria criteria,
+        GeoCriteria geo,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a faceted page of Properties for query {} and criteria {} {}", query, criteria, geo);
+        checkGeo(geo, pageable.getSort());
+        return propertyService.search(query, criteria, geo, pageable, true);
+    }
+
+    /**
+     * {@code GET  /properties/_suggest?prefix=:prefix} : complete the addresses and local names of the properties, for a
+     * search box.
+     * <p>
+     * The suggestions are read from an in-memory prefix index, without querying Elasticsearch: the addresses and local names
+     * starting with the prefix, or with a word starting with it, ranked by the number of transactions of the property.
+     *
+     * @param prefix the typed prefix.
+     * @param size the maximum number of suggestions, up to {@code application.suggest.max-size}.
+     * @return the suggestions, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Suggestion>> suggestProperties(
+        @RequestParam("prefix") String prefix,
+        @RequestParam(name = "size", defaultValue = "10") int size
+    ) {
+        LOG.debug("REST request to suggest Properties for prefix {}", prefix);
+        if (size < 1) {
+            throw new BadRequestAlertException("The number of suggestions must be positive", ENTITY_NAME, "sizeinvalid");
+        }
+        return Mono.fromSupplier(() -> suggestionService.suggestProperties(prefix, size));
+    }
+
+    private void checkGeo(GeoCriteria geo, Sort sort) {
+        if (!geo.isValid(sort)) {
+            throw new BadRequestAlertException("Invalid geographic criteria", ENTITY_NAME, "geoinvalid");
+        }
     }
 }
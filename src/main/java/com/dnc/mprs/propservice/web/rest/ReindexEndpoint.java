@@ -0,0 +1,51 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import com.dnc.mprs.propservice.domain.ReindexJob;
+import com.dnc.mprs.propservice.service.ReindexService;
+import com.dnc.mprs.propservice.service.dto.ReindexProgress;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Actuator endpoint to start the Elasticsearch reindex of an entity and follow its progress.
+ * <p>
+ * {@code GET /management/reindex} returns the progress of the last job of every entity, {@code POST /management/reindex/{entity}}
+ * with an optional {@code {"mode": "INCREMENTAL"}} body starts or resumes a job.
+ */
+@Component
+@Endpoint(id = "reindex")
+public class ReindexEndpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReindexEndpoint.class);
+
+    private final ReindexService reindexService;
+
+    public ReindexEndpoint(ReindexService reindexService) {
+        this.reindexService = reindexService;
+    }
+
+    @ReadOperation
+    public Mono<List<ReindexProgress>> progress() {
+        return reindexService.progress().collectList();
+    }
+
+    @WriteOperation
+    public Mono<ReindexProgress> start(@Selector String entity, @Nullable ReindexJob.Mode mode) {
+        LOG.debug("Request to reindex {} : {}", entity, mode);
+        return reindexService
+            .start(entity, mode != null ? mode : ReindexJob.Mode.FULL)
+            .onErrorMap(
+                e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException,
+                e -> new InvalidEndpointRequestException(e.getMessage(), e.getMessage())
+            );
+    }
+}
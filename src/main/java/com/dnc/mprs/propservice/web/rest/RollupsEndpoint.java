@@ -0,0 +1,34 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import com.dnc.mprs.propservice.service.TransactionRollupService;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Actuator endpoint to rebuild the transaction rollups from scratch.
+ * <p>
+ * {@code POST /management/rollups} recomputes all the rollups in one transaction and returns their number.
+ */
+@Component
+@Endpoint(id = "rollups")
+public class RollupsEndpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RollupsEndpoint.class);
+
+    private final TransactionRollupService transactionRollupService;
+
+    public RollupsEndpoint(TransactionRollupService transactionRollupService) {
+        this.transactionRollupService = transactionRollupService;
+    }
+
+    @WriteOperation
+    public Mono<Map<String, Long>> rebuild() {
+        LOG.debug("Request to rebuild the transaction rollups");
+        return transactionRollupService.rebuild().map(count -> Map.of("rollups", count));
+    }
+}
@@ -0,0 +1,155 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import com.dnc.mprs.propservice.service.TransactionRollupService;
+import com.dnc.mprs.propservice.service.dto.PriceQuantiles;
+import com.dnc.mprs.propservice.service.dto.TransactionStats;
+import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import java.time.YearMonth;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST controller for the market statistics, read from the pre-aggregated transaction rollups.
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatsResource.class);
+
+    private static final String ENTITY_NAME = "propserviceTransactionStats";
+
+    private static final String DEFAULT_QUANTILES = "0.1,0.5,0.9";
+
+    private static final int MAX_QUANTILES = 20;
+
+    private final TransactionRollupService transactionRollupService;
+
+    public StatsResource(TransactionRollupService transactionRollupService) {
+        this.transactionRollupService = transactionRollupService;
+    }
+
+    /**
+     * {@code GET  /stats/complexes/:complexId/transactions} : get the monthly statistics of the transactions of a complex.
+     *
+     * @param complexId the id of the complex.
+     * @param from the first month, e.g. {@code 2024-01}.
+     * @param to the last month, included.
+     * @return the statistics of the months with transactions.
+     */
+    @GetMapping("/complexes/{complexId}/transactions")
+    public Flux<TransactionStats> getComplexTransactionStats(
+        @PathVariable("complexId") Long complexId,
+        @RequestParam("from") YearMonth from,
+        @RequestParam("to") YearMonth to
+    ) {
+        LOG.debug("REST request to get the transaction statistics of Complex {} from {} to {}", complexId, from, to);
+        return getTransactionStats(TransactionRollup.Dimension.COMPLEX, complexId.toString(), from, to);
+    }
+
+    /**
+     * {@code GET  /stats/regions/:regionCd/transactions} : get the monthly statistics of the transactions of a region.
+     *
+     * @param regionCd the code of the region.
+     * @param from the first month, e.g. {@code 2024-01}.
+     * @param to the last month, included.
+     * @return the statistics of the months with transactions.
+     */
+    @GetMapping("/regions/{regionCd}/transactions")
+    public Flux<TransactionStats> getRegionTransactionStats(
+        @PathVariable("regionCd") String regionCd,
+        @RequestParam("from") YearMonth from,
+        @RequestParam("to") YearMonth to
+    ) {
+        LOG.debug("REST request to get the transaction statistics of region {} from {} to {}", regionCd, from, to);
+        return getTransactionStats(TransactionRollup.Dimension.REGION, regionCd, from, to);
+    }
+
+    /**
+     * {@code GET  /stats/complexes/:complexId/prices} : get the price quantiles of the transactions of a complex.
+     *
+     * @param complexId the id of the complex.
+     * @param from the first month, e.g. {@code 2024-01}.
+     * @param to the last month, included.
+     * @param quantiles the quantiles to estimate, between 0 and 1.
+     * @param merged whether to merge the months into one range, instead of one entry per month with transactions.
+     * @return the price quantiles.
+     */
+    @GetMapping("/complexes/{complexId}/prices")
+    public Flux<PriceQuantiles> getComplexPriceQuantiles(
+        @PathVariable("complexId") Long complexId,
+        @RequestParam("from") YearMonth from,
+        @RequestParam("to") YearMonth to,
+        @RequestParam(name = "quantiles", defaultValue = DEFAULT_QUANTILES) List<Double> quantiles,
+        @RequestParam(name = "merged", defaultValue = "false") boolean merged
+    ) {
+        LOG.debug("REST request to get the price quantiles of Complex {} from {} to {}", complexId, from, to);
+        return getPriceQuantiles(TransactionRollup.Dimension.COMPLEX, complexId.toString(), false, from, to, quantiles, merged);
+    }
+
+    /**
+     * {@code GET  /stats/regions/:regionCd/prices} : get the price quantiles of the transactions of a region.
+     *
+     * @param regionCd the code of the region.
+     * @param from the first month, e.g. {@code 2024-01}.
+     * @param to the last month, included.
+     * @param quantiles the quantiles to estimate, between 0 and 1.
+     * @param merged whether to merge the months into one range, instead of one entry per month with transactions.
+     * @param subregions whether to include the regions whose code starts with {@code regionCd}.
+     * @return the price quantiles.
+     */
+    @GetMapping("/regions/{regionCd}/prices")
+    public Flux<PriceQuantiles> getRegionPriceQuantiles(
+        @PathVariable("regionCd") String regionCd,
+        @RequestParam("from") YearMonth from,
+        @RequestParam("to") YearMonth to,
+        @RequestParam(name = "quantiles", defaultValue = DEFAULT_QUANTILES) List<Double> quantiles,
+        @RequestParam(name = "merged", defaultValue = "false") boolean merged,
+        @RequestParam(name = "subregions", defaultValue = "false") boolean subregions
+    ) {
+        LOG.debug("REST request to get the price quantiles of region {} from {} to {}", regionCd, from, to);
+        return getPriceQuantiles(TransactionRollup.Dimension.REGION, regionCd, subregions, from, to, quantiles, merged);
+    }
+
+    private Flux<PriceQuantiles> getPriceQuantiles(
+        TransactionRollup.Dimension dimension,
+        String key,
+        boolean subregions,
+        YearMonth from,
+        YearMonth to,
+        List<Double> quantiles,
+        boolean merged
+    ) {
+        checkRange(from, to);
+        if (quantiles.isEmpty() || quantiles.size() > MAX_QUANTILES || quantiles.stream().anyMatch(q -> q == null || q < 0 || q > 1)) {
+            throw new BadRequestAlertException(
+                "Between 1 and " + MAX_QUANTILES + " quantiles, between 0 and 1, are expected",
+                ENTITY_NAME,
+                "quantileinvalid"
+            );
+        }
+        if (merged) {
+            return transactionRollupService.findPriceQuantiles(dimension, key, subregions, from, to, quantiles).flux();
+        }
+        return transactionRollupService.findMonthlyPriceQuantiles(dimension, key, subregions, from, to, quantiles);
+    }
+
+    private Flux<TransactionStats> getTransactionStats(TransactionRollup.Dimension dimension, String key, YearMonth from, YearMonth to) {
+        checkRange(from, to);
+        return transactionRollupService.findStats(dimension, key, from, to);
+    }
+
+    private static void checkRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestAlertException("The first month must not be after the last one", ENTITY_NAME, "rangeinvalid");
+        }
+    }
+}
@@ -1,25 +1,47 @@
 package com.dnc.mprs.propservice.web.rest;
 
+import com.dnc.mprs.propservice.config.ApplicationProperties;
 import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.TransactionCriteria;
+import com.dnc.mprs.propservice.repository.InvalidCursorException;
+import com.dnc.mprs.propservice.repository.Keyset;
+import com.dnc.mprs.propservice.repository.TransactionExportFilter;
+import com.dnc.mprs.propservice.repository.TransactionExportRow;
 import com.dnc.mprs.propservice.repository.TransactionRepository;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
+import com.dnc.mprs.propservice.service.ImportService;
 import com.dnc.mprs.propservice.service.TransactionService;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.service.dto.ImportProgress;
+import com.dnc.mprs.propservice.service.dto.SearchResult;
 import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import com.dnc.mprs.propservice.web.util.BatchLookupUtil;
+import com.dnc.mprs.propservice.web.util.CountMode;
+import com.dnc.mprs.propservice.web.util.CsvUtil;
+import com.dnc.mprs.propservice.web.util.KeysetPaginationUtil;
+import com.dnc.mprs.propservice.web.util.StreamingUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
+import java.nio.charset.Charset;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.ForwardedHeaderUtils;
@@ -40,6 +62,21 @@ public class TransactionResource {
 
     private static final String ENTITY_NAME = "propserviceTransaction";
 
+    private static final String[] EXPORT_HEADER = {
+        "id",
+        "property_id",
+        "complex_id",
+        "region_cd",
+        "transaction_type",
+        "price",
+        "transaction_date",
+        "buyer",
+        "seller",
+        "agent",
+        "created_at",
+        "updated_at",
+    };
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -47,9 +84,20 @@ public class TransactionResource {
 
     private final TransactionRepository transactionRepository;
 
-    public TransactionResource(TransactionService transactionService, TransactionRepository transactionRepository) {
+    private final ImportService importService;
+
+    private final int maxBatchLookupIds;
+
+    public TransactionResource(
+        TransactionService transactionService,
+        TransactionRepository transactionRepository,
+        ImportService importService,
+        ApplicationProperties applicationProperties
+    ) {
         this.transactionService = transactionService;
         this.transactionRepository = transactionRepository;
+        this.importService = importService;
+        this.maxBatchLookupIds = applicationProperties.getBatchLookup().getMaxIds();
     }
 
     /**
@@ -78,6 +126,27 @@ public class TransactionResource {
             });
     }
 
+    /**
+     * {@code POST  /transactions/_bulk} : Create or update transactions in bulk.
+     * <p>
+     * The transactions are read from a JSON array or an NDJSON stream and written in chunks: each chunk is written in its own
+     * transaction with multi-row statements, and indexed with the Elasticsearch bulk API. Transactions without id are created, the
+     * others are created or updated. The result of every transaction is returned in input order; with {@code Accept: application/x-ndjson}
+     * the results are streamed as each chunk is written, to report progress on large payloads.
+     *
+     * @param transactions the transactions to create or update.
+     * @return the result of every transaction, with status {@code 200 (OK)}.
+     */
+    @PostMapping(
+        value = "/_bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    public Flux<BulkItemResult> bulkSaveTransactions(@RequestBody Flux<Transaction> transactions) {
+        LOG.debug("REST request to save Transactions in bulk");
+        return transactionService.saveAll(transactions);
+    }
+
     /**
      * {@code PUT  /transactions/:id} : Updates an existing transaction.
      *
@@ -166,28 +235,97 @@ public class TransactionResource {
      * {@code GET  /transactions} : get all the transactions.
      *
      * @param pageable the pagination information.
+     * @param count the count mode of the total count headers: {@code exact} (default), {@code estimated} or {@code none}.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of transactions in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ResponseEntity<List<Transaction>>> getAllTransactions(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CountMode.PARAMETER, required = false) String count,
         ServerHttpRequest request
     ) {
         LOG.debug("REST request to get a page of Transactions");
-        return transactionService
-            .countAll()
+        CountMode countMode = CountMode.fromParameter(count, ENTITY_NAME);
+        if (countMode == CountMode.NONE) {
+            return transactionService.findAll(pageable).collectList().map(entities -> ResponseEntity.ok().body(entities));
+        }
+        return (countMode == CountMode.ESTIMATED ? transactionService.countEstimated() : transactionService.countAll())
             .zipWith(transactionService.findAll(pageable).collectList())
-            .map(countWithEntities ->
-                ResponseEntity.ok()
-                    .headers(
-                        PaginationUtil.generatePaginationHttpHeaders(
-                            ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                            new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
-                        )
-                    )
-                    .body(countWithEntities.getT2())
-            );
+            .map(countWithEntities -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
+                    ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
+                    new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                );
+                if (countMode == CountMode.ESTIMATED) {
+                    headers.add(CountMode.ESTIMATED_HEADER, Boolean.TRUE.toString());
+                }
+                return ResponseEntity.ok().headers(headers).body(countWithEntities.getT2());
+            });
+    }
+
+    /**
+     * {@code GET  /transactions} : stream a page of transactions as newline delimited JSON, as they are read from the database.
+     *
+     * @param cursor rejected, keyset pages are not streamed.
+     * @param pageable the pagination information.
+     * @return the transactions, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamAllTransactions(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Transactions");
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        return transactionService.findAll(pageable);
+    }
+
+    /**
+     * {@code GET  /transactions} : stream a page of transactions as server-sent events, as they are read from the database, then
+     * their total count in a {@code count} event.
+     *
+     * @param cursor rejected, keyset pages are not streamed.
+     * @param pageable the pagination information.
+     * @param count the count mode of the total count event: {@code exact} (default), {@code estimated} or {@code none}.
+     * @return the events, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamAllTransactionEvents(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CountMode.PARAMETER, required = false) String count
+    ) {
+        LOG.debug("REST request to stream a page of Transactions as events");
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        CountMode countMode = CountMode.fromParameter(count, ENTITY_NAME);
+        return StreamingUtil.toEvents(
+            transactionService.findAll(pageable),
+            StreamingUtil.count(countMode, transactionService.countAll(), transactionService.countEstimated())
+        );
+    }
+
+    /**
+     * {@code GET  /transactions?cursor=:cursor} : get a page of transactions with keyset pagination.
+     * <p>
+     * Instead of skipping rows with an offset, the query seeks to the position encoded in the cursor, so deep pages cost as much as
+     * the first one. The cursor of the next page is returned in the {@code X-Next-Cursor} header; no total count is computed.
+     *
+     * @param cursor the continuation token of the page, or an empty string for the first page.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of transactions in body.
+     */
+    @GetMapping(value = "", params = KeysetPaginationUtil.CURSOR_PARAMETER, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Transaction>>> getAllTransactionsByCursor(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Transactions after cursor {}", cursor);
+        Keyset keyset = KeysetPaginationUtil.parseCursor(cursor, pageable, ENTITY_NAME);
+        return Flux.defer(() -> transactionService.findAll(keyset))
+            .collectList()
+            .onErrorMap(InvalidCursorException.class, e -> KeysetPaginationUtil.invalidCursor(ENTITY_NAME))
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateCursorHttpHeaders(keyset, page)).body(page));
     }
 
     /**
@@ -203,6 +341,21 @@ public class TransactionResource {
         return ResponseUtil.wrapOrNotFound(transaction);
     }
 
+    /**
+     * {@code POST  /transactions/_mget} : get transactions by id.
+     * <p>
+     * The cached transactions are served from memory and the others read with one query per {@code application.batch-lookup.chunk-size}
+     * ids, so resolving many ids costs one request instead of one per id.
+     *
+     * @param ids the ids of the transactions, as a JSON array, up to {@code application.batch-lookup.max-ids}.
+     * @return the transactions in the order of the ids, the unknown ids being skipped, with status {@code 200 (OK)}.
+     */
+    @PostMapping(value = "/_mget", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Transaction>> multiGetTransactions(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to get Transactions : {}", ids);
+        return transactionService.findAllById(BatchLookupUtil.distinctIds(ids, maxBatchLookupIds, ENTITY_NAME)).collectList();
+    }
+
     /**
      * {@code DELETE  /transactions/:id} : delete the "id" transaction.
      *
@@ -225,29 +378,231 @@ public class TransactionResource {
 
     /**
      * {@code SEARCH  /transactions/_search?query=:query} : search for the transaction corresponding
-     * to the query.
+     * to the query and the criteria.
      *
-     * @param query the query of the transaction search.
+     * @param query the query of the transaction search, optional.
+     * @param criteria the criteria which the requested entities should match.
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the result of the search.
+     * @return the result of the search, with the total number of matching entities in the headers. Beyond
+     * {@code application.search.exact-count-limit} matching entities, the total is a lower bound flagged with the
+     * {@code X-Total-Count-Estimated} header.
      */
     @GetMapping("/_search")
     public Mono<ResponseEntity<Flux<Transaction>>> searchTransactions(
-        @RequestParam("query") String query,
+        @RequestParam(name = "query", required = false) String query,
+        TransactionCriteria criteria,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
         ServerHttpRequest request
     ) {
-        LOG.debug("REST request to search for a page of Transactions for query {}", query);
+        LOG.debug("REST request to search for a page of Transactions for query {} and criteria {}", query, criteria);
         return transactionService
-            .searchCount()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page ->
-                PaginationUtil.generatePaginationHttpHeaders(
+            .search(query, criteria, pageable, false)
+            .map(result -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(
                     ForwardedHeaderUtils.adaptFromForwardedHeaders(request.getURI(), request.getHeaders()),
-                    page
+                    new PageImpl<>(result.getHits(), pageable, result.getTotal())
+                );
+                if (!result.isTotalExact()) {
+                    headers.add(CountMode.ESTIMATED_HEADER, Boolean.TRUE.toString());
+                }
+                return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(result.getHits()));
+            });
+    }
+
+    /**
+     * {@code SEARCH  /transactions/_search?query=:query} : stream the transactions corresponding to the query and the criteria as
+     * newline delimited JSON.
+     *
+     * @param cursor rejected, search cursor pages are not streamed.
+     * @param query the query of the transaction search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the transactions, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamSearchTransactions(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        TransactionCriteria criteria,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Transactions for query {} and criteria {}", query, criteria);
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        return transactionService.search(query, criteria, pageable, false).flatMapIterable(SearchResult::getHits);
+    }
+
+    /**
+     * {@code SEARCH  /transactions/_search?query=:query} : stream the transactions corresponding to the query and the criteria as
+     * server-sent events, then the total number of matching entities in a {@code count} event. Beyond
+     * {@code application.search.exact-count-limit} matching entities, the total is a lower bound flagged as not exact.
+     *
+     * @param cursor rejected, search cursor pages are not streamed.
+     * @param query the query of the transaction search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the events, with status {@code 200 (OK)}.
+     */
+    @GetMapping(value = "/_search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamSearchTransactionEvents(
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        TransactionCriteria criteria,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to stream a page of Transactions as events for query {} and criteria {}", query, criteria);
+        StreamingUtil.checkNoCursor(cursor, ENTITY_NAME);
+        return transactionService
+            .search(query, criteria, pageable, false)
+            .flatMapMany(result ->
+                StreamingUtil.toEvents(
+                    Flux.fromIterable(result.getHits()),
+                    Mono.just(new StreamingUtil.Count(result.getTotal(), result.isTotalExact()))
                 )
+            );
+    }
+
+    /**
+     * {@code SEARCH  /transactions/_search?cursor=:cursor} : search for the transaction corresponding to the query and the
+     * criteria, walking a point in time of the index.
+     * <p>
+     * Deep pages cost as much as the first one and are not limited by the result window of the index. The cursor of the next
+     * page is returned in the {@code X-Next-Cursor} header; no total count nor facets are computed. The following pages must be
+     * requested with the same query and criteria.
+     *
+     * @param cursor the continuation token of the page, or an empty string for the first page.
+     * @param query the query of the transaction search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information, the sort is only used for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of transactions in body.
+     */
+    @GetMapping(value = "/_search", params = KeysetPaginationUtil.CURSOR_PARAMETER, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<Transaction>>> searchTransactionsByCursor(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAMETER) String cursor,
+        @RequestParam(name = "query", required = false) String query,
+        TransactionCriteria criteria,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for Transactions for query {} and criteria {} after cursor {}", query, criteria, cursor);
+        boolean scored = query != null && !query.isBlank();
+        SearchCursor searchCursor = KeysetPaginationUtil.parseSearchCursor(cursor, pageable, scored, ENTITY_NAME);
+        return transactionService
+            .search(query, criteria, searchCursor)
+            .onErrorMap(InvalidCursorException.class, e -> KeysetPaginationUtil.invalidCursor(ENTITY_NAME))
+            .map(page -> ResponseEntity.ok().headers(KeysetPaginationUtil.generateSearchCursorHttpHeaders(page)).body(page.hits()));
+    }
+
+    /**
+     * {@code POST  /transactions/_search?query=:query} : search for the transaction corresponding
+     * to the query and the criteria, with the facets of all the matching entities.
+     *
+     * @param query the query of the transaction search, optional.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the result of the search, with the total number of matching entities and the facets.
+     */
+    @PostMapping("/_search")
+    public Mono<SearchResult<Transaction>> facetedSearchTransactions(
+        @RequestParam(name = "query", required = false) String query,
+        @RequestBody TransactionCriteria criteria,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search for a faceted page of Transactions for query {} and criteria {}", query, criteria);
+        return transactionService.search(query, criteria, pageable, true);
+    }
+
+    /**
+     * {@code GET  /transactions/_export} : export the transactions as CSV, streamed from the database.
+     * <p>
+     * The transactions are sorted by id and read in pages, each with its own query, so the memory used does not depend on the
+     * size of the export. An interrupted export is resumed by requesting it again with the same filters and {@code after} set to the
+     * last exported id; the header row is only written when {@code after} is absent, so the parts can be concatenated.
+     *
+     * @param from the first transaction date, included, e.g. {@code 2024-01-01T00:00:00Z}.
+     * @param to the last transaction date, excluded.
+     * @param regionCd the region of the property.
+     * @param complexId the complex of the property.
+     * @param after the id of the last transaction already exported.
+     * @param response the response, whose buffers the rows are written into.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the CSV in body, or with status {@code 400 (Bad Request)}
+     * if the date range is empty.
+     */
+    @GetMapping(value = "/_export", produces = CsvUtil.TEXT_CSV_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> exportTransactions(
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = "regionCd", required = false) String regionCd,
+        @RequestParam(name = "complexId", required = false) Long complexId,
+        @RequestParam(name = "after", required = false) Long after,
+        ServerHttpResponse response
+    ) {
+        LOG.debug(
+            "REST request to export Transactions from {} to {} of region {} and complex {} after {}",
+            from,
+            to,
+            regionCd,
+            complexId,
+            after
+        );
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestAlertException("The date range of the export is empty", ENTITY_NAME, "rangeinvalid");
+        }
+        Flux<DataBuffer> body = CsvUtil.write(
+            transactionService.export(new TransactionExportFilter(from, to, regionCd, complexId, after)),
+            after == null ? EXPORT_HEADER : null,
+            TransactionResource::toExportColumns,
+            response.bufferFactory()
+        );
+        return ResponseEntity.ok()
+            .contentType(CsvUtil.TEXT_CSV_UTF8)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("transactions.csv").build().toString())
+            .body(body);
+    }
+
+    /**
+     * {@code POST  /transactions/_import?name=:name} : upload a trade file and import it in the background.
+     * <p>
+     * The file is stored in the import directory, then imported with its complexes and properties, see {@link ImportService}. The
+     * progress of the import is followed, and an interrupted import resumed, with the {@code import} management endpoint.
+     *
+     * @param name the name of the file, of letters, digits, {@code .}, {@code _} and {@code -}.
+     * @param contentType the content type, whose charset is the one of the file if present.
+     * @param content the CSV file.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and the progress of the started import in body, or
+     * with status {@code 400 (Bad Request)} if the name is invalid or taken, or the file has no header naming the required columns.
+     */
+    @PostMapping(value = "/_import", consumes = CsvUtil.TEXT_CSV_VALUE)
+    public Mono<ResponseEntity<ImportProgress>> importTransactions(
+        @RequestParam(name = "name") String name,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        @RequestBody Flux<DataBuffer> content
+    ) {
+        LOG.debug("REST request to import Transactions from {}", name);
+        Charset charset = contentType.getCharset();
+        return importService
+            .upload(name, charset != null ? charset.name() : null, content)
+            .onErrorMap(
+                e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException,
+                e -> new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "importinvalid")
             )
-            .map(headers -> ResponseEntity.ok().headers(headers).body(transactionService.search(query, pageable)));
+            .map(progress -> ResponseEntity.accepted().body(progress));
+    }
+
+    private static Object[] toExportColumns(TransactionExportRow row) {
+        Transaction transaction = row.transaction();
+        return new Object[] {
+            transaction.getId(),
+            transaction.getPropertyId(),
+            row.complexId(),
+            row.regionCd(),
+            transaction.getTransactionType(),
+            transaction.getPrice(),
+            transaction.getTransactionDate(),
+            transaction.getBuyer(),
+            transaction.getSeller(),
+            transaction.getAgent(),
+            transaction.getCreatedAt(),
+            transaction.getUpdatedAt(),
+        };
     }
 }
@@ -0,0 +1,30 @@
+package com.dnc.mprs.propservice.web.util;
+
+import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utility class for the lookups of many entities by id in one request, such as the {@code _mget} endpoints.
+ */
+public final class BatchLookupUtil {
+
+    private BatchLookupUtil() {}
+
+    /**
+     * Checks the ids of a lookup.
+     *
+     * @param ids the requested ids.
+     * @param maxIds the maximum number of distinct ids.
+     * @param entityName the name of the entity, for the error message.
+     * @return the distinct ids, in the order of their first occurrence.
+     * @throws BadRequestAlertException if there is no id, or more than the maximum.
+     */
+    public static List<Long> distinctIds(List<Long> ids, int maxIds, String entityName) {
+        List<Long> distinctIds = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty() || distinctIds.size() > maxIds) {
+            throw new BadRequestAlertException("Between 1 and " + maxIds + " ids are required", entityName, "idsinvalid");
+        }
+        return distinctIds;
+    }
+}
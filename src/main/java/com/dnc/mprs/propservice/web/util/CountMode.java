@@ -0,0 +1,47 @@
+package com.dnc.mprs.propservice.web.util;
+
+import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import java.util.Locale;
+
+/**
+ * How the total count of a paginated list response is computed, selected with the {@value #PARAMETER} request parameter.
+ */
+public enum CountMode {
+    /**
+     * Exact count, kept in memory by the service. This is the default.
+     */
+    EXACT,
+
+    /**
+     * Approximate count read from the database table statistics, flagged with the {@value #ESTIMATED_HEADER} response header.
+     */
+    ESTIMATED,
+
+    /**
+     * No count, the {@code X-Total-Count} and {@code Link} headers, or the count event of a streamed list, are omitted.
+     */
+    NONE;
+
+    public static final String PARAMETER = "count";
+
+    public static final String ESTIMATED_HEADER = "X-Total-Count-Estimated";
+
+    /**
+     * Resolves the requested count mode.
+     *
+     * @param value the value of the request parameter, {@link #EXACT} if absent.
+     * @param entityName the name of the entity, for the error message.
+     * @return the count mode.
+     * @throws BadRequestAlertException if the value is not a count mode.
+     */
+    public static CountMode fromParameter(String value, String entityName) {
+        if (value == null || value.isEmpty()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode", entityName, "countmodeinvalid");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.dnc.mprs.propservice.web.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for writing CSV responses (RFC 4180, UTF-8, CRLF line breaks) straight into the buffers of the response,
+ * one buffer per batch of rows, without building the rows as strings first.
+ * <p>
+ * Text fields starting with {@code =}, {@code +}, {@code -} or {@code @} are prefixed with {@code '}, so spreadsheets opening
+ * the file show them as text instead of evaluating them as formulas.
+ */
+public final class CsvUtil {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static final MediaType TEXT_CSV_UTF8 = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final int ESTIMATED_ROW_SIZE = 160;
+
+    private static final byte[] LINE_BREAK = { '\r', '\n' };
+
+    private CsvUtil() {}
+
+    /**
+     * Encodes batches of rows, each into its own buffer.
+     *
+     * @param batches the rows, in batches.
+     * @param header the names of the columns, written first, or {@code null} to omit the header row.
+     * @param columns the values of the columns of a row: {@code null} is written as an empty field, a {@link BigDecimal} in
+     * plain notation, any other value with {@code toString()}, escaped as text unless it is a {@link Number}.
+     * @param bufferFactory the factory of the response buffers.
+     * @param <T> the type of the rows.
+     * @return the buffers, released if discarded.
+     */
+    public static <T> Flux<DataBuffer> write(
+        Flux<List<T>> batches,
+        String[] header,
+        Function<T, Object[]> columns,
+        DataBufferFactory bufferFactory
+    ) {
+        Flux<DataBuffer> rows = batches.map(batch -> {
+            DataBuffer buffer = bufferFactory.allocateBuffer(batch.size() * ESTIMATED_ROW_SIZE);
+            try {
+                for (T row : batch) {
+                    writeRow(buffer, columns.apply(row));
+                }
+                return buffer;
+            } catch (RuntimeException e) {
+                DataBufferUtils.release(buffer);
+                throw e;
+            }
+        });
+        if (header != null) {
+            rows = Flux.concat(
+                Mono.fromSupplier(() -> {
+                    DataBuffer buffer = bufferFactory.allocateBuffer(ESTIMATED_ROW_SIZE);
+                    writeRow(buffer, header);
+                    return buffer;
+                }),
+                rows
+            );
+        }
+        return rows.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private static void writeRow(DataBuffer buffer, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.write((byte) ',');
+            }
+            if (values[i] instanceof BigDecimal decimal) {
+                writeField(buffer, decimal.toPlainString());
+            } else if (values[i] instanceof Number number) {
+                writeField(buffer, number.toString());
+            } else if (values[i] != null) {
+                writeField(buffer, escapeFormula(values[i].toString()));
+            }
+        }
+        buffer.write(LINE_BREAK);
+    }
+
+    private static String escapeFormula(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' ? "'" + value : value;
+    }
+
+    private static void writeField(DataBuffer buffer, String value) {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quoted) {
+            buffer.write(value, StandardCharsets.UTF_8);
+            return;
+        }
+        buffer.write((byte) '"');
+        buffer.write(value.replace("\"", "\"\""), StandardCharsets.UTF_8);
+        buffer.write((byte) '"');
+    }
+}
@@ -0,0 +1,97 @@
+package com.dnc.mprs.propservice.web.util;
+
+import com.dnc.mprs.propservice.repository.Keyset;
+import com.dnc.mprs.propservice.repository.search.SearchCursor;
+import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class for handling keyset (cursor based) pagination.
+ * <p>
+ * The client sends an empty {@code cursor} request parameter to get the first page, and the value of the
+ * {@value #NEXT_CURSOR_HEADER} response header to get the following ones. The header is absent on the last page.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Resolves the keyset of the requested page.
+     *
+     * @param cursor the continuation token, or an empty string for the first page.
+     * @param pageable the pagination information, only the page size and - for the first page - the sort are used.
+     * @param entityName the name of the entity, for the error message.
+     * @return the keyset of the requested page.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static Keyset parseCursor(String cursor, Pageable pageable, String entityName) {
+        try {
+            return cursor == null || cursor.isEmpty()
+                ? Keyset.first(pageable.getSort(), pageable.getPageSize())
+                : Keyset.decode(cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(entityName);
+        }
+    }
+
+    /**
+     * Generate the headers for keyset pagination.
+     *
+     * @param keyset the keyset of the current page.
+     * @param page the rows of the current page.
+     * @return the headers, with the continuation token of the next page if there is one.
+     */
+    public static HttpHeaders generateCursorHttpHeaders(Keyset keyset, List<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        keyset.next(page).ifPresent(next -> headers.add(NEXT_CURSOR_HEADER, next.encode()));
+        return headers;
+    }
+
+    /**
+     * Resolves the search cursor of the requested page.
+     *
+     * @param cursor the continuation token, or an empty string for the first page.
+     * @param pageable the pagination information, only the page size and - for the first page - the sort are used.
+     * @param scored whether the search has a query string, to sort the first page by score by default.
+     * @param entityName the name of the entity, for the error message.
+     * @return the search cursor of the requested page.
+     * @throws BadRequestAlertException if the cursor is malformed.
+     */
+    public static SearchCursor parseSearchCursor(String cursor, Pageable pageable, boolean scored, String entityName) {
+        try {
+            return cursor == null || cursor.isEmpty()
+                ? SearchCursor.first(pageable.getSort(), pageable.getPageSize(), scored)
+                : SearchCursor.decode(cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(entityName);
+        }
+    }
+
+    /**
+     * Generate the headers for search cursor pagination.
+     *
+     * @param page the current page of hits.
+     * @return the headers, with the continuation token of the next page if there is one.
+     */
+    public static HttpHeaders generateSearchCursorHttpHeaders(SearchCursor.Page<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.next() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.next().encode());
+        }
+        return headers;
+    }
+
+    /**
+     * @param entityName the name of the entity.
+     * @return the exception to signal an invalid cursor or an unsupported sort.
+     */
+    public static BadRequestAlertException invalidCursor(String entityName) {
+        return new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+    }
+}
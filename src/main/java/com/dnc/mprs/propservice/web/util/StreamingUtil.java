@@ -0,0 +1,75 @@
+package com.dnc.mprs.propservice.web.util;
+
+import com.dnc.mprs.propservice.web.rest.errors.BadRequestAlertException;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for streaming list responses as newline delimited JSON ({@code application/x-ndjson}) or server-sent events
+ * ({@code text/event-stream}).
+ * <p>
+ * The entities are written as they are read, with backpressure, instead of being collected into a list first: the first bytes
+ * leave as soon as the first row is read and the page is never held in memory. The headers leaving with the first row, no total
+ * count header is sent: an event stream ends with a {@value #COUNT_EVENT} event carrying the total, a newline delimited JSON
+ * stream carries the entities only.
+ */
+public final class StreamingUtil {
+
+    public static final String COUNT_EVENT = "count";
+
+    private StreamingUtil() {}
+
+    /**
+     * The total count of a streamed list, the data of the {@value #COUNT_EVENT} event.
+     *
+     * @param total the total number of entities.
+     * @param exact {@code false} if the total is estimated, or is a lower bound of the entities matching a search.
+     */
+    public record Count(long total, boolean exact) {}
+
+    /**
+     * Resolves the total count sent after the entities.
+     *
+     * @param countMode the requested count mode.
+     * @param exact the exact count, subscribed in {@link CountMode#EXACT} mode only.
+     * @param estimated the estimated count, subscribed in {@link CountMode#ESTIMATED} mode only.
+     * @return the total count, empty in {@link CountMode#NONE} mode.
+     */
+    public static Mono<Count> count(CountMode countMode, Mono<Long> exact, Mono<Long> estimated) {
+        return switch (countMode) {
+            case EXACT -> exact.map(total -> new Count(total, true));
+            case ESTIMATED -> estimated.map(total -> new Count(total, false));
+            case NONE -> Mono.empty();
+        };
+    }
+
+    /**
+     * Streams entities as server-sent events, followed by their total count once they are all sent. The count is only requested
+     * then, so it does not delay the first entity.
+     *
+     * @param entities the entities, each sent as the data of an unnamed event.
+     * @param count the total count, sent as the data of a {@value #COUNT_EVENT} event if not empty.
+     * @param <T> the type of the entities.
+     * @return the events.
+     */
+    public static <T> Flux<ServerSentEvent<Object>> toEvents(Flux<T> entities, Mono<Count> count) {
+        return Flux.concat(
+            entities.map(entity -> ServerSentEvent.<Object>builder(entity).build()),
+            count.map(total -> ServerSentEvent.<Object>builder(total).event(COUNT_EVENT).build())
+        );
+    }
+
+    /**
+     * Rejects the cursor parameter on a streamed list, the cursor of the next page being sent in a header.
+     *
+     * @param cursor the value of the {@value KeysetPaginationUtil#CURSOR_PARAMETER} request parameter, if any.
+     * @param entityName the name of the entity, for the error message.
+     * @throws BadRequestAlertException if a cursor was sent.
+     */
+    public static void checkNoCursor(String cursor, String entityName) {
+        if (cursor != null) {
+            throw new BadRequestAlertException("Keyset pages cannot be streamed", entityName, "cursornotstreamed");
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Rest layer utilities.
+ */
+package com.dnc.mprs.propservice.web.util;
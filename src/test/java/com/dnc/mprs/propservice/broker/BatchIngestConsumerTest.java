@@ -0,0 +1,73 @@
+package com.dnc.mprs.propservice.broker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import reactor.core.publisher.Mono;
+
+class BatchIngestConsumerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void writesBatchAndRecordsMetrics() {
+        List<String> written = new ArrayList<>();
+        BatchIngestConsumer consumer = new BatchIngestConsumer(
+            "test",
+            records -> {
+                written.addAll(records);
+                return Mono.just(1L);
+            },
+            Duration.ofSeconds(1),
+            meterRegistry
+        );
+
+        long now = System.currentTimeMillis();
+        consumer.accept(
+            MessageBuilder.withPayload(List.of("a", "b", "c")).setHeader(KafkaHeaders.RECEIVED_TIMESTAMP, List.of(now, now, now)).build()
+        );
+
+        assertThat(written).containsExactly("a", "b", "c");
+        assertThat(meterRegistry.get("ingest.batch.size").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("ingest.batch.latency").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ingest.record.delay").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("ingest.records.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void propagatesWriteFailure() {
+        BatchIngestConsumer consumer = new BatchIngestConsumer(
+            "test",
+            records -> Mono.error(new IllegalStateException("database down")),
+            Duration.ofSeconds(1),
+            meterRegistry
+        );
+
+        assertThatThrownBy(() -> consumer.accept(MessageBuilder.withPayload(List.of("a")).build()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("database down");
+        assertThat(meterRegistry.get("ingest.records.rejected").counter().count()).isZero();
+    }
+
+    @Test
+    void failsWhenWriteTimesOut() {
+        BatchIngestConsumer consumer = new BatchIngestConsumer("test", records -> Mono.never(), Duration.ofMillis(50), meterRegistry);
+
+        assertThatThrownBy(() -> consumer.accept(MessageBuilder.withPayload(List.of("a")).build())).isInstanceOf(
+            IllegalStateException.class
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package com.dnc.mprs.propservice.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+/**
+ * Test class for the {@link KafkaIngestConfiguration}.
+ */
+class KafkaIngestConfigurationTest {
+
+    private ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> customizer;
+
+    @BeforeEach
+    void setUp() {
+        BindingServiceProperties bindingServiceProperties = mock(BindingServiceProperties.class);
+        when(bindingServiceProperties.getBindingDestination(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bindingServiceProperties.getBindingDestination("propertyIngest-in-0")).thenReturn("property-ingest");
+        when(bindingServiceProperties.getBindingDestination("transactionIngest-in-0")).thenReturn("transaction-ingest");
+        customizer = new KafkaIngestConfiguration().ingestErrorHandlerCustomizer(new ApplicationProperties(), bindingServiceProperties);
+    }
+
+    @Test
+    void ingestContainersRetryFailedBatches() {
+        AbstractMessageListenerContainer<?, ?> propertyContainer = mock(AbstractMessageListenerContainer.class);
+        AbstractMessageListenerContainer<?, ?> transactionContainer = mock(AbstractMessageListenerContainer.class);
+
+        customizer.configure(propertyContainer, "property-ingest", "propservice");
+        customizer.configure(transactionContainer, "transaction-ingest", "propservice");
+
+        verify(propertyContainer).setCommonErrorHandler(any(DefaultErrorHandler.class));
+        verify(transactionContainer).setCommonErrorHandler(any(DefaultErrorHandler.class));
+    }
+
+    @Test
+    void otherContainersKeepTheDefaultErrorHandler() {
+        AbstractMessageListenerContainer<?, ?> invalidationContainer = mock(AbstractMessageListenerContainer.class);
+
+        customizer.configure(invalidationContainer, "cache-invalidation", null);
+
+        verify(invalidationContainer, never()).setCommonErrorHandler(any());
+    }
+}
@@ -53,6 +53,8 @@ public class ComplexAsserts {
             .satisfies(e -> assertThat(e.getCity()).as("check city").isEqualTo(actual.getCity()))
             .satisfies(e -> assertThat(e.getTown()).as("check town").isEqualTo(actual.getTown()))
             .satisfies(e -> assertThat(e.getAddressCode()).as("check addressCode").isEqualTo(actual.getAddressCode()))
+            .satisfies(e -> assertThat(e.getLatitude()).as("check latitude").isEqualTo(actual.getLatitude()))
+            .satisfies(e -> assertThat(e.getLongitude()).as("check longitude").isEqualTo(actual.getLongitude()))
             .satisfies(e -> assertThat(e.getCreatedAt()).as("check createdAt").isEqualTo(actual.getCreatedAt()))
             .satisfies(e -> assertThat(e.getUpdatedAt()).as("check updatedAt").isEqualTo(actual.getUpdatedAt()));
     }
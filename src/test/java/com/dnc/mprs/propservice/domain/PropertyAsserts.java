@@ -60,6 +60,8 @@ public class PropertyAsserts {
             .satisfies(e -> assertThat(e.getBuildYear()).as("check buildYear").isEqualTo(actual.getBuildYear()))
             .satisfies(e -> assertThat(e.getParkingYn()).as("check parkingYn").isEqualTo(actual.getParkingYn()))
             .satisfies(e -> assertThat(e.getDescription()).as("check description").isEqualTo(actual.getDescription()))
+            .satisfies(e -> assertThat(e.getLatitude()).as("check latitude").isEqualTo(actual.getLatitude()))
+            .satisfies(e -> assertThat(e.getLongitude()).as("check longitude").isEqualTo(actual.getLongitude()))
             .satisfies(e -> assertThat(e.getCreatedAt()).as("check createdAt").isEqualTo(actual.getCreatedAt()))
             .satisfies(e -> assertThat(e.getUpdatedAt()).as("check updatedAt").isEqualTo(actual.getUpdatedAt()));
     }
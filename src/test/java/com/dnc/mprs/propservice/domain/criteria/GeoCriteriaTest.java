@@ -0,0 +1,131 @@
+package com.dnc.mprs.propservice.domain.criteria;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the validation of the {@link GeoCriteria}.
+ */
+class GeoCriteriaTest {
+
+    private static final Sort BY_DISTANCE = Sort.by(GeoCriteria.DISTANCE_SORT);
+
+    private static GeoCriteria center() {
+        GeoCriteria geo = new GeoCriteria();
+        geo.setLatitude(37.5547);
+        geo.setLongitude(126.9707);
+        return geo;
+    }
+
+    private static GeoCriteria box(double north, double south, double west, double east) {
+        GeoCriteria geo = new GeoCriteria();
+        geo.setNorth(north);
+        geo.setSouth(south);
+        geo.setWest(west);
+        geo.setEast(east);
+        return geo;
+    }
+
+    private static GeoCriteria polygon(Double... latitudesAndLongitudes) {
+        GeoCriteria geo = new GeoCriteria();
+        geo.setPolygon(List.of(latitudesAndLongitudes));
+        return geo;
+    }
+
+    private static GeoCriteria geohashPrecision(int precision) {
+        GeoCriteria geo = new GeoCriteria();
+        geo.setGeohashPrecision(precision);
+        return geo;
+    }
+
+    @Test
+    void emptyCriteriaAreValid() {
+        assertThat(new GeoCriteria().isValid(Sort.unsorted())).isTrue();
+    }
+
+    @Test
+    void centerWithDistanceIsValid() {
+        GeoCriteria geo = center();
+        geo.setDistance("1.5km");
+
+        assertThat(geo.isValid(BY_DISTANCE)).isTrue();
+    }
+
+    @Test
+    void rejectsIncompleteOrOutOfRangeCenter() {
+        GeoCriteria latitudeOnly = new GeoCriteria();
+        latitudeOnly.setLatitude(37.5547);
+        GeoCriteria outOfRange = center();
+        outOfRange.setLatitude(91.0);
+
+        assertThat(latitudeOnly.isValid(Sort.unsorted())).isFalse();
+        assertThat(outOfRange.isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void rejectsDistanceWithoutCenterOrUnit() {
+        GeoCriteria withoutCenter = new GeoCriteria();
+        withoutCenter.setDistance("1km");
+        GeoCriteria unknownUnit = center();
+        unknownUnit.setDistance("1 league");
+
+        assertThat(withoutCenter.isValid(Sort.unsorted())).isFalse();
+        assertThat(unknownUnit.isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void rejectsSortByDistanceWithoutCenter() {
+        assertThat(new GeoCriteria().isValid(BY_DISTANCE)).isFalse();
+    }
+
+    @Test
+    void boundingBoxIsValid() {
+        assertThat(box(37.56, 37.55, 126.96, 126.98).isValid(Sort.unsorted())).isTrue();
+    }
+
+    @Test
+    void rejectsBoundingBoxWithNorthBelowSouth() {
+        assertThat(box(37.55, 37.56, 126.96, 126.98).isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void rejectsIncompleteOrOutOfRangeBoundingBox() {
+        GeoCriteria withoutEast = box(37.56, 37.55, 126.96, 126.98);
+        withoutEast.setEast(null);
+
+        assertThat(withoutEast.isValid(Sort.unsorted())).isFalse();
+        assertThat(box(91, 37.55, 126.96, 126.98).isValid(Sort.unsorted())).isFalse();
+        assertThat(box(37.56, 37.55, -181, 126.98).isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void polygonIsValid() {
+        assertThat(polygon(37.56, 126.96, 37.56, 126.98, 37.55, 126.97).isValid(Sort.unsorted())).isTrue();
+    }
+
+    @Test
+    void rejectsPolygonWithLessThanThreeVertices() {
+        assertThat(polygon(37.56, 126.96, 37.56, 126.98).isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void rejectsPolygonWithOddNumberOfCoordinates() {
+        assertThat(polygon(37.56, 126.96, 37.56, 126.98, 37.55, 126.97, 37.54).isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void rejectsPolygonOutOfRange() {
+        assertThat(polygon(37.56, 126.96, 37.56, 186.98, 37.55, 126.97).isValid(Sort.unsorted())).isFalse();
+    }
+
+    @Test
+    void geohashPrecisionIsBetweenOneAndTwelve() {
+        assertThat(geohashPrecision(1).isValid(Sort.unsorted())).isTrue();
+        assertThat(geohashPrecision(12).isValid(Sort.unsorted())).isTrue();
+        assertThat(geohashPrecision(0).isValid(Sort.unsorted())).isFalse();
+        assertThat(geohashPrecision(13).isValid(Sort.unsorted())).isFalse();
+    }
+}
@@ -0,0 +1,113 @@
+package com.dnc.mprs.propservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.service.ComplexService;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the {@link ComplexDimension}, with the cache enabled.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.cache.enabled=true")
+class ComplexDimensionIT {
+
+    @Autowired
+    private ComplexRepository complexRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private ComplexService complexService;
+
+    @Autowired
+    private ComplexDimension complexDimension;
+
+    @Autowired
+    private EntityManager em;
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Property.class).block();
+        em.deleteAll(Complex.class).block();
+        complexDimension.clear();
+    }
+
+    private Complex saveComplex(String complexName) {
+        return complexRepository
+            .save(
+                new Complex()
+                    .complexName(complexName)
+                    .state("Seoul")
+                    .city("Seoul")
+                    .town("Town")
+                    .addressCode("1111010000")
+                    .createdAt(Instant.EPOCH)
+                    .updatedAt(Instant.EPOCH)
+            )
+            .block();
+    }
+
+    private List<Long> saveProperties(List<Complex> complexes, int count) {
+        return Flux.range(0, count)
+            .concatMap(i -> {
+                Property property = new Property()
+                    .address(i + " Dimension-ro")
+                    .type("APT")
+                    .area(BigDecimal.TEN)
+                    .rooms(3)
+                    .bathrooms(2)
+                    .buildYear(2000)
+                    .createdAt(Instant.EPOCH)
+                    .updatedAt(Instant.EPOCH);
+                property.setComplexId(i < complexes.size() * 2 ? complexes.get(i % complexes.size()).getId() : null);
+                return propertyRepository.save(property);
+            })
+            .map(Property::getId)
+            .collectList()
+            .block();
+    }
+
+    @Test
+    void complexesAreAttachedToTheProperties() {
+        assertThat(complexDimension.isEnabled()).isTrue();
+        List<Complex> complexes = List.of(saveComplex("Complex 0"), saveComplex("Complex 1"), saveComplex("Complex 2"));
+        List<Long> ids = saveProperties(complexes, ComplexDimension.ATTACH_BATCH_SIZE + 10);
+
+        List<Property> properties = propertyRepository.findAllByIdIn(ids).collectList().block();
+
+        assertThat(properties).hasSize(ids.size());
+        assertThat(properties).allSatisfy(property -> {
+            if (property.getComplexId() == null) {
+                assertThat(property.getComplex()).isNull();
+            } else {
+                assertThat(property.getComplex().getId()).isEqualTo(property.getComplexId());
+            }
+        });
+        assertThat(properties).filteredOn(property -> property.getComplex() != null).hasSize(complexes.size() * 2);
+        assertThat(propertyRepository.findById(ids.get(0)).block().getComplex().getComplexName()).isEqualTo("Complex 0");
+    }
+
+    @Test
+    void updatedComplexIsAttachedAgain() {
+        Complex complex = saveComplex("Before");
+        Long propertyId = saveProperties(List.of(complex), 1).get(0);
+        assertThat(propertyRepository.findById(propertyId).block().getComplex().getComplexName()).isEqualTo("Before");
+
+        complexService.update(complexRepository.findById(complex.getId()).block().complexName("After")).block();
+
+        assertThat(propertyRepository.findById(propertyId).block().getComplex().getComplexName()).isEqualTo("After");
+        assertThat(propertyRepository.findAllByIdIn(List.of(propertyId)).blockFirst().getComplex().getComplexName()).isEqualTo("After");
+    }
+}
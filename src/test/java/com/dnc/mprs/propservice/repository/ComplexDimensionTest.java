@@ -0,0 +1,130 @@
+package com.dnc.mprs.propservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link ComplexDimension}.
+ */
+class ComplexDimensionTest {
+
+    private ComplexRepository complexRepository;
+
+    private ComplexDimension complexDimension;
+
+    @BeforeEach
+    void setUp() {
+        complexRepository = mock(ComplexRepository.class);
+        when(complexRepository.findAllByIdIn(anyCollection())).thenAnswer(invocation ->
+            Flux.fromIterable(invocation.<Collection<Long>>getArgument(0)).map(ComplexDimensionTest::complex)
+        );
+        complexDimension = new ComplexDimension(complexRepository, new ApplicationProperties());
+    }
+
+    private static Complex complex(Long id) {
+        return new Complex().complexName("complex-" + id).id(id);
+    }
+
+    private static Property property(Long complexId) {
+        Property property = new Property();
+        property.setComplexId(complexId);
+        return property;
+    }
+
+    private Complex attach(Long complexId) {
+        return complexDimension.attach(property(complexId)).block().getComplex();
+    }
+
+    @Test
+    void preloadedComplexIsAttachedFromMemory() {
+        when(complexRepository.findAll()).thenReturn(Flux.just(complex(1L), complex(2L)));
+        complexDimension.preload();
+
+        assertThat(attach(2L).getComplexName()).isEqualTo("complex-2");
+        verify(complexRepository, times(0)).findAllByIdIn(anyCollection());
+    }
+
+    @Test
+    void missingComplexIsLoadedOnce() {
+        assertThat(attach(1L).getComplexName()).isEqualTo("complex-1");
+        assertThat(attach(1L).getComplexName()).isEqualTo("complex-1");
+        verify(complexRepository, times(1)).findAllByIdIn(Set.of(1L));
+    }
+
+    @Test
+    void propertyWithoutComplexIsUnchanged() {
+        assertThat(attach(null)).isNull();
+    }
+
+    @Test
+    void evictedComplexIsLoadedAgain() {
+        attach(1L);
+        complexDimension.evict(1L);
+        attach(1L);
+        verify(complexRepository, times(2)).findAllByIdIn(Set.of(1L));
+    }
+
+    @Test
+    void missingComplexesOfABatchAreLoadedWithOneQuery() {
+        List<Property> properties = LongStream.range(0, ComplexDimension.ATTACH_BATCH_SIZE)
+            .mapToObj(i -> property(i % 3 + 1))
+            .toList();
+
+        List<Property> attached = complexDimension.attachAll(Flux.fromIterable(properties)).collectList().block();
+
+        assertThat(attached).containsExactlyElementsOf(properties);
+        assertThat(attached).allSatisfy(property ->
+            assertThat(property.getComplex().getComplexName()).isEqualTo("complex-" + property.getComplexId())
+        );
+        verify(complexRepository, times(1)).findAllByIdIn(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void preloadRacingWithEvictionKeepsTheOtherComplexes() {
+        Sinks.One<List<Complex>> pending = Sinks.one();
+        when(complexRepository.findAll()).thenReturn(pending.asMono().flatMapIterable(complexes -> complexes));
+        complexDimension.preload();
+
+        complexDimension.evict(1L);
+        pending.tryEmitValue(List.of(complex(1L), complex(2L)));
+
+        attach(1L);
+        attach(2L);
+        verify(complexRepository, times(1)).findAllByIdIn(Set.of(1L));
+        verify(complexRepository, times(0)).findAllByIdIn(Set.of(2L));
+    }
+
+    @Test
+    void loadRacingWithEvictionIsNotStored() {
+        Sinks.One<Complex> pending = Sinks.one();
+        when(complexRepository.findAllByIdIn(Set.of(1L))).thenReturn(pending.asMono().flux());
+        Mono<Property> attached = complexDimension.attach(property(1L));
+        Sinks.One<Property> result = Sinks.one();
+        attached.subscribe(result::tryEmitValue);
+
+        complexDimension.evict(1L);
+        pending.tryEmitValue(complex(1L));
+
+        assertThat(result.asMono().block().getComplex()).isNotNull();
+        when(complexRepository.findAllByIdIn(Set.of(1L))).thenReturn(Flux.just(complex(1L)));
+        attach(1L);
+        verify(complexRepository, times(2)).findAllByIdIn(Set.of(1L));
+    }
+}
@@ -0,0 +1,75 @@
+package com.dnc.mprs.propservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.dnc.mprs.propservice.domain.Transaction;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link Keyset} continuation tokens.
+ */
+class KeysetTest {
+
+    @Test
+    void firstPageDefaultsToIdOrder() {
+        Keyset keyset = Keyset.first(Sort.unsorted(), 20);
+
+        assertThat(keyset.isPositioned()).isFalse();
+        assertThat(keyset.isSortedById()).isTrue();
+        assertThat(keyset.getSort()).isEqualTo(Sort.by(Sort.Order.asc("id")));
+    }
+
+    @Test
+    void sortIncludesIdTiebreaker() {
+        Keyset keyset = Keyset.first(Sort.by(Sort.Order.desc("transactionDate")), 20);
+
+        assertThat(keyset.getSort()).containsExactly(Sort.Order.desc("transactionDate"), Sort.Order.desc("id"));
+    }
+
+    @Test
+    void nextPageRoundTripsThroughToken() {
+        Keyset keyset = Keyset.first(Sort.by(Sort.Order.desc("transactionDate")), 2);
+        Instant date = Instant.parse("2024-05-01T10:15:30Z");
+        List<Transaction> page = List.of(new Transaction().id(2L), new Transaction().id(1L).transactionDate(date));
+
+        Keyset next = keyset.next(page).orElseThrow();
+        Keyset decoded = Keyset.decode(next.encode(), 2);
+
+        assertThat(decoded).isEqualTo(next);
+        assertThat(decoded.getLastId()).isEqualTo(1L);
+        assertThat(decoded.getLastValue()).isEqualTo(date);
+        assertThat(decoded.getOrder()).isEqualTo(Sort.Order.desc("transactionDate"));
+    }
+
+    @Test
+    void nullSortKeyRoundTrips() {
+        Keyset keyset = Keyset.first(Sort.by("buyer"), 1);
+
+        Keyset next = keyset.next(List.of(new Transaction().id(7L))).orElseThrow();
+
+        assertThat(Keyset.decode(next.encode(), 1).getLastValue()).isNull();
+    }
+
+    @Test
+    void shortPageIsTheLastOne() {
+        Keyset keyset = Keyset.first(Sort.unsorted(), 20);
+
+        assertThat(keyset.next(List.of(new Transaction().id(1L)))).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThatExceptionOfType(InvalidCursorException.class).isThrownBy(() -> Keyset.decode("not a token", 20));
+        assertThatExceptionOfType(InvalidCursorException.class).isThrownBy(() -> Keyset.decode("bm90fGVub3VnaA", 20));
+    }
+
+    @Test
+    void rejectsNestedSortProperty() {
+        assertThatIllegalArgumentException().isThrownBy(() -> Keyset.first(Sort.by("complex.complexName"), 20));
+    }
+}
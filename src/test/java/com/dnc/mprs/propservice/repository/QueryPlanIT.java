@@ -0,0 +1,616 @@
+package com.dnc.mprs.propservice.repository;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Query plan regression tests of the repository queries.
+ * <p>
+ * A dataset of the size the optimizer sees in production is seeded once - 500 complexes, 20,000 properties and 100,000
+ * transactions over ten years, with their monthly rollups - and the {@code EXPLAIN} plan of every read query of the
+ * repositories is checked for the indexes it must use, so that a dropped index or a rewritten query falling back to a full
+ * scan fails the build. Every case calls a repository method: the connection factory is wrapped so that the statements sent
+ * on the connections of the call are captured with their bindings, and the last one is explained with the same bindings. A
+ * new repository query gets its case here. The queries of the outbox and of the reindex and import jobs are left out: their
+ * tables hold a handful of rows, whose plans say nothing about the indexes.
+ */
+@IntegrationTest
+@Import(QueryPlanIT.StatementCaptureConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIT {
+
+    private static final String FULL_SCAN = "ALL";
+
+    private static final Instant SINCE = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final Instant TO = Instant.parse("2024-02-01T00:00:00Z");
+
+    private static final Instant DATE = Instant.parse("2020-01-01T00:00:00Z");
+
+    private static final String SEED_COMPLEXES =
+        "INSERT INTO complex (id, complex_name, state, county, city, town, address_code, created_at, updated_at)" +
+        " WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 500)" +
+        " SELECT 1000000 + n, CONCAT('Plan Complex ', n), 'Seoul', 'Gangnam-gu', 'Seoul', CONCAT('Town ', n % 50)," +
+        " CAST(1111010000 + n % 250 AS CHAR), TIMESTAMP '2020-01-01 00:00:00'," +
+        " IF(n % 100 = 0, TIMESTAMP '2026-01-01 00:00:00', TIMESTAMP '2020-01-01 00:00:00') FROM seq";
+
+    private static final String SEED_PROPERTIES =
+        "INSERT INTO property (id, address, region_cd, local_name, street, floor, type, area, rooms, bathrooms, build_year," +
+        " parking_yn, created_at, updated_at, complex_id)" +
+        " WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < 999)" +
+        " SELECT 2000001 + s.n, CONCAT(s.n, ' Plan-ro'), CAST(1111010000 + s.n % 25 AS CHAR), 'Plan-dong', 'Plan-ro'," +
+        " s.n % 30, ELT(s.n % 4 + 1, 'APT', 'VILLA', 'OFFICETEL', 'HOUSE'), 59.5 + s.n % 50, 3, 2, 1990 + s.n % 35, 'Y'," +
+        " TIMESTAMP '2020-01-01 00:00:00'," +
+        " IF(s.n % 1000 = 0, TIMESTAMP '2026-01-01 00:00:00', TIMESTAMP '2020-01-01 00:00:00')," +
+        " IF(s.n % 20 = 0, NULL, 1000001 + s.n % 500)" +
+        " FROM (SELECT a.n * 20 + b.n AS n FROM seq a JOIN seq b ON b.n < 20) s";
+
+    private static final String SEED_TRANSACTIONS =
+        "INSERT INTO transaction (id, property_id, transaction_type, price, transaction_date, buyer, seller, agent, created_at," +
+        " updated_at)" +
+        " WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < 999)" +
+        " SELECT 3000001 + s.n, 2000001 + s.n % 20000, 'SALE', 500000 + s.n % 1000 * 1000," +
+        " TIMESTAMP '2015-01-01 00:00:00' + INTERVAL s.n % 3650 DAY, 'Buyer', 'Seller', 'Agent', TIMESTAMP '2020-01-01 00:00:00'," +
+        " IF(s.n % 2000 = 0, TIMESTAMP '2026-01-01 00:00:00', TIMESTAMP '2020-01-01 00:00:00')" +
+        " FROM (SELECT a.n * 100 + b.n AS n FROM seq a JOIN seq b ON b.n < 100) s";
+
+    private static final String SEED_ROLLUPS =
+        "INSERT INTO transaction_rollup (dimension, dimension_key, period, transaction_count, price_sum, price_min, price_max," +
+        " price_per_area_sum, area_count, updated_at)" +
+        " WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < 499)" +
+        " SELECT d.dimension, d.dimension_key, DATE_FORMAT(DATE '2024-01-01' + INTERVAL m.n MONTH, '%Y-%m'), 10, 5000000," +
+        " 500000, 500000, 50000, 10, TIMESTAMP '2020-01-01 00:00:00'" +
+        " FROM (SELECT 'COMPLEX' AS dimension, CAST(1000001 + n AS CHAR) AS dimension_key FROM seq" +
+        " UNION ALL SELECT 'REGION', CAST(1111010000 + n AS CHAR) FROM seq WHERE n < 25) d" +
+        " JOIN seq m ON m.n < 24";
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private ComplexRepository complexRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupRepository transactionRollupRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeAll
+    void seed() {
+        for (String seed : List.of(SEED_COMPLEXES, SEED_PROPERTIES, SEED_TRANSACTIONS, SEED_ROLLUPS)) {
+            db.sql(seed).fetch().rowsUpdated().block();
+        }
+        db.sql("ANALYZE TABLE complex, property, transaction, transaction_rollup").fetch().all().then().block();
+    }
+
+    @AfterAll
+    void cleanup() {
+        em.deleteAll(TransactionRollup.class).block();
+        em.deleteAll(Transaction.class).block();
+        em.deleteAll(Property.class).block();
+        em.deleteAll(Complex.class).block();
+    }
+
+    /**
+     * @return the keyset of the page following a page whose last row is the given one.
+     */
+    private static Keyset after(Object last, Sort sort, int size) {
+        return Keyset.first(sort, size).next(Collections.nCopies(size, last)).orElseThrow();
+    }
+
+    private static TransactionRollup bucket(TransactionRollup.Dimension dimension, String dimensionKey, String period) {
+        return new TransactionRollup().dimension(dimension).dimensionKey(dimensionKey).period(period);
+    }
+
+    @Test
+    void complexFindById() {
+        assertPlan(complexRepository.findById(1000001L), Map.of("e", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void complexFindIdsByIdIn() {
+        assertPlan(complexRepository.findIdsByIdIn(List.of(1000001L, 1000002L)), Map.of("entity", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void complexFindAllByIdIn() {
+        assertPlan(complexRepository.findAllByIdIn(List.of(1000001L, 1000002L, 1000003L)), Map.of("e", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void complexFindAllByKeyset() {
+        assertPlan(complexRepository.findAllBy(after(new Complex().id(1000100L), Sort.unsorted(), 20)), Map.of("e", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void complexFindAllUpdatedSince() {
+        assertPlan(
+            complexRepository.findAllUpdatedSince(SINCE, Keyset.first(Sort.unsorted(), 100)),
+            Map.of("e", Set.of("idx_complex_updated_at"))
+        );
+    }
+
+    @Test
+    void complexCountUpdatedSince() {
+        assertPlan(complexRepository.countUpdatedSince(SINCE), Map.of("entity", Set.of("idx_complex_updated_at")));
+    }
+
+    @Test
+    void complexFindAllKeysByComplexNameIn() {
+        assertPlan(
+            complexRepository.findAllKeysByComplexNameIn(List.of("Plan Complex 1", "Plan Complex 2")),
+            Map.of("c", Set.of("idx_complex_complex_name"))
+        );
+    }
+
+    @Test
+    void complexFindAllSuggestionSources() {
+        assertPlan(
+            complexRepository.findAllSuggestionSources(),
+            Map.of("c", Set.of(FULL_SCAN), "transaction_rollup", Set.of("ux_transaction_rollup_bucket", FULL_SCAN))
+        );
+    }
+
+    @Test
+    void propertyFindById() {
+        assertPlan(propertyRepository.findById(2000001L), Map.of("e", Set.of("PRIMARY"), "complex", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void propertyFindIdsByIdIn() {
+        assertPlan(propertyRepository.findIdsByIdIn(List.of(2000001L, 2000002L)), Map.of("entity", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void propertyFindAllByIdIn() {
+        assertPlan(
+            propertyRepository.findAllByIdIn(List.of(2000001L, 2000002L, 2000003L)),
+            Map.of("e", Set.of("PRIMARY"), "complex", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void propertyFindAllByKeyset() {
+        assertPlan(
+            propertyRepository.findAllBy(after(new Property().id(2000100L), Sort.unsorted(), 20)),
+            Map.of("e", Set.of("PRIMARY"), "complex", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void propertyFindAllUpdatedSince() {
+        assertPlan(
+            propertyRepository.findAllUpdatedSince(SINCE, Keyset.first(Sort.unsorted(), 100)),
+            Map.of("e", Set.of("idx_property_updated_at"), "complex", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void propertyCountUpdatedSince() {
+        assertPlan(propertyRepository.countUpdatedSince(SINCE), Map.of("entity", Set.of("idx_property_updated_at")));
+    }
+
+    @Test
+    void propertyFindByComplex() {
+        assertPlan(propertyRepository.findByComplex(1000002L), Map.of("entity", Set.of("fk_property__complex_id")));
+    }
+
+    @Test
+    void propertyFindAllWhereComplexIsNull() {
+        assertPlan(propertyRepository.findAllWhereComplexIsNull(), Map.of("entity", Set.of("fk_property__complex_id")));
+    }
+
+    @Test
+    void propertyFindAllKeysByAddressIn() {
+        assertPlan(
+            propertyRepository.findAllKeysByAddressIn(List.of("1 Plan-ro", "2 Plan-ro")),
+            Map.of("p", Set.of("idx_property_address"))
+        );
+    }
+
+    @Test
+    void propertyFindAllSuggestionSources() {
+        assertPlan(
+            propertyRepository.findAllSuggestionSources(),
+            Map.of("p", Set.of(FULL_SCAN), "transaction", Set.of("idx_transaction_property_id"))
+        );
+    }
+
+    @Test
+    void transactionFindById() {
+        assertPlan(transactionRepository.findById(3000001L), Map.of("e", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void transactionFindIdsByIdIn() {
+        assertPlan(transactionRepository.findIdsByIdIn(List.of(3000001L, 3000002L)), Map.of("entity", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void transactionFindAllByKeyset() {
+        assertPlan(
+            transactionRepository.findAllBy(after(new Transaction().id(3050000L), Sort.unsorted(), 20)),
+            Map.of("e", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void transactionFindAllByKeysetSortedByDate() {
+        assertPlan(
+            transactionRepository.findAllBy(after(new Transaction().id(3050000L).transactionDate(DATE), Sort.by("transactionDate"), 20)),
+            Map.of("e", Set.of("idx_transaction_transaction_date"))
+        );
+    }
+
+    @Test
+    void transactionFindAllByPropertyId() {
+        Keyset keyset = after(new Transaction().id(3050000L).transactionDate(DATE), Sort.by(Sort.Order.desc("transactionDate")), 20);
+        assertPlan(transactionRepository.findAllByPropertyId(2000002L, keyset), Map.of("e", Set.of("idx_transaction_property_id")));
+    }
+
+    @Test
+    void transactionFindAllByIdIn() {
+        assertPlan(transactionRepository.findAllByIdIn(List.of(3000001L, 3000002L, 3000003L)), Map.of("e", Set.of("PRIMARY")));
+    }
+
+    @Test
+    void transactionFindAllByPropertyIdIn() {
+        assertPlan(
+            transactionRepository.findAllByPropertyIdIn(List.of(2000001L, 2000002L, 2000003L)),
+            Map.of("e", Set.of("idx_transaction_property_id"))
+        );
+    }
+
+    @Test
+    void transactionFindAllUpdatedSince() {
+        assertPlan(
+            transactionRepository.findAllUpdatedSince(SINCE, Keyset.first(Sort.unsorted(), 100)),
+            Map.of("e", Set.of("idx_transaction_updated_at"))
+        );
+    }
+
+    @Test
+    void transactionCountUpdatedSince() {
+        assertPlan(transactionRepository.countUpdatedSince(SINCE), Map.of("entity", Set.of("idx_transaction_updated_at")));
+    }
+
+    @Test
+    void transactionFindAllForExportAfterId() {
+        assertPlan(
+            transactionRepository.findAllForExport(new TransactionExportFilter(null, null, null, null, 3050000L), 1000),
+            Map.of("e", Set.of("PRIMARY"), "p", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void transactionFindAllForExportByDate() {
+        assertPlan(
+            transactionRepository.findAllForExport(new TransactionExportFilter(FROM, TO, null, null, null), 1000),
+            Map.of("e", Set.of("idx_transaction_transaction_date"), "p", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void transactionFindAllForExportByRegion() {
+        assertPlan(
+            transactionRepository.findAllForExport(new TransactionExportFilter(null, null, "1111010001", null, null), 1000),
+            Map.of("e", Set.of("idx_transaction_property_id"), "p", Set.of("idx_property_region_cd"))
+        );
+    }
+
+    @Test
+    void transactionFindAllForExportByComplex() {
+        assertPlan(
+            transactionRepository.findAllForExport(new TransactionExportFilter(null, null, null, 1000002L, null), 1000),
+            Map.of("e", Set.of("idx_transaction_property_id"), "p", Set.of("fk_property__complex_id"))
+        );
+    }
+
+    @Test
+    void rollupFindByDimensionKey() {
+        assertPlan(
+            transactionRollupRepository.findByDimensionAndDimensionKeyAndPeriodBetweenOrderByPeriod(
+                TransactionRollup.Dimension.COMPLEX,
+                "1000001",
+                "2024-01",
+                "2024-12"
+            ),
+            Map.of("transaction_rollup", Set.of("ux_transaction_rollup_bucket"))
+        );
+    }
+
+    @Test
+    void rollupFindByDimensionKeyStartingWith() {
+        assertPlan(
+            transactionRollupRepository.findByDimensionAndDimensionKeyStartingWithAndPeriodBetweenOrderByPeriod(
+                TransactionRollup.Dimension.REGION,
+                "11110100",
+                "2024-01",
+                "2024-12"
+            ),
+            Map.of("transaction_rollup", Set.of("ux_transaction_rollup_bucket"))
+        );
+    }
+
+    @Test
+    void rollupFindFactsByTransactionIdIn() {
+        assertPlan(
+            transactionRollupRepository.findFactsByTransactionIdIn(List.of(3000001L, 3000002L)),
+            Map.of("t", Set.of("PRIMARY"), "p", Set.of("PRIMARY"))
+        );
+    }
+
+    @Test
+    void rollupFindFactsOfComplex() {
+        // either the properties of the complex drive the join, or the transactions of the month
+        assertPlan(
+            transactionRollupRepository.findFacts(TransactionRollup.Dimension.COMPLEX, "1000002", FROM, TO),
+            Map.of(
+                "t",
+                Set.of("idx_transaction_property_id", "idx_transaction_transaction_date"),
+                "p",
+                Set.of("fk_property__complex_id", "PRIMARY")
+            )
+        );
+    }
+
+    @Test
+    void rollupFindFactsOfRegion() {
+        assertPlan(
+            transactionRollupRepository.findFacts(TransactionRollup.Dimension.REGION, "1111010001", FROM, TO),
+            Map.of(
+                "t",
+                Set.of("idx_transaction_property_id", "idx_transaction_transaction_date"),
+                "p",
+                Set.of("idx_property_region_cd", "PRIMARY")
+            )
+        );
+    }
+
+    @Test
+    void rollupFindAllFacts() {
+        assertPlan(
+            transactionRollupRepository.findAllFacts(),
+            Map.of("t", Set.of(FULL_SCAN, "idx_transaction_property_id"), "p", Set.of(FULL_SCAN, "PRIMARY"))
+        );
+    }
+
+    @Test
+    void rollupFindBucketsForUpdate() {
+        // the buckets exist, so the insert of the missing ones before the locking read changes nothing
+        assertPlan(
+            transactionRollupRepository.findBucketsForUpdate(
+                List.of(
+                    bucket(TransactionRollup.Dimension.COMPLEX, "1000001", "2024-01"),
+                    bucket(TransactionRollup.Dimension.REGION, "1111010001", "2024-01")
+                )
+            ),
+            Map.of("transaction_rollup", Set.of("ux_transaction_rollup_bucket"))
+        );
+    }
+
+    @Test
+    void rollupDeleteBucket() {
+        // an emptied bucket is deleted
+        TransactionRollup emptied = bucket(TransactionRollup.Dimension.COMPLEX, "1000499", "2025-12").transactionCount(0L);
+        assertPlan(
+            transactionRollupRepository.replaceAll(List.of(emptied)),
+            Map.of("transaction_rollup", Set.of("ux_transaction_rollup_bucket"))
+        );
+    }
+
+    /**
+     * Runs a repository query, reading its first row only, and captures the statements it sends.
+     *
+     * @return the last statement of the query.
+     */
+    private CapturedStatement capture(Publisher<?> query) {
+        List<CapturedStatement> statements = new CopyOnWriteArrayList<>();
+        Flux.from(query).take(1).contextWrite(Context.of(CapturedStatement.class, statements)).blockLast();
+        assertThat(statements).as("Statements of the query").isNotEmpty();
+        return statements.get(statements.size() - 1);
+    }
+
+    private List<Map<String, Object>> explain(CapturedStatement statement) {
+        return Flux.usingWhen(
+            Mono.<Connection>from(connectionFactory.create()),
+            connection -> {
+                Statement explain = connection.createStatement("EXPLAIN " + statement.sql());
+                statement.bindings().forEach(binding -> binding.applyTo(explain));
+                return Flux.from(explain.execute()).flatMap(result ->
+                    result.map((row, metadata) -> {
+                        Map<String, Object> columns = new HashMap<>();
+                        metadata.getColumnMetadatas().forEach(column -> columns.put(column.getName(), row.get(column.getName())));
+                        return columns;
+                    })
+                );
+            },
+            Connection::close
+        )
+            .collectList()
+            .block();
+    }
+
+    /**
+     * Asserts the indexes through which the tables of the last statement of a query are read. Besides, at most one table of
+     * each query block may be scanned in full - the driving table of a listing - so every join goes through an index.
+     *
+     * @param query the repository query.
+     * @param keysByTable the indexes allowed for each table alias, {@link #FULL_SCAN} allowing a full scan.
+     */
+    private void assertPlan(Publisher<?> query, Map<String, Set<String>> keysByTable) {
+        CapturedStatement statement = capture(query);
+        String sql = statement.sql();
+        List<Map<String, Object>> plan = explain(statement);
+        assertThat(plan).as(sql).isNotEmpty();
+        keysByTable.forEach((table, keys) ->
+            assertThat(plan.stream().filter(row -> table.equals(row.get("table"))).map(QueryPlanIT::access))
+                .as("Access to %s in %s", table, sql)
+                .isNotEmpty()
+                .allMatch(keys::contains)
+        );
+        Map<Object, Long> scansByQueryBlock = plan
+            .stream()
+            .filter(row -> FULL_SCAN.equals(access(row)) && !String.valueOf(row.get("table")).startsWith("<"))
+            .collect(groupingBy(row -> row.get("id"), counting()));
+        assertThat(scansByQueryBlock.values()).as("Full scans in %s", sql).allMatch(scans -> scans <= 1);
+    }
+
+    private static String access(Map<String, Object> row) {
+        Object key = row.get("key");
+        return key == null || FULL_SCAN.equals(row.get("type")) ? FULL_SCAN : key.toString();
+    }
+
+    /**
+     * A statement sent by a query, with the calls binding its values in order.
+     */
+    private record CapturedStatement(String sql, List<Binding> bindings) {}
+
+    private record Binding(Method method, Object[] args) {
+        void applyTo(Statement statement) {
+            try {
+                method.invoke(statement, args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Wraps the connection factory of the application: the connections acquired by a subscriber whose context holds a list of
+     * {@link CapturedStatement} record their statements in it.
+     */
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+
+        @Bean
+        static BeanPostProcessor capturingConnectionFactoryPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof ConnectionFactory connectionFactory ? new CapturingConnectionFactory(connectionFactory) : bean;
+                }
+            };
+        }
+    }
+
+    private record CapturingConnectionFactory(ConnectionFactory delegate) implements ConnectionFactory, Wrapped<ConnectionFactory> {
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.deferContextual(context -> {
+                Mono<Connection> connection = Mono.from(delegate.create());
+                if (!context.hasKey(CapturedStatement.class)) {
+                    return connection;
+                }
+                List<CapturedStatement> statements = context.get(CapturedStatement.class);
+                return connection.map(target -> capturing(target, statements));
+            });
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return delegate;
+        }
+
+        private static Connection capturing(Connection connection, List<CapturedStatement> statements) {
+            return proxy(Connection.class, connection, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (!"createStatement".equals(method.getName())) {
+                    return result;
+                }
+                CapturedStatement statement = new CapturedStatement((String) args[0], new ArrayList<>());
+                statements.add(statement);
+                return capturing((Statement) result, statement);
+            });
+        }
+
+        private static Statement capturing(Statement statement, CapturedStatement captured) {
+            return proxy(Statement.class, statement, (proxy, method, args) -> {
+                if (method.getName().startsWith("bind")) {
+                    captured.bindings().add(new Binding(method, args));
+                }
+                Object result = invoke(statement, method, args);
+                return result == statement ? proxy : result;
+            });
+        }
+
+        /**
+         * Creates a proxy which delegates to the target, comparing by identity.
+         */
+        private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+            return type.cast(
+                Proxy.newProxyInstance(QueryPlanIT.class.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+                    switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> handler.invoke(proxy, method, args);
+                    }
+                )
+            );
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.dnc.mprs.propservice.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dnc.mprs.propservice.config.DatabaseConfiguration;
+import com.dnc.mprs.propservice.domain.Complex;
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link ColumnConverter} and the mapping plans of the row mappers.
+ */
+class ColumnConverterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.parse("2024-01-15T09:30:00");
+
+    private ColumnConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        R2dbcCustomConversions conversions = new DatabaseConfiguration().r2dbcCustomConversions(MySqlDialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+    }
+
+    /**
+     * Mocks the metadata of rows with columns of the types of the given values.
+     */
+    private static RowMetadata metadata(Map<String, ?> columns) {
+        List<ColumnMetadata> columnMetadatas = new ArrayList<>();
+        columns.forEach((name, value) -> {
+            ColumnMetadata column = mock(ColumnMetadata.class);
+            when(column.getName()).thenReturn(name);
+            doReturn(value instanceof Blob ? Blob.class : value.getClass()).when(column).getJavaType();
+            columnMetadatas.add(column);
+        });
+        RowMetadata metadata = mock(RowMetadata.class);
+        doReturn(columnMetadatas).when(metadata).getColumnMetadatas();
+        return metadata;
+    }
+
+    /**
+     * Mocks a row with the given values, read by index.
+     */
+    private static Row row(Map<String, ?> columns) {
+        Row row = mock(Row.class);
+        List<?> values = new ArrayList<>(columns.values());
+        for (int index = 0; index < values.size(); index++) {
+            when(row.get(index)).thenReturn(values.get(index));
+        }
+        return row;
+    }
+
+    private static Map<String, Object> complexColumns(long id) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("e_id", id);
+        columns.put("e_complex_name", "complex-" + id);
+        columns.put("e_state", "Seoul");
+        columns.put("e_county", "Jongno-gu");
+        columns.put("e_city", "Seoul");
+        columns.put("e_town", "Cheongun-dong");
+        columns.put("e_address_code", "1111010100");
+        columns.put("e_latitude", 37.5866);
+        columns.put("e_longitude", 126.9691);
+        columns.put("e_created_at", CREATED_AT);
+        columns.put("e_updated_at", CREATED_AT.plusDays(id));
+        return columns;
+    }
+
+    @Test
+    void readerConvertsTheTypeReadByTheDriver() {
+        Map<String, Object> columns = Map.of("e_created_at", CREATED_AT);
+        Row row = row(columns);
+
+        ColumnReader<Instant> reader = converter.reader(metadata(columns), "E_CREATED_AT", Instant.class);
+
+        assertThat(reader.read(row)).isEqualTo(Instant.parse("2024-01-15T09:30:00Z"));
+        verify(row, never()).get(anyInt(), eq(Instant.class));
+        verify(row, never()).get(anyString());
+    }
+
+    @Test
+    void readerLeavesTheTypesWithoutConversionToTheDriver() {
+        Map<String, Object> columns = Map.of("price_sketch", mock(Blob.class));
+        Row row = row(columns);
+        byte[] sketch = { 1, 2, 3 };
+        when(row.get(0, byte[].class)).thenReturn(sketch);
+
+        assertThat(converter.reader(metadata(columns), "price_sketch", byte[].class).read(row)).isSameAs(sketch);
+    }
+
+    @Test
+    void mappingPlanIsResolvedOncePerResult() {
+        ComplexRowMapper mapper = new ComplexRowMapper(converter);
+        RowMetadata metadata = metadata(complexColumns(1));
+
+        Complex first = mapper.apply(row(complexColumns(1)), metadata, "e");
+        clearInvocations(metadata);
+        Complex second = mapper.apply(row(complexColumns(2)), metadata, "e");
+
+        verifyNoInteractions(metadata);
+        assertThat(first.getComplexName()).isEqualTo("complex-1");
+        assertThat(second.getId()).isEqualTo(2L);
+        assertThat(second.getLatitude()).isEqualTo(37.5866);
+        assertThat(second.getUpdatedAt()).isEqualTo(Instant.parse("2024-01-17T09:30:00Z"));
+    }
+
+    @Test
+    void mappingPlansOfInterleavedResultsAreKept() {
+        ComplexRowMapper mapper = new ComplexRowMapper(converter);
+        RowMetadata metadata = metadata(complexColumns(1));
+        RowMetadata otherMetadata = metadata(complexColumns(2));
+        mapper.apply(row(complexColumns(1)), metadata, "e");
+        mapper.apply(row(complexColumns(2)), otherMetadata, "e");
+
+        clearInvocations(metadata, otherMetadata);
+        Complex first = mapper.apply(row(complexColumns(3)), metadata, "e");
+        Complex second = mapper.apply(row(complexColumns(4)), otherMetadata, "e");
+
+        verifyNoInteractions(metadata, otherMetadata);
+        assertThat(first.getId()).isEqualTo(3L);
+        assertThat(second.getId()).isEqualTo(4L);
+    }
+}
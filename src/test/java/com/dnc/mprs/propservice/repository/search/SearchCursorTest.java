@@ -0,0 +1,70 @@
+package com.dnc.mprs.propservice.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link SearchCursor} continuation tokens.
+ */
+class SearchCursorTest {
+
+    @Test
+    void firstPageDefaultsToIdOrder() {
+        SearchCursor cursor = SearchCursor.first(Sort.unsorted(), 20, false);
+
+        assertThat(cursor.isPositioned()).isFalse();
+        assertThat(cursor.getSort()).containsExactly(Sort.Order.asc("id"));
+        assertThatIllegalStateException().isThrownBy(cursor::encode);
+    }
+
+    @Test
+    void scoredFirstPageDefaultsToScoreOrder() {
+        SearchCursor cursor = SearchCursor.first(Sort.unsorted(), 20, true);
+
+        assertThat(cursor.getSort()).containsExactly(Sort.Order.desc("_score"), Sort.Order.asc("id"));
+    }
+
+    @Test
+    void sortIncludesIdTiebreaker() {
+        SearchCursor cursor = SearchCursor.first(Sort.by(Sort.Order.desc("price")), 20, true);
+
+        assertThat(cursor.getSort()).containsExactly(Sort.Order.desc("price"), Sort.Order.asc("id"));
+    }
+
+    @Test
+    void nextPageRoundTripsThroughToken() {
+        SearchCursor cursor = SearchCursor.first(Sort.by(Sort.Order.desc("price"), Sort.Order.asc("transactionType")), 2, true);
+
+        SearchCursor next = cursor.next("pit+/id==", Arrays.asList(1.5e8, null, 42L));
+        SearchCursor decoded = SearchCursor.decode(next.encode(), 2);
+
+        assertThat(decoded).isEqualTo(next);
+        assertThat(decoded.isPositioned()).isTrue();
+        assertThat(decoded.getPointInTimeId()).isEqualTo("pit+/id==");
+        assertThat(decoded.getSearchAfter()).containsExactly(1.5e8, null, 42L);
+        assertThat(next.encode()).matches("[A-Za-z0-9_.-]+");
+    }
+
+    @Test
+    void stringAndBooleanSortValuesRoundTrip() {
+        SearchCursor cursor = SearchCursor.first(Sort.by("type", "parkingYn"), 1, false);
+
+        SearchCursor next = cursor.next("pit", List.of("APT, 84.5:ASC", true, 7L));
+
+        assertThat(SearchCursor.decode(next.encode(), 1).getSearchAfter()).containsExactly("APT, 84.5:ASC", true, 7L);
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode("not a token", 20));
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode("cGl0.aWQ6QVND", 20));
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode("cGl0.aWQ6QVND.WDE", 20));
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.first(Sort.unsorted(), 0, false));
+    }
+}
@@ -0,0 +1,54 @@
+package com.dnc.mprs.propservice.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.TransactionCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.query.Query;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the facets of the {@link TransactionSearchRepository} searches.
+ */
+class TransactionSearchRepositoryTest {
+
+    private ReactiveElasticsearchTemplate template;
+
+    private TransactionSearchRepositoryInternalImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        template = mock(ReactiveElasticsearchTemplate.class);
+        when(template.searchForPage(any(Query.class), eq(Transaction.class))).thenReturn(Mono.empty());
+        repository = new TransactionSearchRepositoryInternalImpl(template, new ApplicationProperties());
+    }
+
+    private NativeQuery search(boolean faceted) {
+        repository.search(null, new TransactionCriteria(), PageRequest.of(0, 20), faceted).block();
+        ArgumentCaptor<NativeQuery> query = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(template).searchForPage(query.capture(), eq(Transaction.class));
+        return query.getValue();
+    }
+
+    @Test
+    void plainSearchRequestsNoAggregation() {
+        assertThat(search(false).getAggregations()).isEmpty();
+    }
+
+    @Test
+    void facetedSearchRequestsTheFacetAggregations() {
+        assertThat(search(true).getAggregations()).containsOnlyKeys("transactionType", "price", "transactionDate");
+    }
+}
@@ -0,0 +1,118 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dnc.mprs.propservice.broker.CacheInvalidationBus;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link CacheInvalidationService}.
+ */
+class CacheInvalidationServiceTest {
+
+    private final Sinks.Many<String> topic = Sinks.many().multicast().onBackpressureBuffer();
+
+    private final List<String> published = new ArrayList<>();
+
+    private final List<Long> invalidated = new ArrayList<>();
+
+    private final AtomicInteger cleared = new AtomicInteger();
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CacheInvalidationService sender;
+
+    private EntityCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+        when(bus.getFlux()).thenReturn(topic.asFlux());
+        when(bus.publish(anyString(), anyString())).thenAnswer(invocation -> published.add(invocation.getArgument(1)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        sender = new CacheInvalidationService(bus, objectMapper, new ApplicationProperties(), new SimpleMeterRegistry());
+        CacheInvalidationService receiver = new CacheInvalidationService(bus, objectMapper, new ApplicationProperties(), meterRegistry);
+        counter = new EntityCounter(() -> Mono.fromSupplier(() -> (long) queries.incrementAndGet() * 10), true);
+        counter.get().block();
+        receiver.register("property", invalidated::addAll, cleared::incrementAndGet, counter);
+    }
+
+    @Test
+    void changesAreCoalescedIntoOneMessage() {
+        sender.invalidated("property", 1L);
+        sender.invalidated("property", 1L);
+        sender.invalidated("property", 2L);
+        sender.counted("property", 1);
+        sender.counted("property", 2);
+        sender.flush();
+        sender.flush();
+
+        assertThat(published).hasSize(1);
+    }
+
+    @Test
+    void changesAreAppliedByOtherInstances() {
+        sender.invalidated("property", 1L);
+        sender.invalidated("property", 1L);
+        sender.counted("property", 3);
+        sender.flush();
+        published.forEach(topic::tryEmitNext);
+
+        assertThat(invalidated).containsExactly(1L);
+        assertThat(counter.get().block()).isEqualTo(13L);
+        assertThat(meterRegistry.get("cache.invalidation.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownEntitiesAreIgnored() {
+        sender.invalidated("unknown", 1L);
+        sender.flush();
+        published.forEach(topic::tryEmitNext);
+
+        assertThat(invalidated).isEmpty();
+        assertThat(cleared.get()).isZero();
+    }
+
+    @Test
+    void lostMessageClearsCachesAndReconcilesCounts() {
+        for (long id = 1; id <= 3; id++) {
+            sender.invalidated("property", id);
+            sender.counted("property", 1);
+            sender.flush();
+        }
+        topic.tryEmitNext(published.get(0));
+        topic.tryEmitNext(published.get(2));
+
+        assertThat(invalidated).containsExactly(1L);
+        assertThat(cleared.get()).isEqualTo(1);
+        assertThat(counter.get().block()).isEqualTo(20L);
+        assertThat(meterRegistry.get("cache.invalidation.lost").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tooManyIdsClearTheCache() {
+        for (long id = 0; id <= CacheInvalidationService.MAX_IDS; id++) {
+            sender.invalidated("property", id);
+        }
+        sender.flush();
+        published.forEach(topic::tryEmitNext);
+
+        assertThat(invalidated).isEmpty();
+        assertThat(cleared.get()).isEqualTo(1);
+    }
+}
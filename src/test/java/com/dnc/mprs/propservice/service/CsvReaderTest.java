@@ -0,0 +1,81 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the {@link CsvReader}.
+ */
+class CsvReaderTest {
+
+    // smaller than the records, so they span several reads
+    private static final int BUFFER_SIZE = 4;
+
+    @TempDir
+    Path directory;
+
+    private CsvReader open(byte[] content, Charset charset) throws IOException {
+        Path file = Files.write(directory.resolve("test.csv"), content);
+        return new CsvReader(FileChannel.open(file, StandardOpenOption.READ), charset, BUFFER_SIZE);
+    }
+
+    private CsvReader open(String content) throws IOException {
+        return open(content.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void readsQuotedFieldsAndLineBreaks() throws IOException {
+        try (CsvReader reader = open("a,\"b,c\",\"d \"\"e\"\"\"\r\n\"f\r\ng\",,h\n\nlast,row")) {
+            assertThat(reader.read()).containsExactly("a", "b,c", "d \"e\"");
+            assertThat(reader.read()).containsExactly("f\r\ng", "", "h");
+            assertThat(reader.read()).containsExactly("");
+            assertThat(reader.read()).containsExactly("last", "row");
+            assertThat(reader.read()).isNull();
+        }
+    }
+
+    @Test
+    void skipsByteOrderMark() throws IOException {
+        try (CsvReader reader = open("\uFEFFaddress,type\r\n")) {
+            assertThat(reader.read()).containsExactly("address", "type");
+            assertThat(reader.position()).isEqualTo(17);
+            assertThat(reader.read()).isNull();
+        }
+    }
+
+    @Test
+    void seeksToTheOffsetOfARecord() throws IOException {
+        try (CsvReader reader = open("\uFEFFheader\r\nfirst\r\nsecond\r\n")) {
+            assertThat(reader.read()).containsExactly("header");
+            long first = reader.position();
+            assertThat(reader.read()).containsExactly("first");
+            assertThat(reader.read()).containsExactly("second");
+
+            reader.seek(first);
+            assertThat(reader.read()).containsExactly("first");
+
+            reader.seek(0);
+            assertThat(reader.read()).containsExactly("header");
+            assertThat(reader.position()).isEqualTo(first);
+        }
+    }
+
+    @Test
+    void decodesLegacyKoreanEncoding() throws IOException {
+        Charset eucKr = Charset.forName("EUC-KR");
+        String complexName = "\uD790\uC2A4\uD14C\uC774\uD2B8";
+        try (CsvReader reader = open((complexName + ",\"" + complexName + ",1\"\r\n").getBytes(eucKr), eucKr)) {
+            assertThat(reader.read()).containsExactly(complexName, complexName + ",1");
+            assertThat(reader.read()).isNull();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link EntityCache}.
+ */
+class EntityCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EntityCache<String> cache(boolean enabled) {
+        ApplicationProperties.Cache properties = new ApplicationProperties.Cache();
+        properties.setEnabled(enabled);
+        return new EntityCache<>("test", properties, meterRegistry);
+    }
+
+    private Mono<String> load(Long id) {
+        return Mono.fromSupplier(() -> {
+            queries.incrementAndGet();
+            return id > 0 ? "entity-" + id : null;
+        });
+    }
+
+    private final List<List<Long>> batches = new ArrayList<>();
+
+    private Flux<String> loadAll(List<Long> ids) {
+        batches.add(ids);
+        // in the order of a database query, not of the ids
+        return Flux.fromIterable(ids).sort().filter(id -> id > 0).map(id -> "entity-" + id);
+    }
+
+    private static Long idOf(String entity) {
+        return Long.valueOf(entity.substring("entity-".length()));
+    }
+
+    @Test
+    void entityIsLoadedOnce() {
+        EntityCache<String> cache = cache(true);
+
+        assertThat(cache.get(1L, this::load).block()).isEqualTo("entity-1");
+        assertThat(cache.get(1L, this::load).block()).isEqualTo("entity-1");
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void missingEntityIsNotCached() {
+        EntityCache<String> cache = cache(true);
+
+        assertThat(cache.get(-1L, this::load).block()).isNull();
+        assertThat(cache.get(-1L, this::load).block()).isNull();
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    @Test
+    void evictedEntityIsLoadedAgain() {
+        EntityCache<String> cache = cache(true);
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        cache.evict(1L).block();
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        assertThat(queries.get()).isEqualTo(3);
+    }
+
+    @Test
+    void entitiesMatchingPredicateAreEvicted() {
+        EntityCache<String> cache = cache(true);
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        cache.evictIf("entity-2"::equals).block();
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        assertThat(queries.get()).isEqualTo(3);
+    }
+
+    @Test
+    void missingEntitiesAreLoadedTogether() {
+        EntityCache<String> cache = cache(true);
+        cache.get(2L, this::load).block();
+
+        assertThat(cache.getAll(List.of(3L, 2L, -1L, 1L), this::loadAll, EntityCacheTest::idOf).collectList().block())
+            .containsExactly("entity-3", "entity-2", "entity-1");
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder(3L, -1L, 1L);
+
+        assertThat(cache.getAll(List.of(1L, 3L), this::loadAll, EntityCacheTest::idOf).collectList().block())
+            .containsExactly("entity-1", "entity-3");
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void entityBeingLoadedIsWaitedFor() {
+        EntityCache<String> cache = cache(true);
+        Sinks.One<String> loading = Sinks.one();
+        cache.get(1L, id -> loading.asMono()).subscribe();
+
+        CompletableFuture<List<String>> all = cache.getAll(List.of(1L, 2L), this::loadAll, EntityCacheTest::idOf).collectList().toFuture();
+        loading.tryEmitValue("entity-1");
+
+        assertThat(all.join()).containsExactly("entity-1", "entity-2");
+        assertThat(batches).containsExactly(List.of(2L));
+    }
+
+    @Test
+    void entityEvictedWhileLoadingIsNotCached() {
+        EntityCache<String> cache = cache(true);
+        Sinks.Many<String> loading = Sinks.many().unicast().onBackpressureBuffer();
+        CompletableFuture<List<String>> all = cache
+            .getAll(List.of(1L), ids -> loading.asFlux(), EntityCacheTest::idOf)
+            .collectList()
+            .toFuture();
+
+        cache.evict(1L).block();
+        loading.tryEmitNext("entity-1");
+        loading.tryEmitComplete();
+
+        assertThat(all.join()).containsExactly("entity-1");
+        assertThat(cache.getAll(List.of(1L), this::loadAll, EntityCacheTest::idOf).collectList().block()).containsExactly("entity-1");
+        assertThat(batches).containsExactly(List.of(1L));
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        EntityCache<String> cache = cache(false);
+
+        cache.get(1L, this::load).block();
+        cache.get(1L, this::load).block();
+
+        assertThat(queries.get()).isEqualTo(2);
+        assertThat(cache.isEnabled()).isFalse();
+    }
+
+    @Test
+    void disabledCacheNotifiesTheEvictions() {
+        ApplicationProperties.Cache properties = new ApplicationProperties.Cache();
+        properties.setEnabled(false);
+        List<Long> invalidated = new ArrayList<>();
+        EntityCache<String> cache = new EntityCache<>("test", properties, meterRegistry, invalidated::add);
+
+        cache.evict(1L).block();
+
+        assertThat(invalidated).containsExactly(1L);
+    }
+}
@@ -0,0 +1,145 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link EntityCounter}.
+ */
+class EntityCounterTest {
+
+    private final AtomicLong rows = new AtomicLong(10);
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private EntityCounter counter(boolean enabled) {
+        return new EntityCounter(() -> Mono.fromSupplier(() -> {
+                queries.incrementAndGet();
+                return rows.get();
+            }), enabled);
+    }
+
+    @Test
+    void countIsLoadedOnce() {
+        EntityCounter counter = counter(true);
+
+        assertThat(counter.get().block()).isEqualTo(10L);
+        assertThat(counter.get().block()).isEqualTo(10L);
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    void adjustmentsAreAppliedToKnownCount() {
+        EntityCounter counter = counter(true);
+        counter.add(5);
+        assertThat(counter.get().block()).isEqualTo(10L);
+
+        counter.add(2);
+        counter.add(-1);
+
+        assertThat(counter.get().block()).isEqualTo(11L);
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileReplacesDriftedCount() {
+        EntityCounter counter = counter(true);
+        counter.get().block();
+        counter.add(3);
+        rows.set(12);
+
+        assertThat(counter.reconcile().block()).isEqualTo(12L);
+        assertThat(counter.get().block()).isEqualTo(12L);
+    }
+
+    @Test
+    void countNeverGoesNegative() {
+        EntityCounter counter = counter(true);
+        counter.get().block();
+
+        counter.add(-20);
+
+        assertThat(counter.get().block()).isZero();
+    }
+
+    @Test
+    void disabledCounterAlwaysQueries() {
+        EntityCounter counter = counter(false);
+
+        counter.get().block();
+        counter.get().block();
+
+        assertThat(queries.get()).isEqualTo(2);
+        assertThat(counter.reconcile().blockOptional()).isEmpty();
+    }
+
+    @Test
+    void adjustmentsOfATransactionAreAppliedOnCommit() {
+        List<Long> published = new ArrayList<>();
+        EntityCounter counter = new EntityCounter(() -> Mono.just(10L), true, published::add);
+        counter.get().block();
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(new NoOpTransactionManager());
+
+        Long duringTransaction = counter.addOnCommit(2).then(counter.get()).as(transactionalOperator::transactional).block();
+
+        assertThat(duringTransaction).isEqualTo(10L);
+        assertThat(counter.get().block()).isEqualTo(12L);
+        assertThat(published).containsExactly(2L);
+
+        counter
+            .addOnCommit(3)
+            .then(Mono.error(new IllegalStateException("rolled back")))
+            .as(transactionalOperator::transactional)
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+
+        assertThat(counter.get().block()).isEqualTo(12L);
+        assertThat(published).containsExactly(2L);
+
+        counter.addOnCommit(-1).block();
+
+        assertThat(counter.get().block()).isEqualTo(11L);
+        assertThat(published).containsExactly(2L, -1L);
+    }
+
+    /**
+     * Transaction manager without resource, to run the transaction synchronizations.
+     */
+    private static class NoOpTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.OutboxEventRepository;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.web.rest.PropertyResourceIT;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Integration tests for the {@link IngestService}, with batches larger than a bulk chunk.
+ */
+@IntegrationTest
+@Import(IngestServiceIT.FailureInjectionConfiguration.class)
+@TestPropertySource(properties = "application.bulk.chunk-size=2")
+class IngestServiceIT {
+
+    private static final String ADDRESS = " Ingest-ro";
+
+    /**
+     * A value whose binding makes the next statement fail once with a transient error.
+     */
+    private static final AtomicReference<Object> FAIL_ONCE_ON = new AtomicReference<>();
+
+    @Autowired
+    private IngestService ingestService;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private EntityManager em;
+
+    @AfterEach
+    public void cleanup() {
+        FAIL_ONCE_ON.set(null);
+        outboxEventRepository.deleteAll().block();
+        PropertyResourceIT.deleteEntities(em);
+    }
+
+    private List<String> records(int count) throws JsonProcessingException {
+        List<String> records = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            records.add(om.writeValueAsString(PropertyResourceIT.createEntity().address(i + ADDRESS)));
+        }
+        return records;
+    }
+
+    private List<Property> ingested() {
+        return propertyRepository.findAll().filter(property -> property.getAddress().endsWith(ADDRESS)).collectList().block();
+    }
+
+    @Test
+    void batchConsumedAgainAfterAFailureIsWrittenOnce() throws Exception {
+        List<String> records = records(5);
+        // the last chunk fails, after the first ones would have been committed if the chunks had their own transaction
+        FAIL_ONCE_ON.set(5 + ADDRESS);
+
+        assertThatThrownBy(() -> ingestService.ingestProperties(records).block()).satisfies(e ->
+            assertThat(BulkWriter.isTransient(e)).isTrue()
+        );
+        assertThat(FAIL_ONCE_ON.get()).isNull();
+        assertThat(ingested()).isEmpty();
+
+        assertThat(ingestService.ingestProperties(records).block()).isZero();
+
+        assertThat(ingested()).extracting(Property::getAddress).containsExactlyInAnyOrder(
+            "1" + ADDRESS,
+            "2" + ADDRESS,
+            "3" + ADDRESS,
+            "4" + ADDRESS,
+            "5" + ADDRESS
+        );
+        assertThat(
+            outboxEventRepository.findAll().filter(event -> event.getEventType() == OutboxEvent.EventType.CREATED).count().block()
+        ).isEqualTo(5);
+    }
+
+    /**
+     * Wraps the connection factory of the application: a statement binding the value of {@link #FAIL_ONCE_ON} fails with a
+     * transient error instead of being executed, once.
+     */
+    @TestConfiguration
+    static class FailureInjectionConfiguration {
+
+        @Bean
+        static BeanPostProcessor failingConnectionFactoryPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof ConnectionFactory connectionFactory ? new FailingConnectionFactory(connectionFactory) : bean;
+                }
+            };
+        }
+    }
+
+    private record FailingConnectionFactory(ConnectionFactory delegate) implements ConnectionFactory, Wrapped<ConnectionFactory> {
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.from(delegate.create()).map(FailingConnectionFactory::failing);
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return delegate;
+        }
+
+        private static Connection failing(Connection connection) {
+            return proxy(Connection.class, connection, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                return "createStatement".equals(method.getName()) ? failing((Statement) result) : result;
+            });
+        }
+
+        private static Statement failing(Statement statement) {
+            AtomicBoolean marked = new AtomicBoolean();
+            return proxy(Statement.class, statement, (proxy, method, args) -> {
+                Object failOn = FAIL_ONCE_ON.get();
+                if ("bind".equals(method.getName()) && failOn != null && failOn.equals(args[1])) {
+                    marked.set(true);
+                }
+                if ("execute".equals(method.getName()) && marked.get() && failOn != null && FAIL_ONCE_ON.compareAndSet(failOn, null)) {
+                    return Flux.error(new R2dbcTransientResourceException("Injected failure"));
+                }
+                Object result = invoke(statement, method, args);
+                return result == statement ? proxy : result;
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+            return type.cast(
+                Proxy.newProxyInstance(IngestServiceIT.class.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) ->
+                    switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> handler.invoke(proxy, method, args);
+                    }
+                )
+            );
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
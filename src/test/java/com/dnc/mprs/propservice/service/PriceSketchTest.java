@@ -0,0 +1,123 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link PriceSketch}.
+ */
+class PriceSketchTest {
+
+    private static final double[] QUANTILES = { 0, 0.1, 0.5, 0.9, 0.99, 1 };
+
+    private static double[] randomPrices(long seed, int count) {
+        Random random = new Random(seed);
+        double[] prices = new double[count];
+        for (int i = 0; i < count; i++) {
+            // log-normal prices around 500 million
+            prices[i] = Math.round(Math.exp(20 + random.nextGaussian()));
+        }
+        return prices;
+    }
+
+    private static PriceSketch sketch(double[] prices) {
+        PriceSketch sketch = new PriceSketch();
+        for (double price : prices) {
+            sketch.add(BigDecimal.valueOf(price));
+        }
+        return sketch;
+    }
+
+    private static void assertQuantilesWithinRelativeAccuracy(PriceSketch sketch, double[] prices) {
+        double[] sorted = prices.clone();
+        Arrays.sort(sorted);
+        for (double quantile : QUANTILES) {
+            double expected = sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+            assertThat(sketch.quantile(quantile).doubleValue()).isCloseTo(expected, within(expected * PriceSketch.RELATIVE_ACCURACY));
+        }
+    }
+
+    @Test
+    void quantilesAreWithinRelativeAccuracy() {
+        double[] prices = randomPrices(1, 10_000);
+        PriceSketch sketch = sketch(prices);
+
+        assertThat(sketch.getCount()).isEqualTo(10_000);
+        assertQuantilesWithinRelativeAccuracy(sketch, prices);
+    }
+
+    @Test
+    void mergedSketchesAreWithinRelativeAccuracy() {
+        double[] first = randomPrices(1, 3_000);
+        double[] second = randomPrices(2, 5_000);
+        double[] all = new double[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+
+        PriceSketch merged = sketch(first).merge(sketch(second));
+
+        assertThat(merged.getCount()).isEqualTo(all.length);
+        assertQuantilesWithinRelativeAccuracy(merged, all);
+    }
+
+    @Test
+    void subtractedSketchIsWithinRelativeAccuracy() {
+        double[] kept = randomPrices(1, 3_000);
+        double[] removed = randomPrices(2, 500);
+
+        PriceSketch sketch = sketch(kept).merge(sketch(removed));
+
+        assertThat(sketch.subtract(sketch(removed))).isTrue();
+        assertThat(sketch.getCount()).isEqualTo(kept.length);
+        assertQuantilesWithinRelativeAccuracy(sketch, kept);
+        assertThat(sketch.toBytes()).isEqualTo(sketch(kept).toBytes());
+    }
+
+    @Test
+    void pricesWhichWereNotAddedAreNotSubtracted() {
+        PriceSketch sketch = sketch(new double[] { 0, 100 });
+
+        assertThat(sketch.subtract(sketch(new double[] { 100, 1_000 }))).isFalse();
+        assertThat(sketch.subtract(sketch(new double[] { 0, 0 }))).isFalse();
+        assertThat(sketch.getCount()).isEqualTo(2);
+        assertThat(sketch.toBytes()).isEqualTo(sketch(new double[] { 0, 100 }).toBytes());
+    }
+
+    @Test
+    void serializedSketchIsCompactAndEquivalent() {
+        double[] prices = randomPrices(3, 10_000);
+        byte[] bytes = sketch(prices).toBytes();
+
+        assertThat(bytes.length).isLessThan(2_000);
+        PriceSketch read = PriceSketch.fromBytes(bytes);
+        assertThat(read.getCount()).isEqualTo(10_000);
+        assertQuantilesWithinRelativeAccuracy(read, prices);
+    }
+
+    @Test
+    void zeroPricesAreCounted() {
+        PriceSketch sketch = sketch(new double[] { 0, 0, 100 });
+
+        assertThat(sketch.quantile(0.5)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(PriceSketch.fromBytes(sketch.toBytes()).quantile(1).doubleValue()).isCloseTo(100, within(1.0));
+    }
+
+    @Test
+    void emptySketchHasNoQuantile() {
+        assertThat(PriceSketch.fromBytes(null).quantile(0.5)).isNull();
+        assertThat(new PriceSketch().quantile(0.5)).isNull();
+    }
+
+    @Test
+    void invalidInputIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new PriceSketch().quantile(1.5));
+        assertThatIllegalArgumentException().isThrownBy(() -> PriceSketch.fromBytes(new byte[] { 9 }));
+        assertThatIllegalArgumentException().isThrownBy(() -> PriceSketch.fromBytes(new byte[] { 1, (byte) 0x80 }));
+    }
+}
@@ -0,0 +1,107 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dnc.mprs.propservice.repository.SuggestionSource;
+import com.dnc.mprs.propservice.service.dto.Suggestion;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link SuggestionIndex}.
+ */
+class SuggestionIndexTest {
+
+    private static SuggestionIndex index(SuggestionSource... sources) {
+        SuggestionIndex index = new SuggestionIndex("test", 1_000);
+        index.rebuild(Flux.just(sources)).block();
+        return index;
+    }
+
+    private static List<Long> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getId).toList();
+    }
+
+    @Test
+    void suggestsWordStartsByDecreasingVolume() {
+        SuggestionIndex index = index(
+            new SuggestionSource(1L, List.of("Seoul Gangnam-gu Raemian"), 10),
+            new SuggestionSource(2L, List.of("Gangnam Hillstate"), 30),
+            new SuggestionSource(3L, List.of("Busan Haeundae"), 50),
+            new SuggestionSource(4L, List.of("Gangseo Xi"), 20)
+        );
+
+        assertThat(ids(index.suggest("gang", 10))).containsExactly(2L, 4L, 1L);
+        assertThat(ids(index.suggest("gangn", 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.suggest("gang", 2))).containsExactly(2L, 4L);
+        assertThat(ids(index.suggest("angnam", 10))).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestsOneTextPerEntity() {
+        SuggestionIndex index = index(new SuggestionSource(1L, List.of("Jamsil-dong 19", "Jamsil Els"), 5));
+
+        List<Suggestion> suggestions = index.suggest("jamsil", 10);
+
+        assertThat(ids(suggestions)).containsExactly(1L);
+        assertThat(suggestions.get(0).getVolume()).isEqualTo(5);
+    }
+
+    @Test
+    void ignoresCaseWidthAndRepeatedSpaces() {
+        SuggestionIndex index = index(new SuggestionSource(1L, List.of("Mapo  Raemian Prugio"), 1));
+
+        assertThat(ids(index.suggest("MAPO RAE", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("\uFF2D\uFF41\uFF50\uFF4F", 10))).containsExactly(1L);
+        assertThat(index.suggest("Mapo Raemian", 10).get(0).getText()).isEqualTo("Mapo  Raemian Prugio");
+    }
+
+    @Test
+    void changesShadowTheSnapshot() {
+        SuggestionIndex index = index(
+            new SuggestionSource(1L, List.of("Acro River Park"), 40),
+            new SuggestionSource(2L, List.of("Acro Vista"), 10)
+        );
+
+        index.put(1L, "Banpo Xi", null);
+        index.put(3L, "Acro Seoul Forest");
+        index.remove(2L);
+
+        assertThat(ids(index.suggest("acro", 10))).containsExactly(3L);
+        List<Suggestion> banpo = index.suggest("banpo", 10);
+        assertThat(ids(banpo)).containsExactly(1L);
+        assertThat(banpo.get(0).getVolume()).isEqualTo(40);
+    }
+
+    @Test
+    void compactionKeepsTheChanges() {
+        SuggestionIndex index = index(new SuggestionSource(1L, List.of("Acro River Park"), 40));
+        index.put(2L, "Acro Vista");
+        index.remove(1L);
+
+        index.compact().block();
+
+        assertThat(ids(index.suggest("acro", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void rebuildReplacesTheSnapshot() {
+        SuggestionIndex index = index(new SuggestionSource(1L, List.of("Acro River Park"), 40));
+
+        index.rebuild(Flux.just(new SuggestionSource(2L, List.of("Acro Vista"), 10))).block();
+
+        assertThat(ids(index.suggest("acro", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void failedRebuildCompactsTheChanges() {
+        SuggestionIndex index = index(new SuggestionSource(1L, List.of("Acro River Park"), 40));
+        index.put(2L, "Acro Vista");
+
+        index.rebuild(Flux.error(new IllegalStateException("unavailable"))).block();
+
+        assertThat(ids(index.suggest("acro", 10))).containsExactly(1L, 2L);
+    }
+}
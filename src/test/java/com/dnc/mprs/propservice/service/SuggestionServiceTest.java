@@ -0,0 +1,79 @@
+package com.dnc.mprs.propservice.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.service.dto.Suggestion;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the refresh of the {@link SuggestionService} indexes.
+ */
+class SuggestionServiceTest {
+
+    private final List<List<Long>> queries = new ArrayList<>();
+
+    private Map<Long, Complex> complexes;
+
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        ComplexRepository complexRepository = mock(ComplexRepository.class);
+        when(complexRepository.findAllByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            queries.add(List.copyOf(ids));
+            return Flux.fromIterable(ids).filter(complexes::containsKey).map(complexes::get);
+        });
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getBatchLookup().setChunkSize(2);
+        suggestionService = new SuggestionService(complexRepository, mock(PropertyRepository.class), applicationProperties);
+    }
+
+    private static Complex complex(long id, String complexName) {
+        return new Complex().id(id).complexName(complexName);
+    }
+
+    private List<Long> suggested(String prefix) {
+        return suggestionService.suggestComplexes(prefix, 10).stream().map(Suggestion::getId).toList();
+    }
+
+    @Test
+    void changesOutsideOfATransactionAreIndexedAtOnce() {
+        suggestionService.complexesChanged(List.of(complex(1L, "Raemian"), complex(2L, "Hillstate"))).block();
+
+        assertThat(suggested("raem")).containsExactly(1L);
+        assertThat(suggested("hill")).containsExactly(2L);
+
+        suggestionService.complexDeleted(2L).block();
+
+        assertThat(suggested("hill")).isEmpty();
+    }
+
+    @Test
+    void invalidatedEntitiesAreLoadedAgainInChunks() {
+        suggestionService.complexesChanged(List.of(complex(1L, "Raemian"), complex(2L, "Hillstate"), complex(3L, "Xi"))).block();
+        // complex 1 was renamed and complex 2 deleted by another instance
+        complexes = Map.of(1L, complex(1L, "Prugio"), 3L, complex(3L, "Xi"));
+
+        suggestionService.refreshComplexes(List.of(1L, 2L, 3L));
+
+        assertThat(queries).containsExactly(List.of(1L, 2L), List.of(3L));
+        assertThat(suggested("raem")).isEmpty();
+        assertThat(suggested("prug")).containsExactly(1L);
+        assertThat(suggested("hill")).isEmpty();
+        assertThat(suggested("xi")).containsExactly(3L);
+    }
+}
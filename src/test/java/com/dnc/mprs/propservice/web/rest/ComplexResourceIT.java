@@ -14,9 +14,11 @@ import com.dnc.mprs.propservice.domain.Complex;
 import com.dnc.mprs.propservice.repository.ComplexRepository;
 import com.dnc.mprs.propservice.repository.EntityManager;
 import com.dnc.mprs.propservice.repository.search.ComplexSearchRepository;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +33,7 @@ import org.springframework.data.util.Streamable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
 /**
  * Integration tests for the {@link ComplexResource} REST controller.
@@ -58,6 +61,12 @@ class ComplexResourceIT {
     private static final String DEFAULT_ADDRESS_CODE = "AAAAAAAAAA";
     private static final String UPDATED_ADDRESS_CODE = "BBBBBBBBBB";
 
+    private static final Double DEFAULT_LATITUDE = -90D;
+    private static final Double UPDATED_LATITUDE = -89D;
+
+    private static final Double DEFAULT_LONGITUDE = -180D;
+    private static final Double UPDATED_LONGITUDE = -179D;
+
     private static final Instant DEFAULT_CREATED_AT = Instant.ofEpochMilli(0L);
     private static final Instant UPDATED_CREATED_AT = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
@@ -67,6 +76,8 @@ class ComplexResourceIT {
     private static final String ENTITY_API_URL = "/api/complexes";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/complexes/_search";
+    private static final String ENTITY_BULK_API_URL = "/api/complexes/_bulk";
+    private static final String ENTITY_SUGGEST_API_URL = "/api/complexes/_suggest";
 
     private static Random random = new Random();
     private static AtomicLong longCount = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -104,6 +115,8 @@ class ComplexResourceIT {
             .city(DEFAULT_CITY)
             .town(DEFAULT_TOWN)
             .addressCode(DEFAULT_ADDRESS_CODE)
+            .latitude(DEFAULT_LATITUDE)
+            .longitude(DEFAULT_LONGITUDE)
             .createdAt(DEFAULT_CREATED_AT)
             .updatedAt(DEFAULT_UPDATED_AT);
     }
@@ -122,6 +135,8 @@ class ComplexResourceIT {
             .city(UPDATED_CITY)
             .town(UPDATED_TOWN)
             .addressCode(UPDATED_ADDRESS_CODE)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
     }
@@ -257,6 +272,43 @@ class ComplexResourceIT {
         assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore);
     }
 
+    @Test
+    void bulkSaveComplexes() throws Exception {
+        // Initialize the database
+        insertedComplex = complexRepository.save(complex).block();
+
+        long databaseSizeBeforeBulk = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Complex updatedComplex = createUpdatedEntity();
+        updatedComplex.setId(insertedComplex.getId());
+        Complex invalidComplex = createEntity().complexName(null);
+
+        List<BulkItemResult> results = webTestClient
+            .post()
+            .uri(ENTITY_BULK_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(List.of(createEntity(), updatedComplex, invalidComplex)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(BulkItemResult.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(results)
+            .extracting(BulkItemResult::getStatus)
+            .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.UPDATED, BulkItemResult.Status.FAILED);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getId()).isEqualTo(insertedComplex.getId());
+        assertThat(results.get(2).getError()).contains("complexName");
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeBulk + 1);
+        assertPersistedComplexUpdatedSince(updatedComplex, since);
+        assertPersistedComplexToMatchUpdatableProperties(updatedComplex);
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(complexSearchRepository.findById(results.get(0).getId()).block()).isNotNull());
+    }
+
     @Test
     void getAllComplexes() {
         // Initialize the database
@@ -287,12 +339,40 @@ class ComplexResourceIT {
             .value(hasItem(DEFAULT_TOWN))
             .jsonPath("$.[*].addressCode")
             .value(hasItem(DEFAULT_ADDRESS_CODE))
+            .jsonPath("$.[*].latitude")
+            .value(hasItem(DEFAULT_LATITUDE.doubleValue()))
+            .jsonPath("$.[*].longitude")
+            .value(hasItem(DEFAULT_LONGITUDE.doubleValue()))
             .jsonPath("$.[*].createdAt")
             .value(hasItem(DEFAULT_CREATED_AT.toString()))
             .jsonPath("$.[*].updatedAt")
             .value(hasItem(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    void getAllComplexesByCursorSortedById() {
+        // Initialize the database
+        List<Long> ids = insertComplexesWithTowns("b", null, "a", null, "b", "c", null).stream().map(Complex::getId).sorted().toList();
+
+        assertThat(getAllComplexIdsByCursor("id,asc")).containsExactlyElementsOf(ids);
+        assertThat(getAllComplexIdsByCursor("id,desc")).containsExactlyElementsOf(ids.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    void getAllComplexesByCursorSortedByNullableTown() {
+        // Initialize the database, the pages of 2 end inside the runs of NULL and of equal towns
+        List<Complex> complexes = insertComplexesWithTowns("b", null, "a", null, "b", "c", null);
+        Comparator<Complex> byTown = Comparator.comparing(Complex::getTown, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Complex::getId);
+
+        assertThat(getAllComplexIdsByCursor("town,asc")).containsExactlyElementsOf(
+            complexes.stream().sorted(byTown).map(Complex::getId).toList()
+        );
+        assertThat(getAllComplexIdsByCursor("town,desc")).containsExactlyElementsOf(
+            complexes.stream().sorted(byTown.reversed()).map(Complex::getId).toList()
+        );
+    }
+
     @Test
     void getComplex() {
         // Initialize the database
@@ -323,6 +403,10 @@ class ComplexResourceIT {
             .value(is(DEFAULT_TOWN))
             .jsonPath("$.addressCode")
             .value(is(DEFAULT_ADDRESS_CODE))
+            .jsonPath("$.latitude")
+            .value(is(DEFAULT_LATITUDE.doubleValue()))
+            .jsonPath("$.longitude")
+            .value(is(DEFAULT_LONGITUDE.doubleValue()))
             .jsonPath("$.createdAt")
             .value(is(DEFAULT_CREATED_AT.toString()))
             .jsonPath("$.updatedAt")
@@ -341,12 +425,41 @@ class ComplexResourceIT {
             .isNotFound();
     }
 
+    @Test
+    void multiGetComplexes() {
+        // Initialize the database
+        insertedComplex = complexRepository.save(complex).block();
+        Complex other = complexRepository.save(createUpdatedEntity()).block();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_mget")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of(other.getId(), Long.MAX_VALUE, complex.getId(), other.getId()))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(List.of(other.getId().intValue(), complex.getId().intValue()));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_mget")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of())
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void putExistingComplex() throws Exception {
         // Initialize the database
         insertedComplex = complexRepository.save(complex).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
         complexSearchRepository.save(complex).block();
         int searchDatabaseSizeBefore = IterableUtil.sizeOf(complexSearchRepository.findAll().collectList().block());
 
@@ -359,6 +472,8 @@ class ComplexResourceIT {
             .city(UPDATED_CITY)
             .town(UPDATED_TOWN)
             .addressCode(UPDATED_ADDRESS_CODE)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
 
@@ -373,6 +488,7 @@ class ComplexResourceIT {
 
         // Validate the Complex in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedComplexUpdatedSince(updatedComplex, since);
         assertPersistedComplexToMatchAllProperties(updatedComplex);
 
         await()
@@ -461,6 +577,7 @@ class ComplexResourceIT {
         insertedComplex = complexRepository.save(complex).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         // Update the complex using partial update
         Complex partialUpdatedComplex = new Complex();
@@ -480,6 +597,7 @@ class ComplexResourceIT {
         // Validate the Complex in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedComplexUpdatedSince(partialUpdatedComplex, since);
         assertComplexUpdatableFieldsEquals(createUpdateProxyForBean(partialUpdatedComplex, complex), getPersistedComplex(complex));
     }
 
@@ -489,6 +607,7 @@ class ComplexResourceIT {
         insertedComplex = complexRepository.save(complex).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         // Update the complex using partial update
         Complex partialUpdatedComplex = new Complex();
@@ -501,6 +620,8 @@ class ComplexResourceIT {
             .city(UPDATED_CITY)
             .town(UPDATED_TOWN)
             .addressCode(UPDATED_ADDRESS_CODE)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
 
@@ -516,6 +637,7 @@ class ComplexResourceIT {
         // Validate the Complex in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedComplexUpdatedSince(partialUpdatedComplex, since);
         assertComplexUpdatableFieldsEquals(partialUpdatedComplex, getPersistedComplex(partialUpdatedComplex));
     }
 
@@ -641,12 +763,106 @@ class ComplexResourceIT {
             .value(hasItem(DEFAULT_TOWN))
             .jsonPath("$.[*].addressCode")
             .value(hasItem(DEFAULT_ADDRESS_CODE))
+            .jsonPath("$.[*].latitude")
+            .value(hasItem(DEFAULT_LATITUDE.doubleValue()))
+            .jsonPath("$.[*].longitude")
+            .value(hasItem(DEFAULT_LONGITUDE.doubleValue()))
             .jsonPath("$.[*].createdAt")
             .value(hasItem(DEFAULT_CREATED_AT.toString()))
             .jsonPath("$.[*].updatedAt")
             .value(hasItem(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    void searchComplexWithinDistance() {
+        // Initialize the database
+        complexSearchRepository.putMapping().block();
+        complex.latitude(37.5547).longitude(126.9707);
+        insertedComplex = complexRepository.save(complex).block();
+        complexSearchRepository.save(complex).block();
+
+        // Search the complexes around a nearby point, by distance
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + complex.getId() + "&latitude=37.56&longitude=126.97&distance=1km&sort=distance,asc")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(complex.getId().intValue()));
+
+        // Search the complexes around a distant point
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + complex.getId() + "&latitude=35.1&longitude=129.04&distance=1km")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEmpty();
+    }
+
+    @Test
+    void searchComplexByDistanceWithoutCenter() {
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=*&sort=distance,asc")
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.geoinvalid");
+    }
+
+    @Test
+    void suggestComplex() throws Exception {
+        // Create the Complex through the resource, which indexes its name
+        String word = "Suggest" + longCount.incrementAndGet();
+        complex.setComplexName("Hillstate " + word);
+        insertedComplex = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(complex))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Complex.class)
+            .returnResult()
+            .getResponseBody();
+
+        // Complete the name from the start of its second word, ignoring case
+        webTestClient
+            .get()
+            .uri(ENTITY_SUGGEST_API_URL + "?prefix=" + word.toUpperCase())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(insertedComplex.getId().intValue()))
+            .jsonPath("$.[*].text")
+            .value(hasItem("Hillstate " + word));
+    }
+
+    @Test
+    void suggestComplexWithInvalidSize() {
+        webTestClient.get().uri(ENTITY_SUGGEST_API_URL + "?prefix=a&size=0").exchange().expectStatus().isBadRequest();
+    }
+
+    private List<Complex> insertComplexesWithTowns(String... towns) {
+        return Flux.fromArray(towns).concatMap(town -> complexRepository.save(createEntity().town(town))).collectList().block();
+    }
+
+    private List<Long> getAllComplexIdsByCursor(String sort) {
+        return TestUtil.getAllIdsByCursor(webTestClient, ENTITY_API_URL + "?size=2&sort=" + sort, Complex.class, Complex::getId);
+    }
+
     protected long getRepositoryCount() {
         return complexRepository.count().block();
     }
@@ -673,6 +889,15 @@ class ComplexResourceIT {
         assertComplexUpdatableFieldsEquals(expectedComplex, getPersistedComplex(expectedComplex));
     }
 
+    /**
+     * Asserts that the persisted complex was stamped with the time of its last change, then expects that time.
+     */
+    protected void assertPersistedComplexUpdatedSince(Complex expectedComplex, Instant since) {
+        Instant updatedAt = getPersistedComplex(expectedComplex).getUpdatedAt();
+        assertThat(updatedAt).isBetween(since, Instant.now());
+        expectedComplex.setUpdatedAt(updatedAt);
+    }
+
     protected void assertPersistedComplexToMatchUpdatableProperties(Complex expectedComplex) {
         // Test fails because reactive api returns an empty object instead of null
         // assertComplexAllUpdatablePropertiesEquals(expectedComplex, getPersistedComplex(expectedComplex));
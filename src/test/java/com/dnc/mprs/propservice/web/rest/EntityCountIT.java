@@ -0,0 +1,165 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.service.PropertyService;
+import com.dnc.mprs.propservice.web.util.CountMode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the count modes of the list endpoints, with the counts kept in memory.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+@TestPropertySource(properties = "application.count-cache.enabled=true")
+class EntityCountIT {
+
+    private static final String ENTITY_API_URL = "/api/properties";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void reconcile() {
+        propertyService.reconcileCount().block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        TransactionResourceIT.deleteEntities(em);
+        PropertyResourceIT.deleteEntities(em);
+    }
+
+    private String totalCount(String countMode) {
+        return webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1" + (countMode != null ? "&" + CountMode.PARAMETER + "=" + countMode : ""))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getFirst("X-Total-Count");
+    }
+
+    private long databaseCount() {
+        return propertyRepository.count().block();
+    }
+
+    @Test
+    void exactCountIsKeptInMemory() throws Exception {
+        long count = databaseCount();
+        assertThat(totalCount(null)).isEqualTo(String.valueOf(count));
+
+        // A row written around the service is not counted until the next reconciliation
+        propertyRepository.save(PropertyResourceIT.createEntity()).block();
+        assertThat(totalCount(null)).isEqualTo(String.valueOf(count));
+
+        Property created = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(PropertyResourceIT.createEntity()))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Property.class)
+            .returnResult()
+            .getResponseBody();
+        assertThat(totalCount("exact")).isEqualTo(String.valueOf(count + 1));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(List.of(PropertyResourceIT.createEntity(), PropertyResourceIT.createEntity())))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2);
+        assertThat(totalCount(null)).isEqualTo(String.valueOf(count + 3));
+
+        webTestClient.delete().uri(ENTITY_API_URL + "/{id}", created.getId()).exchange().expectStatus().isNoContent();
+        assertThat(totalCount(null)).isEqualTo(String.valueOf(count + 2));
+
+        propertyService.reconcileCount().block();
+        assertThat(totalCount(null)).isEqualTo(String.valueOf(databaseCount())).isEqualTo(String.valueOf(count + 3));
+    }
+
+    @Test
+    void estimatedCountIsFlagged() {
+        propertyRepository.save(PropertyResourceIT.createEntity()).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&" + CountMode.PARAMETER + "=estimated")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists("X-Total-Count")
+            .expectHeader()
+            .valueEquals(CountMode.ESTIMATED_HEADER, "true");
+    }
+
+    @Test
+    void noCountOmitsTheCountHeaders() {
+        propertyRepository.save(PropertyResourceIT.createEntity()).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&" + CountMode.PARAMETER + "=none")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectHeader()
+            .doesNotExist(CountMode.ESTIMATED_HEADER)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?" + CountMode.PARAMETER + "=unknown")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+}
@@ -0,0 +1,294 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.config.ApplicationProperties;
+import com.dnc.mprs.propservice.domain.ImportJob;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.ImportBatch;
+import com.dnc.mprs.propservice.repository.ImportJobRepository;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.repository.TransactionRepository;
+import com.dnc.mprs.propservice.security.AuthoritiesConstants;
+import com.dnc.mprs.propservice.web.util.CsvUtil;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link ImportEndpoint} actuator endpoint and the upload of the imported files.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class ImportEndpointIT {
+
+    private static final String IMPORT_API_URL = "/management/import";
+
+    private static final String TRANSACTION_IMPORT_API_URL = "/api/transactions/_import";
+
+    private static final String ADDRESS = "1 Import-ro";
+
+    @Autowired
+    private ComplexRepository complexRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private String fileName;
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() {
+        fileName = "trades-" + UUID.randomUUID() + ".csv";
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        TransactionResourceIT.deleteEntities(em);
+        PropertyResourceIT.deleteEntities(em);
+        ComplexResourceIT.deleteEntities(em);
+        em.deleteAll(ImportJob.class).block();
+        Files.deleteIfExists(file());
+    }
+
+    private Path file() {
+        return applicationProperties.getBulkImport().getDirectory().resolve(fileName);
+    }
+
+    @Test
+    void importsUploadedFile() {
+        String csv =
+            "complex_name,address_code,address,floor,type,area,build_year,transaction_type,price,transaction_date,buyer\r\n" +
+            "Import Hillstate,1111010100," +
+            ADDRESS +
+            ",3,APT,84.97,2005,SALE,\"1,250,000\",2024-01-15,Kim\r\n" +
+            "Import Hillstate,1111010100," +
+            ADDRESS +
+            ",3,APT,84.97,2005,SALE,1300000,20240220,Lee\r\n" +
+            "Import Hillstate,1111010100," +
+            ADDRESS +
+            ",4,APT,84.97,2005,SALE,not a price,2024-03-01,Park\r\n";
+
+        webTestClient
+            .post()
+            .uri(TRANSACTION_IMPORT_API_URL + "?name=" + fileName)
+            .contentType(CsvUtil.TEXT_CSV_UTF8)
+            .bodyValue(csv)
+            .exchange()
+            .expectStatus()
+            .isAccepted()
+            .expectBody()
+            .jsonPath("$.fileName")
+            .isEqualTo(fileName);
+
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                webTestClient
+                    .get()
+                    .uri(IMPORT_API_URL)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$[?(@.fileName == '" + fileName + "')].status")
+                    .isEqualTo("COMPLETED")
+                    .jsonPath("$[?(@.fileName == '" + fileName + "')].imported")
+                    .isEqualTo(2)
+                    .jsonPath("$[?(@.fileName == '" + fileName + "')].rejected")
+                    .isEqualTo(1)
+                    .jsonPath("$[?(@.fileName == '" + fileName + "')].firstRejection")
+                    .isEqualTo("Row 3: price is not a number: not a price")
+            );
+
+        List<Property> properties = propertyRepository
+            .findAll()
+            .filter(property -> ADDRESS.equals(property.getAddress()))
+            .collectList()
+            .block();
+        assertThat(properties).hasSize(1);
+        Property property = properties.get(0);
+        assertThat(property.getFloor()).isEqualTo(3);
+        assertThat(complexRepository.findById(property.getComplexId()).block().getComplexName()).isEqualTo("Import Hillstate");
+
+        List<Transaction> transactions = transactionRepository
+            .findAll()
+            .filter(transaction -> property.getId().equals(transaction.getPropertyId()))
+            .collectList()
+            .block();
+        assertThat(transactions)
+            .extracting(Transaction::getPrice)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactlyInAnyOrder(new BigDecimal("1250000"), new BigDecimal("1300000"));
+
+        // A completed file is not imported again
+        webTestClient
+            .post()
+            .uri(IMPORT_API_URL + "/" + fileName)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private ImportJob failedJob() throws IOException {
+        Files.createDirectories(file().getParent());
+        Files.writeString(
+            file(),
+            "address,type,area,build_year,transaction_type,price,transaction_date\r\n" +
+            ADDRESS +
+            ",APT,84.97,2005,SALE,1250000,2024-01-15\r\n" +
+            ADDRESS +
+            ",APT,84.97,2005,SALE,1300000,2024-02-20\r\n"
+        );
+        return importJobRepository
+            .save(
+                new ImportJob()
+                    .fileName(fileName)
+                    .charset("UTF-8")
+                    .status(ImportJob.Status.FAILED)
+                    .fileSize(Files.size(file()))
+                    .rowsRead(0L)
+                    .imported(0L)
+                    .rejected(0L)
+                    .startedAt(Instant.now())
+                    .updatedAt(Instant.now())
+            )
+            .block();
+    }
+
+    private void awaitStatus(ImportJob.Status status, int imported) {
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                webTestClient
+                    .get()
+                    .uri(IMPORT_API_URL)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$[?(@.fileName == '" + fileName + "')].status")
+                    .isEqualTo(status.name())
+                    .jsonPath("$[?(@.fileName == '" + fileName + "')].imported")
+                    .isEqualTo(imported)
+            );
+    }
+
+    @Test
+    void jobClaimedByAnotherInstanceIsNotStarted() throws IOException {
+        ImportJob job = failedJob();
+        String otherInstance = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        assertThat(importJobRepository.claim(job.getId(), otherInstance, now.plus(1, ChronoUnit.MINUTES), now).block()).isEqualTo(1L);
+
+        webTestClient
+            .post()
+            .uri(IMPORT_API_URL + "/" + fileName)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // once the claim of the other instance expires, the job is resumed here
+        importJobRepository.claim(job.getId(), otherInstance, now.minus(1, ChronoUnit.SECONDS), now).block();
+
+        webTestClient
+            .post()
+            .uri(IMPORT_API_URL + "/" + fileName)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        awaitStatus(ImportJob.Status.COMPLETED, 2);
+    }
+
+    @Test
+    void resumedJobSkipsTheRecordedBatches() throws IOException {
+        ImportJob job = failedJob();
+        // the only batch of the file was written by the failed run, which stopped before storing its checkpoint
+        importJobRepository.insertBatch(job.getId(), new ImportBatch(job.getFileSize(), 2, 2, 0, null)).block();
+
+        webTestClient
+            .post()
+            .uri(IMPORT_API_URL + "/" + fileName)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        awaitStatus(ImportJob.Status.COMPLETED, 2);
+        assertThat(propertyRepository.findAll().filter(property -> ADDRESS.equals(property.getAddress())).count().block()).isZero();
+    }
+
+    @Test
+    void rejectsUploadWithoutRequiredColumns() {
+        webTestClient
+            .post()
+            .uri(TRANSACTION_IMPORT_API_URL + "?name=" + fileName)
+            .contentType(CsvUtil.TEXT_CSV_UTF8)
+            .bodyValue("address,type\r\n" + ADDRESS + ",APT\r\n")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        assertThat(file()).doesNotExist();
+    }
+
+    @Test
+    void rejectsMissingFile() {
+        webTestClient
+            .post()
+            .uri(IMPORT_API_URL + "/" + fileName)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+}
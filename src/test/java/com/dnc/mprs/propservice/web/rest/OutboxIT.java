@@ -0,0 +1,180 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.broker.KafkaProducer;
+import com.dnc.mprs.propservice.config.EmbeddedKafka;
+import com.dnc.mprs.propservice.domain.OutboxEvent;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.OutboxEventRepository;
+import com.dnc.mprs.propservice.service.OutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the transactional outbox of the entity change events and its relay.
+ */
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+@EmbeddedKafka
+@IntegrationTest
+@ImportAutoConfiguration(TestChannelBinderConfiguration.class)
+class OutboxIT {
+
+    private static final String ENTITY_API_URL = "/api/properties";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private OutputDestination output;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void clearOutbox() {
+        outboxEventRepository.deleteAll().block();
+        output.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        outboxEventRepository.deleteAll().block();
+        PropertyResourceIT.deleteEntities(em);
+    }
+
+    private List<OutboxEvent> outboxEvents() {
+        return outboxEventRepository.findAll().sort(Comparator.comparing(OutboxEvent::getId)).collectList().block();
+    }
+
+    private Property createProperty() throws Exception {
+        return webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(PropertyResourceIT.createEntity()))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Property.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private OutboxEvent event(Long aggregateId, String claimedBy, Instant claimedUntil) {
+        return outboxService
+            .event(OutboxEvent.EventType.UPDATED, Property.class, aggregateId, Property.class.getSimpleName())
+            .claimedBy(claimedBy)
+            .claimedUntil(claimedUntil);
+    }
+
+    @Test
+    void changesAreRecordedInTheOutbox() throws Exception {
+        Property property = createProperty();
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, property.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(property.description("BBBBBBBBBB")))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient.delete().uri(ENTITY_API_URL_ID, property.getId()).exchange().expectStatus().isNoContent();
+
+        List<OutboxEvent> events = outboxEvents();
+        assertThat(events)
+            .extracting(OutboxEvent::getEventType)
+            .containsExactly(OutboxEvent.EventType.CREATED, OutboxEvent.EventType.UPDATED, OutboxEvent.EventType.DELETED);
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getAggregateType()).isEqualTo(Property.class.getSimpleName());
+            assertThat(event.getAggregateId()).isEqualTo(property.getId());
+            assertThat(event.getClaimedBy()).isNull();
+        });
+        assertThat(events.get(1).getPayload()).contains("BBBBBBBBBB");
+    }
+
+    @Test
+    void relayPublishesThenDeletesTheEvents() throws Exception {
+        Property property = createProperty();
+        OutboxEvent event = outboxEvents().get(0);
+
+        outboxService.relay().block();
+
+        Message<byte[]> message = output.receive(1000, KafkaProducer.BINDING_NAME);
+        assertThat(message).isNotNull();
+        assertThat(new String(message.getPayload(), StandardCharsets.UTF_8)).isEqualTo(event.getPayload());
+        assertThat(message.getHeaders().get(KafkaHeaders.KEY)).isEqualTo(String.valueOf(property.getId()).getBytes(StandardCharsets.UTF_8));
+        assertThat(message.getHeaders().get(OutboxService.EVENT_ID_HEADER)).isEqualTo(String.valueOf(event.getId()));
+        assertThat(message.getHeaders().get(OutboxService.EVENT_TYPE_HEADER)).isEqualTo(OutboxEvent.EventType.CREATED.name());
+        assertThat(message.getHeaders().get(OutboxService.AGGREGATE_TYPE_HEADER)).isEqualTo(Property.class.getSimpleName());
+        assertThat(outboxEvents()).isEmpty();
+    }
+
+    @Test
+    void relaySkipsTheEntitiesClaimedByAnotherRelay() {
+        Instant leased = Instant.now().plus(1, ChronoUnit.MINUTES);
+        outboxService
+            .recordAll(List.of(event(1L, UUID.randomUUID().toString(), leased), event(1L, null, null), event(2L, null, null)))
+            .block();
+
+        outboxService.relay().block();
+
+        Message<byte[]> message = output.receive(1000, KafkaProducer.BINDING_NAME);
+        assertThat(message.getHeaders().get(KafkaHeaders.KEY)).isEqualTo("2".getBytes(StandardCharsets.UTF_8));
+        assertThat(output.receive(100, KafkaProducer.BINDING_NAME)).isNull();
+        assertThat(outboxEvents()).extracting(OutboxEvent::getAggregateId).containsExactly(1L, 1L);
+
+        // the claim expires, so the events of the entity are published in order by the next relay
+        List<OutboxEvent> events = outboxEvents();
+        outboxEventRepository.save(events.get(0).claimedUntil(Instant.now().minus(1, ChronoUnit.SECONDS))).block();
+
+        outboxService.relay().block();
+
+        assertThat(output.receive(1000, KafkaProducer.BINDING_NAME).getHeaders().get(OutboxService.EVENT_ID_HEADER)).isEqualTo(
+            String.valueOf(events.get(0).getId())
+        );
+        assertThat(output.receive(1000, KafkaProducer.BINDING_NAME).getHeaders().get(OutboxService.EVENT_ID_HEADER)).isEqualTo(
+            String.valueOf(events.get(1).getId())
+        );
+        assertThat(outboxEvents()).isEmpty();
+    }
+}
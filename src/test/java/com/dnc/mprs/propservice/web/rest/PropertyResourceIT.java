@@ -12,13 +12,21 @@ import static org.springframework.security.test.web.reactive.server.SecurityMock
 
 import com.dnc.mprs.propservice.IntegrationTest;
 import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.PropertyCriteria;
 import com.dnc.mprs.propservice.repository.EntityManager;
 import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.repository.TransactionRepository;
 import com.dnc.mprs.propservice.repository.search.PropertySearchRepository;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.web.util.StreamingUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -29,10 +37,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.util.Streamable;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
 /**
  * Integration tests for the {@link PropertyResource} REST controller.
@@ -78,6 +89,12 @@ class PropertyResourceIT {
     private static final String DEFAULT_DESCRIPTION = "AAAAAAAAAA";
     private static final String UPDATED_DESCRIPTION = "BBBBBBBBBB";
 
+    private static final Double DEFAULT_LATITUDE = -90D;
+    private static final Double UPDATED_LATITUDE = -89D;
+
+    private static final Double DEFAULT_LONGITUDE = -180D;
+    private static final Double UPDATED_LONGITUDE = -179D;
+
     private static final Instant DEFAULT_CREATED_AT = Instant.ofEpochMilli(0L);
     private static final Instant UPDATED_CREATED_AT = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
@@ -87,6 +104,7 @@ class PropertyResourceIT {
     private static final String ENTITY_API_URL = "/api/properties";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/properties/_search";
+    private static final String ENTITY_BULK_API_URL = "/api/properties/_bulk";
 
     private static Random random = new Random();
     private static AtomicLong longCount = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -100,6 +118,9 @@ class PropertyResourceIT {
     @Autowired
     private PropertySearchRepository propertySearchRepository;
 
+    @Autowired
+    private TransactionRepository transactionRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -130,6 +151,8 @@ class PropertyResourceIT {
             .buildYear(DEFAULT_BUILD_YEAR)
             .parkingYn(DEFAULT_PARKING_YN)
             .description(DEFAULT_DESCRIPTION)
+            .latitude(DEFAULT_LATITUDE)
+            .longitude(DEFAULT_LONGITUDE)
             .createdAt(DEFAULT_CREATED_AT)
             .updatedAt(DEFAULT_UPDATED_AT);
     }
@@ -154,6 +177,8 @@ class PropertyResourceIT {
             .buildYear(UPDATED_BUILD_YEAR)
             .parkingYn(UPDATED_PARKING_YN)
             .description(UPDATED_DESCRIPTION)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
     }
@@ -183,6 +208,7 @@ class PropertyResourceIT {
             propertySearchRepository.delete(insertedProperty).block();
             insertedProperty = null;
         }
+        TransactionResourceIT.deleteEntities(em);
         deleteEntities(em);
     }
 
@@ -409,6 +435,42 @@ class PropertyResourceIT {
         assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore);
     }
 
+    @Test
+    void bulkSaveProperties() throws Exception {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+
+        long databaseSizeBeforeBulk = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Property updatedProperty = createUpdatedEntity();
+        updatedProperty.setId(insertedProperty.getId());
+        Property invalidProperty = createEntity().address(null);
+
+        List<BulkItemResult> results = webTestClient
+            .post()
+            .uri(ENTITY_BULK_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(List.of(createEntity(), updatedProperty, invalidProperty)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(BulkItemResult.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(results)
+            .extracting(BulkItemResult::getStatus)
+            .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.UPDATED, BulkItemResult.Status.FAILED);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getId()).isEqualTo(insertedProperty.getId());
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeBulk + 1);
+        assertPersistedPropertyUpdatedSince(updatedProperty, since);
+        assertPersistedPropertyToMatchUpdatableProperties(updatedProperty);
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(propertySearchRepository.findById(results.get(0).getId()).block()).isNotNull());
+    }
+
     @Test
     void getAllProperties() {
         // Initialize the database
@@ -451,12 +513,77 @@ class PropertyResourceIT {
             .value(hasItem(DEFAULT_PARKING_YN))
             .jsonPath("$.[*].description")
             .value(hasItem(DEFAULT_DESCRIPTION))
+            .jsonPath("$.[*].latitude")
+            .value(hasItem(DEFAULT_LATITUDE.doubleValue()))
+            .jsonPath("$.[*].longitude")
+            .value(hasItem(DEFAULT_LONGITUDE.doubleValue()))
             .jsonPath("$.[*].createdAt")
             .value(hasItem(DEFAULT_CREATED_AT.toString()))
             .jsonPath("$.[*].updatedAt")
             .value(hasItem(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    void streamAllProperties() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+
+        // Stream all the propertyList as newline delimited JSON
+        List<Property> streamed = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Property.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(streamed).filteredOn(streamedProperty -> streamedProperty.getId().equals(property.getId())).hasSize(1);
+        assertThat(streamed).extracting(Property::getAddress).contains(DEFAULT_ADDRESS);
+    }
+
+    @Test
+    void streamAllPropertyEvents() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+
+        // Stream all the propertyList as server-sent events, then their count
+        List<ServerSentEvent<String>> events = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(events).isNotEmpty();
+        assertThat(events.subList(0, events.size() - 1)).allMatch(event -> event.event() == null);
+        assertThat(events.subList(0, events.size() - 1)).anyMatch(event -> event.data().contains("\"id\":" + property.getId() + ","));
+        ServerSentEvent<String> count = events.get(events.size() - 1);
+        assertThat(count.event()).isEqualTo(StreamingUtil.COUNT_EVENT);
+        assertThat(count.data()).matches("\\{\"total\":\\d+,\"exact\":true}");
+    }
+
+    @Test
+    void streamAllPropertiesWithCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getProperty() {
         // Initialize the database
@@ -499,6 +626,10 @@ class PropertyResourceIT {
             .value(is(DEFAULT_PARKING_YN))
             .jsonPath("$.description")
             .value(is(DEFAULT_DESCRIPTION))
+            .jsonPath("$.latitude")
+            .value(is(DEFAULT_LATITUDE.doubleValue()))
+            .jsonPath("$.longitude")
+            .value(is(DEFAULT_LONGITUDE.doubleValue()))
             .jsonPath("$.createdAt")
             .value(is(DEFAULT_CREATED_AT.toString()))
             .jsonPath("$.updatedAt")
@@ -523,6 +654,7 @@ class PropertyResourceIT {
         insertedProperty = propertyRepository.save(property).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
         propertySearchRepository.save(property).block();
         int searchDatabaseSizeBefore = IterableUtil.sizeOf(propertySearchRepository.findAll().collectList().block());
 
@@ -541,6 +673,8 @@ class PropertyResourceIT {
             .buildYear(UPDATED_BUILD_YEAR)
             .parkingYn(UPDATED_PARKING_YN)
             .description(UPDATED_DESCRIPTION)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
 
@@ -555,6 +689,7 @@ class PropertyResourceIT {
 
         // Validate the Property in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedPropertyUpdatedSince(updatedProperty, since);
         assertPersistedPropertyToMatchAllProperties(updatedProperty);
 
         await()
@@ -643,6 +778,7 @@ class PropertyResourceIT {
         insertedProperty = propertyRepository.save(property).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         // Update the property using partial update
         Property partialUpdatedProperty = new Property();
@@ -654,6 +790,8 @@ class PropertyResourceIT {
             .rooms(UPDATED_ROOMS)
             .bathrooms(UPDATED_BATHROOMS)
             .buildYear(UPDATED_BUILD_YEAR)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT);
 
         webTestClient
@@ -668,6 +806,7 @@ class PropertyResourceIT {
         // Validate the Property in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedPropertyUpdatedSince(partialUpdatedProperty, since);
         assertPropertyUpdatableFieldsEquals(createUpdateProxyForBean(partialUpdatedProperty, property), getPersistedProperty(property));
     }
 
@@ -677,6 +816,7 @@ class PropertyResourceIT {
         insertedProperty = propertyRepository.save(property).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         // Update the property using partial update
         Property partialUpdatedProperty = new Property();
@@ -695,6 +835,8 @@ class PropertyResourceIT {
             .buildYear(UPDATED_BUILD_YEAR)
             .parkingYn(UPDATED_PARKING_YN)
             .description(UPDATED_DESCRIPTION)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE)
             .createdAt(UPDATED_CREATED_AT)
             .updatedAt(UPDATED_UPDATED_AT);
 
@@ -710,6 +852,7 @@ class PropertyResourceIT {
         // Validate the Property in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedPropertyUpdatedSince(partialUpdatedProperty, since);
         assertPropertyUpdatableFieldsEquals(partialUpdatedProperty, getPersistedProperty(partialUpdatedProperty));
     }
 
@@ -847,12 +990,457 @@ class PropertyResourceIT {
             .value(hasItem(DEFAULT_PARKING_YN))
             .jsonPath("$.[*].description")
             .value(hasItem(DEFAULT_DESCRIPTION))
+            .jsonPath("$.[*].latitude")
+            .value(hasItem(DEFAULT_LATITUDE.doubleValue()))
+            .jsonPath("$.[*].longitude")
+            .value(hasItem(DEFAULT_LONGITUDE.doubleValue()))
             .jsonPath("$.[*].createdAt")
             .value(hasItem(DEFAULT_CREATED_AT.toString()))
             .jsonPath("$.[*].updatedAt")
             .value(hasItem(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    void searchPropertyWithCriteria() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+        propertySearchRepository.save(property).block();
+        String byId = ENTITY_SEARCH_API_URL + "?id.equals=" + property.getId();
+        String matching = "&regionCd.equals=" + DEFAULT_REGION_CD + "&type.in=" + DEFAULT_TYPE + ",OTHER&area.greaterThanOrEqual=1";
+
+        webTestClient
+            .get()
+            .uri(byId + matching)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Total-Count-Estimated")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(property.getId().intValue()));
+
+        webTestClient
+            .get()
+            .uri(byId + "&area.greaterThan=" + DEFAULT_AREA)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(0);
+
+        webTestClient
+            .get()
+            .uri(byId + "&parkingYn.notEquals=" + DEFAULT_PARKING_YN)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(0);
+    }
+
+    @Test
+    void facetedSearchProperty() throws Exception {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+        propertySearchRepository.save(property).block();
+        PropertyCriteria criteria = new PropertyCriteria();
+        criteria.id().setEquals(property.getId());
+        criteria.rooms().setLessThanOrEqual(DEFAULT_ROOMS);
+
+        webTestClient
+            .post()
+            .uri(ENTITY_SEARCH_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(criteria))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(1)
+            .jsonPath("$.totalExact")
+            .isEqualTo(true)
+            .jsonPath("$.hits[0].id")
+            .isEqualTo(property.getId().intValue())
+            .jsonPath("$.facets.type[0].key")
+            .isEqualTo(DEFAULT_TYPE)
+            .jsonPath("$.facets.type[0].count")
+            .isEqualTo(1)
+            .jsonPath("$.facets.area[0].count")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void searchPropertyByCursor() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+        propertySearchRepository.save(property).block();
+        String byId = ENTITY_SEARCH_API_URL + "?size=1&id.equals=" + property.getId();
+
+        String next = webTestClient
+            .get()
+            .uri(byId + "&cursor=")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(property.getId().intValue()))
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+        assertThat(next).isNotNull();
+
+        webTestClient
+            .get()
+            .uri(byId + "&cursor=" + next)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(0);
+
+        webTestClient.get().uri(byId + "&cursor=invalid").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchPropertyWithinDistance() {
+        // Initialize the database
+        String byId = insertLocatedProperty();
+
+        // Search the properties around a nearby point, by distance
+        webTestClient
+            .get()
+            .uri(byId + "&latitude=37.56&longitude=126.97&distance=1km&sort=distance,asc")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(property.getId().intValue()));
+
+        // Search the properties around a distant point
+        webTestClient
+            .get()
+            .uri(byId + "&latitude=35.1&longitude=129.04&distance=1km")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEmpty();
+    }
+
+    @Test
+    void searchPropertyWithinBoundingBox() {
+        // Initialize the database
+        String byId = insertLocatedProperty();
+
+        webTestClient
+            .get()
+            .uri(byId + "&north=37.56&south=37.55&west=126.96&east=126.98")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(property.getId().intValue()));
+
+        // The box just north of the property
+        webTestClient
+            .get()
+            .uri(byId + "&north=37.57&south=37.56&west=126.96&east=126.98")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEmpty();
+    }
+
+    @Test
+    void searchPropertyWithinPolygon() {
+        // Initialize the database
+        String byId = insertLocatedProperty();
+
+        // A triangle pointing south, given as latitudes and longitudes and closed by the search
+        webTestClient
+            .get()
+            .uri(byId + "&polygon=37.56,126.96,37.56,126.98,37.55,126.97")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(property.getId().intValue()));
+
+        // The same triangle further east
+        webTestClient
+            .get()
+            .uri(byId + "&polygon=37.56,126.98,37.56,127.0,37.55,126.99")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEmpty();
+    }
+
+    @Test
+    void facetedSearchPropertyByGeohash() throws Exception {
+        // Initialize the database
+        insertLocatedProperty();
+        PropertyCriteria criteria = new PropertyCriteria();
+        criteria.id().setEquals(property.getId());
+
+        webTestClient
+            .post()
+            .uri(ENTITY_SEARCH_API_URL + "?geohashPrecision=5")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(criteria))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.facets.location.length()")
+            .isEqualTo(1)
+            .jsonPath("$.facets.location[0].key")
+            .isEqualTo("wydm9")
+            .jsonPath("$.facets.location[0].count")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void searchPropertyWithInvalidGeoCriteria() {
+        for (String geo : List.of(
+            "polygon=37.56,126.96,37.56,126.98",
+            "polygon=37.56,126.96,37.56,126.98,37.55",
+            "north=37.55&south=37.56&west=126.96&east=126.98",
+            "north=37.56&south=37.55&west=126.96",
+            "geohashPrecision=13"
+        )) {
+            webTestClient
+                .get()
+                .uri(ENTITY_SEARCH_API_URL + "?query=*&" + geo)
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody()
+                .jsonPath("$.message")
+                .isEqualTo("error.geoinvalid");
+        }
+
+        webTestClient
+            .post()
+            .uri(ENTITY_SEARCH_API_URL + "?geohashPrecision=13")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getPropertyTransactionsByCursor() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+        List<Long> transactionIds = insertTransactions(insertedProperty, 3);
+        String url = ENTITY_API_URL_ID + "/transactions?size=2";
+
+        // The most recent transactions first
+        String next = webTestClient
+            .get()
+            .uri(url, property.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(List.of(transactionIds.get(2).intValue(), transactionIds.get(1).intValue()))
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+        assertThat(next).isNotNull();
+
+        webTestClient
+            .get()
+            .uri(url + "&cursor=" + next, property.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(List.of(transactionIds.get(0).intValue()));
+
+        webTestClient
+            .get()
+            .uri(url + "&sort=transactionDate,asc", property.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(List.of(transactionIds.get(0).intValue(), transactionIds.get(1).intValue()));
+
+        webTestClient.get().uri(url + "&sort=price", property.getId()).exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri(url, Long.MAX_VALUE).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAllPropertiesByCursorSortedById() {
+        // Initialize the database
+        List<Long> ids = insertPropertiesWithFloors(3, null, 1, null, 3, 2, null).stream().map(Property::getId).sorted().toList();
+
+        assertThat(getAllPropertyIdsByCursor("id,asc")).containsExactlyElementsOf(ids);
+        assertThat(getAllPropertyIdsByCursor("id,desc")).containsExactlyElementsOf(ids.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    void getAllPropertiesByCursorSortedByNullableFloor() {
+        // Initialize the database, the pages of 2 end inside the runs of NULL and of equal floors
+        List<Property> properties = insertPropertiesWithFloors(3, null, 1, null, 3, 2, null);
+        // MySQL sorts NULL first in ascending order and last in descending order
+        Comparator<Property> byFloor = Comparator.comparing(Property::getFloor, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Property::getId);
+
+        assertThat(getAllPropertyIdsByCursor("floor,asc")).containsExactlyElementsOf(
+            properties.stream().sorted(byFloor).map(Property::getId).toList()
+        );
+        assertThat(getAllPropertyIdsByCursor("floor,desc")).containsExactlyElementsOf(
+            properties.stream().sorted(byFloor.reversed()).map(Property::getId).toList()
+        );
+    }
+
+    @Test
+    void getAllPropertiesByInvalidCursor() {
+        String unknownSortProperty = Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString("1|unknown|ASC|I|1".getBytes(StandardCharsets.UTF_8));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=invalid")
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.cursorinvalid");
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=" + unknownSortProperty)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.cursorinvalid");
+    }
+
+    @Test
+    void multiGetProperties() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+        Property other = propertyRepository.save(createUpdatedEntity()).block();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_mget")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of(other.getId(), Long.MAX_VALUE, property.getId(), other.getId()))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(List.of(other.getId().intValue(), property.getId().intValue()));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_mget")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of())
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getPropertiesWithTransactions() {
+        // Initialize the database
+        insertedProperty = propertyRepository.save(property).block();
+        Property other = propertyRepository.save(createUpdatedEntity()).block();
+        List<Long> transactionIds = insertTransactions(insertedProperty, 2);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/_with-transactions?ids={ids}", other.getId() + "," + Long.MAX_VALUE + "," + property.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].property.id")
+            .isEqualTo(List.of(other.getId().intValue(), property.getId().intValue()))
+            .jsonPath("$[0].transactions.length()")
+            .isEqualTo(0)
+            .jsonPath("$[1].transactions[*].id")
+            .isEqualTo(List.of(transactionIds.get(1).intValue(), transactionIds.get(0).intValue()));
+
+        webTestClient.get().uri(ENTITY_API_URL + "/_with-transactions?ids=").exchange().expectStatus().isBadRequest();
+    }
+
+    /**
+     * Inserts transactions of a property on consecutive days.
+     *
+     * @return the ids of the transactions, the oldest first.
+     */
+    /**
+     * Saves and indexes the property at Seoul station, with the mapping computing its geo point.
+     *
+     * @return the search url restricted to the property.
+     */
+    private String insertLocatedProperty() {
+        propertySearchRepository.putMapping().block();
+        property.latitude(37.5547).longitude(126.9707);
+        insertedProperty = propertyRepository.save(property).block();
+        propertySearchRepository.save(property).block();
+        return ENTITY_SEARCH_API_URL + "?query=id:" + property.getId();
+    }
+
+    private List<Property> insertPropertiesWithFloors(Integer... floors) {
+        return Flux.fromArray(floors).concatMap(floor -> propertyRepository.save(createEntity().floor(floor))).collectList().block();
+    }
+
+    private List<Long> getAllPropertyIdsByCursor(String sort) {
+        return TestUtil.getAllIdsByCursor(webTestClient, ENTITY_API_URL + "?size=2&sort=" + sort, Property.class, Property::getId);
+    }
+
+    private List<Long> insertTransactions(Property property, int count) {
+        return Flux.range(0, count)
+            .concatMap(day ->
+                transactionRepository.save(
+                    TransactionResourceIT.createEntity()
+                        .propertyId(property.getId())
+                        .transactionDate(Instant.parse("2024-01-01T00:00:00Z").plus(day, ChronoUnit.DAYS))
+                )
+            )
+            .map(Transaction::getId)
+            .collectList()
+            .block();
+    }
+
     protected long getRepositoryCount() {
         return propertyRepository.count().block();
     }
@@ -879,6 +1467,15 @@ class PropertyResourceIT {
         assertPropertyUpdatableFieldsEquals(expectedProperty, getPersistedProperty(expectedProperty));
     }
 
+    /**
+     * Asserts that the persisted property was stamped with the time of its last change, then expects that time.
+     */
+    protected void assertPersistedPropertyUpdatedSince(Property expectedProperty, Instant since) {
+        Instant updatedAt = getPersistedProperty(expectedProperty).getUpdatedAt();
+        assertThat(updatedAt).isBetween(since, Instant.now());
+        expectedProperty.setUpdatedAt(updatedAt);
+    }
+
     protected void assertPersistedPropertyToMatchUpdatableProperties(Property expectedProperty) {
         // Test fails because reactive api returns an empty object instead of null
         // assertPropertyAllUpdatablePropertiesEquals(expectedProperty, getPersistedProperty(expectedProperty));
@@ -4,7 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.broker.KafkaProducer;
 import com.dnc.mprs.propservice.config.EmbeddedKafka;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,6 +19,7 @@ import org.springframework.cloud.stream.binder.test.InputDestination;
 import org.springframework.cloud.stream.binder.test.OutputDestination;
 import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
 import org.springframework.http.MediaType;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.GenericMessage;
@@ -42,6 +45,9 @@ class PropserviceKafkaResourceIT {
     @Autowired
     private OutputDestination output;
 
+    @Autowired
+    private KafkaProducer kafkaProducer;
+
     @BeforeEach
     public void setupCsrf() {
         client = client.mutateWith(csrf());
@@ -59,8 +65,12 @@ class PropserviceKafkaResourceIT {
     }
 
     @Test
-    void producesPooledMessages() throws Exception {
-        assertThat(output.receive(1500, "kafkaProducer-out-0").getPayload()).isEqualTo("kakfa_producer".getBytes());
+    void producesKeyedMessages() {
+        kafkaProducer.send("42", "value-keyed", Map.of("eventType", "CREATED"));
+        Message<byte[]> message = output.receive(1000, KafkaProducer.BINDING_NAME);
+        assertThat(message.getPayload()).isEqualTo("value-keyed".getBytes());
+        assertThat(message.getHeaders().get(KafkaHeaders.KEY)).isEqualTo("42".getBytes(StandardCharsets.UTF_8));
+        assertThat(message.getHeaders().get("eventType")).isEqualTo("CREATED");
     }
 
     @Test
@@ -0,0 +1,202 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.ReindexJob;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.ReindexJobRepository;
+import com.dnc.mprs.propservice.repository.search.ComplexSearchRepository;
+import com.dnc.mprs.propservice.security.AuthoritiesConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.StatusAssertions;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link ReindexEndpoint} actuator endpoint.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class ReindexEndpointIT {
+
+    private static final String REINDEX_API_URL = "/management/reindex";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private ComplexRepository complexRepository;
+
+    @Autowired
+    private ComplexSearchRepository complexSearchRepository;
+
+    @Autowired
+    private ReindexJobRepository reindexJobRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ComplexResourceIT.deleteEntities(em);
+        complexSearchRepository.deleteAll().block();
+        em.deleteAll(ReindexJob.class).block();
+    }
+
+    @Test
+    void reindexesEntitiesMissingFromTheIndex() {
+        Complex complex = complexRepository.save(ComplexResourceIT.createEntity()).block();
+        assertThat(complexSearchRepository.findById(complex.getId()).block()).isNull();
+
+        webTestClient
+            .post()
+            .uri(REINDEX_API_URL + "/complex")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"mode\":\"FULL\"}")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.entityName")
+            .isEqualTo("complex")
+            .jsonPath("$.status")
+            .isEqualTo("RUNNING");
+
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(complexSearchRepository.findById(complex.getId()).block()).isNotNull());
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                webTestClient
+                    .get()
+                    .uri(REINDEX_API_URL)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$[?(@.entityName == 'complex')].status")
+                    .isEqualTo("COMPLETED")
+            );
+    }
+
+    @Test
+    void reindexesEntitiesUpdatedSinceTheLastReindex() throws Exception {
+        Complex updated = complexRepository.save(ComplexResourceIT.createEntity()).block();
+        Complex unchanged = complexRepository.save(ComplexResourceIT.createEntity()).block();
+        startReindex("FULL").isOk();
+        awaitReindexCompleted();
+
+        webTestClient
+            .patch()
+            .uri("/api/complexes/{id}", updated.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(om.writeValueAsBytes(new Complex().id(updated.getId()).complexName("BBBBBBBBBB")))
+            .exchange()
+            .expectStatus()
+            .isOk();
+        complexSearchRepository.deleteAll().block();
+
+        startReindex("INCREMENTAL").isOk();
+        awaitReindexCompleted();
+
+        Complex indexed = complexSearchRepository.findById(updated.getId()).block();
+        assertThat(indexed).isNotNull();
+        assertThat(indexed.getComplexName()).isEqualTo("BBBBBBBBBB");
+        assertThat(complexSearchRepository.findById(unchanged.getId()).block()).isNull();
+    }
+
+    @Test
+    void reindexClaimedByAnotherInstanceIsNotStarted() {
+        complexRepository.save(ComplexResourceIT.createEntity()).block();
+        Instant now = Instant.now();
+        ReindexJob job = reindexJobRepository
+            .save(
+                new ReindexJob()
+                    .entityName("complex")
+                    .mode(ReindexJob.Mode.FULL)
+                    .status(ReindexJob.Status.RUNNING)
+                    .indexed(0L)
+                    .total(1L)
+                    .startedAt(now)
+                    .updatedAt(now)
+            )
+            .block();
+        String otherInstance = UUID.randomUUID().toString();
+        assertThat(reindexJobRepository.claim(job.getId(), otherInstance, now.plus(1, ChronoUnit.MINUTES), now).block()).isEqualTo(1L);
+
+        // neither the job of the other instance is resumed, nor a job of another mode started
+        startReindex("FULL").isBadRequest();
+        startReindex("INCREMENTAL").isBadRequest();
+        assertThat(reindexJobRepository.findAll().collectList().block()).extracting(ReindexJob::getId).containsExactly(job.getId());
+
+        // once the claim of the other instance expires, the job is resumed here
+        reindexJobRepository.claim(job.getId(), otherInstance, now.minus(1, ChronoUnit.SECONDS), now).block();
+
+        startReindex("FULL").isOk();
+        awaitReindexCompleted();
+        assertThat(reindexJobRepository.findById(job.getId()).block().getStatus()).isEqualTo(ReindexJob.Status.COMPLETED);
+    }
+
+    private StatusAssertions startReindex(String mode) {
+        return webTestClient
+            .post()
+            .uri(REINDEX_API_URL + "/complex")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"mode\":\"" + mode + "\"}")
+            .exchange()
+            .expectStatus();
+    }
+
+    private void awaitReindexCompleted() {
+        await()
+            .atMost(10, TimeUnit.SECONDS)
+            .untilAsserted(() ->
+                webTestClient
+                    .get()
+                    .uri(REINDEX_API_URL)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$[?(@.entityName == 'complex')].status")
+                    .isEqualTo("COMPLETED")
+            );
+    }
+
+    @Test
+    void rejectsUnknownEntity() {
+        webTestClient
+            .post()
+            .uri(REINDEX_API_URL + "/unknown")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{}")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+}
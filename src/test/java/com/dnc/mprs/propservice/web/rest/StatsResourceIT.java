@@ -0,0 +1,285 @@
+package com.dnc.mprs.propservice.web.rest;
+
+import static com.dnc.mprs.propservice.web.rest.TestUtil.sameNumber;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.dnc.mprs.propservice.IntegrationTest;
+import com.dnc.mprs.propservice.domain.Complex;
+import com.dnc.mprs.propservice.domain.Property;
+import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.TransactionRollup;
+import com.dnc.mprs.propservice.repository.ComplexRepository;
+import com.dnc.mprs.propservice.repository.EntityManager;
+import com.dnc.mprs.propservice.repository.PropertyRepository;
+import com.dnc.mprs.propservice.security.AuthoritiesConstants;
+import com.dnc.mprs.propservice.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Integration tests for the {@link StatsResource} REST controller and the {@link RollupsEndpoint} actuator endpoint.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+class StatsResourceIT {
+
+    private static final String REGION_CD = "1111010100";
+
+    private static final Instant TRANSACTION_DATE = Instant.parse("2024-05-10T00:00:00Z");
+
+    private static final String REGION_STATS_API_URL = "/api/stats/regions/{regionCd}/transactions?from=2024-01&to=2024-12";
+    private static final String COMPLEX_STATS_API_URL = "/api/stats/complexes/{complexId}/transactions?from=2024-05&to=2024-05";
+    private static final String COMPLEX_PRICES_API_URL = "/api/stats/complexes/{complexId}/prices?from=2024-01&to=2024-12";
+    private static final String TRANSACTION_API_URL = "/api/transactions";
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private ComplexRepository complexRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Complex complex;
+
+    private Property property;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = webTestClient.mutateWith(csrf());
+        complex = complexRepository.save(ComplexResourceIT.createEntity()).block();
+        Property newProperty = PropertyResourceIT.createEntity().regionCd(REGION_CD).area(new BigDecimal("10"));
+        newProperty.setComplexId(complex.getId());
+        property = propertyRepository.save(newProperty).block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        TransactionResourceIT.deleteEntities(em);
+        PropertyResourceIT.deleteEntities(em);
+        ComplexResourceIT.deleteEntities(em);
+        em.deleteAll(TransactionRollup.class).block();
+    }
+
+    private Transaction createTransaction(String price) throws Exception {
+        Transaction transaction = TransactionResourceIT.createEntity()
+            .propertyId(property.getId())
+            .price(new BigDecimal(price))
+            .transactionDate(TRANSACTION_DATE);
+        return webTestClient
+            .post()
+            .uri(TRANSACTION_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(transaction))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Transaction.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    @Test
+    void createdTransactionsAreAggregated() throws Exception {
+        createTransaction("100");
+        createTransaction("300");
+
+        webTestClient
+            .get()
+            .uri(REGION_STATS_API_URL, REGION_CD)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$[0].period")
+            .isEqualTo("2024-05")
+            .jsonPath("$[0].transactionCount")
+            .isEqualTo(2)
+            .jsonPath("$[0].priceMin")
+            .value(is(sameNumber(new BigDecimal("100"))))
+            .jsonPath("$[0].priceMax")
+            .value(is(sameNumber(new BigDecimal("300"))))
+            .jsonPath("$[0].priceAverage")
+            .value(is(sameNumber(new BigDecimal("200"))))
+            .jsonPath("$[0].pricePerAreaAverage")
+            .value(is(sameNumber(new BigDecimal("20"))));
+    }
+
+    @Test
+    void deletedTransactionIsRemovedFromItsBuckets() throws Exception {
+        createTransaction("100");
+        Transaction expensive = createTransaction("300");
+
+        webTestClient.delete().uri(TRANSACTION_API_URL + "/{id}", expensive.getId()).exchange().expectStatus().isNoContent();
+
+        webTestClient
+            .get()
+            .uri(COMPLEX_STATS_API_URL, complex.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].transactionCount")
+            .isEqualTo(1)
+            .jsonPath("$[0].priceMax")
+            .value(is(sameNumber(new BigDecimal("100"))));
+    }
+
+    @Test
+    void changedTransactionIsAdjustedInItsBuckets() throws Exception {
+        createTransaction("100");
+        Transaction middle = createTransaction("200");
+        createTransaction("300");
+
+        webTestClient
+            .put()
+            .uri(TRANSACTION_API_URL + "/{id}", middle.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(middle.price(new BigDecimal("260"))))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(COMPLEX_STATS_API_URL, complex.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].transactionCount")
+            .isEqualTo(3)
+            .jsonPath("$[0].priceMin")
+            .value(is(sameNumber(new BigDecimal("100"))))
+            .jsonPath("$[0].priceMax")
+            .value(is(sameNumber(new BigDecimal("300"))))
+            .jsonPath("$[0].priceAverage")
+            .value(is(sameNumber(new BigDecimal("220"))))
+            .jsonPath("$[0].pricePerAreaAverage")
+            .value(is(sameNumber(new BigDecimal("22"))));
+    }
+
+    @Test
+    void concurrentTransactionsOfANewBucketAreAllAggregated() {
+        int concurrency = 8;
+        Flux.range(0, concurrency)
+            .flatMap(i ->
+                transactionService.save(
+                    TransactionResourceIT.createEntity()
+                        .propertyId(property.getId())
+                        .price(new BigDecimal("100").add(BigDecimal.valueOf(i)))
+                        .transactionDate(TRANSACTION_DATE)
+                )
+            )
+            .blockLast();
+
+        webTestClient
+            .get()
+            .uri(COMPLEX_STATS_API_URL, complex.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$[0].transactionCount")
+            .isEqualTo(concurrency)
+            .jsonPath("$[0].priceMax")
+            .value(is(sameNumber(new BigDecimal("107"))));
+    }
+
+    @Test
+    void priceQuantilesAreEstimated() throws Exception {
+        createTransaction("100");
+        createTransaction("200");
+        createTransaction("300");
+
+        webTestClient
+            .get()
+            .uri("/api/stats/regions/{regionCd}/prices?from=2024-01&to=2024-12&quantiles=0.5&merged=true&subregions=true", "11")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$[0].transactionCount")
+            .isEqualTo(3)
+            .jsonPath("$[0].quantiles[0].quantile")
+            .isEqualTo(0.5)
+            .jsonPath("$[0].quantiles[0].price")
+            .value(price -> assertThat(((Number) price).doubleValue()).isCloseTo(200, within(2.0)));
+
+        webTestClient
+            .get()
+            .uri(COMPLEX_PRICES_API_URL, complex.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].from")
+            .isEqualTo("2024-05")
+            .jsonPath("$[0].quantiles.length()")
+            .isEqualTo(3);
+    }
+
+    @Test
+    void invalidQuantileIsRejected() {
+        webTestClient.get().uri(COMPLEX_PRICES_API_URL + "&quantiles=1.5", complex.getId()).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void invalidRangeIsRejected() {
+        webTestClient
+            .get()
+            .uri("/api/stats/regions/{regionCd}/transactions?from=2024-12&to=2024-01", REGION_CD)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void rollupsAreRebuilt() throws Exception {
+        createTransaction("100");
+        em.deleteAll(TransactionRollup.class).block();
+
+        webTestClient.post().uri("/management/rollups").exchange().expectStatus().isOk().expectBody().jsonPath("$.rollups").isEqualTo(2);
+
+        webTestClient
+            .get()
+            .uri(REGION_STATS_API_URL, REGION_CD)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].transactionCount")
+            .isEqualTo(1);
+    }
+}
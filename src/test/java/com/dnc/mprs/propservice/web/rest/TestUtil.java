@@ -11,13 +11,18 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.hamcrest.TypeSafeMatcher;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
 
 /**
  * Utility class for testing REST controllers.
@@ -165,6 +170,38 @@ public final class TestUtil {
         return allQuery.getResultList();
     }
 
+    /**
+     * Walks all the pages of a keyset paginated endpoint, following the {@code X-Next-Cursor} header from the first page to the
+     * last one.
+     *
+     * @param <T> The type of the entities
+     * @param webTestClient the client of the application
+     * @param uri the uri of the first page, with its query string but without the cursor parameter
+     * @param type the class of the entities
+     * @param idOf the function returning the id of an entity
+     * @return the ids of the entities of all the pages, in the order they were returned
+     */
+    public static <T> List<Long> getAllIdsByCursor(WebTestClient webTestClient, String uri, Class<T> type, Function<T, Long> idOf) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            EntityExchangeResult<List<T>> page = webTestClient
+                .get()
+                .uri(uri + "&cursor=" + cursor)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(type)
+                .returnResult();
+            page.getResponseBody().forEach(entity -> ids.add(idOf.apply(entity)));
+            // a page returned twice would loop forever
+            assertThat(ids).doesNotHaveDuplicates();
+            cursor = page.getResponseHeaders().getFirst("X-Next-Cursor");
+        }
+        return ids;
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T createUpdateProxyForBean(T update, T original) {
         Enhancer e = new Enhancer();
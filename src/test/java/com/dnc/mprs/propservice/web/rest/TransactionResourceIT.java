@@ -12,14 +12,19 @@ import static org.springframework.security.test.web.reactive.server.SecurityMock
 
 import com.dnc.mprs.propservice.IntegrationTest;
 import com.dnc.mprs.propservice.domain.Transaction;
+import com.dnc.mprs.propservice.domain.criteria.TransactionCriteria;
 import com.dnc.mprs.propservice.repository.EntityManager;
 import com.dnc.mprs.propservice.repository.TransactionRepository;
 import com.dnc.mprs.propservice.repository.search.TransactionSearchRepository;
+import com.dnc.mprs.propservice.service.dto.BulkItemResult;
+import com.dnc.mprs.propservice.web.util.CsvUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -33,6 +38,7 @@ import org.springframework.data.util.Streamable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
 /**
  * Integration tests for the {@link TransactionResource} REST controller.
@@ -72,6 +78,8 @@ class TransactionResourceIT {
     private static final String ENTITY_API_URL = "/api/transactions";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/transactions/_search";
+    private static final String ENTITY_BULK_API_URL = "/api/transactions/_bulk";
+    private static final String ENTITY_EXPORT_API_URL = "/api/transactions/_export";
 
     private static Random random = new Random();
     private static AtomicLong longCount = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -336,6 +344,43 @@ class TransactionResourceIT {
         assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore);
     }
 
+    @Test
+    void bulkSaveTransactions() throws Exception {
+        // Initialize the database
+        insertedTransaction = transactionRepository.save(transaction).block();
+
+        long databaseSizeBeforeBulk = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Transaction updatedTransaction = createUpdatedEntity();
+        updatedTransaction.setId(insertedTransaction.getId());
+        Transaction invalidTransaction = createEntity().price(null);
+
+        List<BulkItemResult> results = webTestClient
+            .post()
+            .uri(ENTITY_BULK_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(List.of(createEntity(), updatedTransaction, invalidTransaction)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(BulkItemResult.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(results)
+            .extracting(BulkItemResult::getStatus)
+            .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.UPDATED, BulkItemResult.Status.FAILED);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getId()).isEqualTo(insertedTransaction.getId());
+        assertThat(results.get(2).getError()).contains("price");
+        assertThat(getRepositoryCount()).isEqualTo(databaseSizeBeforeBulk + 1);
+        assertPersistedTransactionUpdatedSince(updatedTransaction, since);
+        assertPersistedTransactionToMatchUpdatableProperties(updatedTransaction);
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(transactionSearchRepository.findById(results.get(0).getId()).block()).isNotNull());
+    }
+
     @Test
     void getAllTransactions() {
         // Initialize the database
@@ -374,6 +419,33 @@ class TransactionResourceIT {
             .value(hasItem(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    void getAllTransactionsByCursorSortedById() {
+        // Initialize the database
+        List<Transaction> transactions = insertTransactionsWithAgents("b", null, "a", null, "b", "c", null);
+        List<Long> ids = transactions.stream().map(Transaction::getId).sorted().toList();
+
+        assertThat(getAllTransactionIdsByCursor("id,asc")).containsExactlyElementsOf(ids);
+        assertThat(getAllTransactionIdsByCursor("id,desc")).containsExactlyElementsOf(
+            ids.stream().sorted(Comparator.reverseOrder()).toList()
+        );
+    }
+
+    @Test
+    void getAllTransactionsByCursorSortedByNullableAgent() {
+        // Initialize the database, the pages of 2 end inside the runs of NULL and of equal agents
+        List<Transaction> transactions = insertTransactionsWithAgents("b", null, "a", null, "b", "c", null);
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        Comparator<Transaction> byAgent = Comparator.comparing(Transaction::getAgent, nullsFirst).thenComparing(Transaction::getId);
+
+        assertThat(getAllTransactionIdsByCursor("agent,asc")).containsExactlyElementsOf(
+            transactions.stream().sorted(byAgent).map(Transaction::getId).toList()
+        );
+        assertThat(getAllTransactionIdsByCursor("agent,desc")).containsExactlyElementsOf(
+            transactions.stream().sorted(byAgent.reversed()).map(Transaction::getId).toList()
+        );
+    }
+
     @Test
     void getTransaction() {
         // Initialize the database
@@ -424,12 +496,41 @@ class TransactionResourceIT {
             .isNotFound();
     }
 
+    @Test
+    void multiGetTransactions() {
+        // Initialize the database
+        insertedTransaction = transactionRepository.save(transaction).block();
+        Transaction other = transactionRepository.save(createUpdatedEntity()).block();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_mget")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of(other.getId(), Long.MAX_VALUE, transaction.getId(), other.getId()))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(List.of(other.getId().intValue(), transaction.getId().intValue()));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/_mget")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of())
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void putExistingTransaction() throws Exception {
         // Initialize the database
         insertedTransaction = transactionRepository.save(transaction).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
         transactionSearchRepository.save(transaction).block();
         int searchDatabaseSizeBefore = IterableUtil.sizeOf(transactionSearchRepository.findAll().collectList().block());
 
@@ -457,6 +558,7 @@ class TransactionResourceIT {
 
         // Validate the Transaction in the database
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedTransactionUpdatedSince(updatedTransaction, since);
         assertPersistedTransactionToMatchAllProperties(updatedTransaction);
 
         await()
@@ -547,6 +649,7 @@ class TransactionResourceIT {
         insertedTransaction = transactionRepository.save(transaction).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         // Update the transaction using partial update
         Transaction partialUpdatedTransaction = new Transaction();
@@ -566,6 +669,7 @@ class TransactionResourceIT {
         // Validate the Transaction in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedTransactionUpdatedSince(partialUpdatedTransaction, since);
         assertTransactionUpdatableFieldsEquals(
             createUpdateProxyForBean(partialUpdatedTransaction, transaction),
             getPersistedTransaction(transaction)
@@ -578,6 +682,7 @@ class TransactionResourceIT {
         insertedTransaction = transactionRepository.save(transaction).block();
 
         long databaseSizeBeforeUpdate = getRepositoryCount();
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         // Update the transaction using partial update
         Transaction partialUpdatedTransaction = new Transaction();
@@ -606,6 +711,7 @@ class TransactionResourceIT {
         // Validate the Transaction in the database
 
         assertSameRepositoryCount(databaseSizeBeforeUpdate);
+        assertPersistedTransactionUpdatedSince(partialUpdatedTransaction, since);
         assertTransactionUpdatableFieldsEquals(partialUpdatedTransaction, getPersistedTransaction(partialUpdatedTransaction));
     }
 
@@ -739,6 +845,147 @@ class TransactionResourceIT {
             .value(hasItem(DEFAULT_UPDATED_AT.toString()));
     }
 
+    @Test
+    void facetedSearchTransaction() throws Exception {
+        // Initialize the database
+        insertedTransaction = transactionRepository.save(transaction).block();
+        transactionSearchRepository.save(transaction).block();
+        TransactionCriteria criteria = new TransactionCriteria();
+        criteria.id().setEquals(transaction.getId());
+        criteria.transactionType().setEquals(DEFAULT_TRANSACTION_TYPE);
+        criteria.transactionDate().setLessThan(DEFAULT_TRANSACTION_DATE.plusSeconds(1));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_SEARCH_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(criteria))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(1)
+            .jsonPath("$.facets.transactionType[0].key")
+            .isEqualTo(DEFAULT_TRANSACTION_TYPE)
+            .jsonPath("$.facets.price[0].count")
+            .isEqualTo(1)
+            .jsonPath("$.facets.transactionDate[0].key")
+            .isEqualTo("1970-01");
+
+        criteria.price().setGreaterThan(DEFAULT_PRICE);
+        webTestClient
+            .post()
+            .uri(ENTITY_SEARCH_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(om.writeValueAsBytes(criteria))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.total")
+            .isEqualTo(0);
+    }
+
+    @Test
+    void exportTransactions() {
+        // Initialize the database
+        insertedTransaction = transactionRepository.save(transaction.buyer("Kim, \"Jr\"")).block();
+
+        // Export the transactions of the first day of the epoch
+        String csv = webTestClient
+            .get()
+            .uri(ENTITY_EXPORT_API_URL + "?from=1970-01-01T00:00:00Z&to=1970-01-02T00:00:00Z")
+            .accept(CsvUtil.TEXT_CSV_UTF8)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(CsvUtil.TEXT_CSV_UTF8)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(csv).startsWith(
+            "id,property_id,complex_id,region_cd,transaction_type,price,transaction_date,buyer,seller,agent,created_at,updated_at\r\n"
+        );
+        assertThat(csv).contains(
+            "\r\n" +
+            transaction.getId() +
+            "," +
+            DEFAULT_PROPERTY_ID +
+            ",,," +
+            DEFAULT_TRANSACTION_TYPE +
+            ",1.00," +
+            DEFAULT_TRANSACTION_DATE +
+            ",\"Kim, \"\"Jr\"\"\"," +
+            DEFAULT_SELLER +
+            ","
+        );
+
+        // Resume the export after the transaction, without the header
+        String resumed = webTestClient
+            .get()
+            .uri(ENTITY_EXPORT_API_URL + "?from=1970-01-01T00:00:00Z&to=1970-01-02T00:00:00Z&after=" + transaction.getId())
+            .accept(CsvUtil.TEXT_CSV_UTF8)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(Objects.toString(resumed, "")).doesNotStartWith("id,").doesNotContain("\"Kim, \"\"Jr\"\"\"");
+    }
+
+    @Test
+    void exportTransactionsInPagesWithFormulasEscaped() {
+        // Initialize the database with more transactions than a page
+        List<Long> ids = Flux.range(0, 5)
+            .concatMap(i -> transactionRepository.save(createEntity().seller("=HYPERLINK(\"http://example.com\")").agent("-" + i)))
+            .map(Transaction::getId)
+            .collectList()
+            .block();
+
+        String csv = webTestClient
+            .get()
+            .uri(ENTITY_EXPORT_API_URL + "?from=1970-01-01T00:00:00Z&to=1970-01-02T00:00:00Z&after=" + (ids.get(0) - 1))
+            .accept(CsvUtil.TEXT_CSV_UTF8)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        List<String> lines = List.of(csv.split("\r\n"));
+        assertThat(lines).hasSize(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(lines.get(i))
+                .startsWith(ids.get(i) + ",")
+                .contains(",\"'=HYPERLINK(\"\"http://example.com\"\")\",'-" + i + ",");
+        }
+    }
+
+    @Test
+    void exportTransactionsWithEmptyRange() {
+        webTestClient
+            .get()
+            .uri(ENTITY_EXPORT_API_URL + "?from=1970-01-02T00:00:00Z&to=1970-01-01T00:00:00Z")
+            .accept(CsvUtil.TEXT_CSV_UTF8)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private List<Transaction> insertTransactionsWithAgents(String... agents) {
+        return Flux.fromArray(agents).concatMap(agent -> transactionRepository.save(createEntity().agent(agent))).collectList().block();
+    }
+
+    private List<Long> getAllTransactionIdsByCursor(String sort) {
+        return TestUtil.getAllIdsByCursor(webTestClient, ENTITY_API_URL + "?size=2&sort=" + sort, Transaction.class, Transaction::getId);
+    }
+
     protected long getRepositoryCount() {
         return transactionRepository.count().block();
     }
@@ -765,6 +1012,15 @@ class TransactionResourceIT {
         assertTransactionUpdatableFieldsEquals(expectedTransaction, getPersistedTransaction(expectedTransaction));
     }
 
+    /**
+     * Asserts that the persisted transaction was stamped with the time of its last change, then expects that time.
+     */
+    protected void assertPersistedTransactionUpdatedSince(Transaction expectedTransaction, Instant since) {
+        Instant updatedAt = getPersistedTransaction(expectedTransaction).getUpdatedAt();
+        assertThat(updatedAt).isBetween(since, Instant.now());
+        expectedTransaction.setUpdatedAt(updatedAt);
+    }
+
     protected void assertPersistedTransactionToMatchUpdatableProperties(Transaction expectedTransaction) {
         // Test fails because reactive api returns an empty object instead of null
         // assertTransactionAllUpdatablePropertiesEquals(expectedTransaction, getPersistedTransaction(expectedTransaction));